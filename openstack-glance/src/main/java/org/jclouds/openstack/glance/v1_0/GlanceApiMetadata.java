@@ -18,6 +18,7 @@
  */
 package org.jclouds.openstack.glance.v1_0;
 
+import static org.jclouds.openstack.glance.v1_0.config.GlanceProperties.LIST_PREFETCH_DEPTH;
 import static org.jclouds.openstack.keystone.v2_0.config.KeystoneProperties.CREDENTIAL_TYPE;
 import static org.jclouds.openstack.keystone.v2_0.config.KeystoneProperties.SERVICE_TYPE;
 
@@ -60,6 +61,7 @@ public class GlanceApiMetadata extends BaseHttpApiMetadata<GlanceApi> {
       Properties properties = BaseHttpApiMetadata.defaultProperties();
       properties.setProperty(SERVICE_TYPE, ServiceType.IMAGE);
       properties.setProperty(CREDENTIAL_TYPE, CredentialTypes.PASSWORD_CREDENTIALS);
+      properties.setProperty(LIST_PREFETCH_DEPTH, "0");
       return properties;
    }
 
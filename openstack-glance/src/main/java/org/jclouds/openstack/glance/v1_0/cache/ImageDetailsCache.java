@@ -0,0 +1,193 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.glance.v1_0.cache;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Date;
+import java.util.Map;
+
+import javax.annotation.Resource;
+
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.logging.Logger;
+import org.jclouds.openstack.glance.v1_0.GlanceApi;
+import org.jclouds.openstack.glance.v1_0.domain.Image;
+import org.jclouds.openstack.glance.v1_0.domain.ImageDetails;
+import org.jclouds.openstack.glance.v1_0.features.ImageApi;
+import org.jclouds.openstack.glance.v1_0.options.ListImageOptions;
+import org.jclouds.openstack.keystone.v2_0.domain.PaginatedCollection;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+/**
+ * Keeps the details of every image in a zone, so that schedulers can look images up without
+ * listing the catalogue each time.
+ * <p/>
+ * The first {@link #refresh()} lists every image. Later ones only list images changed since the
+ * newest change already seen, using {@link ListImageOptions#changesSince(Date)}; Glance includes
+ * deleted images in such listings, and they are removed from the cache. The point of the last sync
+ * comes from the images' own timestamps, so the client clock does not matter.
+ * <p/>
+ * Reads don't lock: each refresh publishes a new immutable snapshot, and readers see either the
+ * previous snapshot or the new one in full.
+ * 
+ * @author Adrian Cole
+ */
+public class ImageDetailsCache {
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   private final ImageApi imageApi;
+
+   private volatile ImmutableMap<String, ImageDetails> snapshot = ImmutableMap.of();
+   private volatile Indexed indexed;
+   // guarded by this
+   private Date lastSync;
+
+   public ImageDetailsCache(GlanceApi api, @Nullable String zone) {
+      this(checkNotNull(api, "api").getImageApiForZone(zone));
+   }
+
+   public ImageDetailsCache(ImageApi imageApi) {
+      this.imageApi = checkNotNull(imageApi, "imageApi");
+   }
+
+   /**
+    * Brings the cache up to date with Glance.
+    * 
+    * @return the number of images added, changed or removed
+    */
+   public synchronized int refresh() {
+      Map<String, ImageDetails> images;
+      int changes = 0;
+      Date since = lastSync;
+      // only published with the snapshot, so that a failed listing is read again in full
+      Date newest = since;
+      if (since == null) {
+         images = Maps.newHashMap();
+         for (ImageDetails image : imageApi.listInDetail().concat()) {
+            if (isDeleted(image))
+               continue;
+            images.put(image.getId(), image);
+            newest = newest(newest, image);
+            changes++;
+         }
+      } else {
+         images = Maps.newHashMap(snapshot);
+         ListImageOptions options = new ListImageOptions().changesSince(since);
+         while (true) {
+            PaginatedCollection<? extends ImageDetails> page = imageApi.listInDetail(options);
+            for (ImageDetails image : page) {
+               if (isDeleted(image)) {
+                  if (images.remove(image.getId()) != null)
+                     changes++;
+               } else if (!image.equals(images.put(image.getId(), image))) {
+                  // images changed in the same second as the last sync are listed again, unchanged
+                  changes++;
+               }
+               newest = newest(newest, image);
+            }
+            Optional<Object> next = page.nextMarker();
+            if (!next.isPresent())
+               break;
+            options = new ListImageOptions().changesSince(since).marker(next.get().toString());
+         }
+         if (changes == 0) {
+            lastSync = newest;
+            return 0;
+         }
+      }
+      snapshot = ImmutableMap.copyOf(images);
+      lastSync = newest;
+      logger.debug("<< refreshed %s images since %s: %s changes", snapshot.size(), since, changes);
+      return changes;
+   }
+
+   /**
+    * @return the cached image, or null if there is no such image as of the last refresh
+    */
+   @Nullable
+   public ImageDetails get(String id) {
+      return snapshot.get(checkNotNull(id, "id"));
+   }
+
+   /**
+    * @return every image as of the last refresh, keyed by id; the map does not change afterwards
+    */
+   public ImmutableMap<String, ImageDetails> asMap() {
+      return snapshot;
+   }
+
+   /**
+    * @return an index over every image as of the last refresh, built on first use after it
+    */
+   public ImageIndex index() {
+      ImmutableMap<String, ImageDetails> images = snapshot;
+      Indexed current = indexed;
+      if (current == null || current.images != images) {
+         // racing readers may each build an index of the same snapshot; either one will do
+         current = new Indexed(images);
+         indexed = current;
+      }
+      return current.index;
+   }
+
+   /**
+    * @return the newest change seen, or null before the first refresh that found an image
+    */
+   @Nullable
+   public synchronized Date getLastSync() {
+      return lastSync;
+   }
+
+   /**
+    * Drops every image, so that the next refresh lists the whole catalogue again.
+    */
+   public synchronized void invalidateAll() {
+      snapshot = ImmutableMap.of();
+      lastSync = null;
+   }
+
+   private static boolean isDeleted(ImageDetails image) {
+      return image.getDeletedAt().isPresent() || image.getStatus() == Image.Status.DELETED
+            || image.getStatus() == Image.Status.PENDING_DELETE;
+   }
+
+   private static Date newest(@Nullable Date newest, ImageDetails image) {
+      Date changed = image.getDeletedAt().or(image.getUpdatedAt());
+      return newest == null || changed.after(newest) ? changed : newest;
+   }
+
+   /**
+    * An index and the snapshot it was built from.
+    */
+   private static class Indexed {
+      private final ImmutableMap<String, ImageDetails> images;
+      private final ImageIndex index;
+
+      private Indexed(ImmutableMap<String, ImageDetails> images) {
+         this.images = images;
+         this.index = ImageIndex.of(images.values());
+      }
+   }
+}
@@ -0,0 +1,413 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.glance.v1_0.cache;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.jclouds.openstack.glance.v1_0.domain.ContainerFormat;
+import org.jclouds.openstack.glance.v1_0.domain.DiskFormat;
+import org.jclouds.openstack.glance.v1_0.domain.Image;
+import org.jclouds.openstack.glance.v1_0.domain.ImageDetails;
+
+import com.google.common.base.Function;
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.primitives.Ints;
+
+/**
+ * Answers the filters of {@link org.jclouds.openstack.glance.v1_0.options.ListImageOptions} over
+ * images already in memory, such as those of an {@link ImageDetailsCache}.
+ * <p/>
+ * Images are indexed by status, disk format, container format, owner and visibility, and sorted by
+ * size, minimum ram and minimum disk. A query starts from whichever of its filters matches the
+ * fewest images, and checks the rest of its filters on just those. The index is immutable, so any
+ * number of threads may query it.
+ * 
+ * @author Adrian Cole
+ */
+public class ImageIndex {
+
+   public static ImageIndex of(Iterable<? extends ImageDetails> images) {
+      return new ImageIndex(Iterables.toArray(checkNotNull(images, "images"), ImageDetails.class));
+   }
+
+   private static final int[] NONE = new int[0];
+
+   private final ImageDetails[] images;
+   private final Map<Image.Status, int[]> byStatus;
+   private final Map<DiskFormat, int[]> byDiskFormat;
+   private final Map<ContainerFormat, int[]> byContainerFormat;
+   private final Map<String, int[]> byOwner;
+   private final Map<Boolean, int[]> byPublic;
+   private final SortedIndex bySize;
+   private final SortedIndex byMinRam;
+   private final SortedIndex byMinDisk;
+
+   private ImageIndex(ImageDetails[] images) {
+      this.images = images;
+      this.byStatus = group(images, new Function<ImageDetails, Image.Status>() {
+         @Override
+         public Image.Status apply(ImageDetails in) {
+            return in.getStatus();
+         }
+      });
+      this.byDiskFormat = group(images, new Function<ImageDetails, DiskFormat>() {
+         @Override
+         public DiskFormat apply(ImageDetails in) {
+            return in.getDiskFormat().orNull();
+         }
+      });
+      this.byContainerFormat = group(images, new Function<ImageDetails, ContainerFormat>() {
+         @Override
+         public ContainerFormat apply(ImageDetails in) {
+            return in.getContainerFormat().orNull();
+         }
+      });
+      this.byOwner = group(images, new Function<ImageDetails, String>() {
+         @Override
+         public String apply(ImageDetails in) {
+            return in.getOwner().orNull();
+         }
+      });
+      this.byPublic = group(images, new Function<ImageDetails, Boolean>() {
+         @Override
+         public Boolean apply(ImageDetails in) {
+            return in.isPublic();
+         }
+      });
+      this.bySize = new SortedIndex(images, Field.SIZE);
+      this.byMinRam = new SortedIndex(images, Field.MIN_RAM);
+      this.byMinDisk = new SortedIndex(images, Field.MIN_DISK);
+   }
+
+   /**
+    * @return the number of images indexed
+    */
+   public int size() {
+      return images.length;
+   }
+
+   /**
+    * @return a new query, which matches every image until filters are added
+    */
+   public Query query() {
+      return new Query();
+   }
+
+   /**
+    * Filters to apply together. A query is not thread safe, but it can be run more than once.
+    */
+   public class Query {
+      private Image.Status status;
+      private DiskFormat diskFormat;
+      private ContainerFormat containerFormat;
+      private String owner;
+      private Boolean isPublic;
+      private final long[] lower = { Long.MIN_VALUE, Long.MIN_VALUE, Long.MIN_VALUE };
+      private final long[] upper = { Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE };
+
+      private Query() {
+      }
+
+      /**
+       * Match only those images that have the requested status
+       */
+      public Query status(Image.Status status) {
+         this.status = checkNotNull(status, "status");
+         return this;
+      }
+
+      /**
+       * Match only those images having a matching disk format
+       */
+      public Query diskFormat(DiskFormat diskFormat) {
+         this.diskFormat = checkNotNull(diskFormat, "diskFormat");
+         return this;
+      }
+
+      /**
+       * Match only those images having a matching container format
+       */
+      public Query containerFormat(ContainerFormat containerFormat) {
+         this.containerFormat = checkNotNull(containerFormat, "containerFormat");
+         return this;
+      }
+
+      /**
+       * Match only those images owned by the tenant
+       */
+      public Query owner(String owner) {
+         this.owner = checkNotNull(owner, "owner");
+         return this;
+      }
+
+      /**
+       * Match only public images or only private images
+       */
+      public Query isPublic(boolean isPublic) {
+         this.isPublic = isPublic;
+         return this;
+      }
+
+      /**
+       * Match those images that have a size greater than or equal to size
+       */
+      public Query minSize(long size) {
+         return atLeast(Field.SIZE, size);
+      }
+
+      /**
+       * Match those images that have a size less than or equal to size
+       */
+      public Query maxSize(long size) {
+         return atMost(Field.SIZE, size);
+      }
+
+      /**
+       * Match only those images having a matching min ram size
+       */
+      public Query minRam(long ram) {
+         return atLeast(Field.MIN_RAM, ram).atMost(Field.MIN_RAM, ram);
+      }
+
+      /**
+       * Match those images that fit in {@code ram}, having a min ram size less than or equal to it
+       */
+      public Query minRamAtMost(long ram) {
+         return atMost(Field.MIN_RAM, ram);
+      }
+
+      /**
+       * Match only those images having a matching min disk size
+       */
+      public Query minDisk(long disk) {
+         return atLeast(Field.MIN_DISK, disk).atMost(Field.MIN_DISK, disk);
+      }
+
+      /**
+       * Match those images that fit in {@code disk}, having a min disk size less than or equal to it
+       */
+      public Query minDiskAtMost(long disk) {
+         return atMost(Field.MIN_DISK, disk);
+      }
+
+      private Query atLeast(Field field, long value) {
+         lower[field.ordinal()] = Math.max(lower[field.ordinal()], value);
+         return this;
+      }
+
+      private Query atMost(Field field, long value) {
+         upper[field.ordinal()] = Math.min(upper[field.ordinal()], value);
+         return this;
+      }
+
+      /**
+       * @return the matching images, in no particular order
+       */
+      public List<ImageDetails> list() {
+         int[] candidates = null;
+         int from = 0;
+         int to = images.length;
+         // start from the smallest candidate set
+         if (status != null)
+            candidates = smaller(candidates, get(byStatus, status));
+         if (diskFormat != null)
+            candidates = smaller(candidates, get(byDiskFormat, diskFormat));
+         if (containerFormat != null)
+            candidates = smaller(candidates, get(byContainerFormat, containerFormat));
+         if (owner != null)
+            candidates = smaller(candidates, get(byOwner, owner));
+         if (isPublic != null)
+            candidates = smaller(candidates, get(byPublic, isPublic));
+         SortedIndex range = null;
+         for (SortedIndex index : new SortedIndex[] { bySize, byMinRam, byMinDisk }) {
+            if (isUnbounded(index.field))
+               continue;
+            int f = index.fromIndex(lower[index.field.ordinal()]);
+            int t = index.toIndex(upper[index.field.ordinal()]);
+            if (f >= t)
+               return ImmutableList.of();
+            if (t - f < (candidates != null ? candidates.length : to - from)) {
+               range = index;
+               from = f;
+               to = t;
+               candidates = null;
+            }
+         }
+         ImmutableList.Builder<ImageDetails> matches = ImmutableList.builder();
+         if (candidates != null) {
+            for (int ordinal : candidates)
+               if (matches(images[ordinal]))
+                  matches.add(images[ordinal]);
+         } else {
+            for (int i = from; i < to; i++) {
+               ImageDetails image = images[range != null ? range.ordinals[i] : i];
+               if (matches(image))
+                  matches.add(image);
+            }
+         }
+         return matches.build();
+      }
+
+      /**
+       * @return true if the image passes every filter of this query
+       */
+      public boolean matches(ImageDetails image) {
+         return (status == null || status == image.getStatus())
+               && (diskFormat == null || diskFormat == image.getDiskFormat().orNull())
+               && (containerFormat == null || containerFormat == image.getContainerFormat().orNull())
+               && (owner == null || owner.equals(image.getOwner().orNull()))
+               && (isPublic == null || isPublic.booleanValue() == image.isPublic())
+               && inRange(Field.SIZE, image) && inRange(Field.MIN_RAM, image) && inRange(Field.MIN_DISK, image);
+      }
+
+      private boolean isUnbounded(Field field) {
+         return lower[field.ordinal()] == Long.MIN_VALUE && upper[field.ordinal()] == Long.MAX_VALUE;
+      }
+
+      private boolean inRange(Field field, ImageDetails image) {
+         if (isUnbounded(field))
+            return true;
+         Long value = field.get(image);
+         return value != null && value >= lower[field.ordinal()] && value <= upper[field.ordinal()];
+      }
+
+      @Override
+      public String toString() {
+         return Objects.toStringHelper(this).omitNullValues().add("status", status).add("diskFormat", diskFormat)
+               .add("containerFormat", containerFormat).add("owner", owner).add("isPublic", isPublic)
+               .add("lower", Arrays.toString(lower)).add("upper", Arrays.toString(upper)).toString();
+      }
+   }
+
+   private static enum Field {
+      SIZE, MIN_RAM, MIN_DISK;
+
+      Long get(ImageDetails image) {
+         switch (this) {
+            case SIZE:
+               return image.getSize().orNull();
+            case MIN_RAM:
+               return image.getMinRam();
+            default:
+               return image.getMinDisk();
+         }
+      }
+   }
+
+   /**
+    * Ordinals of the images that have a value for a field, sorted by that value.
+    */
+   private static class SortedIndex {
+      private final Field field;
+      private final long[] values;
+      private final int[] ordinals;
+
+      private SortedIndex(final ImageDetails[] images, final Field field) {
+         this.field = field;
+         List<Integer> sorted = Lists.newArrayListWithCapacity(images.length);
+         for (int i = 0; i < images.length; i++)
+            if (field.get(images[i]) != null)
+               sorted.add(i);
+         final long[] byOrdinal = new long[images.length];
+         for (int ordinal : sorted)
+            byOrdinal[ordinal] = field.get(images[ordinal]);
+         Collections.sort(sorted, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer left, Integer right) {
+               long l = byOrdinal[left];
+               long r = byOrdinal[right];
+               return l < r ? -1 : l > r ? 1 : 0;
+            }
+         });
+         this.ordinals = Ints.toArray(sorted);
+         this.values = new long[ordinals.length];
+         for (int i = 0; i < ordinals.length; i++)
+            values[i] = byOrdinal[ordinals[i]];
+      }
+
+      /**
+       * @return the first position whose value is at least {@code lower}
+       */
+      int fromIndex(long lower) {
+         int low = 0;
+         int high = values.length;
+         while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < lower)
+               low = mid + 1;
+            else
+               high = mid;
+         }
+         return low;
+      }
+
+      /**
+       * @return the position after the last value of at most {@code upper}
+       */
+      int toIndex(long upper) {
+         int low = 0;
+         int high = values.length;
+         while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] <= upper)
+               low = mid + 1;
+            else
+               high = mid;
+         }
+         return low;
+      }
+   }
+
+   private static <K> Map<K, int[]> group(ImageDetails[] images, Function<ImageDetails, K> key) {
+      Map<K, List<Integer>> groups = Maps.newHashMap();
+      for (int i = 0; i < images.length; i++) {
+         K value = key.apply(images[i]);
+         if (value == null)
+            continue;
+         List<Integer> group = groups.get(value);
+         if (group == null)
+            groups.put(value, group = Lists.newArrayList());
+         group.add(i);
+      }
+      ImmutableMap.Builder<K, int[]> index = ImmutableMap.builder();
+      for (Map.Entry<K, List<Integer>> group : groups.entrySet())
+         index.put(group.getKey(), Ints.toArray(group.getValue()));
+      return index.build();
+   }
+
+   private static <K> int[] get(Map<K, int[]> index, K key) {
+      int[] ordinals = index.get(key);
+      return ordinals != null ? ordinals : NONE;
+   }
+
+   private static int[] smaller(int[] candidates, int[] ordinals) {
+      return candidates == null || ordinals.length < candidates.length ? ordinals : candidates;
+   }
+}
@@ -25,4 +25,13 @@ package org.jclouds.openstack.glance.v1_0.config;
  */
 public class GlanceProperties {
 
+   /**
+    * Number of pages of an image listing to read ahead of the caller, so that the next page is
+    * requested as soon as the previous one arrives. 0, the default, reads pages only when they are
+    * needed.
+    * 
+    * @see org.jclouds.openstack.glance.v1_0.functions.internal.PrefetchingPagedIterables
+    */
+   public static final String LIST_PREFETCH_DEPTH = "jclouds.glance.list-prefetch-depth";
+
 }
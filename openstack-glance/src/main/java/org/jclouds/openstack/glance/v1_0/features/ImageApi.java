@@ -38,6 +38,8 @@ import org.jclouds.Fallbacks.EmptyPagedIterableOnNotFoundOr404;
 import org.jclouds.Fallbacks.FalseOnNotFoundOr404;
 import org.jclouds.Fallbacks.NullOnNotFoundOr404;
 import org.jclouds.collect.PagedIterable;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.options.GetOptions;
 import org.jclouds.io.Payload;
 import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.openstack.glance.v1_0.domain.Image;
@@ -133,6 +135,18 @@ public interface ImageApi {
    @Nullable
    InputStream getAsStream(@PathParam("id") String id);
 
+   /**
+    * Return the response carrying image data for image with id, such as a byte range of it. The
+    * status and {@code Content-Range} header show whether the range was honoured.
+    * 
+    * @see GetOptions#startAt(long)
+    */
+   @GET
+   @Path("/images/{id}")
+   @Fallback(NullOnNotFoundOr404.class)
+   @Nullable
+   HttpResponse getAsResponse(@PathParam("id") String id, GetOptions options);
+
    /**
     * Create a new image
     * 
@@ -19,14 +19,18 @@
 package org.jclouds.openstack.glance.v1_0.functions.internal;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.openstack.glance.v1_0.config.GlanceProperties.LIST_PREFETCH_DEPTH;
 import static org.jclouds.openstack.glance.v1_0.options.ListImageOptions.Builder.marker;
 
 import java.beans.ConstructorProperties;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.jclouds.collect.IterableWithMarker;
+import org.jclouds.collect.PagedIterable;
 import org.jclouds.collect.internal.Arg0ToPagedIterable;
 import org.jclouds.http.functions.ParseJson;
 import org.jclouds.json.Json;
@@ -40,6 +44,7 @@ import org.jclouds.openstack.v2_0.domain.Link;
 import com.google.common.annotations.Beta;
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.TypeLiteral;
 
 /**
@@ -67,10 +72,20 @@ public class ParseImages extends ParseJson<Images> {
    public static class ToPagedIterable extends Arg0ToPagedIterable.FromCaller<Image, ToPagedIterable> {
 
       private final GlanceApi api;
+      private final ListeningExecutorService userExecutor;
+      private final int prefetchDepth;
 
       @Inject
-      protected ToPagedIterable(GlanceApi api) {
+      protected ToPagedIterable(GlanceApi api, @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+            @Named(LIST_PREFETCH_DEPTH) int prefetchDepth) {
          this.api = checkNotNull(api, "api");
+         this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+         this.prefetchDepth = prefetchDepth;
+      }
+
+      @Override
+      public PagedIterable<Image> apply(IterableWithMarker<Image> input) {
+         return PrefetchingPagedIterables.prefetch(super.apply(input), prefetchDepth, userExecutor);
       }
 
       @Override
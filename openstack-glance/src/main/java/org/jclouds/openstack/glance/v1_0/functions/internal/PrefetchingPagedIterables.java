@@ -0,0 +1,130 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.glance.v1_0.functions.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import org.jclouds.collect.IterableWithMarker;
+import org.jclouds.collect.PagedIterable;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Reads the pages of a {@link PagedIterable} ahead of the caller.
+ * <p/>
+ * The marker of a page is only known once that page arrives, so pages are still requested one at a
+ * time; but the request for the next page goes out as soon as the previous one arrives, rather than
+ * when the caller has finished with it. Up to {@code depth} pages are held ahead of the caller.
+ * 
+ * @author Adrian Cole
+ */
+@Beta
+public class PrefetchingPagedIterables {
+
+   /**
+    * @param depth
+    *           the number of pages to read ahead of the caller, or 0 to read none ahead
+    * @return {@code pages} if depth is 0, or else a view of them that reads ahead on
+    *         {@code executor}
+    */
+   public static <T> PagedIterable<T> prefetch(final PagedIterable<T> pages, final int depth,
+         final ListeningExecutorService executor) {
+      checkNotNull(pages, "pages");
+      checkArgument(depth >= 0, "depth must be non-negative");
+      checkNotNull(executor, "executor");
+      if (depth == 0)
+         return pages;
+      return new PagedIterable<T>() {
+         @Override
+         public Iterator<IterableWithMarker<T>> iterator() {
+            return new PrefetchingIterator<T>(pages.iterator(), depth, executor);
+         }
+      };
+   }
+
+   private static class PrefetchingIterator<T> extends AbstractIterator<IterableWithMarker<T>> {
+      private final int depth;
+      private final AsyncFunction<IterableWithMarker<T>, IterableWithMarker<T>> readNext;
+      private final LinkedList<ListenableFuture<IterableWithMarker<T>>> ahead = Lists.newLinkedList();
+      private ListenableFuture<IterableWithMarker<T>> last;
+
+      private PrefetchingIterator(final Iterator<IterableWithMarker<T>> source, int depth,
+            final ListeningExecutorService executor) {
+         this.depth = depth;
+         final Callable<IterableWithMarker<T>> read = new Callable<IterableWithMarker<T>>() {
+            @Override
+            public IterableWithMarker<T> call() {
+               // null marks the end of the pages
+               return source.hasNext() ? source.next() : null;
+            }
+         };
+         // each page is read once the one before it has arrived, so one thread at a time uses source
+         this.readNext = new AsyncFunction<IterableWithMarker<T>, IterableWithMarker<T>>() {
+            @Override
+            public ListenableFuture<IterableWithMarker<T>> apply(IterableWithMarker<T> previous) {
+               if (previous == null)
+                  return Futures.<IterableWithMarker<T>> immediateFuture(null);
+               return executor.submit(read);
+            }
+         };
+         // the first page of a PagedIterable is already in memory
+         this.last = Futures.immediateFuture(source.hasNext() ? source.next() : null);
+         ahead.add(last);
+         fill();
+      }
+
+      private void fill() {
+         while (ahead.size() < depth + 1) {
+            last = Futures.transform(last, readNext);
+            ahead.add(last);
+         }
+      }
+
+      @Override
+      protected IterableWithMarker<T> computeNext() {
+         ListenableFuture<IterableWithMarker<T>> page = ahead.removeFirst();
+         IterableWithMarker<T> next;
+         try {
+            next = Uninterruptibles.getUninterruptibly(page);
+         } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+         }
+         if (next == null) {
+            ahead.clear();
+            return endOfData();
+         }
+         fill();
+         return next;
+      }
+   }
+}
@@ -0,0 +1,167 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.glance.v1_0.strategy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static javax.ws.rs.core.MediaType.APPLICATION_OCTET_STREAM;
+import static org.jclouds.openstack.glance.v1_0.options.ImageField.CHECKSUM;
+import static org.jclouds.openstack.glance.v1_0.options.ImageField.SIZE;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.logging.Logger;
+import org.jclouds.openstack.glance.v1_0.GlanceApi;
+import org.jclouds.openstack.glance.v1_0.domain.ImageDetails;
+import org.jclouds.openstack.glance.v1_0.options.CreateImageOptions;
+import org.jclouds.openstack.glance.v1_0.options.UpdateImageOptions;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ObjectArrays;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Closeables;
+
+/**
+ * Uploads image data from a local file.
+ * <p/>
+ * The MD5 and size of the file are worked out first, in a single pass through a fixed buffer, and
+ * sent as {@code x-image-meta-checksum} and {@code x-image-meta-size} so that Glance
+ * rejects an image that arrives damaged. The file is then sent as a fixed length payload, which the
+ * http transport streams straight from disk rather than buffering.
+ * 
+ * @author Adrian Cole
+ */
+@Singleton
+public class FileImageUploadStrategy {
+
+   static final int BUFFER_SIZE = 64 * 1024;
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   private final GlanceApi api;
+
+   @Inject
+   public FileImageUploadStrategy(GlanceApi api) {
+      this.api = checkNotNull(api, "api");
+   }
+
+   /**
+    * @see org.jclouds.openstack.glance.v1_0.features.ImageApi#create
+    */
+   public ImageDetails create(@Nullable String zone, String name, File file, CreateImageOptions... options) {
+      checkNotNull(name, "name");
+      checkNoChecksumOrSize(options);
+      Checksummed image = checksum(file);
+      CreateImageOptions verified = CreateImageOptions.Builder.checksum(image.md5);
+      verified.size(image.size);
+      ImageDetails details = api.getImageApiForZone(zone).create(name, image.payload(),
+            ObjectArrays.concat(options, verified));
+      logger.debug("<< created image %s from %s: %s bytes, checksum %s", details.getId(), file, image.size, image.md5);
+      return details;
+   }
+
+   /**
+    * @see org.jclouds.openstack.glance.v1_0.features.ImageApi#upload
+    */
+   public ImageDetails upload(@Nullable String zone, String id, File file, UpdateImageOptions... options) {
+      checkNotNull(id, "id");
+      checkNoChecksumOrSize(options);
+      Checksummed image = checksum(file);
+      UpdateImageOptions verified = UpdateImageOptions.Builder.checksum(image.md5).size(image.size);
+      ImageDetails details = api.getImageApiForZone(zone).upload(id, image.payload(),
+            ObjectArrays.concat(options, verified));
+      logger.debug("<< uploaded image %s from %s: %s bytes, checksum %s", id, file, image.size, image.md5);
+      return details;
+   }
+
+   private static void checkNoChecksumOrSize(UpdateImageOptions... options) {
+      for (UpdateImageOptions option : checkNotNull(options, "options")) {
+         checkArgument(option.buildRequestHeaders().get(CHECKSUM.asHeader()).isEmpty()
+               && option.buildRequestHeaders().get(SIZE.asHeader()).isEmpty(),
+               "checksum and size are computed from the file");
+      }
+   }
+
+   /**
+    * Reads the file once through a fixed buffer, so memory use does not grow with the image. The
+    * size is the number of bytes hashed, so that it matches the checksum even if the file changes.
+    */
+   static Checksummed checksum(File file) {
+      checkNotNull(file, "file");
+      checkArgument(file.isFile(), "%s is not a file", file);
+      FileInputStream in = null;
+      try {
+         in = new FileInputStream(file);
+         Hasher md5 = Hashing.md5().newHasher();
+         byte[] buffer = new byte[BUFFER_SIZE];
+         long size = 0;
+         for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+            md5.putBytes(buffer, 0, read);
+            size += read;
+         }
+         return new Checksummed(file, size, md5.hash().toString());
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      } finally {
+         closeQuietly(in);
+      }
+   }
+
+   static class Checksummed {
+      final File file;
+      final long size;
+      final String md5;
+
+      Checksummed(File file, long size, String md5) {
+         this.file = file;
+         this.size = size;
+         this.md5 = md5;
+      }
+
+      /**
+       * @return a payload whose length is known, so that it is not buffered to find it out
+       */
+      Payload payload() {
+         Payload payload = Payloads.newFilePayload(file);
+         payload.getContentMetadata().setContentType(APPLICATION_OCTET_STREAM);
+         payload.getContentMetadata().setContentLength(size);
+         return payload;
+      }
+   }
+
+   private static void closeQuietly(Closeable closeable) {
+      try {
+         Closeables.close(closeable, true);
+      } catch (IOException e) {
+         // swallowed
+      }
+   }
+}
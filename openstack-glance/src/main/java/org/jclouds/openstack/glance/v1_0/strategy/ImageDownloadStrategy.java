@@ -0,0 +1,252 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.glance.v1_0.strategy;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static org.jclouds.http.options.GetOptions.Builder.startAt;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.logging.Logger;
+import org.jclouds.openstack.glance.v1_0.GlanceApi;
+import org.jclouds.openstack.glance.v1_0.domain.ImageDetails;
+import org.jclouds.openstack.glance.v1_0.features.ImageApi;
+import org.jclouds.util.Throwables2;
+
+import com.google.common.base.Throwables;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Closeables;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Downloads image data into a file, checking it against the size and checksum Glance holds for the
+ * image.
+ * <p/>
+ * The MD5 is computed as the bytes are written, so no second pass over the file is needed. When the
+ * connection drops, the download resumes from the last byte written with a {@code Range} request,
+ * up to {@link Constants#PROPERTY_MAX_RETRIES} times in a row without progress. A file left behind
+ * by an earlier, interrupted download is resumed the same way. If the server answers a
+ * {@code Range} request with the whole image, the download starts over.
+ * 
+ * @author Adrian Cole
+ */
+@Singleton
+public class ImageDownloadStrategy {
+
+   static final int BUFFER_SIZE = 64 * 1024;
+   static final long RETRY_DELAY_START = 100;
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   private final GlanceApi api;
+   private final int maxRetries;
+
+   @Inject
+   public ImageDownloadStrategy(GlanceApi api, @Named(Constants.PROPERTY_MAX_RETRIES) int maxRetries) {
+      this.api = checkNotNull(api, "api");
+      this.maxRetries = maxRetries;
+   }
+
+   /**
+    * Downloads the image into {@code destination}, keeping any bytes already there.
+    * 
+    * @return the details the data was verified against, or null if the image doesn't exist
+    * @throws IllegalStateException
+    *            if the data doesn't match the size or checksum of the image, in which case
+    *            {@code destination} is truncated
+    */
+   @Nullable
+   public ImageDetails download(@Nullable String zone, String id, File destination) {
+      checkNotNull(id, "id");
+      checkNotNull(destination, "destination");
+      ImageApi imageApi = api.getImageApiForZone(zone);
+      ImageDetails image = imageApi.get(id);
+      if (image == null)
+         return null;
+      Long size = image.getSize().orNull();
+      Hasher md5 = Hashing.md5().newHasher();
+      RandomAccessFile file = null;
+      try {
+         file = new RandomAccessFile(destination, "rw");
+         FileChannel channel = file.getChannel();
+         long position = resume(channel, size, md5);
+         int failures = 0;
+         while (size == null || position < size) {
+            long start = position;
+            InputStream in = null;
+            try {
+               if (position == 0) {
+                  in = imageApi.getAsStream(id);
+               } else {
+                  HttpResponse response = imageApi.getAsResponse(id, startAt(position));
+                  if (response != null && !isRangeFrom(response, position)) {
+                     logger.debug("<< range of image %s was not honoured; restarting download", id);
+                     channel.truncate(0);
+                     md5 = Hashing.md5().newHasher();
+                  }
+                  in = response == null ? null : response.getPayload().getInput();
+               }
+               if (in == null) {
+                  logger.debug("<< image %s was deleted during download", id);
+                  channel.truncate(0);
+                  return null;
+               }
+               transfer(in, channel, size, md5);
+               position = channel.position();
+               if (size == null)
+                  break;
+               if (position < size)
+                  throw new EOFException(String.format("image %s ended at byte %s of %s", id, position, size));
+            } catch (IOException e) {
+               position = channel.position();
+               failures = position > start ? 1 : failures + 1;
+               retryOrPropagate(id, position, failures, e);
+            } catch (RuntimeException e) {
+               if (!isTransient(e))
+                  throw e;
+               position = channel.position();
+               failures = position > start ? 1 : failures + 1;
+               retryOrPropagate(id, position, failures, e);
+            } finally {
+               closeQuietly(in);
+            }
+         }
+         String checksum = md5.hash().toString();
+         if (image.getChecksum().isPresent() && !image.getChecksum().get().equalsIgnoreCase(checksum)) {
+            channel.truncate(0);
+            throw new IllegalStateException(String.format("image %s has checksum %s, but %s was downloaded", id,
+                  image.getChecksum().get(), checksum));
+         }
+         channel.force(true);
+         logger.debug("<< downloaded image %s: %s bytes, checksum %s", id, position, checksum);
+         return image;
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      } finally {
+         closeQuietly(file);
+      }
+   }
+
+   /**
+    * Hashes the bytes of an earlier download, so that writing can continue after them.
+    * 
+    * @return the position to continue from
+    */
+   static long resume(FileChannel channel, @Nullable Long size, Hasher md5) throws IOException {
+      long existing = channel.size();
+      if (size != null && existing > size) {
+         channel.truncate(0);
+         existing = 0;
+      }
+      ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+      channel.position(0);
+      while (channel.position() < existing) {
+         buffer.clear();
+         int read = channel.read(buffer);
+         if (read == -1)
+            break;
+         md5.putBytes(buffer.array(), 0, read);
+      }
+      return channel.position();
+   }
+
+   /**
+    * Checks that a response to a request for the data from {@code position} holds that range, rather
+    * than the whole image.
+    * 
+    * @throws IllegalStateException
+    *            if the server returned a different range
+    */
+   static boolean isRangeFrom(HttpResponse response, long position) {
+      if (response.getStatusCode() != 206)
+         return false;
+      String contentRange = response.getFirstHeaderOrNull("Content-Range");
+      checkState(contentRange == null || contentRange.startsWith("bytes " + position + "-"),
+            "requested bytes from %s, but received %s", position, contentRange);
+      return true;
+   }
+
+   /**
+    * Writes the stream at the channel's position, hashing each chunk once it is written. On failure,
+    * the position is left after the last chunk hashed, so that a retry neither skips nor hashes
+    * bytes twice.
+    */
+   static void transfer(InputStream in, FileChannel channel, @Nullable Long size, Hasher md5) throws IOException {
+      byte[] bytes = new byte[BUFFER_SIZE];
+      ByteBuffer buffer = ByteBuffer.wrap(bytes);
+      long hashed = channel.position();
+      try {
+         int read;
+         while ((read = in.read(bytes)) != -1) {
+            checkState(size == null || hashed + read <= size, "received more than the %s bytes of the image",
+                  size);
+            buffer.clear().limit(read);
+            while (buffer.hasRemaining())
+               channel.write(buffer);
+            md5.putBytes(bytes, 0, read);
+            hashed += read;
+         }
+      } finally {
+         channel.position(hashed);
+      }
+   }
+
+   private void retryOrPropagate(String id, long position, int failures, Exception e) {
+      if (failures > maxRetries)
+         throw Throwables.propagate(e);
+      long delay = RETRY_DELAY_START << Math.min(failures - 1, 10);
+      logger.debug("<< resuming image %s at byte %s in %sms after %s", id, position, delay, e);
+      Uninterruptibles.sleepUninterruptibly(delay, TimeUnit.MILLISECONDS);
+   }
+
+   private static boolean isTransient(RuntimeException e) {
+      if (Throwables2.getFirstThrowableOfType(e, IOException.class) != null)
+         return true;
+      HttpResponseException http = Throwables2.getFirstThrowableOfType(e, HttpResponseException.class);
+      return http != null && (http.getResponse() == null || http.getResponse().getStatusCode() >= 500);
+   }
+
+   private static void closeQuietly(Closeable closeable) {
+      try {
+         Closeables.close(closeable, true);
+      } catch (IOException e) {
+         // swallowed
+      }
+   }
+}
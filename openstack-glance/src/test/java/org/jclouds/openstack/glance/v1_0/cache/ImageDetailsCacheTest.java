@@ -0,0 +1,185 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.glance.v1_0.cache;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.util.Date;
+
+import org.easymock.EasyMock;
+import org.jclouds.collect.IterableWithMarkers;
+import org.jclouds.collect.PagedIterable;
+import org.jclouds.collect.PagedIterables;
+import org.jclouds.openstack.glance.v1_0.domain.Image;
+import org.jclouds.openstack.glance.v1_0.domain.ImageDetails;
+import org.jclouds.openstack.glance.v1_0.features.ImageApi;
+import org.jclouds.openstack.glance.v1_0.options.ListImageOptions;
+import org.jclouds.openstack.keystone.v2_0.domain.PaginatedCollection;
+import org.jclouds.openstack.v2_0.domain.Link;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * @author Adrian Cole
+ */
+@Test(groups = "unit", testName = "ImageDetailsCacheTest")
+public class ImageDetailsCacheTest {
+
+   static final ImageDetails UBUNTU = image("ubuntu", 1000);
+   static final ImageDetails CENTOS = image("centos", 2000);
+   static final ImageDetails FEDORA = image("fedora", 3000);
+
+   public void testFirstRefreshListsEverything() {
+      ImageApi imageApi = createMock(ImageApi.class);
+      EasyMock.<PagedIterable<? extends ImageDetails>> expect(imageApi.listInDetail()).andReturn(
+            listing(UBUNTU, CENTOS));
+      replay(imageApi);
+
+      ImageDetailsCache cache = new ImageDetailsCache(imageApi);
+      assertEquals(cache.refresh(), 2);
+      assertEquals(cache.asMap(), ImmutableMap.of("ubuntu", UBUNTU, "centos", CENTOS));
+      assertEquals(cache.getLastSync(), new Date(2000));
+      verify(imageApi);
+   }
+
+   public void testLaterRefreshesApplyChangesSinceTheLastSync() {
+      ImageDetails renamed = CENTOS.toBuilder().name("centos 6.4").updatedAt(new Date(4000)).build();
+      ImageDetails deleted = UBUNTU.toBuilder().status(Image.Status.DELETED).deletedAt(new Date(5000)).build();
+
+      ImageApi imageApi = createMock(ImageApi.class);
+      EasyMock.<PagedIterable<? extends ImageDetails>> expect(imageApi.listInDetail()).andReturn(
+            listing(UBUNTU, CENTOS));
+      EasyMock.<PaginatedCollection<? extends ImageDetails>> expect(
+            imageApi.listInDetail(new ListImageOptions().changesSince(new Date(2000)))).andReturn(
+            page(CENTOS, renamed, deleted, FEDORA));
+      replay(imageApi);
+
+      ImageDetailsCache cache = new ImageDetailsCache(imageApi);
+      cache.refresh();
+      ImmutableMap<String, ImageDetails> before = cache.asMap();
+
+      assertEquals(cache.refresh(), 3);
+      assertEquals(cache.asMap(), ImmutableMap.of("centos", renamed, "fedora", FEDORA));
+      assertNull(cache.get("ubuntu"));
+      assertEquals(cache.getLastSync(), new Date(5000));
+      // earlier snapshots are unaffected
+      assertEquals(before, ImmutableMap.of("ubuntu", UBUNTU, "centos", CENTOS));
+      verify(imageApi);
+   }
+
+   public void testUnchangedRefreshKeepsSnapshot() {
+      ImageApi imageApi = createMock(ImageApi.class);
+      EasyMock.<PagedIterable<? extends ImageDetails>> expect(imageApi.listInDetail()).andReturn(listing(CENTOS));
+      EasyMock.<PaginatedCollection<? extends ImageDetails>> expect(
+            imageApi.listInDetail(new ListImageOptions().changesSince(new Date(2000)))).andReturn(page(CENTOS));
+      replay(imageApi);
+
+      ImageDetailsCache cache = new ImageDetailsCache(imageApi);
+      cache.refresh();
+      ImmutableMap<String, ImageDetails> before = cache.asMap();
+
+      assertEquals(cache.refresh(), 0);
+      assert cache.asMap() == before;
+      verify(imageApi);
+   }
+
+   public void testFailedListingLeavesSnapshotAndLastSync() {
+      ImageDetails renamed = CENTOS.toBuilder().name("centos 6.4").updatedAt(new Date(4000)).build();
+      ListImageOptions since = new ListImageOptions().changesSince(new Date(2000));
+
+      ImageApi imageApi = createMock(ImageApi.class);
+      EasyMock.<PagedIterable<? extends ImageDetails>> expect(imageApi.listInDetail()).andReturn(listing(CENTOS));
+      EasyMock.<PaginatedCollection<? extends ImageDetails>> expect(imageApi.listInDetail(since)).andReturn(
+            page("fedora", renamed, FEDORA)).times(2);
+      EasyMock.<PaginatedCollection<? extends ImageDetails>> expect(
+            imageApi.listInDetail(new ListImageOptions().changesSince(new Date(2000)).marker("fedora")))
+            .andThrow(new IllegalStateException("connection reset")).andReturn(page());
+      replay(imageApi);
+
+      ImageDetailsCache cache = new ImageDetailsCache(imageApi);
+      cache.refresh();
+      ImmutableMap<String, ImageDetails> before = cache.asMap();
+
+      try {
+         cache.refresh();
+         assert false : "expected the second page to fail";
+      } catch (IllegalStateException e) {
+         assertEquals(e.getMessage(), "connection reset");
+      }
+      assert cache.asMap() == before;
+      assertEquals(cache.getLastSync(), new Date(2000));
+
+      // the next refresh lists the same changes again
+      assertEquals(cache.refresh(), 2);
+      assertEquals(cache.asMap(), ImmutableMap.of("centos", renamed, "fedora", FEDORA));
+      assertEquals(cache.getLastSync(), new Date(4000));
+      verify(imageApi);
+   }
+
+   public void testIndexIsRebuiltOnlyForANewSnapshot() {
+      ImageApi imageApi = createMock(ImageApi.class);
+      EasyMock.<PagedIterable<? extends ImageDetails>> expect(imageApi.listInDetail()).andReturn(listing(CENTOS));
+      EasyMock.<PaginatedCollection<? extends ImageDetails>> expect(
+            imageApi.listInDetail(new ListImageOptions().changesSince(new Date(2000)))).andReturn(page(FEDORA));
+      replay(imageApi);
+
+      ImageDetailsCache cache = new ImageDetailsCache(imageApi);
+      cache.refresh();
+      ImageIndex index = cache.index();
+      assert cache.index() == index;
+      assertEquals(index.size(), 1);
+
+      cache.refresh();
+      assertEquals(cache.index().size(), 2);
+      assertEquals(cache.index().query().status(Image.Status.ACTIVE).list().size(), 2);
+      verify(imageApi);
+   }
+
+   static ImageDetails image(String id, long updatedAt) {
+      return ImageDetails.builder().id(id).name(id).status(Image.Status.ACTIVE).createdAt(new Date(0))
+            .updatedAt(new Date(updatedAt)).build();
+   }
+
+   private static PagedIterable<ImageDetails> listing(ImageDetails... images) {
+      return PagedIterables.of(IterableWithMarkers.from(ImmutableList.copyOf(images)));
+   }
+
+   private static PaginatedCollection<ImageDetails> page(ImageDetails... images) {
+      return new PaginatedCollection<ImageDetails>(ImmutableList.copyOf(images), ImmutableSet.<Link> of()) {
+      };
+   }
+
+   private static PaginatedCollection<ImageDetails> page(final String nextMarker, ImageDetails... images) {
+      return new PaginatedCollection<ImageDetails>(ImmutableList.copyOf(images), ImmutableSet.<Link> of()) {
+         @Override
+         public Optional<Object> nextMarker() {
+            return Optional.<Object> of(nextMarker);
+         }
+      };
+   }
+}
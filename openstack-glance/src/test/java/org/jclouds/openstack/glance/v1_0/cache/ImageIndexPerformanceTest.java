@@ -0,0 +1,67 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.glance.v1_0.cache;
+
+import static org.jclouds.openstack.glance.v1_0.cache.ImageIndexTest.catalogue;
+import static org.jclouds.openstack.glance.v1_0.cache.ImageIndexTest.linear;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.openstack.glance.v1_0.cache.ImageIndex.Query;
+import org.jclouds.openstack.glance.v1_0.domain.DiskFormat;
+import org.jclouds.openstack.glance.v1_0.domain.Image;
+import org.jclouds.openstack.glance.v1_0.domain.ImageDetails;
+import org.testng.annotations.Test;
+
+/**
+ * Not run with the unit tests, as the figures depend on the machine.
+ * 
+ * @author Adrian Cole
+ */
+@Test(groups = "performance", testName = "ImageIndexPerformanceTest")
+public class ImageIndexPerformanceTest {
+
+   /**
+    * Compares a selective query against filtering every image; there is no microbenchmark harness in
+    * this build, so this reports wall-clock time after a warm up.
+    */
+   public void testIndexedQueryAgainstLinearFiltering() {
+      List<ImageDetails> images = catalogue(50000, new Random(3));
+      ImageIndex index = ImageIndex.of(images);
+      Query query = index.query().status(Image.Status.ACTIVE).diskFormat(DiskFormat.QCOW2).owner("tenant-7")
+            .minRamAtMost(4096);
+      int count = 200;
+      for (int i = 0; i < count; i++) {
+         query.list();
+         linear(images, query);
+      }
+      long start = System.nanoTime();
+      for (int i = 0; i < count; i++)
+         query.list();
+      long indexed = System.nanoTime() - start;
+      start = System.nanoTime();
+      for (int i = 0; i < count; i++)
+         linear(images, query);
+      long linear = System.nanoTime() - start;
+      System.out.printf("%s queries: indexed %sms, linear %sms%n", count, TimeUnit.NANOSECONDS.toMillis(indexed),
+            TimeUnit.NANOSECONDS.toMillis(linear));
+   }
+}
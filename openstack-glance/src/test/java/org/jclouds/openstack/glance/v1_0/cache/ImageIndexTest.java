@@ -0,0 +1,137 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.glance.v1_0.cache;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.jclouds.openstack.glance.v1_0.cache.ImageIndex.Query;
+import org.jclouds.openstack.glance.v1_0.domain.ContainerFormat;
+import org.jclouds.openstack.glance.v1_0.domain.DiskFormat;
+import org.jclouds.openstack.glance.v1_0.domain.Image;
+import org.jclouds.openstack.glance.v1_0.domain.ImageDetails;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+
+/**
+ * @author Adrian Cole
+ */
+@Test(groups = "unit", testName = "ImageIndexTest")
+public class ImageIndexTest {
+
+   static final ImageDetails UBUNTU = ImageDetails.builder().id("ubuntu").status(Image.Status.ACTIVE)
+         .diskFormat(DiskFormat.QCOW2).containerFormat(ContainerFormat.BARE).owner("tenant").size(1000L)
+         .minRam(2048).minDisk(10).createdAt(new Date(0)).updatedAt(new Date(0)).build();
+   static final ImageDetails CENTOS = UBUNTU.toBuilder().id("centos").minRam(8192).build();
+   static final ImageDetails WINDOWS = UBUNTU.toBuilder().id("windows").diskFormat(DiskFormat.VHD).isPublic(true)
+         .minRam(4096).build();
+   static final ImageDetails QUEUED = ImageDetails.builder().id("queued").status(Image.Status.QUEUED)
+         .createdAt(new Date(0)).updatedAt(new Date(0)).build();
+
+   final ImageIndex index = ImageIndex.of(ImmutableList.of(UBUNTU, CENTOS, WINDOWS, QUEUED));
+
+   public void testEmptyQueryMatchesEverything() {
+      assertEquals(ImmutableSet.copyOf(index.query().list()), ImmutableSet.of(UBUNTU, CENTOS, WINDOWS, QUEUED));
+   }
+
+   public void testEqualityAndRangeFilters() {
+      assertEquals(index.query().status(Image.Status.ACTIVE).diskFormat(DiskFormat.QCOW2).owner("tenant")
+            .minRamAtMost(4096).list(), ImmutableList.of(UBUNTU));
+      assertEquals(index.query().isPublic(true).list(), ImmutableList.of(WINDOWS));
+      assertEquals(index.query().minRam(8192).list(), ImmutableList.of(CENTOS));
+   }
+
+   public void testImagesWithoutAValueDontMatchItsFilter() {
+      assertEquals(index.query().maxSize(Long.MAX_VALUE - 1).list().size(), 3);
+      assertEquals(index.query().owner("other").list(), ImmutableList.of());
+      assertEquals(index.query().status(Image.Status.QUEUED).list(), ImmutableList.of(QUEUED));
+   }
+
+   public void testEmptyRange() {
+      assertEquals(index.query().minSize(2000).maxSize(1000).list(), ImmutableList.of());
+      assertEquals(ImageIndex.of(ImmutableList.<ImageDetails> of()).query().minDisk(10).list(), ImmutableList.of());
+   }
+
+   public void testMatchesLinearFilteringOfRandomCatalogue() {
+      List<ImageDetails> images = catalogue(5000, new Random(1));
+      ImageIndex index = ImageIndex.of(images);
+      Random random = new Random(2);
+      for (int i = 0; i < 200; i++) {
+         Query query = randomQuery(index, random);
+         assertEquals(ImmutableSet.copyOf(query.list()), ImmutableSet.copyOf(linear(images, query)), query.toString());
+      }
+   }
+
+   static List<ImageDetails> linear(List<ImageDetails> images, Query query) {
+      List<ImageDetails> matches = Lists.newArrayList();
+      for (ImageDetails image : images)
+         if (query.matches(image))
+            matches.add(image);
+      return matches;
+   }
+
+   static List<ImageDetails> catalogue(int size, Random random) {
+      Image.Status[] statuses = Image.Status.values();
+      DiskFormat[] diskFormats = DiskFormat.values();
+      ContainerFormat[] containerFormats = ContainerFormat.values();
+      List<ImageDetails> images = Lists.newArrayListWithCapacity(size);
+      for (int i = 0; i < size; i++) {
+         images.add(ImageDetails.builder().id("image-" + i).status(statuses[random.nextInt(statuses.length)])
+               .diskFormat(random.nextInt(10) == 0 ? null : diskFormats[random.nextInt(diskFormats.length)])
+               .containerFormat(containerFormats[random.nextInt(containerFormats.length)])
+               .owner(random.nextInt(10) == 0 ? null : "tenant-" + random.nextInt(50))
+               .isPublic(random.nextBoolean())
+               .size(random.nextInt(10) == 0 ? null : Long.valueOf(random.nextInt(1 << 20)))
+               .minRam(512 * random.nextInt(32)).minDisk(random.nextInt(100))
+               .createdAt(new Date(0)).updatedAt(new Date(0)).build());
+      }
+      return images;
+   }
+
+   private static Query randomQuery(ImageIndex index, Random random) {
+      Query query = index.query();
+      if (random.nextBoolean())
+         query.status(Image.Status.values()[random.nextInt(Image.Status.values().length)]);
+      if (random.nextBoolean())
+         query.diskFormat(DiskFormat.values()[random.nextInt(DiskFormat.values().length)]);
+      if (random.nextInt(4) == 0)
+         query.containerFormat(ContainerFormat.values()[random.nextInt(ContainerFormat.values().length)]);
+      if (random.nextInt(4) == 0)
+         query.owner("tenant-" + random.nextInt(50));
+      if (random.nextInt(4) == 0)
+         query.isPublic(random.nextBoolean());
+      if (random.nextBoolean())
+         query.minSize(random.nextInt(1 << 20));
+      if (random.nextBoolean())
+         query.maxSize(random.nextInt(1 << 20));
+      if (random.nextBoolean())
+         query.minRamAtMost(512 * random.nextInt(32));
+      if (random.nextInt(4) == 0)
+         query.minDisk(random.nextInt(100));
+      if (random.nextInt(4) == 0)
+         query.minDiskAtMost(random.nextInt(100));
+      return query;
+   }
+}
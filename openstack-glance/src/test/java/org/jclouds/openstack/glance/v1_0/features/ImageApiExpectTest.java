@@ -18,6 +18,7 @@
  */
 package org.jclouds.openstack.glance.v1_0.features;
 
+import static org.jclouds.http.options.GetOptions.Builder.startAt;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNull;
@@ -169,6 +170,25 @@ public class ImageApiExpectTest extends BaseGlanceApiExpectTest {
                "foo");
    }
 
+   public void testGetAsResponseWithRangeWhenResponseIs2xx() throws Exception {
+      HttpRequest get = HttpRequest.builder().method("GET")
+            .endpoint("https://glance.jclouds.org:9292/v1.0/images/fcc451d0-f6e4-4824-ad8f-70ec12326d07")
+            .addHeader("Range", "bytes=1-")
+            .addHeader("X-Auth-Token", authToken).build();
+
+      HttpResponse getResponse = HttpResponse.builder().statusCode(206).addHeader("Content-Range", "bytes 1-2/3")
+            .payload(Payloads.newStringPayload("oo")).build();
+
+      GlanceApi apiWhenExist = requestsSendResponses(keystoneAuthWithUsernameAndPassword,
+            responseWithKeystoneAccess, get, getResponse);
+
+      HttpResponse response = apiWhenExist.getImageApiForZone("az-1.region-a.geo-1").getAsResponse(
+            "fcc451d0-f6e4-4824-ad8f-70ec12326d07", startAt(1));
+      assertEquals(response.getStatusCode(), 206);
+      assertEquals(response.getFirstHeaderOrNull("Content-Range"), "bytes 1-2/3");
+      assertEquals(Strings2.toStringAndClose(response.getPayload().getInput()), "oo");
+   }
+
    public void testGetAsStreamWhenReponseIs404IsNull() throws Exception {
       HttpRequest get = HttpRequest.builder().method("GET")
             .endpoint("https://glance.jclouds.org:9292/v1.0/images/fcc451d0-f6e4-4824-ad8f-70ec12326d07")
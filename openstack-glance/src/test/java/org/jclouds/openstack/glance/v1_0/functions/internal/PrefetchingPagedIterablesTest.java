@@ -0,0 +1,120 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.glance.v1_0.functions.internal;
+
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.collect.IterableWithMarker;
+import org.jclouds.collect.IterableWithMarkers;
+import org.jclouds.collect.PagedIterable;
+import org.jclouds.collect.PagedIterables;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * @author Adrian Cole
+ */
+@Test(groups = "unit", testName = "PrefetchingPagedIterablesTest")
+public class PrefetchingPagedIterablesTest {
+
+   private final ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors
+         .newCachedThreadPool());
+
+   @AfterClass
+   public void shutdown() {
+      executor.shutdownNow();
+   }
+
+   public void testNoDepthIsUnchanged() {
+      PagedIterable<String> pages = pages(3, null);
+      assertSame(PrefetchingPagedIterables.prefetch(pages, 0, sameThreadExecutor()), pages);
+   }
+
+   public void testPagesAreInOrder() {
+      for (int depth = 1; depth <= 4; depth++) {
+         PagedIterable<String> pages = PrefetchingPagedIterables.prefetch(pages(3, null), depth, executor);
+         assertEquals(pages.concat().toList(), ImmutableList.of("0", "1", "2"));
+         // can be iterated again
+         assertEquals(pages.concat().toList(), ImmutableList.of("0", "1", "2"));
+      }
+   }
+
+   public void testNextPageIsRequestedBeforeItIsNeeded() throws InterruptedException {
+      CountDownLatch secondPageRequested = new CountDownLatch(1);
+      PagedIterable<String> pages = PrefetchingPagedIterables.prefetch(pages(2, secondPageRequested), 1, executor);
+
+      Iterator<IterableWithMarker<String>> iterator = pages.iterator();
+      assertEquals(ImmutableList.copyOf(iterator.next()), ImmutableList.of("0"));
+      assertTrue(secondPageRequested.await(5, TimeUnit.SECONDS), "second page was not prefetched");
+      assertEquals(ImmutableList.copyOf(iterator.next()), ImmutableList.of("1"));
+      assertTrue(!iterator.hasNext());
+   }
+
+   public void testFailureIsThrownWhenItsPageIsReached() {
+      PagedIterable<String> failing = PagedIterables.advance(IterableWithMarkers.from(ImmutableList.of("0"), "1"),
+            new Function<Object, IterableWithMarker<String>>() {
+               @Override
+               public IterableWithMarker<String> apply(Object marker) {
+                  throw new IllegalStateException("page " + marker);
+               }
+            });
+      Iterator<IterableWithMarker<String>> iterator = PrefetchingPagedIterables.prefetch(failing, 2, executor)
+            .iterator();
+      assertEquals(ImmutableList.copyOf(iterator.next()), ImmutableList.of("0"));
+      try {
+         iterator.next();
+         fail("expected the failure of the second page");
+      } catch (IllegalStateException e) {
+         assertEquals(e.getMessage(), "page 1");
+      }
+   }
+
+   /**
+    * @return pages with one element each, named after their position
+    */
+   private static PagedIterable<String> pages(final int count, final CountDownLatch requested) {
+      return PagedIterables.advance(page(0, count), new Function<Object, IterableWithMarker<String>>() {
+         @Override
+         public IterableWithMarker<String> apply(Object marker) {
+            if (requested != null)
+               requested.countDown();
+            return page(Integer.parseInt(marker.toString()), count);
+         }
+      });
+   }
+
+   private static IterableWithMarker<String> page(int index, int count) {
+      return index + 1 < count ? IterableWithMarkers.from(ImmutableList.of(Integer.toString(index)), Integer
+            .toString(index + 1)) : IterableWithMarkers.from(ImmutableList.of(Integer.toString(index)));
+   }
+}
@@ -0,0 +1,127 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.glance.v1_0.strategy;
+
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Date;
+
+import org.easymock.Capture;
+import org.jclouds.io.Payload;
+import org.jclouds.openstack.glance.v1_0.GlanceApi;
+import org.jclouds.openstack.glance.v1_0.domain.Image;
+import org.jclouds.openstack.glance.v1_0.domain.ImageDetails;
+import org.jclouds.openstack.glance.v1_0.features.ImageApi;
+import org.jclouds.openstack.glance.v1_0.options.CreateImageOptions;
+import org.jclouds.openstack.glance.v1_0.options.UpdateImageOptions;
+import org.jclouds.openstack.glance.v1_0.strategy.FileImageUploadStrategy.Checksummed;
+import org.jclouds.util.Strings2;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+/**
+ * @author Adrian Cole
+ */
+@Test(groups = "unit", testName = "FileImageUploadStrategyTest", singleThreaded = true)
+public class FileImageUploadStrategyTest {
+
+   static final ImageDetails IMAGE = ImageDetails.builder().id("fcc451d0-f6e4-4824-ad8f-70ec12326d07").size(8L)
+         .checksum("aefaf7502d52994c3b01957636a3cdd2").status(Image.Status.ACTIVE).createdAt(new Date(0))
+         .updatedAt(new Date(0)).build();
+
+   private File file;
+
+   @BeforeMethod
+   public void createFile() throws IOException {
+      file = File.createTempFile("image", ".qcow2");
+      Files.write("somedata", file, Charsets.UTF_8);
+   }
+
+   @AfterMethod
+   public void deleteFile() {
+      file.delete();
+   }
+
+   public void testChecksum() {
+      Checksummed image = FileImageUploadStrategy.checksum(file);
+      assertEquals(image.size, 8);
+      assertEquals(image.md5, "aefaf7502d52994c3b01957636a3cdd2");
+   }
+
+   public void testChecksumOfEmptyFile() throws IOException {
+      Files.write(new byte[0], file);
+      Checksummed image = FileImageUploadStrategy.checksum(file);
+      assertEquals(image.size, 0);
+      assertEquals(image.md5, "d41d8cd98f00b204e9800998ecf8427e");
+   }
+
+   public void testCreateSendsChecksumAndSize() throws IOException {
+      ImageApi imageApi = createMock(ImageApi.class);
+      GlanceApi api = apiFor(imageApi);
+      Capture<Payload> payload = new Capture<Payload>();
+      CreateImageOptions expected = CreateImageOptions.Builder.checksum("aefaf7502d52994c3b01957636a3cdd2");
+      expected.size(8);
+      expect(imageApi.create(eq("test"), capture(payload), eq(CreateImageOptions.Builder.isPublic(true)),
+            eq(expected))).andReturn(IMAGE);
+      replay(api, imageApi);
+
+      assertEquals(new FileImageUploadStrategy(api).create("zone", "test", file, CreateImageOptions.Builder
+            .isPublic(true)), IMAGE);
+      assertEquals(payload.getValue().getContentMetadata().getContentLength(), Long.valueOf(8));
+      assertEquals(Strings2.toStringAndClose(payload.getValue().openStream()), "somedata");
+      verify(api, imageApi);
+   }
+
+   public void testUploadSendsChecksumAndSize() {
+      ImageApi imageApi = createMock(ImageApi.class);
+      GlanceApi api = apiFor(imageApi);
+      Capture<Payload> payload = new Capture<Payload>();
+      expect(imageApi.upload(eq(IMAGE.getId()), capture(payload),
+            eq(UpdateImageOptions.Builder.checksum("aefaf7502d52994c3b01957636a3cdd2").size(8)))).andReturn(IMAGE);
+      replay(api, imageApi);
+
+      assertEquals(new FileImageUploadStrategy(api).upload("zone", IMAGE.getId(), file), IMAGE);
+      assertEquals(payload.getValue().getContentMetadata().getContentLength(), Long.valueOf(8));
+      verify(api, imageApi);
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testChecksumCannotBeSupplied() {
+      new FileImageUploadStrategy(createMock(GlanceApi.class)).upload("zone", IMAGE.getId(), file,
+            UpdateImageOptions.Builder.checksum("aefaf7502d52994c3b01957636a3cdd2"));
+   }
+
+   private static GlanceApi apiFor(ImageApi imageApi) {
+      GlanceApi api = createMock(GlanceApi.class);
+      expect(api.getImageApiForZone("zone")).andReturn(imageApi);
+      return api;
+   }
+}
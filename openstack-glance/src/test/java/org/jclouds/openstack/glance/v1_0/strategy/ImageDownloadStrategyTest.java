@@ -0,0 +1,321 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.glance.v1_0.strategy;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.jclouds.http.options.GetOptions.Builder.startAt;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Date;
+
+import org.jclouds.http.HttpResponse;
+import org.jclouds.openstack.glance.v1_0.GlanceApi;
+import org.jclouds.openstack.glance.v1_0.domain.Image;
+import org.jclouds.openstack.glance.v1_0.domain.ImageDetails;
+import org.jclouds.openstack.glance.v1_0.features.ImageApi;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+/**
+ * @author Adrian Cole
+ */
+@Test(groups = "unit", testName = "ImageDownloadStrategyTest", singleThreaded = true)
+public class ImageDownloadStrategyTest {
+
+   static final String ID = "fcc451d0-f6e4-4824-ad8f-70ec12326d07";
+   static final ImageDetails HELLO_WORLD = ImageDetails.builder().id(ID).size(11L)
+         .checksum("5eb63bbbe01eeed093cb22bb8f5acdc3").status(Image.Status.ACTIVE).createdAt(new Date(0))
+         .updatedAt(new Date(0)).build();
+
+   private File destination;
+
+   @BeforeMethod
+   public void createDestination() throws IOException {
+      destination = File.createTempFile("image", ".raw");
+   }
+
+   @AfterMethod
+   public void deleteDestination() {
+      destination.delete();
+   }
+
+   public void testDroppedConnectionResumesWithRange() throws IOException {
+      ImageApi imageApi = createMock(ImageApi.class);
+      GlanceApi api = apiFor(imageApi);
+      expect(imageApi.get(ID)).andReturn(HELLO_WORLD);
+      expect(imageApi.getAsStream(ID)).andReturn(dropsAfter("hello world", 6));
+      expect(imageApi.getAsResponse(ID, startAt(6))).andReturn(range(6, "world"));
+      replay(api, imageApi);
+
+      assertEquals(new ImageDownloadStrategy(api, 5).download("zone", ID, destination), HELLO_WORLD);
+      assertEquals(Files.toString(destination, Charsets.UTF_8), "hello world");
+      verify(api, imageApi);
+   }
+
+   public void testPartialFileIsResumed() throws IOException {
+      Files.write("hello ", destination, Charsets.UTF_8);
+      ImageApi imageApi = createMock(ImageApi.class);
+      GlanceApi api = apiFor(imageApi);
+      expect(imageApi.get(ID)).andReturn(HELLO_WORLD);
+      expect(imageApi.getAsResponse(ID, startAt(6))).andReturn(range(6, "world"));
+      replay(api, imageApi);
+
+      assertEquals(new ImageDownloadStrategy(api, 5).download("zone", ID, destination), HELLO_WORLD);
+      assertEquals(Files.toString(destination, Charsets.UTF_8), "hello world");
+      verify(api, imageApi);
+   }
+
+   public void testIgnoredRangeRestartsDownloadOfUnsizedImage() throws IOException {
+      ImageDetails unsized = HELLO_WORLD.toBuilder().size(null).build();
+      ImageApi imageApi = createMock(ImageApi.class);
+      GlanceApi api = apiFor(imageApi);
+      expect(imageApi.get(ID)).andReturn(unsized);
+      expect(imageApi.getAsStream(ID)).andReturn(dropsAfter("hello world", 6));
+      expect(imageApi.getAsResponse(ID, startAt(6))).andReturn(
+            HttpResponse.builder().statusCode(200).payload("hello world").build());
+      replay(api, imageApi);
+
+      assertEquals(new ImageDownloadStrategy(api, 5).download("zone", ID, destination), unsized);
+      assertEquals(Files.toString(destination, Charsets.UTF_8), "hello world");
+      verify(api, imageApi);
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void testWrongRangeIsRejected() {
+      HttpResponse response = HttpResponse.builder().statusCode(206).addHeader("Content-Range", "bytes 0-10/11")
+            .payload("hello world").build();
+      ImageDownloadStrategy.isRangeFrom(response, 6);
+   }
+
+   public void testFailedWriteResumesAfterTheLastHashedByte() throws IOException {
+      RandomAccessFile file = new RandomAccessFile(destination, "rw");
+      try {
+         Hasher md5 = Hashing.md5().newHasher();
+         try {
+            ImageDownloadStrategy.transfer(stream("hello world"), new FailingChannel(file.getChannel(), 4), 11L,
+                  md5);
+            fail("expected write failure");
+         } catch (IOException e) {
+            assertEquals(file.getChannel().position(), 0);
+         }
+         ImageDownloadStrategy.transfer(stream("hello world"), file.getChannel(), 11L, md5);
+         assertEquals(md5.hash().toString(), HELLO_WORLD.getChecksum().get());
+      } finally {
+         file.close();
+      }
+      assertEquals(Files.toString(destination, Charsets.UTF_8), "hello world");
+   }
+
+   public void testChecksumMismatchTruncatesFile() throws IOException {
+      ImageApi imageApi = createMock(ImageApi.class);
+      GlanceApi api = apiFor(imageApi);
+      expect(imageApi.get(ID)).andReturn(HELLO_WORLD);
+      expect(imageApi.getAsStream(ID)).andReturn(stream("hello w0rld"));
+      replay(api, imageApi);
+
+      try {
+         new ImageDownloadStrategy(api, 5).download("zone", ID, destination);
+         fail("expected checksum mismatch");
+      } catch (IllegalStateException e) {
+         assertEquals(destination.length(), 0);
+      }
+      verify(api, imageApi);
+   }
+
+   @Test(expectedExceptions = IOException.class)
+   public void testGivesUpAfterMaxRetriesWithoutProgress() throws Throwable {
+      ImageApi imageApi = createMock(ImageApi.class);
+      GlanceApi api = apiFor(imageApi);
+      expect(imageApi.get(ID)).andReturn(HELLO_WORLD);
+      expect(imageApi.getAsStream(ID)).andReturn(dropsAfter("hello world", 0)).times(2);
+      replay(api, imageApi);
+
+      try {
+         new ImageDownloadStrategy(api, 1).download("zone", ID, destination);
+      } catch (RuntimeException e) {
+         verify(api, imageApi);
+         throw e.getCause();
+      }
+   }
+
+   public void testImageNotFoundIsNull() {
+      ImageApi imageApi = createMock(ImageApi.class);
+      GlanceApi api = apiFor(imageApi);
+      expect(imageApi.get(ID)).andReturn(null);
+      replay(api, imageApi);
+
+      assertNull(new ImageDownloadStrategy(api, 5).download("zone", ID, destination));
+      verify(api, imageApi);
+   }
+
+   private static GlanceApi apiFor(ImageApi imageApi) {
+      GlanceApi api = createMock(GlanceApi.class);
+      expect(api.getImageApiForZone("zone")).andReturn(imageApi);
+      return api;
+   }
+
+   private static InputStream stream(String data) {
+      return new ByteArrayInputStream(data.getBytes(Charsets.UTF_8));
+   }
+
+   private static HttpResponse range(long start, String data) {
+      return HttpResponse.builder().statusCode(206).addHeader("Content-Range",
+            String.format("bytes %s-%s/*", start, start + data.length() - 1)).payload(data).build();
+   }
+
+   /**
+    * A channel whose first write stores {@code bytes} of the buffer and then fails.
+    */
+   static class FailingChannel extends FileChannel {
+      private final FileChannel delegate;
+      private final int bytes;
+
+      FailingChannel(FileChannel delegate, int bytes) {
+         this.delegate = delegate;
+         this.bytes = bytes;
+      }
+
+      @Override
+      public int write(ByteBuffer src) throws IOException {
+         src.limit(src.position() + bytes);
+         delegate.write(src);
+         throw new IOException("disk full");
+      }
+
+      @Override
+      public int read(ByteBuffer dst) throws IOException {
+         return delegate.read(dst);
+      }
+
+      @Override
+      public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+         return delegate.read(dsts, offset, length);
+      }
+
+      @Override
+      public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public long position() throws IOException {
+         return delegate.position();
+      }
+
+      @Override
+      public FileChannel position(long newPosition) throws IOException {
+         delegate.position(newPosition);
+         return this;
+      }
+
+      @Override
+      public long size() throws IOException {
+         return delegate.size();
+      }
+
+      @Override
+      public FileChannel truncate(long size) throws IOException {
+         delegate.truncate(size);
+         return this;
+      }
+
+      @Override
+      public void force(boolean metaData) throws IOException {
+         delegate.force(metaData);
+      }
+
+      @Override
+      public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public int read(ByteBuffer dst, long position) throws IOException {
+         return delegate.read(dst, position);
+      }
+
+      @Override
+      public int write(ByteBuffer src, long position) throws IOException {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public FileLock lock(long position, long size, boolean shared) throws IOException {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      protected void implCloseChannel() throws IOException {
+         // the delegate is closed with its file
+      }
+   }
+
+   /**
+    * @return a stream that fails once {@code bytes} of {@code data} are read
+    */
+   private static InputStream dropsAfter(String data, int bytes) {
+      return new FilterInputStream(new ByteArrayInputStream(data.getBytes(Charsets.UTF_8), 0, bytes)) {
+         @Override
+         public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read == -1)
+               throw new IOException("connection reset");
+            return read;
+         }
+      };
+   }
+}
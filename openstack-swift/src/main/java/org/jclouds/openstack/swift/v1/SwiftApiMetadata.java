@@ -20,6 +20,19 @@ package org.jclouds.openstack.swift.v1;
 
 import static org.jclouds.openstack.keystone.v2_0.config.KeystoneProperties.CREDENTIAL_TYPE;
 import static org.jclouds.openstack.keystone.v2_0.config.KeystoneProperties.SERVICE_TYPE;
+import static org.jclouds.openstack.swift.v1.config.SwiftProperties.BATCH_RETRY_DELAY_START;
+import static org.jclouds.openstack.swift.v1.config.SwiftProperties.DOWNLOAD_PART_SIZE;
+import static org.jclouds.openstack.swift.v1.config.SwiftProperties.LISTING_PARTITIONS;
+import static org.jclouds.openstack.swift.v1.config.SwiftProperties.MAX_IN_FLIGHT_PER_REGION;
+import static org.jclouds.openstack.swift.v1.config.SwiftProperties.MAX_PARALLEL_COPIES;
+import static org.jclouds.openstack.swift.v1.config.SwiftProperties.MAX_PARALLEL_RANGES;
+import static org.jclouds.openstack.swift.v1.config.SwiftProperties.MAX_PARALLEL_REPLICATIONS;
+import static org.jclouds.openstack.swift.v1.config.SwiftProperties.MAX_PARALLEL_SEGMENTS;
+import static org.jclouds.openstack.swift.v1.config.SwiftProperties.MAX_PARALLEL_SYNC_OPERATIONS;
+import static org.jclouds.openstack.swift.v1.config.SwiftProperties.OBJECT_CACHE_DIRECTORY;
+import static org.jclouds.openstack.swift.v1.config.SwiftProperties.OBJECT_CACHE_DISK_SIZE;
+import static org.jclouds.openstack.swift.v1.config.SwiftProperties.OBJECT_CACHE_HEAP_SIZE;
+import static org.jclouds.openstack.swift.v1.config.SwiftProperties.SEGMENT_SIZE;
 import java.net.URI;
 import java.util.Properties;
 import org.jclouds.apis.ApiMetadata;
@@ -58,6 +71,19 @@ public class SwiftApiMetadata extends BaseHttpApiMetadata<SwiftApi> {
       Properties properties = BaseHttpApiMetadata.defaultProperties();
       properties.setProperty(SERVICE_TYPE, ServiceType.OBJECT_STORE);
       properties.setProperty(CREDENTIAL_TYPE, CredentialTypes.PASSWORD_CREDENTIALS);
+      properties.setProperty(SEGMENT_SIZE, Long.toString(1024l * 1024 * 1024));
+      properties.setProperty(MAX_PARALLEL_SEGMENTS, "4");
+      properties.setProperty(DOWNLOAD_PART_SIZE, Long.toString(32l * 1024 * 1024));
+      properties.setProperty(MAX_PARALLEL_RANGES, "4");
+      properties.setProperty(LISTING_PARTITIONS, "8");
+      properties.setProperty(MAX_PARALLEL_COPIES, "8");
+      properties.setProperty(MAX_PARALLEL_SYNC_OPERATIONS, "4");
+      properties.setProperty(OBJECT_CACHE_HEAP_SIZE, Long.toString(16l * 1024 * 1024));
+      properties.setProperty(OBJECT_CACHE_DIRECTORY, "");
+      properties.setProperty(OBJECT_CACHE_DISK_SIZE, Long.toString(256l * 1024 * 1024));
+      properties.setProperty(MAX_IN_FLIGHT_PER_REGION, "16");
+      properties.setProperty(BATCH_RETRY_DELAY_START, "100");
+      properties.setProperty(MAX_PARALLEL_REPLICATIONS, "8");
       return properties;
    }
 
@@ -0,0 +1,199 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static org.jclouds.openstack.swift.v1.reference.SwiftHeaders.ACCOUNT_TEMPORARY_URL_KEY;
+
+import java.net.URI;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.jclouds.openstack.swift.v1.features.AccountApi;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.base.Throwables;
+
+/**
+ * Signs {@code GET} and {@code PUT} urls with the account's temporary url key, so that clients
+ * without credentials can transfer an object directly to or from the cluster until the url
+ * expires.
+ * <p/>
+ * The key is the {@code X-Account-Meta-Temp-URL-Key} account metadata, read through
+ * {@link AccountApi#get()}. Signing makes no request and, per thread, reuses its {@link Mac} and
+ * buffers, so urls can be minted at a high rate.
+ * 
+ * @author Adrian Cole
+ * @see <a href="http://docs.openstack.org/developer/swift/misc.html#module-swift.common.middleware.tempurl">tempurl</a>
+ */
+public class TemporaryUrlSigner {
+
+   static final String HMAC_SHA1 = "HmacSHA1";
+   static final String TEMPORARY_URL_KEY = "temp-url-key";
+   private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+   /**
+    * Signs with the key of the api's account, reading it again once {@code seconds} have passed so
+    * that a rotated key is picked up.
+    */
+   public static TemporaryUrlSigner checkApiEvery(final AccountApi api, long seconds) {
+      checkNotNull(api, "api");
+      Supplier<String> keySupplier = Suppliers.memoizeWithExpiration(new Supplier<String>() {
+         @Override
+         public String get() {
+            String key = api.get().getMetadata().get(TEMPORARY_URL_KEY);
+            checkState(key != null, "account has no temporary url key; set %s", ACCOUNT_TEMPORARY_URL_KEY);
+            return key;
+         }
+
+         @Override
+         public String toString() {
+            return "temporaryUrlKey(" + api + ")";
+         }
+      }, seconds, TimeUnit.SECONDS);
+      return new TemporaryUrlSigner(keySupplier);
+   }
+
+   /**
+    * Per thread signing state, rebuilt only when the key changes.
+    */
+   private static class Signer {
+      private final String key;
+      private final Mac mac;
+      private byte[] buffer = new byte[256];
+      private final char[] hex = new char[40];
+
+      private Signer(String key) {
+         this.key = key;
+         try {
+            mac = Mac.getInstance(HMAC_SHA1);
+            mac.init(new SecretKeySpec(key.getBytes(Charsets.UTF_8), HMAC_SHA1));
+         } catch (NoSuchAlgorithmException e) {
+            throw Throwables.propagate(e);
+         } catch (InvalidKeyException e) {
+            throw Throwables.propagate(e);
+         }
+      }
+
+      private String sign(String method, long expires, String path) {
+         int length = 0;
+         length = append(method, length);
+         length = append('\n', length);
+         length = append(Long.toString(expires), length);
+         length = append('\n', length);
+         length = append(path, length);
+         mac.update(buffer, 0, length);
+         byte[] digest = mac.doFinal();
+         for (int i = 0; i < digest.length; i++) {
+            hex[i * 2] = HEX[(digest[i] >> 4) & 0xf];
+            hex[i * 2 + 1] = HEX[digest[i] & 0xf];
+         }
+         return new String(hex);
+      }
+
+      private int append(String value, int offset) {
+         for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+               // rare; encode the rest of the value the slow way
+               byte[] encoded = value.substring(i).getBytes(Charsets.UTF_8);
+               ensureCapacity(offset + encoded.length);
+               System.arraycopy(encoded, 0, buffer, offset, encoded.length);
+               return offset + encoded.length;
+            }
+            offset = append(c, offset);
+         }
+         return offset;
+      }
+
+      private int append(char c, int offset) {
+         ensureCapacity(offset + 1);
+         buffer[offset] = (byte) c;
+         return offset + 1;
+      }
+
+      private void ensureCapacity(int capacity) {
+         if (capacity > buffer.length) {
+            byte[] grown = new byte[Math.max(capacity, buffer.length * 2)];
+            System.arraycopy(buffer, 0, grown, 0, buffer.length);
+            buffer = grown;
+         }
+      }
+   }
+
+   private final Supplier<String> keySupplier;
+   private final ThreadLocal<Signer> signers = new ThreadLocal<Signer>();
+
+   public TemporaryUrlSigner(Supplier<String> keySupplier) {
+      this.keySupplier = checkNotNull(keySupplier, "keySupplier");
+   }
+
+   /**
+    * Computes the {@code temp_url_sig} of a request.
+    * 
+    * @param method
+    *           the http method the url is good for, such as {@code GET} or {@code PUT}
+    * @param path
+    *           the unencoded path of the object, including the version and account, such as
+    *           {@code /v1/AUTH_account/container/object}
+    * @param expires
+    *           when the url stops working, in seconds since the epoch
+    * @return the hex encoded HMAC-SHA1 signature
+    */
+   public String sign(String method, String path, long expires) {
+      checkArgument(!checkNotNull(method, "method").isEmpty(), "method");
+      checkArgument(checkNotNull(path, "path").startsWith("/"), "path must be absolute: %s", path);
+      String key = keySupplier.get();
+      Signer signer = signers.get();
+      if (signer == null || !signer.key.equals(key)) {
+         signer = new Signer(key);
+         signers.set(signer);
+      }
+      return signer.sign(method, expires, path);
+   }
+
+   /**
+    * Creates a url that allows one http method on an object until it expires.
+    * 
+    * @param objectUri
+    *           the object's url, as returned by {@link org.jclouds.openstack.swift.v1.domain.SwiftObject#getUri()}
+    * @param expires
+    *           when the url stops working, in seconds since the epoch
+    */
+   public URI temporaryUrl(String method, URI objectUri, long expires) {
+      checkNotNull(objectUri, "objectUri");
+      checkArgument(objectUri.getRawQuery() == null, "objectUri must not have a query: %s", objectUri);
+      String signature = sign(method, objectUri.getPath(), expires);
+      return URI.create(new StringBuilder(objectUri.toString().length() + 80).append(objectUri.toString())
+            .append("?temp_url_sig=").append(signature).append("&temp_url_expires=").append(expires).toString());
+   }
+
+   @Override
+   public String toString() {
+      return "TemporaryUrlSigner(" + keySupplier + ")";
+   }
+}
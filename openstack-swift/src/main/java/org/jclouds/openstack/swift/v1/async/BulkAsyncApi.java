@@ -0,0 +1,83 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.async;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.Callable;
+
+import org.jclouds.io.Payload;
+import org.jclouds.openstack.swift.v1.domain.ArchiveFormat;
+import org.jclouds.openstack.swift.v1.domain.BulkDeleteResponse;
+import org.jclouds.openstack.swift.v1.domain.ExtractArchiveResponse;
+import org.jclouds.openstack.swift.v1.features.BulkApi;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Runs {@link BulkApi} calls on an executor, returning their result as a future.
+ * 
+ * @author Adrian Cole
+ * @see BulkApi
+ */
+public class BulkAsyncApi {
+
+   private final BulkApi api;
+   private final ListeningExecutorService executor;
+
+   public BulkAsyncApi(BulkApi api, ListeningExecutorService executor) {
+      this.api = checkNotNull(api, "api");
+      this.executor = checkNotNull(executor, "executor");
+   }
+
+   /**
+    * @see BulkApi#bulkDelete(Iterable)
+    */
+   public ListenableFuture<BulkDeleteResponse> bulkDelete(final Iterable<String> paths) {
+      return executor.submit(new Callable<BulkDeleteResponse>() {
+         public BulkDeleteResponse call() {
+            return api.bulkDelete(paths);
+         }
+      });
+   }
+
+   /**
+    * @see BulkApi#extractArchive(ArchiveFormat, Payload)
+    */
+   public ListenableFuture<ExtractArchiveResponse> extractArchive(final ArchiveFormat format, final Payload archive) {
+      return executor.submit(new Callable<ExtractArchiveResponse>() {
+         public ExtractArchiveResponse call() {
+            return api.extractArchive(format, archive);
+         }
+      });
+   }
+
+   /**
+    * @see BulkApi#extractArchive(String, ArchiveFormat, Payload)
+    */
+   public ListenableFuture<ExtractArchiveResponse> extractArchive(final String path, final ArchiveFormat format,
+         final Payload archive) {
+      return executor.submit(new Callable<ExtractArchiveResponse>() {
+         public ExtractArchiveResponse call() {
+            return api.extractArchive(path, format, archive);
+         }
+      });
+   }
+}
@@ -0,0 +1,105 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.async;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.Callable;
+
+import org.jclouds.collect.PagedIterable;
+import org.jclouds.openstack.swift.v1.domain.Container;
+import org.jclouds.openstack.swift.v1.features.ContainerApi;
+import org.jclouds.openstack.swift.v1.options.ListContainersOptions;
+
+import com.google.common.collect.FluentIterable;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Runs {@link ContainerApi} calls on an executor, returning their result as a future.
+ * 
+ * @author Adrian Cole
+ * @see ContainerApi
+ */
+public class ContainerAsyncApi {
+
+   private final ContainerApi api;
+   private final ListeningExecutorService executor;
+
+   public ContainerAsyncApi(ContainerApi api, ListeningExecutorService executor) {
+      this.api = checkNotNull(api, "api");
+      this.executor = checkNotNull(executor, "executor");
+   }
+
+   /**
+    * @see ContainerApi#list()
+    */
+   public ListenableFuture<FluentIterable<? extends Container>> list() {
+      return executor.submit(new Callable<FluentIterable<? extends Container>>() {
+         public FluentIterable<? extends Container> call() {
+            return api.list();
+         }
+      });
+   }
+
+   /**
+    * @see ContainerApi#list(ListContainersOptions)
+    */
+   public ListenableFuture<FluentIterable<? extends Container>> list(final ListContainersOptions options) {
+      return executor.submit(new Callable<FluentIterable<? extends Container>>() {
+         public FluentIterable<? extends Container> call() {
+            return api.list(options);
+         }
+      });
+   }
+
+   /**
+    * @see ContainerApi#listAll()
+    */
+   public ListenableFuture<PagedIterable<Container>> listAll() {
+      return executor.submit(new Callable<PagedIterable<Container>>() {
+         public PagedIterable<Container> call() {
+            return api.listAll();
+         }
+      });
+   }
+
+   /**
+    * @see ContainerApi#get(String)
+    */
+   public ListenableFuture<Container> get(final String container) {
+      return executor.submit(new Callable<Container>() {
+         public Container call() {
+            return api.get(container);
+         }
+      });
+   }
+
+   /**
+    * @see ContainerApi#create(String)
+    */
+   public ListenableFuture<Void> create(final String container) {
+      return executor.submit(new Callable<Void>() {
+         public Void call() {
+            api.create(container);
+            return null;
+         }
+      });
+   }
+}
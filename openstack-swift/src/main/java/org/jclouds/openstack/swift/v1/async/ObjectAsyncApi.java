@@ -0,0 +1,264 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.async;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import org.jclouds.collect.PagedIterable;
+import org.jclouds.http.options.GetOptions;
+import org.jclouds.io.Payload;
+import org.jclouds.openstack.swift.v1.domain.Segment;
+import org.jclouds.openstack.swift.v1.domain.SwiftObject;
+import org.jclouds.openstack.swift.v1.features.ObjectApi;
+import org.jclouds.openstack.swift.v1.options.ExpirationOptions;
+import org.jclouds.openstack.swift.v1.options.ListObjectsOptions;
+
+import com.google.common.collect.FluentIterable;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Runs {@link ObjectApi} calls on an executor, returning their result as a future. Futures of
+ * {@code get} complete once the response headers arrive; the payload is read by the caller.
+ * 
+ * @author Adrian Cole
+ * @see ObjectApi
+ */
+public class ObjectAsyncApi {
+
+   private final ObjectApi api;
+   private final ListeningExecutorService executor;
+
+   public ObjectAsyncApi(ObjectApi api, ListeningExecutorService executor) {
+      this.api = checkNotNull(api, "api");
+      this.executor = checkNotNull(executor, "executor");
+   }
+
+   /**
+    * @see ObjectApi#list(String)
+    */
+   public ListenableFuture<FluentIterable<SwiftObject>> list(final String container) {
+      return executor.submit(new Callable<FluentIterable<SwiftObject>>() {
+         public FluentIterable<SwiftObject> call() {
+            return api.list(container);
+         }
+      });
+   }
+
+   /**
+    * @see ObjectApi#list(String, ListObjectsOptions)
+    */
+   public ListenableFuture<FluentIterable<SwiftObject>> list(final String container, final ListObjectsOptions options) {
+      return executor.submit(new Callable<FluentIterable<SwiftObject>>() {
+         public FluentIterable<SwiftObject> call() {
+            return api.list(container, options);
+         }
+      });
+   }
+
+   /**
+    * @see ObjectApi#listAll(String)
+    */
+   public ListenableFuture<PagedIterable<SwiftObject>> listAll(final String container) {
+      return executor.submit(new Callable<PagedIterable<SwiftObject>>() {
+         public PagedIterable<SwiftObject> call() {
+            return api.listAll(container);
+         }
+      });
+   }
+
+   /**
+    * @see ObjectApi#listAll(String, ListObjectsOptions)
+    */
+   public ListenableFuture<PagedIterable<SwiftObject>> listAll(final String container,
+         final ListObjectsOptions options) {
+      return executor.submit(new Callable<PagedIterable<SwiftObject>>() {
+         public PagedIterable<SwiftObject> call() {
+            return api.listAll(container, options);
+         }
+      });
+   }
+
+   /**
+    * @see ObjectApi#get(String, String)
+    */
+   public ListenableFuture<SwiftObject> get(final String container, final String name) {
+      return executor.submit(new Callable<SwiftObject>() {
+         public SwiftObject call() {
+            return api.get(container, name);
+         }
+      });
+   }
+
+   /**
+    * @see ObjectApi#get(String, String, GetOptions)
+    */
+   public ListenableFuture<SwiftObject> get(final String container, final String name, final GetOptions options) {
+      return executor.submit(new Callable<SwiftObject>() {
+         public SwiftObject call() {
+            return api.get(container, name, options);
+         }
+      });
+   }
+
+   /**
+    * @see ObjectApi#head(String, String)
+    */
+   public ListenableFuture<SwiftObject> head(final String container, final String name) {
+      return executor.submit(new Callable<SwiftObject>() {
+         public SwiftObject call() {
+            return api.head(container, name);
+         }
+      });
+   }
+
+   /**
+    * @see ObjectApi#put(String, String, Payload)
+    */
+   public ListenableFuture<String> put(final String container, final String name, final Payload payload) {
+      return executor.submit(new Callable<String>() {
+         public String call() {
+            return api.put(container, name, payload);
+         }
+      });
+   }
+
+   /**
+    * @see ObjectApi#put(String, String, Payload, Map)
+    */
+   public ListenableFuture<String> put(final String container, final String name, final Payload payload,
+         final Map<String, String> metadata) {
+      return executor.submit(new Callable<String>() {
+         public String call() {
+            return api.put(container, name, payload, metadata);
+         }
+      });
+   }
+
+   /**
+    * @see ObjectApi#put(String, String, Payload, Map, ExpirationOptions)
+    */
+   public ListenableFuture<String> put(final String container, final String name, final Payload payload,
+         final Map<String, String> metadata, final ExpirationOptions options) {
+      return executor.submit(new Callable<String>() {
+         public String call() {
+            return api.put(container, name, payload, metadata, options);
+         }
+      });
+   }
+
+   /**
+    * @see ObjectApi#delete(String, String)
+    */
+   public ListenableFuture<Void> delete(final String container, final String name) {
+      return executor.submit(new Callable<Void>() {
+         public Void call() {
+            api.delete(container, name);
+            return null;
+         }
+      });
+   }
+
+   /**
+    * @see ObjectApi#copy(String, String, String, String)
+    */
+   public ListenableFuture<Boolean> copy(final String sourceContainer, final String sourceName,
+         final String destinationContainer, final String destinationName) {
+      return executor.submit(new Callable<Boolean>() {
+         public Boolean call() {
+            return api.copy(sourceContainer, sourceName, destinationContainer, destinationName);
+         }
+      });
+   }
+
+   /**
+    * @see ObjectApi#copy(String, String, String, String, Map)
+    */
+   public ListenableFuture<Boolean> copy(final String sourceContainer, final String sourceName,
+         final String destinationContainer, final String destinationName, final Map<String, String> metadata) {
+      return executor.submit(new Callable<Boolean>() {
+         public Boolean call() {
+            return api.copy(sourceContainer, sourceName, destinationContainer, destinationName, metadata);
+         }
+      });
+   }
+
+   /**
+    * @see ObjectApi#copyTo(String, String, String, String)
+    */
+   public ListenableFuture<Boolean> copyTo(final String sourceContainer, final String sourceName,
+         final String destinationContainer, final String destinationName) {
+      return executor.submit(new Callable<Boolean>() {
+         public Boolean call() {
+            return api.copyTo(sourceContainer, sourceName, destinationContainer, destinationName);
+         }
+      });
+   }
+
+   /**
+    * @see ObjectApi#updateMetadata(String, String, Map)
+    */
+   public ListenableFuture<Boolean> updateMetadata(final String container, final String name, final Map<String,
+         String> metadata) {
+      return executor.submit(new Callable<Boolean>() {
+         public Boolean call() {
+            return api.updateMetadata(container, name, metadata);
+         }
+      });
+   }
+
+   /**
+    * @see ObjectApi#updateMetadata(String, String, Map, ExpirationOptions)
+    */
+   public ListenableFuture<Boolean> updateMetadata(final String container, final String name,
+         final Map<String, String> metadata, final ExpirationOptions options) {
+      return executor.submit(new Callable<Boolean>() {
+         public Boolean call() {
+            return api.updateMetadata(container, name, metadata, options);
+         }
+      });
+   }
+
+   /**
+    * @see ObjectApi#putManifest(String, String, String)
+    */
+   public ListenableFuture<String> putManifest(final String container, final String name, final String segmentPrefix) {
+      return executor.submit(new Callable<String>() {
+         public String call() {
+            return api.putManifest(container, name, segmentPrefix);
+         }
+      });
+   }
+
+   /**
+    * @see ObjectApi#putStaticManifest(String, String, List)
+    */
+   public ListenableFuture<String> putStaticManifest(final String container, final String name,
+         final List<Segment> segments) {
+      return executor.submit(new Callable<String>() {
+         public String call() {
+            return api.putStaticManifest(container, name, segments);
+         }
+      });
+   }
+}
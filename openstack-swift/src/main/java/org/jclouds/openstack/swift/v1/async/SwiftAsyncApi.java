@@ -0,0 +1,81 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.async;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.openstack.swift.v1.SwiftApi;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * {@link com.google.common.util.concurrent.ListenableFuture} returning twins of the Swift feature
+ * apis. This is a convenience wrapper, not non-blocking I/O: each call runs the blocking
+ * {@link SwiftApi} call on the user executor ({@code jclouds.user-threads}), and holds one of its
+ * threads until the response arrives. The executor's size therefore bounds how many requests are
+ * on the wire at once, and further calls queue until a thread is free.
+ * 
+ * @author Adrian Cole
+ */
+@Singleton
+public class SwiftAsyncApi {
+
+   private final SwiftApi api;
+   private final ListeningExecutorService userExecutor;
+
+   @Inject
+   public SwiftAsyncApi(SwiftApi api, @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
+      this.api = checkNotNull(api, "api");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+   }
+
+   /**
+    * Provides asynchronous access to Account features.
+    */
+   public AccountAsyncApi getAccountApiForRegion(@Nullable String region) {
+      return new AccountAsyncApi(api.getAccountApiForRegion(region), userExecutor);
+   }
+
+   /**
+    * Provides asynchronous access to Container features.
+    */
+   public ContainerAsyncApi getContainerApiForRegion(@Nullable String region) {
+      return new ContainerAsyncApi(api.getContainerApiForRegion(region), userExecutor);
+   }
+
+   /**
+    * Provides asynchronous access to Object features.
+    */
+   public ObjectAsyncApi getObjectApiForRegion(@Nullable String region) {
+      return new ObjectAsyncApi(api.getObjectApiForRegion(region), userExecutor);
+   }
+
+   /**
+    * Provides asynchronous access to Bulk features.
+    */
+   public BulkAsyncApi getBulkApiForRegion(@Nullable String region) {
+      return new BulkAsyncApi(api.getBulkApiForRegion(region), userExecutor);
+   }
+}
@@ -0,0 +1,68 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.binders;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.openstack.swift.v1.reference.SwiftHeaders.OBJECT_METADATA_PREFIX;
+
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.jclouds.http.HttpRequest;
+import org.jclouds.rest.Binder;
+
+import com.google.common.collect.ImmutableMultimap;
+
+/**
+ * Binds a map of user metadata to {@code X-*-Meta-} headers. Keys that already carry the prefix
+ * are passed through unchanged.
+ * 
+ * @author Adrian Cole
+ */
+public class BindMetadataToHeaders implements Binder {
+
+   public static class BindObjectMetadataToHeaders extends BindMetadataToHeaders {
+      BindObjectMetadataToHeaders() {
+         super(OBJECT_METADATA_PREFIX);
+      }
+   }
+
+   private final String metadataPrefix;
+
+   protected BindMetadataToHeaders(String metadataPrefix) {
+      this.metadataPrefix = checkNotNull(metadataPrefix, "metadataPrefix");
+   }
+
+   @SuppressWarnings("unchecked")
+   @Override
+   public <R extends HttpRequest> R bindToRequest(R request, Object input) {
+      checkNotNull(request, "request");
+      checkArgument(checkNotNull(input, "input") instanceof Map<?, ?>, "this binder is only valid for Maps!");
+      Map<String, String> metadata = Map.class.cast(input);
+      ImmutableMultimap.Builder<String, String> headers = ImmutableMultimap.builder();
+      for (Entry<String, String> keyVal : metadata.entrySet()) {
+         String key = keyVal.getKey();
+         if (!key.regionMatches(true, 0, metadataPrefix, 0, metadataPrefix.length()))
+            key = metadataPrefix + key;
+         headers.put(key, keyVal.getValue());
+      }
+      return (R) request.toBuilder().replaceHeaders(headers.build()).build();
+   }
+}
@@ -0,0 +1,62 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.binders;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.util.Strings2.urlEncode;
+
+import javax.ws.rs.core.MediaType;
+
+import org.jclouds.http.HttpRequest;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.rest.Binder;
+
+/**
+ * Binds {@code container/object} paths to the body of a {@code bulk-delete} request, url encoded
+ * and one per line.
+ * 
+ * @author Adrian Cole
+ */
+public class BindPathsToBulkDeletePayload implements Binder {
+
+   /**
+    * The most paths the server accepts in one request.
+    */
+   public static final int MAX_PATHS = 10000;
+
+   @Override
+   public <R extends HttpRequest> R bindToRequest(R request, Object input) {
+      checkNotNull(request, "request");
+      checkArgument(checkNotNull(input, "input") instanceof Iterable<?>, "this binder is only valid for Iterables!");
+      StringBuilder body = new StringBuilder();
+      int count = 0;
+      for (Object path : Iterable.class.cast(input)) {
+         checkArgument(++count <= MAX_PATHS, "at most %s paths can be deleted in one request", MAX_PATHS);
+         if (count > 1)
+            body.append('\n');
+         body.append(urlEncode(checkNotNull(path, "path").toString(), '/'));
+      }
+      Payload payload = Payloads.newStringPayload(body.toString());
+      payload.getContentMetadata().setContentType(MediaType.TEXT_PLAIN);
+      request.setPayload(payload);
+      return request;
+   }
+}
@@ -0,0 +1,467 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.cache;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.openstack.swift.v1.config.SwiftProperties.OBJECT_CACHE_DIRECTORY;
+import static org.jclouds.openstack.swift.v1.config.SwiftProperties.OBJECT_CACHE_DISK_SIZE;
+import static org.jclouds.openstack.swift.v1.config.SwiftProperties.OBJECT_CACHE_HEAP_SIZE;
+import static org.jclouds.util.Throwables2.getFirstThrowableOfType;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.URI;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.blobstore.reference.BlobStoreConstants;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.http.options.GetOptions;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.logging.Logger;
+import org.jclouds.openstack.swift.v1.SwiftApi;
+import org.jclouds.openstack.swift.v1.domain.SwiftObject;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Maps;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closeables;
+import com.google.common.io.Files;
+
+/**
+ * Keeps the content of objects that are read over and over, and revalidates it on each read with a
+ * conditional {@code GET}. The request carries the cached {@code ETag} in {@code If-None-Match} and
+ * the cached {@code Last-Modified} in {@code If-Modified-Since}; while the object is unchanged Swift
+ * answers {@code 304 Not Modified} with no body, and the cached content is returned instead.
+ * <p/>
+ * Content is held on the heap up to {@link org.jclouds.openstack.swift.v1.config.SwiftProperties#OBJECT_CACHE_HEAP_SIZE
+ * a size limit}. Past it, the least recently read objects are moved to files in
+ * {@link org.jclouds.openstack.swift.v1.config.SwiftProperties#OBJECT_CACHE_DIRECTORY the cache directory},
+ * which is itself bounded; without a directory they are dropped. Objects bigger than the heap limit
+ * are written straight to disk, or passed through uncached. Objects whose size is not known up front
+ * are read onto the heap only up to its limit; past it, they are passed through uncached.
+ * 
+ * @author Adrian Cole
+ */
+@Singleton
+public class ObjectCache {
+
+   private static final int NOT_MODIFIED = 304;
+
+   /**
+    * Guarded by the cache; exactly one of {@code bytes} and {@code file} is set until the entry is
+    * discarded. An entry keeps its {@code bytes} while they are being spilled to a file.
+    */
+   private static class CachedObject {
+      private final String key;
+      private final URI uri;
+      private final String etag;
+      private final Date lastModified;
+      private final Map<String, String> metadata;
+      private final String contentType;
+      private final long size;
+      private byte[] bytes;
+      private File file;
+      private boolean spilling;
+
+      private CachedObject(String key, SwiftObject object, long size) {
+         this.key = key;
+         this.uri = object.getUri();
+         this.etag = object.getEtag();
+         this.lastModified = object.getLastModified();
+         this.metadata = object.getMetadata();
+         this.contentType = object.getPayload().getContentMetadata().getContentType();
+         this.size = size;
+      }
+   }
+
+   @Resource
+   @Named(BlobStoreConstants.BLOBSTORE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final SwiftApi api;
+   private final long maxHeapBytes;
+   private final File directory;
+   private final long maxDiskBytes;
+
+   // access ordered, so iteration starts at the least recently read object
+   private final LinkedHashMap<String, CachedObject> entries = new LinkedHashMap<String, CachedObject>(16, 0.75f,
+         true);
+   private long heapBytes;
+   private long spillingBytes;
+   private long diskBytes;
+
+   private final AtomicLong hits = new AtomicLong();
+   private final AtomicLong misses = new AtomicLong();
+   private final AtomicLong revalidations = new AtomicLong();
+
+   /**
+    * @param directory
+    *           where objects that do not fit on the heap are kept, or an empty string to keep
+    *           objects on the heap only
+    */
+   @Inject
+   public ObjectCache(SwiftApi api, @Named(OBJECT_CACHE_HEAP_SIZE) long maxHeapBytes,
+         @Named(OBJECT_CACHE_DIRECTORY) String directory, @Named(OBJECT_CACHE_DISK_SIZE) long maxDiskBytes) {
+      this.api = checkNotNull(api, "api");
+      checkArgument(maxHeapBytes >= 0, "maxHeapBytes must be non-negative");
+      checkArgument(maxDiskBytes >= 0, "maxDiskBytes must be non-negative");
+      this.maxHeapBytes = maxHeapBytes;
+      this.directory = checkNotNull(directory, "directory").isEmpty() ? null : new File(directory);
+      this.maxDiskBytes = maxDiskBytes;
+   }
+
+   /**
+    * Reads an object, from the cache if Swift reports it unchanged since it was cached. The
+    * returned payload must be consumed or {@link Payload#release() released} by the caller.
+    * 
+    * @return the object, or null if it or its container does not exist
+    */
+   @Nullable
+   public SwiftObject get(String region, String container, String name) {
+      String key = key(region, container, name);
+      CachedObject cached = lookup(key);
+      GetOptions options = new GetOptions();
+      if (cached != null) {
+         revalidations.incrementAndGet();
+         if (cached.etag != null)
+            options.ifETagDoesntMatch(cached.etag);
+         if (cached.lastModified != null)
+            options.ifModifiedSince(cached.lastModified);
+      }
+      SwiftObject object;
+      try {
+         object = api.getObjectApiForRegion(region).get(container, name, options);
+      } catch (RuntimeException e) {
+         if (cached == null || !isNotModified(e))
+            throw e;
+         Payload payload = open(cached);
+         if (payload != null) {
+            hits.incrementAndGet();
+            return toObject(name, cached, payload);
+         }
+         // evicted while revalidating
+         object = api.getObjectApiForRegion(region).get(container, name, new GetOptions());
+      }
+      misses.incrementAndGet();
+      if (object == null) {
+         remove(key);
+         return null;
+      }
+      return store(key, object);
+   }
+
+   /**
+    * Forgets an object, so that the next read fetches its content.
+    */
+   public void invalidate(String region, String container, String name) {
+      remove(key(region, container, name));
+   }
+
+   /**
+    * Forgets all objects and deletes their files.
+    */
+   public synchronized void invalidateAll() {
+      for (CachedObject cached : entries.values())
+         discard(cached);
+      entries.clear();
+   }
+
+   /**
+    * @return the number of reads answered from the cache because the object was not modified
+    */
+   public long getHitCount() {
+      return hits.get();
+   }
+
+   /**
+    * @return the number of reads that transferred the object's content
+    */
+   public long getMissCount() {
+      return misses.get();
+   }
+
+   /**
+    * @return the number of conditional requests made for cached objects, whether or not they had
+    *         changed
+    */
+   public long getRevalidationCount() {
+      return revalidations.get();
+   }
+
+   /**
+    * @return the number of content bytes currently held on the heap
+    */
+   public synchronized long getHeapBytes() {
+      return heapBytes;
+   }
+
+   /**
+    * @return the number of content bytes currently held in files
+    */
+   public synchronized long getDiskBytes() {
+      return diskBytes;
+   }
+
+   @Override
+   public String toString() {
+      return Objects.toStringHelper(this).add("hits", hits).add("misses", misses)
+            .add("revalidations", revalidations).toString();
+   }
+
+   private static String key(String region, String container, String name) {
+      return checkNotNull(region, "region") + '/' + checkNotNull(container, "container") + '/'
+            + checkNotNull(name, "name");
+   }
+
+   private static boolean isNotModified(RuntimeException e) {
+      HttpResponseException response = getFirstThrowableOfType(e, HttpResponseException.class);
+      return response != null && response.getResponse() != null
+            && response.getResponse().getStatusCode() == NOT_MODIFIED;
+   }
+
+   private SwiftObject store(String key, SwiftObject object) {
+      Payload payload = object.getPayload();
+      Long length = payload.getContentMetadata().getContentLength();
+      boolean toDisk = length != null && length > maxHeapBytes;
+      if (toDisk && (directory == null || length > maxDiskBytes)) {
+         // too big to cache; hand the open response through
+         remove(key);
+         return object;
+      }
+      InputStream in = payload.getInput();
+      boolean passedThrough = false;
+      try {
+         if (toDisk) {
+            File file = createFile();
+            try {
+               Files.asByteSink(file).writeFrom(in);
+            } catch (IOException e) {
+               file.delete();
+               throw e;
+            }
+            CachedObject cached = new CachedObject(key, object, file.length());
+            cached.file = file;
+            // opened before the entry is published, so a concurrent eviction cannot pull it away
+            Payload cachedPayload = Payloads.newInputStreamPayload(new FileInputStream(file));
+            put(key, cached);
+            return toObject(object.getName(), cached, cachedPayload);
+         }
+         // without a length, read one byte past the heap limit to learn whether the object fits
+         byte[] bytes = ByteStreams.toByteArray(ByteStreams.limit(in, maxHeapBytes < Long.MAX_VALUE ? maxHeapBytes + 1
+               : maxHeapBytes));
+         if (bytes.length > maxHeapBytes) {
+            remove(key);
+            passedThrough = true;
+            return passThrough(object, bytes, in);
+         }
+         CachedObject cached = new CachedObject(key, object, bytes.length);
+         cached.bytes = bytes;
+         put(key, cached);
+         return toObject(object.getName(), cached, Payloads.newByteArrayPayload(bytes));
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      } finally {
+         if (!passedThrough) {
+            closeQuietly(in);
+            payload.release();
+         }
+      }
+   }
+
+   /**
+    * @return the object with a payload that replays the bytes already read, then the rest of the
+    *         response
+    */
+   private static SwiftObject passThrough(SwiftObject object, byte[] head, InputStream rest) {
+      Payload payload = Payloads.newInputStreamPayload(new SequenceInputStream(new ByteArrayInputStream(head), rest));
+      payload.getContentMetadata().setContentType(object.getPayload().getContentMetadata().getContentType());
+      return object.toBuilder().payload(payload).build();
+   }
+
+   private static SwiftObject toObject(String name, CachedObject cached, Payload payload) {
+      payload.getContentMetadata().setContentType(cached.contentType);
+      payload.getContentMetadata().setContentLength(cached.size);
+      return SwiftObject.builder()
+                        .uri(cached.uri)
+                        .name(name)
+                        .etag(cached.etag)
+                        .lastModified(cached.lastModified)
+                        .metadata(cached.metadata)
+                        .payload(payload).build();
+   }
+
+   private synchronized CachedObject lookup(String key) {
+      return entries.get(key);
+   }
+
+   /**
+    * @return the cached content, or null if the entry has been discarded
+    */
+   private synchronized Payload open(CachedObject cached) {
+      if (cached.bytes != null)
+         return Payloads.newByteArrayPayload(cached.bytes);
+      if (cached.file != null) {
+         try {
+            return Payloads.newInputStreamPayload(new FileInputStream(cached.file));
+         } catch (FileNotFoundException e) {
+            logger.warn(e, "<< cache file %s disappeared", cached.file);
+         }
+      }
+      return null;
+   }
+
+   private void put(String key, CachedObject cached) {
+      Map<CachedObject, byte[]> victims;
+      synchronized (this) {
+         CachedObject previous = entries.put(key, cached);
+         if (previous != null)
+            discard(previous);
+         if (cached.bytes != null)
+            heapBytes += cached.size;
+         else
+            diskBytes += cached.size;
+         victims = trim();
+      }
+      // files are written outside the lock, so reads of other objects are not held up by the disk
+      for (Map.Entry<CachedObject, byte[]> victim : victims.entrySet())
+         spilled(victim.getKey(), write(victim.getValue()));
+   }
+
+   private synchronized void remove(String key) {
+      CachedObject previous = entries.remove(key);
+      if (previous != null)
+         discard(previous);
+   }
+
+   private void discard(CachedObject cached) {
+      if (cached.bytes != null) {
+         heapBytes -= cached.size;
+         cached.bytes = null;
+      }
+      if (cached.file != null) {
+         diskBytes -= cached.size;
+         if (!cached.file.delete())
+            logger.warn("<< could not delete cache file %s", cached.file);
+         cached.file = null;
+      }
+   }
+
+   /**
+    * Brings the heap back under its limit, dropping the least recently read objects or, when there
+    * is a cache directory, marking them to be spilled by the caller once it has released the lock.
+    * 
+    * @return the content of each object to spill
+    */
+   private Map<CachedObject, byte[]> trim() {
+      Map<CachedObject, byte[]> victims = Maps.newLinkedHashMap();
+      for (Iterator<CachedObject> i = entries.values().iterator(); heapBytes - spillingBytes > maxHeapBytes
+            && i.hasNext();) {
+         CachedObject eldest = i.next();
+         if (eldest.bytes == null || eldest.spilling)
+            continue;
+         if (directory == null) {
+            i.remove();
+            discard(eldest);
+         } else {
+            eldest.spilling = true;
+            spillingBytes += eldest.size;
+            victims.put(eldest, eldest.bytes);
+         }
+      }
+      trimDisk();
+      return victims;
+   }
+
+   private void trimDisk() {
+      for (Iterator<CachedObject> i = entries.values().iterator(); diskBytes > maxDiskBytes && i.hasNext();) {
+         CachedObject eldest = i.next();
+         if (eldest.file == null)
+            continue;
+         i.remove();
+         discard(eldest);
+      }
+   }
+
+   /**
+    * Moves a spilled object from the heap to its file, or drops it if it could not be written.
+    */
+   private synchronized void spilled(CachedObject cached, @Nullable File file) {
+      cached.spilling = false;
+      spillingBytes -= cached.size;
+      if (cached.bytes == null) {
+         // discarded while it was being written
+         if (file != null && !file.delete())
+            logger.warn("<< could not delete cache file %s", file);
+         return;
+      }
+      heapBytes -= cached.size;
+      cached.bytes = null;
+      if (file != null) {
+         cached.file = file;
+         diskBytes += cached.size;
+         trimDisk();
+      } else {
+         entries.remove(cached.key);
+      }
+   }
+
+   @Nullable
+   private File write(byte[] bytes) {
+      try {
+         File file = createFile();
+         Files.write(bytes, file);
+         return file;
+      } catch (IOException e) {
+         logger.warn(e, "<< could not spill to %s", directory);
+         return null;
+      }
+   }
+
+   private File createFile() throws IOException {
+      if (!directory.isDirectory() && !directory.mkdirs())
+         throw new IOException("could not create " + directory);
+      return File.createTempFile("object", ".cache", directory);
+   }
+
+   private static void closeQuietly(InputStream in) {
+      try {
+         Closeables.close(in, true);
+      } catch (IOException e) {
+         // swallowed
+      }
+   }
+}
@@ -0,0 +1,112 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.collect;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import org.jclouds.collect.IterableWithMarker;
+import org.jclouds.collect.PagedIterable;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * A {@link PagedIterable} that fetches the next page in the background as soon as the current one
+ * is handed out, so that the round-trip for page N+1 overlaps with the caller consuming page N.
+ * <p/>
+ * ex.
+ * 
+ * <pre>
+ * for (Container container : prefetch(containerApi.listAll(), userExecutor).concat())
+ *    process(container);
+ * </pre>
+ * 
+ * @author Adrian Cole
+ */
+@Beta
+public class PrefetchingPagedIterable<T> extends PagedIterable<T> {
+
+   /**
+    * Decorates {@code pages} so that each page is requested before the previous one is consumed.
+    * 
+    * @param executor
+    *           runs the requests for the next page
+    */
+   public static <T> PagedIterable<T> prefetch(PagedIterable<T> pages, ListeningExecutorService executor) {
+      return new PrefetchingPagedIterable<T>(pages, executor);
+   }
+
+   private final PagedIterable<T> pages;
+   private final ListeningExecutorService executor;
+
+   protected PrefetchingPagedIterable(PagedIterable<T> pages, ListeningExecutorService executor) {
+      this.pages = checkNotNull(pages, "pages");
+      this.executor = checkNotNull(executor, "executor");
+   }
+
+   @Override
+   public Iterator<IterableWithMarker<T>> iterator() {
+      final Iterator<IterableWithMarker<T>> delegate = pages.iterator();
+      return new AbstractIterator<IterableWithMarker<T>>() {
+         // the delegate is only ever touched by one fetch at a time, as each is submitted after the
+         // previous one completes
+         private ListenableFuture<Optional<IterableWithMarker<T>>> next = fetch();
+
+         @Override
+         protected IterableWithMarker<T> computeNext() {
+            Optional<IterableWithMarker<T>> page = await(next);
+            if (!page.isPresent())
+               return endOfData();
+            next = fetch();
+            return page.get();
+         }
+
+         private ListenableFuture<Optional<IterableWithMarker<T>>> fetch() {
+            return executor.submit(new Callable<Optional<IterableWithMarker<T>>>() {
+               @Override
+               public Optional<IterableWithMarker<T>> call() {
+                  return delegate.hasNext() ? Optional.of(delegate.next()) : Optional.<IterableWithMarker<T>> absent();
+               }
+            });
+         }
+      };
+   }
+
+   private static <V> V await(ListenableFuture<V> future) {
+      try {
+         return Uninterruptibles.getUninterruptibly(future);
+      } catch (ExecutionException e) {
+         throw Throwables.propagate(e.getCause());
+      }
+   }
+
+   @Override
+   public String toString() {
+      return "prefetch(" + pages + ")";
+   }
+}
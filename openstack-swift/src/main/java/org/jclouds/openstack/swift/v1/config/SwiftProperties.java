@@ -25,4 +25,83 @@ package org.jclouds.openstack.swift.v1.config;
  */
 public class SwiftProperties {
 
+   /**
+    * Size in bytes of the segments a large object is split into when uploaded with
+    * {@link org.jclouds.openstack.swift.v1.strategy.ParallelSegmentedUploadStrategy}. Swift rejects
+    * single objects over 5GB; static large object segments must be at least 1MB.
+    */
+   public static final String SEGMENT_SIZE = "jclouds.swift.segment-size";
+
+   /**
+    * Maximum number of segments of one large object that are uploaded concurrently.
+    */
+   public static final String MAX_PARALLEL_SEGMENTS = "jclouds.swift.max-parallel-segments";
+
+   /**
+    * Size in bytes of the ranges a large object is split into when downloaded with
+    * {@link org.jclouds.openstack.swift.v1.strategy.ParallelRangedDownloadStrategy}.
+    */
+   public static final String DOWNLOAD_PART_SIZE = "jclouds.swift.download-part-size";
+
+   /**
+    * Maximum number of ranges of one object that are downloaded concurrently.
+    */
+   public static final String MAX_PARALLEL_RANGES = "jclouds.swift.max-parallel-ranges";
+
+   /**
+    * Number of disjoint name ranges a container listing is split into when listed with
+    * {@link org.jclouds.openstack.swift.v1.strategy.ParallelListingStrategy}.
+    */
+   public static final String LISTING_PARTITIONS = "jclouds.swift.listing-partitions";
+
+   /**
+    * Maximum number of server side copies that
+    * {@link org.jclouds.openstack.swift.v1.strategy.ParallelCopyStrategy} has in flight at once.
+    */
+   public static final String MAX_PARALLEL_COPIES = "jclouds.swift.max-parallel-copies";
+
+   /**
+    * Maximum number of uploads and deletes that
+    * {@link org.jclouds.openstack.swift.v1.strategy.DirectorySyncStrategy} has in flight at once.
+    */
+   public static final String MAX_PARALLEL_SYNC_OPERATIONS = "jclouds.swift.max-parallel-sync-operations";
+
+   /**
+    * Number of content bytes that {@link org.jclouds.openstack.swift.v1.cache.ObjectCache} holds on
+    * the heap before moving the least recently read objects to its directory.
+    */
+   public static final String OBJECT_CACHE_HEAP_SIZE = "jclouds.swift.object-cache.heap-size";
+
+   /**
+    * Directory that {@link org.jclouds.openstack.swift.v1.cache.ObjectCache} keeps objects in when
+    * they do not fit on the heap. Empty, the default, keeps objects on the heap only.
+    */
+   public static final String OBJECT_CACHE_DIRECTORY = "jclouds.swift.object-cache.directory";
+
+   /**
+    * Number of content bytes that {@link org.jclouds.openstack.swift.v1.cache.ObjectCache} keeps in
+    * its directory.
+    */
+   public static final String OBJECT_CACHE_DISK_SIZE = "jclouds.swift.object-cache.disk-size";
+
+   /**
+    * Maximum number of operations that
+    * {@link org.jclouds.openstack.swift.v1.strategy.ObjectBatchStrategy} has in flight against one
+    * region at once.
+    */
+   public static final String MAX_IN_FLIGHT_PER_REGION = "jclouds.swift.batch.max-in-flight-per-region";
+
+   /**
+    * Milliseconds that {@link org.jclouds.openstack.swift.v1.strategy.ObjectBatchStrategy} waits, at
+    * most, before its first retry of a throttled operation. The window doubles with each retry.
+    */
+   public static final String BATCH_RETRY_DELAY_START = "jclouds.swift.batch.retry-delay-start";
+
+   /**
+    * Maximum number of objects that
+    * {@link org.jclouds.openstack.swift.v1.strategy.ContainerReplicationStrategy} streams between
+    * regions at once.
+    */
+   public static final String MAX_PARALLEL_REPLICATIONS = "jclouds.swift.max-parallel-replications";
+
 }
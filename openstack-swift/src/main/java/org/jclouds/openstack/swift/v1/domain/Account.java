@@ -2,11 +2,17 @@ package org.jclouds.openstack.swift.v1.domain;
 
 import static com.google.common.base.Objects.equal;
 import static com.google.common.base.Objects.toStringHelper;
+import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.beans.ConstructorProperties;
+import java.util.Map;
+
+import org.jclouds.javax.annotation.Nullable;
 
 import com.google.common.base.Objects;
 import com.google.common.base.Objects.ToStringHelper;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
 
 /**
  * @author Adrian Cole
@@ -23,58 +29,104 @@ public class Account {
    }
 
    public static class Builder {
-      protected int containerCount;
-      protected long bytesUsed;
+      protected Long containerCount;
+      protected Long objectCount;
+      protected Long bytesUsed;
+      protected Map<String, String> metadata = ImmutableMap.of();
 
       /**
        * @see Account#getContainerCount()
        */
-      public Builder containerCount(int containerCount) {
+      public Builder containerCount(@Nullable Long containerCount) {
          this.containerCount = containerCount;
          return this;
       }
 
+      /**
+       * @see Account#getObjectCount()
+       */
+      public Builder objectCount(@Nullable Long objectCount) {
+         this.objectCount = objectCount;
+         return this;
+      }
+
       /**
        * @see Account#getBytesUsed()
        */
-      public Builder bytesUsed(long bytesUsed) {
+      public Builder bytesUsed(@Nullable Long bytesUsed) {
          this.bytesUsed = bytesUsed;
          return this;
       }
 
+      /**
+       * @see Account#getMetadata()
+       */
+      public Builder metadata(Map<String, String> metadata) {
+         this.metadata = ImmutableMap.copyOf(checkNotNull(metadata, "metadata"));
+         return this;
+      }
+
       public Account build() {
-         return new Account(containerCount, bytesUsed);
+         return new Account(containerCount, objectCount, bytesUsed, metadata);
       }
 
       public Builder fromAccountMetadata(Account from) {
-         return containerCount(from.getContainerCount()).bytesUsed(from.getBytesUsed());
+         return containerCount(from.getContainerCount().orNull()).objectCount(from.getObjectCount().orNull())
+               .bytesUsed(from.getBytesUsed().orNull()).metadata(from.getMetadata());
       }
    }
   
-   protected int containerCount;
-   protected long bytesUsed;
-
-   @ConstructorProperties({"containerCount", "bytesUsed"})
-   protected Account(int containerCount, long bytesUsed) {
-      this.containerCount = containerCount;
-      this.bytesUsed = bytesUsed;
+   protected Optional<Long> containerCount;
+   protected Optional<Long> objectCount;
+   protected Optional<Long> bytesUsed;
+   protected Map<String, String> metadata;
+
+   @ConstructorProperties({"containerCount", "objectCount", "bytesUsed", "metadata"})
+   protected Account(@Nullable Long containerCount, @Nullable Long objectCount, @Nullable Long bytesUsed,
+         Map<String, String> metadata) {
+      this.containerCount = Optional.fromNullable(containerCount);
+      this.objectCount = Optional.fromNullable(objectCount);
+      this.bytesUsed = Optional.fromNullable(bytesUsed);
+      this.metadata = ImmutableMap.copyOf(checkNotNull(metadata, "metadata"));
    }
 
    /**
     * 
-    * @return the number of containers in OpenStack Object Storage for the account
+    * @return the number of containers in OpenStack Object Storage for the account, if reported
     */
-   public int getContainerCount() {
+   public Optional<Long> getContainerCount() {
       return containerCount;
    }
 
    /**
-    * @return the total bytes stored in OpenStack Object Storage for the account
+    * @return the number of objects in all containers of the account, if reported
     */
-   public long getBytesUsed() {
+   public Optional<Long> getObjectCount() {
+      return objectCount;
+   }
+
+   /**
+    * @return the total bytes stored in OpenStack Object Storage for the account, if reported
+    */
+   public Optional<Long> getBytesUsed() {
       return bytesUsed;
    }
 
+   /**
+    * @return user metadata of the account, from {@code X-Account-Meta-} headers, keyed on the
+    *         lowercase name after the prefix
+    */
+   public Map<String, String> getMetadata() {
+      return metadata;
+   }
+
+   /**
+    * @return the most bytes the account may store, if the account quota middleware has a quota set
+    */
+   public Optional<Long> getQuotaBytes() {
+      return Container.longMetadata(metadata, "quota-bytes");
+   }
+
    @Override
    public boolean equals(Object object) {
       if (this == object) {
@@ -82,7 +134,9 @@ public class Account {
       }
       if (object instanceof Account) {
          final Account other = Account.class.cast(object);
-         return equal(getContainerCount(), other.getContainerCount()) && equal(getBytesUsed(), other.getBytesUsed());
+         return equal(getContainerCount(), other.getContainerCount())
+                  && equal(getObjectCount(), other.getObjectCount()) && equal(getBytesUsed(), other.getBytesUsed())
+                  && equal(getMetadata(), other.getMetadata());
       } else {
          return false;
       }
@@ -90,7 +144,7 @@ public class Account {
 
    @Override
    public int hashCode() {
-      return Objects.hashCode(getContainerCount(), getBytesUsed());
+      return Objects.hashCode(getContainerCount(), getObjectCount(), getBytesUsed(), getMetadata());
    }
 
    @Override
@@ -99,6 +153,7 @@ public class Account {
    }
 
    protected ToStringHelper string() {
-      return toStringHelper("").add("containerCount", getContainerCount()).add("bytesUsed", getBytesUsed());
+      return toStringHelper("").add("containerCount", getContainerCount()).add("objectCount", getObjectCount())
+            .add("bytesUsed", getBytesUsed()).add("metadata", getMetadata());
    }
 }
@@ -0,0 +1,47 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.domain;
+
+/**
+ * Formats of archives that the server can expand on upload.
+ * 
+ * @author Adrian Cole
+ */
+public enum ArchiveFormat {
+
+   TAR("tar"), TAR_GZ("tar.gz"), TAR_BZ2("tar.bz2");
+
+   private final String value;
+
+   private ArchiveFormat(String value) {
+      this.value = value;
+   }
+
+   /**
+    * @return the value of the {@code extract-archive} query parameter
+    */
+   public String value() {
+      return value;
+   }
+
+   @Override
+   public String toString() {
+      return value();
+   }
+}
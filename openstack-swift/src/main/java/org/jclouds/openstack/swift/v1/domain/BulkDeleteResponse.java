@@ -0,0 +1,206 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.domain;
+
+import static com.google.common.base.Objects.equal;
+import static com.google.common.base.Objects.toStringHelper;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Map;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Objects.ToStringHelper;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+/**
+ * The result of a {@code bulk-delete} request.
+ * <p/>
+ * The server reports counts for the paths that were deleted or not found, and the status of each
+ * path that failed. Only paths in {@link #getErrors()} need to be retried, unless
+ * {@link #getResponseStatus()} shows that the request as a whole failed.
+ * 
+ * @author Adrian Cole
+ * @see <a
+ *      href="http://docs.openstack.org/developer/swift/misc.html#module-swift.common.middleware.bulk">bulk
+ *      middleware</a>
+ */
+public class BulkDeleteResponse {
+
+   public static Builder builder() {
+      return new Builder();
+   }
+
+   public Builder toBuilder() {
+      return builder().fromBulkDeleteResponse(this);
+   }
+
+   public static class Builder {
+      protected int deleted;
+      protected int notFound;
+      protected Map<String, String> errors = Maps.newLinkedHashMap();
+      protected String responseStatus = "200 OK";
+      protected String responseBody = "";
+
+      /**
+       * @see BulkDeleteResponse#getDeleted()
+       */
+      public Builder deleted(int deleted) {
+         this.deleted = deleted;
+         return this;
+      }
+
+      /**
+       * @see BulkDeleteResponse#getNotFound()
+       */
+      public Builder notFound(int notFound) {
+         this.notFound = notFound;
+         return this;
+      }
+
+      /**
+       * @see BulkDeleteResponse#getErrors()
+       */
+      public Builder error(String path, String status) {
+         this.errors.put(path, status);
+         return this;
+      }
+
+      /**
+       * @see BulkDeleteResponse#getErrors()
+       */
+      public Builder errors(Map<String, String> errors) {
+         this.errors.putAll(checkNotNull(errors, "errors"));
+         return this;
+      }
+
+      /**
+       * @see BulkDeleteResponse#getResponseStatus()
+       */
+      public Builder responseStatus(String responseStatus) {
+         this.responseStatus = checkNotNull(responseStatus, "responseStatus");
+         return this;
+      }
+
+      /**
+       * @see BulkDeleteResponse#getResponseBody()
+       */
+      public Builder responseBody(String responseBody) {
+         this.responseBody = checkNotNull(responseBody, "responseBody");
+         return this;
+      }
+
+      public BulkDeleteResponse build() {
+         return new BulkDeleteResponse(deleted, notFound, errors, responseStatus, responseBody);
+      }
+
+      public Builder fromBulkDeleteResponse(BulkDeleteResponse from) {
+         return deleted(from.getDeleted()).notFound(from.getNotFound()).errors(from.getErrors())
+               .responseStatus(from.getResponseStatus()).responseBody(from.getResponseBody());
+      }
+   }
+
+   protected final int deleted;
+   protected final int notFound;
+   protected final Map<String, String> errors;
+   protected final String responseStatus;
+   protected final String responseBody;
+
+   protected BulkDeleteResponse(int deleted, int notFound, Map<String, String> errors, String responseStatus,
+         String responseBody) {
+      this.deleted = deleted;
+      this.notFound = notFound;
+      this.errors = ImmutableMap.copyOf(checkNotNull(errors, "errors"));
+      this.responseStatus = checkNotNull(responseStatus, "responseStatus");
+      this.responseBody = checkNotNull(responseBody, "responseBody");
+   }
+
+   /**
+    * @return the number of paths deleted
+    */
+   public int getDeleted() {
+      return deleted;
+   }
+
+   /**
+    * @return the number of paths that did not exist
+    */
+   public int getNotFound() {
+      return notFound;
+   }
+
+   /**
+    * @return the status, such as {@code 409 Conflict}, of each path that could not be deleted, keyed
+    *         on the path as the server reported it
+    */
+   public Map<String, String> getErrors() {
+      return errors;
+   }
+
+   /**
+    * @return the overall status of the request, such as {@code 200 OK} or {@code 400 Bad Request}
+    */
+   public String getResponseStatus() {
+      return responseStatus;
+   }
+
+   /**
+    * @return an explanation from the server when the request as a whole failed, or empty
+    */
+   public String getResponseBody() {
+      return responseBody;
+   }
+
+   /**
+    * @return true if the request was processed and no path failed
+    */
+   public boolean isSuccessful() {
+      return errors.isEmpty() && responseStatus.startsWith("2");
+   }
+
+   @Override
+   public boolean equals(Object object) {
+      if (this == object) {
+         return true;
+      }
+      if (object instanceof BulkDeleteResponse) {
+         final BulkDeleteResponse other = BulkDeleteResponse.class.cast(object);
+         return equal(getDeleted(), other.getDeleted()) && equal(getNotFound(), other.getNotFound())
+                  && equal(getErrors(), other.getErrors()) && equal(getResponseStatus(), other.getResponseStatus());
+      } else {
+         return false;
+      }
+   }
+
+   @Override
+   public int hashCode() {
+      return Objects.hashCode(getDeleted(), getNotFound(), getErrors(), getResponseStatus());
+   }
+
+   @Override
+   public String toString() {
+      return string().toString();
+   }
+
+   protected ToStringHelper string() {
+      return toStringHelper("").add("deleted", getDeleted()).add("notFound", getNotFound())
+            .add("errors", getErrors()).add("responseStatus", getResponseStatus())
+            .add("responseBody", getResponseBody());
+   }
+}
@@ -5,9 +5,14 @@ import static com.google.common.base.Objects.toStringHelper;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.beans.ConstructorProperties;
+import java.util.Map;
+
+import org.jclouds.javax.annotation.Nullable;
 
 import com.google.common.base.Objects;
 import com.google.common.base.Objects.ToStringHelper;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
 
 /**
  * retrieve a list of existing storage containers ordered by name. The sort order for the name is
@@ -31,8 +36,9 @@ public class Container implements Comparable<Container> {
 
    public static class Builder {
       protected String name;
-      protected int count;
-      protected int bytes;
+      protected Long count;
+      protected Long bytes;
+      protected Map<String, String> metadata = ImmutableMap.of();
 
       /**
        * @see Container#getName()
@@ -45,7 +51,7 @@ public class Container implements Comparable<Container> {
       /**
        * @see Container#getCount()
        */
-      public Builder count(int count) {
+      public Builder count(@Nullable Long count) {
          this.count = count;
          return this;
       }
@@ -53,29 +59,40 @@ public class Container implements Comparable<Container> {
       /**
        * @see Container#getBytes()
        */
-      public Builder bytes(int bytes) {
+      public Builder bytes(@Nullable Long bytes) {
          this.bytes = bytes;
          return this;
       }
 
+      /**
+       * @see Container#getMetadata()
+       */
+      public Builder metadata(Map<String, String> metadata) {
+         this.metadata = ImmutableMap.copyOf(checkNotNull(metadata, "metadata"));
+         return this;
+      }
+
       public Container build() {
-         return new Container(name, count, bytes);
+         return new Container(name, count, bytes, metadata);
       }
 
       public Builder fromContainer(Container from) {
-         return name(from.getName()).count(from.getCount()).bytes(from.getBytes());
+         return name(from.getName()).count(from.getCount().orNull()).bytes(from.getBytes().orNull())
+               .metadata(from.getMetadata());
       }
    }
   
    protected String name;
-   protected int count;
-   protected int bytes;
+   protected Optional<Long> count;
+   protected Optional<Long> bytes;
+   protected Map<String, String> metadata;
 
-   @ConstructorProperties({"name", "count", "bytes"})
-   protected Container(String name, int count, int bytes) {
+   @ConstructorProperties({"name", "count", "bytes", "metadata"})
+   protected Container(String name, @Nullable Long count, @Nullable Long bytes, Map<String, String> metadata) {
       this.name = checkNotNull(name, "name");
-      this.count = count;
-      this.bytes = bytes;
+      this.count = Optional.fromNullable(count);
+      this.bytes = Optional.fromNullable(bytes);
+      this.metadata = metadata != null ? ImmutableMap.copyOf(metadata) : ImmutableMap.<String, String> of();
    }
 
    /**
@@ -88,19 +105,59 @@ public class Container implements Comparable<Container> {
 
    /**
     * 
-    * @return the number of objects in the container
+    * @return the number of objects in the container, if reported. Always present for containers
+    *         returned by a listing.
     */
-   public int getCount() {
+   public Optional<Long> getCount() {
       return count;
    }
 
    /**
-    * @return the total bytes stored in this container
+    * @return the total bytes stored in this container, if reported. Always present for containers
+    *         returned by a listing.
     */
-   public int getBytes() {
+   public Optional<Long> getBytes() {
       return bytes;
    }
 
+   /**
+    * @return user metadata of the container, from {@code X-Container-Meta-} headers, keyed on the
+    *         lowercase name after the prefix. Empty for containers returned by a listing.
+    */
+   public Map<String, String> getMetadata() {
+      return metadata;
+   }
+
+   /**
+    * @return the most bytes the container may store, if the container quota middleware has a quota
+    *         set
+    */
+   public Optional<Long> getQuotaBytes() {
+      return longMetadata(metadata, "quota-bytes");
+   }
+
+   /**
+    * @return the most objects the container may hold, if the container quota middleware has a quota
+    *         set
+    */
+   public Optional<Long> getQuotaCount() {
+      return longMetadata(metadata, "quota-count");
+   }
+
+   /**
+    * Quotas are set as user metadata; a value that is not a number is treated as unset.
+    */
+   static Optional<Long> longMetadata(Map<String, String> metadata, String key) {
+      String value = metadata.get(key);
+      if (value == null)
+         return Optional.absent();
+      try {
+         return Optional.of(Long.valueOf(value.trim()));
+      } catch (NumberFormatException e) {
+         return Optional.absent();
+      }
+   }
+
    @Override
    public boolean equals(Object object) {
       if (this == object) {
@@ -109,7 +166,7 @@ public class Container implements Comparable<Container> {
       if (object instanceof Container) {
          final Container other = Container.class.cast(object);
          return equal(getName(), other.getName()) && equal(getCount(), other.getCount())
-                  && equal(getBytes(), other.getBytes());
+                  && equal(getBytes(), other.getBytes()) && equal(getMetadata(), other.getMetadata());
       } else {
          return false;
       }
@@ -117,7 +174,7 @@ public class Container implements Comparable<Container> {
 
    @Override
    public int hashCode() {
-      return Objects.hashCode(getName(), getCount(), getBytes());
+      return Objects.hashCode(getName(), getCount(), getBytes(), getMetadata());
    }
 
    @Override
@@ -126,7 +183,8 @@ public class Container implements Comparable<Container> {
    }
 
    protected ToStringHelper string() {
-      return toStringHelper("").add("name", getName()).add("count", getCount()).add("bytes", getBytes());
+      return toStringHelper("").add("name", getName()).add("count", getCount()).add("bytes", getBytes())
+            .add("metadata", getMetadata());
    }
 
    @Override
@@ -0,0 +1,188 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.domain;
+
+import static com.google.common.base.Objects.equal;
+import static com.google.common.base.Objects.toStringHelper;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Map;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Objects.ToStringHelper;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+/**
+ * The result of an {@code extract-archive} upload.
+ * <p/>
+ * The server reports how many files of the archive were created, and the status of each file that
+ * failed. Only files in {@link #getErrors()} need to be uploaded again, unless
+ * {@link #getResponseStatus()} shows that the archive as a whole was rejected.
+ * 
+ * @author Adrian Cole
+ * @see <a
+ *      href="http://docs.openstack.org/developer/swift/misc.html#module-swift.common.middleware.bulk">bulk
+ *      middleware</a>
+ */
+public class ExtractArchiveResponse {
+
+   public static Builder builder() {
+      return new Builder();
+   }
+
+   public Builder toBuilder() {
+      return builder().fromExtractArchiveResponse(this);
+   }
+
+   public static class Builder {
+      protected int created;
+      protected Map<String, String> errors = Maps.newLinkedHashMap();
+      protected String responseStatus = "201 Created";
+      protected String responseBody = "";
+
+      /**
+       * @see ExtractArchiveResponse#getCreated()
+       */
+      public Builder created(int created) {
+         this.created = created;
+         return this;
+      }
+
+      /**
+       * @see ExtractArchiveResponse#getErrors()
+       */
+      public Builder error(String path, String status) {
+         this.errors.put(path, status);
+         return this;
+      }
+
+      /**
+       * @see ExtractArchiveResponse#getErrors()
+       */
+      public Builder errors(Map<String, String> errors) {
+         this.errors.putAll(checkNotNull(errors, "errors"));
+         return this;
+      }
+
+      /**
+       * @see ExtractArchiveResponse#getResponseStatus()
+       */
+      public Builder responseStatus(String responseStatus) {
+         this.responseStatus = checkNotNull(responseStatus, "responseStatus");
+         return this;
+      }
+
+      /**
+       * @see ExtractArchiveResponse#getResponseBody()
+       */
+      public Builder responseBody(String responseBody) {
+         this.responseBody = checkNotNull(responseBody, "responseBody");
+         return this;
+      }
+
+      public ExtractArchiveResponse build() {
+         return new ExtractArchiveResponse(created, errors, responseStatus, responseBody);
+      }
+
+      public Builder fromExtractArchiveResponse(ExtractArchiveResponse from) {
+         return created(from.getCreated()).errors(from.getErrors()).responseStatus(from.getResponseStatus())
+               .responseBody(from.getResponseBody());
+      }
+   }
+
+   protected final int created;
+   protected final Map<String, String> errors;
+   protected final String responseStatus;
+   protected final String responseBody;
+
+   protected ExtractArchiveResponse(int created, Map<String, String> errors, String responseStatus,
+         String responseBody) {
+      this.created = created;
+      this.errors = ImmutableMap.copyOf(checkNotNull(errors, "errors"));
+      this.responseStatus = checkNotNull(responseStatus, "responseStatus");
+      this.responseBody = checkNotNull(responseBody, "responseBody");
+   }
+
+   /**
+    * @return the number of files in the archive that were created as objects
+    */
+   public int getCreated() {
+      return created;
+   }
+
+   /**
+    * @return the status, such as {@code 400 Bad Request}, of each file that could not be created,
+    *         keyed on its path
+    */
+   public Map<String, String> getErrors() {
+      return errors;
+   }
+
+   /**
+    * @return the overall status of the upload, such as {@code 201 Created} or
+    *         {@code 400 Bad Request}
+    */
+   public String getResponseStatus() {
+      return responseStatus;
+   }
+
+   /**
+    * @return an explanation from the server when the archive as a whole was rejected, or empty
+    */
+   public String getResponseBody() {
+      return responseBody;
+   }
+
+   /**
+    * @return true if the archive was processed and no file failed
+    */
+   public boolean isSuccessful() {
+      return errors.isEmpty() && responseStatus.startsWith("2");
+   }
+
+   @Override
+   public boolean equals(Object object) {
+      if (this == object) {
+         return true;
+      }
+      if (object instanceof ExtractArchiveResponse) {
+         final ExtractArchiveResponse other = ExtractArchiveResponse.class.cast(object);
+         return equal(getCreated(), other.getCreated()) && equal(getErrors(), other.getErrors())
+                  && equal(getResponseStatus(), other.getResponseStatus());
+      } else {
+         return false;
+      }
+   }
+
+   @Override
+   public int hashCode() {
+      return Objects.hashCode(getCreated(), getErrors(), getResponseStatus());
+   }
+
+   @Override
+   public String toString() {
+      return string().toString();
+   }
+
+   protected ToStringHelper string() {
+      return toStringHelper("").add("created", getCreated()).add("errors", getErrors())
+            .add("responseStatus", getResponseStatus()).add("responseBody", getResponseBody());
+   }
+}
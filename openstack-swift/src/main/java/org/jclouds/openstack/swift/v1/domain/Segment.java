@@ -0,0 +1,148 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.domain;
+
+import static com.google.common.base.Objects.equal;
+import static com.google.common.base.Objects.toStringHelper;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.beans.ConstructorProperties;
+
+import javax.inject.Named;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Objects.ToStringHelper;
+
+/**
+ * One entry of a static large object manifest.
+ * 
+ * @author Adrian Cole
+ * @see <a
+ *      href="http://docs.openstack.org/developer/swift/misc.html#module-swift.common.middleware.slo">static
+ *      large objects</a>
+ */
+public class Segment {
+
+   public static Builder builder() {
+      return new Builder();
+   }
+
+   public Builder toBuilder() {
+      return builder().fromSegment(this);
+   }
+
+   public static class Builder {
+      protected String path;
+      protected String etag;
+      protected long sizeBytes;
+
+      /**
+       * @see Segment#getPath()
+       */
+      public Builder path(String path) {
+         this.path = checkNotNull(path, "path");
+         return this;
+      }
+
+      /**
+       * @see Segment#getEtag()
+       */
+      public Builder etag(String etag) {
+         this.etag = checkNotNull(etag, "etag");
+         return this;
+      }
+
+      /**
+       * @see Segment#getSizeBytes()
+       */
+      public Builder sizeBytes(long sizeBytes) {
+         this.sizeBytes = sizeBytes;
+         return this;
+      }
+
+      public Segment build() {
+         return new Segment(path, etag, sizeBytes);
+      }
+
+      public Builder fromSegment(Segment from) {
+         return path(from.getPath()).etag(from.getEtag()).sizeBytes(from.getSizeBytes());
+      }
+   }
+
+   protected final String path;
+   protected final String etag;
+   @Named("size_bytes")
+   protected final long sizeBytes;
+
+   @ConstructorProperties({ "path", "etag", "size_bytes" })
+   protected Segment(String path, String etag, long sizeBytes) {
+      this.path = checkNotNull(path, "path");
+      this.etag = checkNotNull(etag, "etag of %s", path);
+      this.sizeBytes = sizeBytes;
+   }
+
+   /**
+    * @return the {@code /container/object} path of the segment
+    */
+   public String getPath() {
+      return path;
+   }
+
+   /**
+    * @return the ETag of the segment, checked by the server when the manifest is written
+    */
+   public String getEtag() {
+      return etag;
+   }
+
+   /**
+    * @return the size of the segment in bytes
+    */
+   public long getSizeBytes() {
+      return sizeBytes;
+   }
+
+   @Override
+   public boolean equals(Object object) {
+      if (this == object) {
+         return true;
+      }
+      if (object instanceof Segment) {
+         final Segment other = Segment.class.cast(object);
+         return equal(getPath(), other.getPath()) && equal(getEtag(), other.getEtag())
+                  && equal(getSizeBytes(), other.getSizeBytes());
+      } else {
+         return false;
+      }
+   }
+
+   @Override
+   public int hashCode() {
+      return Objects.hashCode(getPath(), getEtag(), getSizeBytes());
+   }
+
+   @Override
+   public String toString() {
+      return string().toString();
+   }
+
+   protected ToStringHelper string() {
+      return toStringHelper("").add("path", getPath()).add("etag", getEtag()).add("sizeBytes", getSizeBytes());
+   }
+}
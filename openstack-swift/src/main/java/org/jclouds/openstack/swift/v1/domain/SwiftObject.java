@@ -0,0 +1,261 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.domain;
+
+import static com.google.common.base.Objects.equal;
+import static com.google.common.base.Objects.toStringHelper;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.net.URI;
+import java.util.Date;
+import java.util.Map;
+
+import org.jclouds.io.Payload;
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Objects.ToStringHelper;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * An object stored in a Swift container. When retrieved with {@code GET}, the {@link #getPayload()
+ * payload} is backed by the open http response and is consumed lazily; it is never buffered into
+ * memory by the api.
+ * 
+ * @author Adrian Cole
+ * @see <a
+ *      href="http://docs.openstack.org/api/openstack-object-storage/1.0/content/storage-object-services.html">api
+ *      doc</a>
+ */
+public class SwiftObject implements Comparable<SwiftObject> {
+
+   public static Builder builder() {
+      return new Builder();
+   }
+
+   public Builder toBuilder() {
+      return builder().fromObject(this);
+   }
+
+   public static class Builder {
+      protected String name;
+      protected URI uri;
+      protected String etag;
+      protected Date lastModified;
+      protected Map<String, String> metadata = ImmutableMap.of();
+      protected Payload payload;
+      protected boolean subdir;
+      protected boolean manifest;
+
+      /**
+       * @see SwiftObject#getName()
+       */
+      public Builder name(String name) {
+         this.name = checkNotNull(name, "name");
+         return this;
+      }
+
+      /**
+       * @see SwiftObject#getUri()
+       */
+      public Builder uri(URI uri) {
+         this.uri = checkNotNull(uri, "uri");
+         return this;
+      }
+
+      /**
+       * @see SwiftObject#getEtag()
+       */
+      public Builder etag(String etag) {
+         this.etag = etag;
+         return this;
+      }
+
+      /**
+       * @see SwiftObject#getLastModified()
+       */
+      public Builder lastModified(Date lastModified) {
+         this.lastModified = lastModified;
+         return this;
+      }
+
+      /**
+       * @see SwiftObject#getMetadata()
+       */
+      public Builder metadata(Map<String, String> metadata) {
+         this.metadata = ImmutableMap.copyOf(checkNotNull(metadata, "metadata"));
+         return this;
+      }
+
+      /**
+       * @see SwiftObject#getPayload()
+       */
+      public Builder payload(Payload payload) {
+         this.payload = payload;
+         return this;
+      }
+
+      /**
+       * @see SwiftObject#isSubdir()
+       */
+      public Builder subdir(boolean subdir) {
+         this.subdir = subdir;
+         return this;
+      }
+
+      /**
+       * @see SwiftObject#isManifest()
+       */
+      public Builder manifest(boolean manifest) {
+         this.manifest = manifest;
+         return this;
+      }
+
+      public SwiftObject build() {
+         return new SwiftObject(name, uri, etag, lastModified, metadata, payload, subdir, manifest);
+      }
+
+      public Builder fromObject(SwiftObject from) {
+         return name(from.getName()).uri(from.getUri()).etag(from.getEtag()).lastModified(from.getLastModified())
+               .metadata(from.getMetadata()).payload(from.getPayload()).subdir(from.isSubdir()).manifest(from.isManifest());
+      }
+   }
+
+   protected final String name;
+   protected final URI uri;
+   protected final String etag;
+   protected final Date lastModified;
+   protected final Map<String, String> metadata;
+   protected final Payload payload;
+   protected final boolean subdir;
+   protected final boolean manifest;
+
+   protected SwiftObject(String name, URI uri, @Nullable String etag, @Nullable Date lastModified,
+         Map<String, String> metadata, @Nullable Payload payload, boolean subdir, boolean manifest) {
+      this.name = checkNotNull(name, "name");
+      this.uri = checkNotNull(uri, "uri of %s", name);
+      this.etag = etag;
+      this.lastModified = lastModified;
+      this.metadata = ImmutableMap.copyOf(checkNotNull(metadata, "metadata of %s", name));
+      this.payload = payload;
+      this.subdir = subdir;
+      this.manifest = manifest;
+   }
+
+   /**
+    * @return the name of the object, unique within its container
+    */
+   public String getName() {
+      return name;
+   }
+
+   /**
+    * @return the location of the object
+    */
+   public URI getUri() {
+      return uri;
+   }
+
+   /**
+    * @return the MD5 checksum of the object's data, as a lowercase hex string
+    */
+   @Nullable
+   public String getEtag() {
+      return etag;
+   }
+
+   @Nullable
+   public Date getLastModified() {
+      return lastModified;
+   }
+
+   /**
+    * @return user metadata set with {@code X-Object-Meta-} headers, with the prefix removed
+    */
+   public Map<String, String> getMetadata() {
+      return metadata;
+   }
+
+   /**
+    * The content of the object, including its length and type in the
+    * {@link Payload#getContentMetadata() content metadata}. Objects returned from
+    * {@link org.jclouds.openstack.swift.v1.features.ObjectApi#get} stream from the connection and
+    * must be {@link Payload#release() released} once read.
+    */
+   @Nullable
+   public Payload getPayload() {
+      return payload;
+   }
+
+   /**
+    * @return true if this is a pseudo-directory, returned in a listing with a delimiter in place of
+    *         the objects whose names share its prefix. Pseudo-directories have no ETag or payload.
+    */
+   public boolean isSubdir() {
+      return subdir;
+   }
+
+   /**
+    * @return true if this is a dynamic or static large object manifest, whose content is the
+    *         concatenation of its segments and whose ETag is not the MD5 of that content. Only set on
+    *         objects read with {@code GET} or {@code HEAD}; listings do not say.
+    */
+   public boolean isManifest() {
+      return manifest;
+   }
+
+   @Override
+   public boolean equals(Object object) {
+      if (this == object) {
+         return true;
+      }
+      if (object instanceof SwiftObject) {
+         final SwiftObject other = SwiftObject.class.cast(object);
+         return equal(getName(), other.getName()) && equal(getUri(), other.getUri())
+                  && equal(getEtag(), other.getEtag());
+      } else {
+         return false;
+      }
+   }
+
+   @Override
+   public int hashCode() {
+      return Objects.hashCode(getName(), getUri(), getEtag());
+   }
+
+   @Override
+   public String toString() {
+      return string().toString();
+   }
+
+   protected ToStringHelper string() {
+      return toStringHelper("").add("name", getName()).add("uri", getUri()).add("etag", getEtag())
+            .add("lastModified", getLastModified()).add("metadata", getMetadata()).add("subdir", isSubdir())
+            .add("manifest", isManifest());
+   }
+
+   @Override
+   public int compareTo(SwiftObject that) {
+      if (that == null)
+         return 1;
+      if (this == that)
+         return 0;
+      return this.getName().compareTo(that.getName());
+   }
+}
@@ -0,0 +1,90 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.features;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.DELETE;
+import javax.ws.rs.PUT;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+
+import org.jclouds.io.Payload;
+import org.jclouds.openstack.keystone.v2_0.filters.AuthenticateRequest;
+import org.jclouds.openstack.swift.v1.binders.BindPathsToBulkDeletePayload;
+import org.jclouds.openstack.swift.v1.domain.ArchiveFormat;
+import org.jclouds.openstack.swift.v1.domain.BulkDeleteResponse;
+import org.jclouds.openstack.swift.v1.domain.ExtractArchiveResponse;
+import org.jclouds.openstack.swift.v1.functions.ParseBulkDeleteResponse;
+import org.jclouds.openstack.swift.v1.functions.ParseExtractArchiveResponse;
+import org.jclouds.rest.annotations.BinderParam;
+import org.jclouds.rest.annotations.QueryParams;
+import org.jclouds.rest.annotations.RequestFilters;
+import org.jclouds.rest.annotations.ResponseParser;
+
+/**
+ * Bulk Operations, provided by the bulk middleware. Each call is a single request that the server
+ * works through item by item; the result reports which items failed, so that only those need to be
+ * retried.
+ * 
+ * @author Adrian Cole
+ * @see <a
+ *      href="http://docs.openstack.org/developer/swift/misc.html#module-swift.common.middleware.bulk">bulk
+ *      middleware</a>
+ */
+@RequestFilters(AuthenticateRequest.class)
+@Consumes(MediaType.APPLICATION_JSON)
+public interface BulkApi {
+
+   /**
+    * Deletes objects, and empty containers, in one request.
+    * 
+    * @param paths
+    *           up to {@link BindPathsToBulkDeletePayload#MAX_PATHS} paths, each
+    *           {@code container/object} or {@code container}
+    */
+   @DELETE
+   @Path("/")
+   @QueryParams(keys = "bulk-delete")
+   @ResponseParser(ParseBulkDeleteResponse.class)
+   BulkDeleteResponse bulkDelete(@BinderParam(BindPathsToBulkDeletePayload.class) Iterable<String> paths);
+
+   /**
+    * Uploads an archive that the server expands into objects. Top level directories of the archive
+    * become containers, and files below them become objects.
+    */
+   @PUT
+   @Path("/")
+   @ResponseParser(ParseExtractArchiveResponse.class)
+   ExtractArchiveResponse extractArchive(@QueryParam("extract-archive") ArchiveFormat format, Payload archive);
+
+   /**
+    * Uploads an archive that the server expands into objects under a container.
+    * 
+    * @param path
+    *           the container, optionally followed by {@code /prefix}, that files of the archive are
+    *           created under
+    */
+   @PUT
+   @Path("/{path}")
+   @ResponseParser(ParseExtractArchiveResponse.class)
+   ExtractArchiveResponse extractArchive(@PathParam("path") String path,
+         @QueryParam("extract-archive") ArchiveFormat format, Payload archive);
+}
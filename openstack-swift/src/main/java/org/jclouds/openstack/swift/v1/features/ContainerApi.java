@@ -20,15 +20,25 @@ package org.jclouds.openstack.swift.v1.features;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
+import javax.ws.rs.HEAD;
+import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
 import javax.ws.rs.core.MediaType;
 import org.jclouds.Fallbacks.EmptyFluentIterableOnNotFoundOr404;
+import org.jclouds.Fallbacks.EmptyPagedIterableOnNotFoundOr404;
+import org.jclouds.Fallbacks.NullOnNotFoundOr404;
+import org.jclouds.collect.PagedIterable;
 import org.jclouds.openstack.keystone.v2_0.filters.AuthenticateRequest;
 import org.jclouds.openstack.swift.v1.domain.Container;
+import org.jclouds.openstack.swift.v1.functions.ParseContainerFromHeaders;
+import org.jclouds.openstack.swift.v1.functions.internal.ParseContainers;
 import org.jclouds.openstack.swift.v1.options.ListContainersOptions;
 import org.jclouds.rest.annotations.Fallback;
 import org.jclouds.rest.annotations.QueryParams;
 import org.jclouds.rest.annotations.RequestFilters;
+import org.jclouds.rest.annotations.ResponseParser;
+import org.jclouds.rest.annotations.Transform;
 
 import com.google.common.collect.FluentIterable;
 
@@ -50,6 +60,7 @@ public interface ContainerApi {
    @GET
    @Consumes(MediaType.APPLICATION_JSON)
    @QueryParams(keys = "format", values = "json")
+   @ResponseParser(ParseContainers.class)
    @Fallback(EmptyFluentIterableOnNotFoundOr404.class)
    @Path("/")
    FluentIterable<? extends Container> list();
@@ -60,13 +71,53 @@ public interface ContainerApi {
     * using SQLite's memcmp() function, regardless of text encoding.
     * 
     * @param options
-    * @return a list of existing storage containers ordered by name.
+    * @return a list of existing storage containers ordered by name, at most one page of
+    *         {@link ListContainersOptions#getLimit()} entries.
+    * @see #listAll()
     */
    @GET
    @Consumes(MediaType.APPLICATION_JSON)
    @QueryParams(keys = "format", values = "json")
+   @ResponseParser(ParseContainers.class)
    @Fallback(EmptyFluentIterableOnNotFoundOr404.class)
    @Path("/")
    FluentIterable<? extends Container> list(ListContainersOptions options);
 
+   /**
+    * retrieve all containers in the account, ordered by name. Each page is requested only when the
+    * previous one has been consumed, so accounts with any number of containers are iterated in
+    * constant memory.
+    * 
+    * @return all containers, a page at a time; use {@link PagedIterable#concat()} to iterate them
+    *         as one sequence
+    * @see org.jclouds.openstack.swift.v1.collect.PrefetchingPagedIterable
+    */
+   @GET
+   @Consumes(MediaType.APPLICATION_JSON)
+   @QueryParams(keys = "format", values = "json")
+   @ResponseParser(ParseContainers.class)
+   @Transform(ParseContainers.ToPagedIterable.class)
+   @Fallback(EmptyPagedIterableOnNotFoundOr404.class)
+   @Path("/")
+   PagedIterable<Container> listAll();
+
+   /**
+    * Retrieve Container Metadata, without listing its objects.
+    * 
+    * @return the container with its object count, bytes used and user metadata, or null if it
+    *         does not exist
+    */
+   @HEAD
+   @ResponseParser(ParseContainerFromHeaders.class)
+   @Fallback(NullOnNotFoundOr404.class)
+   @Path("/{container}")
+   Container get(@PathParam("container") String container);
+
+   /**
+    * Create a container. Creating a container that already exists is not an error.
+    */
+   @PUT
+   @Path("/{container}")
+   void create(@PathParam("container") String container);
+
 }
@@ -18,8 +18,53 @@
  */
 package org.jclouds.openstack.swift.v1.features;
 
+import static org.jclouds.openstack.swift.v1.reference.SwiftHeaders.OBJECT_COPY_FROM;
+import static org.jclouds.openstack.swift.v1.reference.SwiftHeaders.OBJECT_DESTINATION;
+import static org.jclouds.openstack.swift.v1.reference.SwiftHeaders.OBJECT_MANIFEST;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
+import javax.ws.rs.HEAD;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.POST;
+import javax.ws.rs.PUT;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.core.MediaType;
+
+import org.jclouds.Fallbacks.EmptyFluentIterableOnNotFoundOr404;
+import org.jclouds.Fallbacks.EmptyPagedIterableOnNotFoundOr404;
+import org.jclouds.Fallbacks.FalseOnNotFoundOr404;
+import org.jclouds.Fallbacks.NullOnNotFoundOr404;
+import org.jclouds.Fallbacks.VoidOnNotFoundOr404;
+import org.jclouds.collect.PagedIterable;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.functions.ParseETagHeader;
+import org.jclouds.http.options.GetOptions;
+import org.jclouds.io.Payload;
+import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.openstack.keystone.v2_0.filters.AuthenticateRequest;
+import org.jclouds.openstack.swift.v1.binders.BindMetadataToHeaders.BindObjectMetadataToHeaders;
+import org.jclouds.openstack.swift.v1.domain.Segment;
+import org.jclouds.openstack.swift.v1.domain.SwiftObject;
+import org.jclouds.openstack.swift.v1.functions.ParseObjectFromResponse;
+import org.jclouds.openstack.swift.v1.functions.ParseObjectListFromResponse;
+import org.jclouds.openstack.swift.v1.options.ExpirationOptions;
+import org.jclouds.openstack.swift.v1.options.ListObjectsOptions;
+import org.jclouds.rest.annotations.BinderParam;
+import org.jclouds.rest.annotations.Fallback;
+import org.jclouds.rest.annotations.Headers;
+import org.jclouds.rest.annotations.QueryParams;
 import org.jclouds.rest.annotations.RequestFilters;
+import org.jclouds.rest.annotations.ResponseParser;
+import org.jclouds.rest.annotations.Transform;
+import org.jclouds.rest.binders.BindToJsonPayload;
+
+import com.google.common.collect.FluentIterable;
 
 /**
  * Storage Object Services An object represents the data and any metadata for the files stored in
@@ -39,4 +84,267 @@ import org.jclouds.rest.annotations.RequestFilters;
 @RequestFilters(AuthenticateRequest.class)
 public interface ObjectApi {
 
+   /**
+    * @see #list(String, ListObjectsOptions)
+    */
+   @GET
+   @Consumes(MediaType.APPLICATION_JSON)
+   @QueryParams(keys = "format", values = "json")
+   @ResponseParser(ParseObjectListFromResponse.class)
+   @Fallback(EmptyFluentIterableOnNotFoundOr404.class)
+   @Path("/{container}")
+   FluentIterable<SwiftObject> list(@PathParam("container") String container);
+
+   /**
+    * retrieve a list of objects stored in the container, ordered by name. The payload of each
+    * object is empty, but its content metadata holds the length and type of the object.
+    * 
+    * @param container
+    *           the container to list
+    * @param options
+    * @return a list of objects in the container, at most one page of
+    *         {@link ListObjectsOptions#getLimit()} entries, or empty if the container does not exist
+    * @see #listAll(String, ListObjectsOptions)
+    */
+   @GET
+   @Consumes(MediaType.APPLICATION_JSON)
+   @QueryParams(keys = "format", values = "json")
+   @ResponseParser(ParseObjectListFromResponse.class)
+   @Fallback(EmptyFluentIterableOnNotFoundOr404.class)
+   @Path("/{container}")
+   FluentIterable<SwiftObject> list(@PathParam("container") String container, ListObjectsOptions options);
+
+   /**
+    * @see #listAll(String, ListObjectsOptions)
+    */
+   @GET
+   @Consumes(MediaType.APPLICATION_JSON)
+   @QueryParams(keys = "format", values = "json")
+   @ResponseParser(ParseObjectListFromResponse.class)
+   @Transform(ParseObjectListFromResponse.ToPagedIterable.class)
+   @Fallback(EmptyPagedIterableOnNotFoundOr404.class)
+   @Path("/{container}")
+   PagedIterable<SwiftObject> listAll(@PathParam("container") String container);
+
+   /**
+    * retrieve all objects in the container matching the options, ordered by name. Each page is
+    * requested only when the previous one has been consumed, repeating the prefix, delimiter and end
+    * marker of the options, so a container of any size is iterated in constant memory. Disjoint
+    * {@link ListObjectsOptions#marker(String) marker} and {@link ListObjectsOptions#endMarker(String)
+    * end marker} ranges may be listed concurrently.
+    * 
+    * @return all matching objects and, when listed with a delimiter, pseudo-directories, a page at a
+    *         time
+    * @see org.jclouds.openstack.swift.v1.collect.PrefetchingPagedIterable
+    */
+   @GET
+   @Consumes(MediaType.APPLICATION_JSON)
+   @QueryParams(keys = "format", values = "json")
+   @ResponseParser(ParseObjectListFromResponse.class)
+   @Transform(ParseObjectListFromResponse.ToPagedIterable.class)
+   @Fallback(EmptyPagedIterableOnNotFoundOr404.class)
+   @Path("/{container}")
+   PagedIterable<SwiftObject> listAll(@PathParam("container") String container, ListObjectsOptions options);
+
+   /**
+    * @see #get(String, String, GetOptions)
+    */
+   @GET
+   @ResponseParser(ParseObjectFromResponse.class)
+   @Fallback(NullOnNotFoundOr404.class)
+   @Path("/{container}/{name}")
+   @Nullable
+   SwiftObject get(@PathParam("container") String container, @PathParam("name") String name);
+
+   /**
+    * Retrieve the object's data. The returned {@link SwiftObject#getPayload() payload} is bound to
+    * the open connection and is not read until the caller consumes it, so objects of any size can
+    * be retrieved in constant memory. Callers must close the payload's input stream, or
+    * {@link Payload#release() release} it, once finished.
+    * 
+    * @param options
+    *           conditional or ranged retrieval
+    * @return the object, or null if it or its container does not exist
+    */
+   @GET
+   @ResponseParser(ParseObjectFromResponse.class)
+   @Fallback(NullOnNotFoundOr404.class)
+   @Path("/{container}/{name}")
+   @Nullable
+   SwiftObject get(@PathParam("container") String container, @PathParam("name") String name, GetOptions options);
+
+   /**
+    * Retrieve the response carrying the object's data, such as a byte range of it. The status and
+    * {@code Content-Range} header show whether the range was honoured. Callers must close the
+    * payload's input stream, or {@link Payload#release() release} it, once finished.
+    * 
+    * @return the response, or null if the object or its container does not exist
+    */
+   @GET
+   @Fallback(NullOnNotFoundOr404.class)
+   @Path("/{container}/{name}")
+   @Nullable
+   HttpResponse getAsResponse(@PathParam("container") String container, @PathParam("name") String name,
+         GetOptions options);
+
+   /**
+    * Retrieve the object's metadata without its data.
+    * 
+    * @return the object with an empty payload, or null if it or its container does not exist
+    */
+   @HEAD
+   @ResponseParser(ParseObjectFromResponse.class)
+   @Fallback(NullOnNotFoundOr404.class)
+   @Path("/{container}/{name}")
+   @Nullable
+   SwiftObject head(@PathParam("container") String container, @PathParam("name") String name);
+
+   /**
+    * @see #put(String, String, Payload, Map)
+    */
+   @PUT
+   @ResponseParser(ParseETagHeader.class)
+   @Path("/{container}/{name}")
+   String put(@PathParam("container") String container, @PathParam("name") String name, Payload payload);
+
+   /**
+    * Create or replace an object. The payload is streamed to the connection as it is read. When its
+    * content length is unknown, as is the case for most {@link java.io.InputStream}s, the request is
+    * sent with chunked transfer encoding. Neither case buffers the object's data in memory.
+    * 
+    * @param payload
+    *           the object's data; set the content length and MD5 in its content metadata when known
+    * @param metadata
+    *           user metadata, sent as {@code X-Object-Meta-} headers
+    * @return the ETag of the stored object
+    */
+   @PUT
+   @ResponseParser(ParseETagHeader.class)
+   @Path("/{container}/{name}")
+   String put(@PathParam("container") String container, @PathParam("name") String name, Payload payload,
+         @BinderParam(BindObjectMetadataToHeaders.class) Map<String, String> metadata);
+
+   /**
+    * Create or replace an object that Swift deletes once it expires.
+    * 
+    * @param metadata
+    *           user metadata, sent as {@code X-Object-Meta-} headers
+    * @param options
+    *           when the object expires
+    * @return the ETag of the stored object
+    * @see #put(String, String, Payload, Map)
+    */
+   @PUT
+   @ResponseParser(ParseETagHeader.class)
+   @Path("/{container}/{name}")
+   String put(@PathParam("container") String container, @PathParam("name") String name, Payload payload,
+         @BinderParam(BindObjectMetadataToHeaders.class) Map<String, String> metadata, ExpirationOptions options);
+
+   /**
+    * Delete an object. Deleting an object that does not exist is not an error.
+    */
+   @DELETE
+   @Fallback(VoidOnNotFoundOr404.class)
+   @Path("/{container}/{name}")
+   void delete(@PathParam("container") String container, @PathParam("name") String name);
+
+   /**
+    * Copy an object on the server, without transferring its data through the client.
+    * 
+    * @return true if the object was copied, false if the source object does not exist
+    */
+   @PUT
+   @Fallback(FalseOnNotFoundOr404.class)
+   @Path("/{destinationContainer}/{destinationName}")
+   @Headers(keys = OBJECT_COPY_FROM, values = "/{sourceContainer}/{sourceName}")
+   boolean copy(@PathParam("sourceContainer") String sourceContainer, @PathParam("sourceName") String sourceName,
+         @PathParam("destinationContainer") String destinationContainer,
+         @PathParam("destinationName") String destinationName);
+
+   /**
+    * Copy an object on the server, adding to or replacing the user metadata it is copied with.
+    * 
+    * @param metadata
+    *           user metadata, sent as {@code X-Object-Meta-} headers
+    * @return true if the object was copied, false if the source object does not exist
+    */
+   @PUT
+   @Fallback(FalseOnNotFoundOr404.class)
+   @Path("/{destinationContainer}/{destinationName}")
+   @Headers(keys = OBJECT_COPY_FROM, values = "/{sourceContainer}/{sourceName}")
+   boolean copy(@PathParam("sourceContainer") String sourceContainer, @PathParam("sourceName") String sourceName,
+         @PathParam("destinationContainer") String destinationContainer,
+         @PathParam("destinationName") String destinationName,
+         @BinderParam(BindObjectMetadataToHeaders.class) Map<String, String> metadata);
+
+   /**
+    * Copy an object on the server with the {@code COPY} verb, which addresses the source object and
+    * names the destination in a header. The result is the same as {@link #copy}.
+    * 
+    * @return true if the object was copied, false if the source object does not exist
+    */
+   @COPY
+   @Fallback(FalseOnNotFoundOr404.class)
+   @Path("/{sourceContainer}/{sourceName}")
+   @Headers(keys = OBJECT_DESTINATION, values = "/{destinationContainer}/{destinationName}")
+   boolean copyTo(@PathParam("sourceContainer") String sourceContainer, @PathParam("sourceName") String sourceName,
+         @PathParam("destinationContainer") String destinationContainer,
+         @PathParam("destinationName") String destinationName);
+
+   /**
+    * Replace the user metadata of an object, without rewriting its data. Metadata not in the map is
+    * removed, so pass the current metadata along with any changes to keep it.
+    * 
+    * @param metadata
+    *           user metadata, sent as {@code X-Object-Meta-} headers
+    * @return true if the metadata was updated, false if the object does not exist
+    */
+   @POST
+   @Fallback(FalseOnNotFoundOr404.class)
+   @Path("/{container}/{name}")
+   boolean updateMetadata(@PathParam("container") String container, @PathParam("name") String name,
+         @BinderParam(BindObjectMetadataToHeaders.class) Map<String, String> metadata);
+
+   /**
+    * Replace the user metadata of an object and set when it expires. Metadata not in the map is
+    * removed, so pass the current metadata along to keep it.
+    * 
+    * @param options
+    *           when the object expires
+    * @return true if the object was updated, false if it does not exist
+    */
+   @POST
+   @Fallback(FalseOnNotFoundOr404.class)
+   @Path("/{container}/{name}")
+   boolean updateMetadata(@PathParam("container") String container, @PathParam("name") String name,
+         @BinderParam(BindObjectMetadataToHeaders.class) Map<String, String> metadata, ExpirationOptions options);
+
+   /**
+    * Write a dynamic large object manifest. A {@code GET} of the manifest returns the concatenation
+    * of all objects whose names start with the segment prefix, in name order.
+    * 
+    * @param segmentPrefix
+    *           {@code container/prefix} of the segments
+    * @return the ETag of the manifest
+    */
+   @PUT
+   @ResponseParser(ParseETagHeader.class)
+   @Path("/{container}/{name}")
+   String putManifest(@PathParam("container") String container, @PathParam("name") String name,
+         @HeaderParam(OBJECT_MANIFEST) String segmentPrefix);
+
+   /**
+    * Write a static large object manifest. The server checks the ETag and size of every segment
+    * before accepting the manifest.
+    * 
+    * @param segments
+    *           the segments of the object, in order
+    * @return the ETag of the manifest
+    */
+   @PUT
+   @ResponseParser(ParseETagHeader.class)
+   @QueryParams(keys = "multipart-manifest", values = "put")
+   @Path("/{container}/{name}")
+   String putStaticManifest(@PathParam("container") String container, @PathParam("name") String name,
+         @BinderParam(BindToJsonPayload.class) List<Segment> segments);
 }
@@ -18,7 +18,14 @@
  */
 package org.jclouds.openstack.swift.v1.functions;
 
+import static org.jclouds.openstack.swift.v1.functions.ParseObjectFromResponse.metadataFromHeaders;
+import static org.jclouds.openstack.swift.v1.reference.SwiftHeaders.ACCOUNT_BYTES_USED;
+import static org.jclouds.openstack.swift.v1.reference.SwiftHeaders.ACCOUNT_CONTAINER_COUNT;
+import static org.jclouds.openstack.swift.v1.reference.SwiftHeaders.ACCOUNT_METADATA_PREFIX;
+import static org.jclouds.openstack.swift.v1.reference.SwiftHeaders.ACCOUNT_OBJECT_COUNT;
+
 import org.jclouds.http.HttpResponse;
+import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.openstack.swift.v1.domain.Account;
 
 import com.google.common.base.Function;
@@ -31,12 +38,21 @@ import com.google.common.base.Function;
 public class ParseAccountMetadataResponseFromHeaders implements Function<HttpResponse, Account> {
 
    /**
-    * parses the http response headers to create a new {@link Account} object.
+    * parses the http response headers to create a new {@link Account} object. Counts that are not
+    * reported, as by some proxies, are absent.
     */
    public Account apply(HttpResponse from) {
       return Account.builder()
-               .bytesUsed(Long.parseLong(from.getFirstHeaderOrNull("X-Account-Bytes-Used")))
-               .containerCount(Integer.parseInt(from.getFirstHeaderOrNull("X-Account-Container-Count")))
+               .bytesUsed(longHeaderOrNull(from, ACCOUNT_BYTES_USED))
+               .containerCount(longHeaderOrNull(from, ACCOUNT_CONTAINER_COUNT))
+               .objectCount(longHeaderOrNull(from, ACCOUNT_OBJECT_COUNT))
+               .metadata(metadataFromHeaders(ACCOUNT_METADATA_PREFIX, from.getHeaders()))
                .build();
    }
+
+   @Nullable
+   static Long longHeaderOrNull(HttpResponse from, String name) {
+      String value = from.getFirstHeaderOrNull(name);
+      return value != null ? Long.valueOf(value.trim()) : null;
+   }
 }
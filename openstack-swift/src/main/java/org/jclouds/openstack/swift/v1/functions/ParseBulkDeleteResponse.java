@@ -0,0 +1,110 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.functions;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+import org.jclouds.http.HttpResponse;
+import org.jclouds.io.Payload;
+import org.jclouds.openstack.swift.v1.domain.BulkDeleteResponse;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Function;
+import com.google.common.base.Throwables;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Parses the result of a {@code bulk-delete} request.
+ * <p/>
+ * The server keeps the connection alive with whitespace while it works through the paths, so the
+ * body is read with a streaming {@link JsonReader} as it arrives rather than buffered first.
+ * 
+ * @author Adrian Cole
+ */
+public class ParseBulkDeleteResponse implements Function<HttpResponse, BulkDeleteResponse> {
+
+   @Override
+   public BulkDeleteResponse apply(HttpResponse from) {
+      BulkDeleteResponse.Builder builder = BulkDeleteResponse.builder();
+      Payload payload = from.getPayload();
+      if (payload == null)
+         return builder.responseStatus(from.getStatusCode() + " " + from.getMessage()).build();
+      JsonReader reader = null;
+      try {
+         reader = new JsonReader(new InputStreamReader(payload.getInput(), Charsets.UTF_8));
+         reader.beginObject();
+         while (reader.hasNext()) {
+            String field = reader.nextName();
+            if ("Number Deleted".equals(field))
+               builder.deleted(reader.nextInt());
+            else if ("Number Not Found".equals(field))
+               builder.notFound(reader.nextInt());
+            else if ("Errors".equals(field))
+               readErrors(reader, builder);
+            else if ("Response Status".equals(field))
+               builder.responseStatus(reader.nextString());
+            else if ("Response Body".equals(field))
+               builder.responseBody(reader.nextString());
+            else
+               reader.skipValue();
+         }
+         reader.endObject();
+         return builder.build();
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      } finally {
+         closeQuietly(reader);
+         payload.release();
+      }
+   }
+
+   private static void readErrors(JsonReader reader, BulkDeleteResponse.Builder builder) throws IOException {
+      reader.beginArray();
+      while (reader.hasNext()) {
+         String[] error = pathAndStatus(reader);
+         builder.error(error[0], error[1]);
+      }
+      reader.endArray();
+   }
+
+   /**
+    * Reads one {@code ["path", "status"]} pair of the {@code Errors} array.
+    */
+   static String[] pathAndStatus(JsonReader reader) throws IOException {
+      reader.beginArray();
+      String path = reader.nextString();
+      String status = reader.peek() == JsonToken.END_ARRAY ? "" : reader.nextString();
+      while (reader.hasNext())
+         reader.skipValue();
+      reader.endArray();
+      return new String[] { path, status };
+   }
+
+   static void closeQuietly(JsonReader reader) {
+      if (reader == null)
+         return;
+      try {
+         reader.close();
+      } catch (IOException e) {
+         // nothing left to read
+      }
+   }
+}
@@ -0,0 +1,62 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.functions;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.jclouds.openstack.swift.v1.functions.ParseAccountMetadataResponseFromHeaders.longHeaderOrNull;
+import static org.jclouds.openstack.swift.v1.functions.ParseObjectFromResponse.metadataFromHeaders;
+import static org.jclouds.openstack.swift.v1.reference.SwiftHeaders.CONTAINER_BYTES_USED;
+import static org.jclouds.openstack.swift.v1.reference.SwiftHeaders.CONTAINER_METADATA_PREFIX;
+import static org.jclouds.openstack.swift.v1.reference.SwiftHeaders.CONTAINER_OBJECT_COUNT;
+
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.openstack.swift.v1.domain.Container;
+import org.jclouds.rest.InvocationContext;
+import org.jclouds.rest.internal.GeneratedHttpRequest;
+
+import com.google.common.base.Function;
+
+/**
+ * Parses a {@link Container}, including its user metadata, from the headers of a {@code HEAD}
+ * response. Counts that are not reported, as by some proxies, are absent.
+ * 
+ * @author Adrian Cole
+ */
+public class ParseContainerFromHeaders implements Function<HttpResponse, Container>,
+      InvocationContext<ParseContainerFromHeaders> {
+
+   private String name;
+
+   @Override
+   public Container apply(HttpResponse from) {
+      return Container.builder()
+                      .name(name)
+                      .count(longHeaderOrNull(from, CONTAINER_OBJECT_COUNT))
+                      .bytes(longHeaderOrNull(from, CONTAINER_BYTES_USED))
+                      .metadata(metadataFromHeaders(CONTAINER_METADATA_PREFIX, from.getHeaders())).build();
+   }
+
+   @Override
+   public ParseContainerFromHeaders setContext(HttpRequest request) {
+      checkArgument(request instanceof GeneratedHttpRequest, "note this handler requires a GeneratedHttpRequest");
+      this.name = GeneratedHttpRequest.class.cast(request).getInvocation().getArgs().get(0).toString();
+      return this;
+   }
+}
@@ -0,0 +1,82 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.functions;
+
+import static org.jclouds.openstack.swift.v1.functions.ParseBulkDeleteResponse.closeQuietly;
+import static org.jclouds.openstack.swift.v1.functions.ParseBulkDeleteResponse.pathAndStatus;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+import org.jclouds.http.HttpResponse;
+import org.jclouds.io.Payload;
+import org.jclouds.openstack.swift.v1.domain.ExtractArchiveResponse;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Function;
+import com.google.common.base.Throwables;
+import com.google.gson.stream.JsonReader;
+
+/**
+ * Parses the result of an {@code extract-archive} upload, streaming it like
+ * {@link ParseBulkDeleteResponse}.
+ * 
+ * @author Adrian Cole
+ */
+public class ParseExtractArchiveResponse implements Function<HttpResponse, ExtractArchiveResponse> {
+
+   @Override
+   public ExtractArchiveResponse apply(HttpResponse from) {
+      ExtractArchiveResponse.Builder builder = ExtractArchiveResponse.builder();
+      Payload payload = from.getPayload();
+      if (payload == null)
+         return builder.responseStatus(from.getStatusCode() + " " + from.getMessage()).build();
+      JsonReader reader = null;
+      try {
+         reader = new JsonReader(new InputStreamReader(payload.getInput(), Charsets.UTF_8));
+         reader.beginObject();
+         while (reader.hasNext()) {
+            String field = reader.nextName();
+            if ("Number Files Created".equals(field)) {
+               builder.created(reader.nextInt());
+            } else if ("Errors".equals(field)) {
+               reader.beginArray();
+               while (reader.hasNext()) {
+                  String[] error = pathAndStatus(reader);
+                  builder.error(error[0], error[1]);
+               }
+               reader.endArray();
+            } else if ("Response Status".equals(field)) {
+               builder.responseStatus(reader.nextString());
+            } else if ("Response Body".equals(field)) {
+               builder.responseBody(reader.nextString());
+            } else {
+               reader.skipValue();
+            }
+         }
+         reader.endObject();
+         return builder.build();
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      } finally {
+         closeQuietly(reader);
+         payload.release();
+      }
+   }
+}
@@ -0,0 +1,112 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.functions;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.net.HttpHeaders.CONTENT_LENGTH;
+import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
+import static com.google.common.net.HttpHeaders.ETAG;
+import static com.google.common.net.HttpHeaders.LAST_MODIFIED;
+import static org.jclouds.openstack.swift.v1.reference.SwiftHeaders.OBJECT_MANIFEST;
+import static org.jclouds.openstack.swift.v1.reference.SwiftHeaders.OBJECT_METADATA_PREFIX;
+import static org.jclouds.openstack.swift.v1.reference.SwiftHeaders.OBJECT_STATIC_LARGE_OBJECT;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.inject.Inject;
+
+import org.jclouds.date.DateService;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.openstack.swift.v1.domain.SwiftObject;
+import org.jclouds.rest.InvocationContext;
+import org.jclouds.rest.internal.GeneratedHttpRequest;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+
+/**
+ * Parses a {@link SwiftObject} from the headers of a {@code GET} or {@code HEAD} response. The
+ * response payload is handed through as-is, so the object's content is read directly from the
+ * connection by the caller.
+ * 
+ * @author Adrian Cole
+ */
+public class ParseObjectFromResponse implements Function<HttpResponse, SwiftObject>,
+      InvocationContext<ParseObjectFromResponse> {
+   private static final byte[] NO_CONTENT = new byte[] {};
+
+   private final DateService dates;
+
+   @Inject
+   public ParseObjectFromResponse(DateService dates) {
+      this.dates = dates;
+   }
+
+   private URI uri;
+   private String name;
+
+   @Override
+   public SwiftObject apply(HttpResponse from) {
+      Payload payload = from.getPayload();
+      if (payload == null) {
+         // HEAD responses carry no body; keep the content headers on an empty payload
+         payload = Payloads.newByteArrayPayload(NO_CONTENT);
+         String contentLength = from.getFirstHeaderOrNull(CONTENT_LENGTH);
+         if (contentLength != null)
+            payload.getContentMetadata().setContentLength(Long.parseLong(contentLength));
+         payload.getContentMetadata().setContentType(from.getFirstHeaderOrNull(CONTENT_TYPE));
+      }
+      String etag = from.getFirstHeaderOrNull(ETAG);
+      String lastModified = from.getFirstHeaderOrNull(LAST_MODIFIED);
+      return SwiftObject.builder()
+                        .uri(uri)
+                        .name(name)
+                        .etag(etag != null ? etag.replace("\"", "") : null)
+                        .lastModified(lastModified != null ? dates.rfc822DateParse(lastModified) : null)
+                        .metadata(metadataFromHeaders(OBJECT_METADATA_PREFIX, from.getHeaders()))
+                        .manifest(from.getFirstHeaderOrNull(OBJECT_MANIFEST) != null
+                              || Boolean.parseBoolean(from.getFirstHeaderOrNull(OBJECT_STATIC_LARGE_OBJECT)))
+                        .payload(payload).build();
+   }
+
+   static Map<String, String> metadataFromHeaders(String prefix, Multimap<String, String> headers) {
+      Map<String, String> metadata = Maps.newLinkedHashMap();
+      for (Entry<String, String> header : headers.entries()) {
+         String key = header.getKey();
+         if (key.length() > prefix.length() && key.regionMatches(true, 0, prefix, 0, prefix.length()))
+            metadata.put(key.substring(prefix.length()).toLowerCase(), header.getValue());
+      }
+      return ImmutableMap.copyOf(metadata);
+   }
+
+   @Override
+   public ParseObjectFromResponse setContext(HttpRequest request) {
+      checkArgument(request instanceof GeneratedHttpRequest, "note this handler requires a GeneratedHttpRequest");
+      this.uri = request.getEndpoint();
+      this.name = GeneratedHttpRequest.class.cast(request).getInvocation().getArgs().get(1).toString();
+      return this;
+   }
+}
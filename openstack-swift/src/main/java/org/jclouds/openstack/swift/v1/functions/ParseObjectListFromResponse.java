@@ -0,0 +1,253 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.functions;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.http.Uris.uriBuilder;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.jclouds.collect.IterableWithMarker;
+import org.jclouds.collect.IterableWithMarkers;
+import org.jclouds.collect.PagedIterable;
+import org.jclouds.collect.PagedIterables;
+import org.jclouds.date.DateService;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.openstack.swift.v1.SwiftApi;
+import org.jclouds.openstack.swift.v1.domain.SwiftObject;
+import org.jclouds.openstack.swift.v1.features.ObjectApi;
+import org.jclouds.openstack.swift.v1.options.ListObjectsOptions;
+import org.jclouds.rest.InvocationContext;
+import org.jclouds.rest.internal.GeneratedHttpRequest;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Function;
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.gson.stream.JsonReader;
+
+/**
+ * Parses one page of the {@code format=json} listing of a container into {@link SwiftObject}s. As
+ * there is no content in a listing, each object's payload is empty, but carries the length and type
+ * reported by the server in its content metadata. When listed with a delimiter, pseudo-directories
+ * are returned as objects that are {@link SwiftObject#isSubdir() subdirs}.
+ * <p/>
+ * The body is read with a streaming {@link JsonReader} directly from the connection. The name of the
+ * last entry of a page is the marker of the next page; as servers may return fewer entries per page
+ * than asked for, only an empty page ends the listing.
+ * 
+ * @author Adrian Cole
+ */
+public class ParseObjectListFromResponse implements Function<HttpResponse, IterableWithMarker<SwiftObject>>,
+      InvocationContext<ParseObjectListFromResponse> {
+
+   private final DateService dates;
+
+   @Inject
+   ParseObjectListFromResponse(DateService dates) {
+      this.dates = checkNotNull(dates, "dates");
+   }
+
+   private URI containerUri;
+
+   @Override
+   public IterableWithMarker<SwiftObject> apply(HttpResponse from) {
+      Payload payload = from.getPayload();
+      // an empty container is a 204 with no body
+      if (payload == null)
+         return IterableWithMarkers.from(ImmutableList.<SwiftObject> of());
+      JsonReader reader = null;
+      try {
+         reader = new JsonReader(new InputStreamReader(payload.getInput(), Charsets.UTF_8));
+         List<SwiftObject> page = ImmutableList.copyOf(objects(reader));
+         if (page.isEmpty())
+            return IterableWithMarkers.from(page);
+         return IterableWithMarkers.from(page, Iterables.getLast(page).getName());
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      } finally {
+         if (reader != null) {
+            try {
+               reader.close();
+            } catch (IOException e) {
+               // nothing left to read
+            }
+         }
+         payload.release();
+      }
+   }
+
+   /**
+    * Reads objects from a json array, one element at a time.
+    */
+   private Iterator<SwiftObject> objects(final JsonReader reader) throws IOException {
+      reader.beginArray();
+      return new AbstractIterator<SwiftObject>() {
+         @Override
+         protected SwiftObject computeNext() {
+            try {
+               if (!reader.hasNext()) {
+                  reader.endArray();
+                  return endOfData();
+               }
+               return object(reader);
+            } catch (IOException e) {
+               throw Throwables.propagate(e);
+            }
+         }
+      };
+   }
+
+   private SwiftObject object(JsonReader reader) throws IOException {
+      SwiftObject.Builder builder = SwiftObject.builder();
+      String name = null;
+      long bytes = 0;
+      String contentType = null;
+      reader.beginObject();
+      while (reader.hasNext()) {
+         String field = reader.nextName();
+         if ("name".equals(field)) {
+            name = reader.nextString();
+         } else if ("subdir".equals(field)) {
+            name = reader.nextString();
+            builder.subdir(true);
+         } else if ("hash".equals(field)) {
+            builder.etag(reader.nextString());
+         } else if ("bytes".equals(field)) {
+            bytes = reader.nextLong();
+         } else if ("content_type".equals(field)) {
+            contentType = reader.nextString();
+         } else if ("last_modified".equals(field)) {
+            builder.lastModified(parseDate(reader.nextString()));
+         } else {
+            reader.skipValue();
+         }
+      }
+      reader.endObject();
+      checkArgument(name != null, "listing entry without a name in %s", containerUri);
+      builder.name(name).uri(uriBuilder(containerUri).appendPath(name).build());
+      if (contentType != null)
+         builder.payload(payload(bytes, contentType));
+      return builder.build();
+   }
+
+   private Date parseDate(String date) {
+      try {
+         return dates.iso8601DateParse(date);
+      } catch (RuntimeException e) {
+         return dates.iso8601SecondsDateParse(date);
+      }
+   }
+
+   private static final byte[] NO_CONTENT = new byte[] {};
+
+   private static Payload payload(long bytes, String contentType) {
+      Payload payload = Payloads.newByteArrayPayload(NO_CONTENT);
+      payload.getContentMetadata().setContentLength(bytes);
+      payload.getContentMetadata().setContentType(contentType);
+      return payload;
+   }
+
+   @Override
+   public ParseObjectListFromResponse setContext(HttpRequest request) {
+      containerUri = uriBuilder(request.getEndpoint()).clearQuery().build();
+      return this;
+   }
+
+   /**
+    * Follows the marker of each page, repeating the container and options of the original request.
+    */
+   public static class ToPagedIterable implements Function<IterableWithMarker<SwiftObject>, PagedIterable<SwiftObject>>,
+         InvocationContext<ToPagedIterable> {
+
+      private final SwiftApi api;
+      private GeneratedHttpRequest request;
+
+      @Inject
+      protected ToPagedIterable(SwiftApi api) {
+         this.api = checkNotNull(api, "api");
+      }
+
+      @Override
+      public PagedIterable<SwiftObject> apply(IterableWithMarker<SwiftObject> input) {
+         if (!input.nextMarker().isPresent())
+            return PagedIterables.of(input);
+         List<Object> callerArgs = request.getCaller().get().getArgs();
+         String region = callerArgs.size() > 0 && callerArgs.get(0) != null ? callerArgs.get(0).toString() : null;
+         List<Object> args = request.getInvocation().getArgs();
+         final ObjectApi objectApi = api.getObjectApiForRegion(region);
+         final String container = args.get(0).toString();
+         final ListObjectsOptions options = args.size() > 1 ? ListObjectsOptions.class.cast(args.get(1))
+               : ListObjectsOptions.NONE;
+         return PagedIterables.advance(input, new Function<Object, IterableWithMarker<SwiftObject>>() {
+
+            @SuppressWarnings("unchecked")
+            @Override
+            public IterableWithMarker<SwiftObject> apply(Object input) {
+               FluentIterable<SwiftObject> page = objectApi.list(container, nextPage(options, input.toString()));
+               if (page instanceof IterableWithMarker)
+                  return IterableWithMarker.class.cast(page);
+               // empty when the container has gone away between pages
+               return IterableWithMarkers.from(page);
+            }
+
+            @Override
+            public String toString() {
+               return "list(" + container + ")";
+            }
+         });
+      }
+
+      @Override
+      public ToPagedIterable setContext(HttpRequest request) {
+         checkArgument(request instanceof GeneratedHttpRequest, "note this handler requires a GeneratedHttpRequest");
+         this.request = GeneratedHttpRequest.class.cast(request);
+         return this;
+      }
+   }
+
+   static ListObjectsOptions nextPage(ListObjectsOptions options, String marker) {
+      ListObjectsOptions next = new ListObjectsOptions().marker(marker);
+      if (options.getPrefix() != null)
+         next.prefix(options.getPrefix());
+      if (options.getDelimiter() != null)
+         next.delimiter(options.getDelimiter().charAt(0));
+      if (options.getEndMarker() != null)
+         next.endMarker(options.getEndMarker());
+      if (options.getPath() != null)
+         next.path(options.getPath());
+      if (options.getLimit() != ListObjectsOptions.NONE.getLimit())
+         next.limit(options.getLimit());
+      return next;
+   }
+}
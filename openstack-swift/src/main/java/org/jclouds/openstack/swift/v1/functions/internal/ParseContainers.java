@@ -0,0 +1,168 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.functions.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.openstack.swift.v1.options.ListContainersOptions.Builder.marker;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.jclouds.collect.IterableWithMarker;
+import org.jclouds.collect.IterableWithMarkers;
+import org.jclouds.collect.internal.Arg0ToPagedIterable;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.io.Payload;
+import org.jclouds.openstack.swift.v1.SwiftApi;
+import org.jclouds.openstack.swift.v1.domain.Container;
+import org.jclouds.openstack.swift.v1.features.ContainerApi;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Charsets;
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.gson.stream.JsonReader;
+
+/**
+ * Parses one page of a container listing. The name of the last container of a page is the marker of
+ * the next page; as servers may return fewer containers per page than asked for, only an empty page
+ * ends the listing.
+ * <p/>
+ * The {@code format=json} body is read with a streaming {@link JsonReader} directly from the
+ * connection, emitting one {@link Container} at a time. Neither the body nor a document tree of it
+ * is held in memory; only the containers themselves are kept.
+ * 
+ * @author Adrian Cole
+ */
+@Beta
+public class ParseContainers implements Function<HttpResponse, IterableWithMarker<Container>> {
+
+   @Override
+   public IterableWithMarker<Container> apply(HttpResponse from) {
+      Payload payload = from.getPayload();
+      // an account without containers is a 204 with no body
+      if (payload == null)
+         return IterableWithMarkers.from(ImmutableList.<Container> of());
+      JsonReader reader = null;
+      try {
+         reader = new JsonReader(new InputStreamReader(payload.getInput(), Charsets.UTF_8));
+         List<Container> page = ImmutableList.copyOf(containers(reader));
+         if (page.isEmpty())
+            return IterableWithMarkers.from(page);
+         return IterableWithMarkers.from(page, Iterables.getLast(page).getName());
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      } finally {
+         closeQuietly(reader);
+         payload.release();
+      }
+   }
+
+   /**
+    * Reads containers from a json array, one element at a time.
+    */
+   public static Iterator<Container> containers(final JsonReader reader) throws IOException {
+      reader.beginArray();
+      return new AbstractIterator<Container>() {
+         @Override
+         protected Container computeNext() {
+            try {
+               if (!reader.hasNext()) {
+                  reader.endArray();
+                  return endOfData();
+               }
+               return container(reader);
+            } catch (IOException e) {
+               throw Throwables.propagate(e);
+            }
+         }
+      };
+   }
+
+   private static Container container(JsonReader reader) throws IOException {
+      Container.Builder builder = Container.builder();
+      reader.beginObject();
+      while (reader.hasNext()) {
+         String field = reader.nextName();
+         if ("name".equals(field) || "subdir".equals(field))
+            builder.name(reader.nextString());
+         else if ("count".equals(field))
+            builder.count(reader.nextLong());
+         else if ("bytes".equals(field))
+            builder.bytes(reader.nextLong());
+         else
+            reader.skipValue();
+      }
+      reader.endObject();
+      return builder.build();
+   }
+
+   private static void closeQuietly(JsonReader reader) {
+      if (reader == null)
+         return;
+      try {
+         reader.close();
+      } catch (IOException e) {
+         // nothing left to read
+      }
+   }
+
+   public static class ToPagedIterable extends Arg0ToPagedIterable.FromCaller<Container, ToPagedIterable> {
+
+      private final SwiftApi api;
+
+      @Inject
+      protected ToPagedIterable(SwiftApi api) {
+         this.api = checkNotNull(api, "api");
+      }
+
+      @Override
+      protected Function<Object, IterableWithMarker<Container>> markerToNextForArg0(Optional<Object> arg0) {
+         String region = arg0.isPresent() ? arg0.get().toString() : null;
+         final ContainerApi containerApi = api.getContainerApiForRegion(region);
+         return new Function<Object, IterableWithMarker<Container>>() {
+
+            @SuppressWarnings("unchecked")
+            @Override
+            public IterableWithMarker<Container> apply(Object input) {
+               FluentIterable<? extends Container> page = containerApi.list(marker(input.toString()));
+               if (page instanceof IterableWithMarker)
+                  return IterableWithMarker.class.cast(page);
+               // empty when the account has gone away between pages
+               return IterableWithMarkers.from(FluentIterable.class.cast(page));
+            }
+
+            @Override
+            public String toString() {
+               return "list()";
+            }
+         };
+      }
+
+   }
+}
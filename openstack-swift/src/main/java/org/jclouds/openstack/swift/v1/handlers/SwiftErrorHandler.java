@@ -19,8 +19,8 @@
 package org.jclouds.openstack.swift.v1.handlers;
 
 import static org.jclouds.http.HttpUtils.closeClientButKeepContentStream;
+import static org.jclouds.http.HttpUtils.releasePayload;
 
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import javax.inject.Singleton;
@@ -29,12 +29,16 @@ import org.jclouds.blobstore.ContainerNotFoundException;
 import org.jclouds.blobstore.KeyNotFoundException;
 import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpErrorHandler;
+import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
 import org.jclouds.http.HttpResponseException;
 import org.jclouds.rest.AuthorizationException;
 
 /**
  * This will parse and set an appropriate exception on the command object.
+ * <p/>
+ * A {@code 404} on {@code HEAD} or {@code GET}, the common outcome of existence checks, is
+ * classified from the request path without reading the response body, which is released unread.
  * 
  * @author Adrian Cole
  * 
@@ -47,36 +51,75 @@ public class SwiftErrorHandler implements HttpErrorHandler {
    public static final Pattern CONTAINER_KEY_PATH = Pattern.compile(PREFIX + "([^/]+)/(.*)");
 
    public void handleError(HttpCommand command, HttpResponse response) {
+      HttpRequest request = command.getCurrentRequest();
+      if (response.getStatusCode() == 404 && (request.getMethod().equals("HEAD") || request.getMethod().equals("GET"))) {
+         Exception exception = notFound(command, response, request.getEndpoint().getPath());
+         if (exception != null) {
+            releasePayload(response);
+            command.setException(exception);
+            return;
+         }
+      }
       // it is important to always read fully and close streams
       byte[] data = closeClientButKeepContentStream(response);
       String message = data != null ? new String(data) : null;
 
       Exception exception = message != null ? new HttpResponseException(command, response, message)
                : new HttpResponseException(command, response);
-      message = message != null ? message : String.format("%s -> %s", command.getCurrentRequest().getRequestLine(),
+      message = message != null ? message : String.format("%s -> %s", request.getRequestLine(),
                response.getStatusLine());
       switch (response.getStatusCode()) {
          case 401:
             exception = new AuthorizationException(exception.getMessage(), exception);
             break;
          case 404:
-            if (!command.getCurrentRequest().getMethod().equals("DELETE")) {
-               String path = command.getCurrentRequest().getEndpoint().getPath();
-               Matcher matcher = CONTAINER_PATH.matcher(path);
-               Exception oldException = exception;
-               if (matcher.find()) {
-                  exception = new ContainerNotFoundException(matcher.group(1), message);
-                  exception.initCause(oldException);
-               } else {
-                  matcher = CONTAINER_KEY_PATH.matcher(path);
-                  if (matcher.find()) {
-                     exception = new KeyNotFoundException(matcher.group(1), matcher.group(2), message);
-                     exception.initCause(oldException);
-                  }
-               }
+            if (!request.getMethod().equals("DELETE")) {
+               Exception notFound = notFound(command, response, request.getEndpoint().getPath());
+               if (notFound != null)
+                  exception = notFound;
             }
             break;
       }
       command.setException(exception);
    }
+
+   /**
+    * Equivalent to matching {@link #CONTAINER_PATH}, then {@link #CONTAINER_KEY_PATH}.
+    * 
+    * @return a {@link ContainerNotFoundException} or {@link KeyNotFoundException}, or null if the
+    *         path names neither a container nor an object
+    */
+   private static Exception notFound(HttpCommand command, HttpResponse response, String path) {
+      // /v[0-9][^/]*/
+      if (path == null || path.length() < 3 || !path.startsWith("/v") || !Character.isDigit(path.charAt(2)))
+         return null;
+      int account = path.indexOf('/', 3) + 1;
+      if (account == 0)
+         return null;
+      // [a-zA-Z]+_[^/]+/
+      int letters = account;
+      while (letters < path.length() && isAsciiLetter(path.charAt(letters)))
+         letters++;
+      if (letters == account || letters >= path.length() || path.charAt(letters) != '_')
+         return null;
+      int container = path.indexOf('/', letters + 1) + 1;
+      if (container <= letters + 2 || container == path.length())
+         return null;
+      int slash = path.indexOf('/', container);
+      if (slash == container)
+         return null;
+      String message = String.format("%s -> %s", command.getCurrentRequest().getRequestLine(),
+            response.getStatusLine());
+      Exception exception;
+      if (slash == -1)
+         exception = new ContainerNotFoundException(path.substring(container), message);
+      else
+         exception = new KeyNotFoundException(path.substring(container, slash), path.substring(slash + 1), message);
+      exception.initCause(new HttpResponseException(message, command, response));
+      return exception;
+   }
+
+   private static boolean isAsciiLetter(char c) {
+      return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+   }
 }
@@ -0,0 +1,231 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.io;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+import org.jclouds.io.ContentMetadata;
+import org.jclouds.io.MutableContentMetadata;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.openstack.swift.v1.features.ObjectApi;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Computes the MD5 of an upload from the bytes as they are written to the connection, so that the
+ * ETag Swift returns can be checked without reading the data a second time.
+ * <p/>
+ * The upload is also stopped, by failing the stream, as soon as the data proves shorter or longer
+ * than its declared content length.
+ * 
+ * <pre>
+ * String etag = Md5ComputingPayload.put(objectApi, &quot;backups&quot;, &quot;db.tar&quot;,
+ *       Payloads.newFilePayload(file));
+ * </pre>
+ * 
+ * @author Adrian Cole
+ */
+public class Md5ComputingPayload {
+
+   /**
+    * Uploads a payload and checks the returned ETag against the MD5 of the bytes sent.
+    * 
+    * @return the ETag of the stored object
+    * @throws IllegalStateException
+    *            if the stored object does not have the content that was sent
+    */
+   public static String put(ObjectApi objectApi, String container, String name, Payload payload) {
+      return put(objectApi, container, name, payload, ImmutableMap.<String, String> of());
+   }
+
+   /**
+    * @see #put(ObjectApi, String, String, Payload)
+    */
+   public static String put(ObjectApi objectApi, String container, String name, Payload payload,
+         Map<String, String> metadata) {
+      Md5ComputingPayload computing = wrap(payload);
+      try {
+         return computing.verify(objectApi.put(container, name, computing.getPayload(), metadata));
+      } finally {
+         payload.release();
+      }
+   }
+
+   public static Md5ComputingPayload wrap(Payload payload) {
+      return new Md5ComputingPayload(payload);
+   }
+
+   private final Payload payload;
+   private final HashingInputStream stream;
+   private String md5;
+
+   private Md5ComputingPayload(Payload source) {
+      ContentMetadata from = checkNotNull(source, "source").getContentMetadata();
+      this.stream = new HashingInputStream(source.getInput(), from.getContentLength());
+      this.payload = Payloads.newInputStreamPayload(stream);
+      MutableContentMetadata to = payload.getContentMetadata();
+      to.setContentType(from.getContentType());
+      to.setContentLength(from.getContentLength());
+      to.setContentMD5(from.getContentMD5());
+      to.setContentDisposition(from.getContentDisposition());
+      to.setContentEncoding(from.getContentEncoding());
+      to.setContentLanguage(from.getContentLanguage());
+   }
+
+   /**
+    * @return the payload to upload in place of the wrapped one; it can be sent only once
+    */
+   public Payload getPayload() {
+      return payload;
+   }
+
+   /**
+    * @return the number of bytes read from the payload so far
+    */
+   public long getBytesRead() {
+      return stream.count;
+   }
+
+   /**
+    * @return the hex encoded MD5 of the payload
+    * @throws IllegalStateException
+    *            if the payload has not been read to its end, or to its content length
+    */
+   public synchronized String getMd5() {
+      checkState(stream.finished, "payload has not been read to its end; %s bytes read", stream.count);
+      if (md5 == null)
+         md5 = stream.hasher.hash().toString();
+      return md5;
+   }
+
+   /**
+    * @param etag
+    *           the ETag returned by the upload
+    * @return the ETag, if it is the MD5 of the bytes sent
+    * @throws IllegalStateException
+    *            if it is not
+    */
+   public String verify(@Nullable String etag) {
+      checkState(etag != null, "no ETag to verify %s bytes against", stream.count);
+      String unquoted = etag.replace("\"", "");
+      checkState(unquoted.equalsIgnoreCase(getMd5()), "sent %s bytes with MD5 %s, but the stored object has ETag %s",
+            stream.count, getMd5(), unquoted);
+      return unquoted;
+   }
+
+   @Override
+   public String toString() {
+      return "Md5ComputingPayload(" + stream.count + " bytes read)";
+   }
+
+   private static class HashingInputStream extends FilterInputStream {
+      private final Hasher hasher = Hashing.md5().newHasher();
+      private final Long expectedLength;
+      private volatile long count;
+      private volatile boolean finished;
+
+      private HashingInputStream(InputStream in, @Nullable Long expectedLength) {
+         super(checkNotNull(in, "in"));
+         this.expectedLength = expectedLength;
+      }
+
+      @Override
+      public int read() throws IOException {
+         int b = in.read();
+         if (b == -1) {
+            finish();
+         } else {
+            hasher.putByte((byte) b);
+            counted(1);
+         }
+         return b;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+         int read = in.read(b, off, len);
+         if (read == -1) {
+            finish();
+         } else if (read > 0) {
+            hasher.putBytes(b, off, read);
+            counted(read);
+         }
+         return read;
+      }
+
+      /**
+       * Reads through skipped bytes, as they are part of the content.
+       */
+      @Override
+      public long skip(long n) throws IOException {
+         byte[] buffer = new byte[(int) Math.min(n, 8192)];
+         long skipped = 0;
+         while (skipped < n) {
+            int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+            if (read == -1)
+               break;
+            skipped += read;
+         }
+         return skipped;
+      }
+
+      @Override
+      public boolean markSupported() {
+         return false;
+      }
+
+      @Override
+      public synchronized void mark(int readlimit) {
+      }
+
+      @Override
+      public synchronized void reset() throws IOException {
+         throw new IOException("mark/reset not supported");
+      }
+
+      /**
+       * A transport that knows the content length may stop reading once it has that many bytes,
+       * without reading to the end of the stream, so that counts as finished too.
+       */
+      private void counted(int read) throws IOException {
+         count += read;
+         if (expectedLength != null && count > expectedLength)
+            throw new IOException(String.format("payload is longer than its content length of %s bytes",
+                  expectedLength));
+         if (expectedLength != null && count == expectedLength)
+            finished = true;
+      }
+
+      private void finish() throws IOException {
+         if (expectedLength != null && count != expectedLength)
+            throw new IOException(String.format("payload ended after %s of its %s bytes", count, expectedLength));
+         finished = true;
+      }
+   }
+}
@@ -0,0 +1,106 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.options;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.openstack.swift.v1.reference.SwiftHeaders.OBJECT_DELETE_AFTER;
+import static org.jclouds.openstack.swift.v1.reference.SwiftHeaders.OBJECT_DELETE_AT;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.http.options.BaseHttpRequestOptions;
+
+/**
+ * Schedules an object for deletion by Swift when it is written with {@code PUT} or its metadata is
+ * replaced with {@code POST}. The object stops being served once it expires and is removed by the
+ * object expirer shortly after.
+ */
+public class ExpirationOptions extends BaseHttpRequestOptions {
+
+   /**
+    * Expire the object at an absolute time.
+    * 
+    * @param epochSeconds
+    *           seconds since the epoch
+    */
+   public ExpirationOptions deleteAt(long epochSeconds) {
+      checkArgument(epochSeconds > 0, "epochSeconds must be positive");
+      headers.removeAll(OBJECT_DELETE_AFTER);
+      headers.removeAll(OBJECT_DELETE_AT);
+      headers.put(OBJECT_DELETE_AT, Long.toString(epochSeconds));
+      return this;
+   }
+
+   /**
+    * Expire the object at an absolute time, rounded down to the second.
+    */
+   public ExpirationOptions deleteAt(Date date) {
+      return deleteAt(TimeUnit.MILLISECONDS.toSeconds(checkNotNull(date, "date").getTime()));
+   }
+
+   public Long getDeleteAt() {
+      String val = getFirstHeaderOrNull(OBJECT_DELETE_AT);
+      return val != null ? Long.valueOf(val) : null;
+   }
+
+   /**
+    * Expire the object a number of seconds after the request is received.
+    */
+   public ExpirationOptions deleteAfter(long seconds) {
+      checkArgument(seconds > 0, "seconds must be positive");
+      headers.removeAll(OBJECT_DELETE_AT);
+      headers.removeAll(OBJECT_DELETE_AFTER);
+      headers.put(OBJECT_DELETE_AFTER, Long.toString(seconds));
+      return this;
+   }
+
+   public Long getDeleteAfter() {
+      String val = getFirstHeaderOrNull(OBJECT_DELETE_AFTER);
+      return val != null ? Long.valueOf(val) : null;
+   }
+
+   public static class Builder {
+
+      /**
+       * @see ExpirationOptions#deleteAt(long)
+       */
+      public static ExpirationOptions deleteAt(long epochSeconds) {
+         ExpirationOptions options = new ExpirationOptions();
+         return options.deleteAt(epochSeconds);
+      }
+
+      /**
+       * @see ExpirationOptions#deleteAt(Date)
+       */
+      public static ExpirationOptions deleteAt(Date date) {
+         ExpirationOptions options = new ExpirationOptions();
+         return options.deleteAt(date);
+      }
+
+      /**
+       * @see ExpirationOptions#deleteAfter(long)
+       */
+      public static ExpirationOptions deleteAfter(long seconds) {
+         ExpirationOptions options = new ExpirationOptions();
+         return options.deleteAfter(seconds);
+      }
+   }
+}
@@ -56,6 +56,45 @@ public class ListContainersOptions extends BaseHttpRequestOptions {
       return val != null ? Integer.valueOf(val) : 10000;
    }
 
+   /**
+    * Given a string value x, return container names less in value than the specified marker.
+    */
+   public ListContainersOptions endMarker(String endMarker) {
+      queryParameters.put("end_marker", checkNotNull(endMarker, "endMarker"));
+      return this;
+   }
+
+   public String getEndMarker() {
+      return getFirstQueryOrNull("end_marker");
+   }
+
+   /**
+    * For a string value x, causes the results to be limited to container names beginning with the
+    * substring x.
+    */
+   public ListContainersOptions prefix(String prefix) {
+      queryParameters.put("prefix", checkNotNull(prefix, "prefix"));
+      return this;
+   }
+
+   public String getPrefix() {
+      return getFirstQueryOrNull("prefix");
+   }
+
+   /**
+    * For a single character c, roll up container names that share the characters after the prefix
+    * up to the first occurrence of c into a single subdir entry. Such entries are returned as
+    * containers named by the subdir, with zero count and bytes.
+    */
+   public ListContainersOptions delimiter(char delimiter) {
+      queryParameters.put("delimiter", Character.toString(delimiter));
+      return this;
+   }
+
+   public String getDelimiter() {
+      return getFirstQueryOrNull("delimiter");
+   }
+
 
    public static class Builder {
 
@@ -75,5 +114,29 @@ public class ListContainersOptions extends BaseHttpRequestOptions {
          return options.limit(limit);
       }
 
+      /**
+       * @see ListContainersOptions#endMarker(String)
+       */
+      public static ListContainersOptions endMarker(String endMarker) {
+         ListContainersOptions options = new ListContainersOptions();
+         return options.endMarker(endMarker);
+      }
+
+      /**
+       * @see ListContainersOptions#prefix(String)
+       */
+      public static ListContainersOptions prefix(String prefix) {
+         ListContainersOptions options = new ListContainersOptions();
+         return options.prefix(prefix);
+      }
+
+      /**
+       * @see ListContainersOptions#delimiter(char)
+       */
+      public static ListContainersOptions delimiter(char delimiter) {
+         ListContainersOptions options = new ListContainersOptions();
+         return options.delimiter(delimiter);
+      }
+
    }
 }
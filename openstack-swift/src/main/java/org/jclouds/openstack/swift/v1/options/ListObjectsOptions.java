@@ -0,0 +1,161 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.options;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import org.jclouds.http.options.BaseHttpRequestOptions;
+
+/**
+ * Contains options supported in the REST API for the GET object listing operation. <h2>
+ */
+public class ListObjectsOptions extends BaseHttpRequestOptions {
+   public static final ListObjectsOptions NONE = new ListObjectsOptions();
+
+   /**
+    * Given a string value x, return object names greater in value than the specified marker.
+    */
+   public ListObjectsOptions marker(String marker) {
+      queryParameters.put("marker", checkNotNull(marker, "marker"));
+      return this;
+   }
+
+   public String getMarker() {
+      return getFirstQueryOrNull("marker");
+   }
+
+   /**
+    * For an integer value n, limits the number of results to n values.
+    */
+   public ListObjectsOptions limit(int limit) {
+      checkState(limit >= 0, "limit must be >= 0");
+      checkState(limit <= 10000, "limit must be <= 10000");
+      queryParameters.put("limit", Integer.toString(limit));
+      return this;
+   }
+
+   public int getLimit() {
+      String val = getFirstQueryOrNull("limit");
+      return val != null ? Integer.valueOf(val) : 10000;
+   }
+
+   /**
+    * Given a string value x, return object names less in value than the specified marker.
+    */
+   public ListObjectsOptions endMarker(String endMarker) {
+      queryParameters.put("end_marker", checkNotNull(endMarker, "endMarker"));
+      return this;
+   }
+
+   public String getEndMarker() {
+      return getFirstQueryOrNull("end_marker");
+   }
+
+   /**
+    * For a string value x, causes the results to be limited to object names beginning with the
+    * substring x.
+    */
+   public ListObjectsOptions prefix(String prefix) {
+      queryParameters.put("prefix", checkNotNull(prefix, "prefix"));
+      return this;
+   }
+
+   public String getPrefix() {
+      return getFirstQueryOrNull("prefix");
+   }
+
+   /**
+    * For a single character c, return all object names nested in the container up to the first
+    * occurrence of c after the prefix, rolled up into a single subdir entry.
+    */
+   public ListObjectsOptions delimiter(char delimiter) {
+      queryParameters.put("delimiter", Character.toString(delimiter));
+      return this;
+   }
+
+   public String getDelimiter() {
+      return getFirstQueryOrNull("delimiter");
+   }
+
+   /**
+    * For a string value x, return the object names nested in the pseudo path. Equivalent to setting
+    * delimiter to '/' and prefix to the path with a '/' at the end.
+    */
+   public ListObjectsOptions path(String path) {
+      queryParameters.put("path", checkNotNull(path, "path"));
+      return this;
+   }
+
+   public String getPath() {
+      return getFirstQueryOrNull("path");
+   }
+
+   public static class Builder {
+
+      /**
+       * @see ListObjectsOptions#marker(String)
+       */
+      public static ListObjectsOptions marker(String marker) {
+         ListObjectsOptions options = new ListObjectsOptions();
+         return options.marker(marker);
+      }
+
+      /**
+       * @see ListObjectsOptions#limit(int)
+       */
+      public static ListObjectsOptions limit(int limit) {
+         ListObjectsOptions options = new ListObjectsOptions();
+         return options.limit(limit);
+      }
+
+      /**
+       * @see ListObjectsOptions#endMarker(String)
+       */
+      public static ListObjectsOptions endMarker(String endMarker) {
+         ListObjectsOptions options = new ListObjectsOptions();
+         return options.endMarker(endMarker);
+      }
+
+      /**
+       * @see ListObjectsOptions#prefix(String)
+       */
+      public static ListObjectsOptions prefix(String prefix) {
+         ListObjectsOptions options = new ListObjectsOptions();
+         return options.prefix(prefix);
+      }
+
+      /**
+       * @see ListObjectsOptions#delimiter(char)
+       */
+      public static ListObjectsOptions delimiter(char delimiter) {
+         ListObjectsOptions options = new ListObjectsOptions();
+         return options.delimiter(delimiter);
+      }
+
+      /**
+       * @see ListObjectsOptions#path(String)
+       */
+      public static ListObjectsOptions path(String path) {
+         ListObjectsOptions options = new ListObjectsOptions();
+         return options.path(path);
+      }
+
+   }
+}
@@ -0,0 +1,48 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.reference;
+
+/**
+ * Additional headers specified by Swift.
+ * 
+ * @author Adrian Cole
+ * @see <a
+ *      href="http://docs.openstack.org/api/openstack-object-storage/1.0/content/ch_object-storage-dev-overview.html"
+ *      >api doc</a>
+ */
+public interface SwiftHeaders {
+
+   String ACCOUNT_BYTES_USED = "X-Account-Bytes-Used";
+   String ACCOUNT_CONTAINER_COUNT = "X-Account-Container-Count";
+   String ACCOUNT_OBJECT_COUNT = "X-Account-Object-Count";
+   String ACCOUNT_METADATA_PREFIX = "X-Account-Meta-";
+   String ACCOUNT_TEMPORARY_URL_KEY = ACCOUNT_METADATA_PREFIX + "Temp-URL-Key";
+
+   String CONTAINER_BYTES_USED = "X-Container-Bytes-Used";
+   String CONTAINER_OBJECT_COUNT = "X-Container-Object-Count";
+   String CONTAINER_METADATA_PREFIX = "X-Container-Meta-";
+
+   String OBJECT_METADATA_PREFIX = "X-Object-Meta-";
+   String OBJECT_COPY_FROM = "X-Copy-From";
+   String OBJECT_DESTINATION = "Destination";
+   String OBJECT_MANIFEST = "X-Object-Manifest";
+   String OBJECT_STATIC_LARGE_OBJECT = "X-Static-Large-Object";
+   String OBJECT_DELETE_AT = "X-Delete-At";
+   String OBJECT_DELETE_AFTER = "X-Delete-After";
+}
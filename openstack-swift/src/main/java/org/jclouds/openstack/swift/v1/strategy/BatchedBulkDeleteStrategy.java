@@ -0,0 +1,106 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.strategy;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.openstack.swift.v1.binders.BindPathsToBulkDeletePayload.MAX_PATHS;
+import static org.jclouds.util.Strings2.urlDecode;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.blobstore.reference.BlobStoreConstants;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.logging.Logger;
+import org.jclouds.openstack.swift.v1.SwiftApi;
+import org.jclouds.openstack.swift.v1.domain.BulkDeleteResponse;
+import org.jclouds.openstack.swift.v1.features.BulkApi;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
+
+/**
+ * Deletes any number of paths with {@code bulk-delete} requests of up to
+ * {@link org.jclouds.openstack.swift.v1.binders.BindPathsToBulkDeletePayload#MAX_PATHS} paths
+ * each, one after another. Paths are read lazily, so they can come straight from a listing.
+ * <p/>
+ * The results are combined into one {@link BulkDeleteResponse}, whose errors are keyed on the
+ * paths as they were passed in, so that they can be passed to {@link #delete} again as they are.
+ * When a request fails as a whole, each of its paths is reported with the status of the request.
+ * The status and body of the last request that did not succeed are kept, whether or not it listed
+ * the paths that failed.
+ * 
+ * @author Adrian Cole
+ */
+@Singleton
+public class BatchedBulkDeleteStrategy {
+
+   @Resource
+   @Named(BlobStoreConstants.BLOBSTORE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final SwiftApi api;
+
+   @Inject
+   public BatchedBulkDeleteStrategy(SwiftApi api) {
+      this.api = checkNotNull(api, "api");
+   }
+
+   public BulkDeleteResponse delete(@Nullable String region, Iterable<String> paths) {
+      BulkApi bulkApi = api.getBulkApiForRegion(region);
+      int deleted = 0;
+      int notFound = 0;
+      BulkDeleteResponse.Builder result = BulkDeleteResponse.builder();
+      for (List<String> batch : Iterables.partition(checkNotNull(paths, "paths"), MAX_PATHS)) {
+         BulkDeleteResponse response = bulkApi.bulkDelete(batch);
+         logger.debug("<< bulk deleted %s of %s paths: %s", response.getDeleted(), batch.size(),
+               response.getResponseStatus());
+         deleted += response.getDeleted();
+         notFound += response.getNotFound();
+         if (!response.getResponseStatus().startsWith("2"))
+            result.responseStatus(response.getResponseStatus()).responseBody(response.getResponseBody());
+         if (response.getErrors().isEmpty() && !response.getResponseStatus().startsWith("2")) {
+            for (String path : batch)
+               result.error(path, response.getResponseStatus());
+         } else if (!response.getErrors().isEmpty()) {
+            Map<String, String> requested = Maps.newHashMap();
+            for (String path : batch)
+               requested.put(normalize(path), path);
+            for (Entry<String, String> error : response.getErrors().entrySet()) {
+               String path = requested.get(normalize(urlDecode(error.getKey())));
+               result.error(path != null ? path : error.getKey(), error.getValue());
+            }
+         }
+      }
+      return result.deleted(deleted).notFound(notFound).build();
+   }
+
+   /**
+    * The server reports paths with a leading slash, whether or not they were sent with one.
+    */
+   private static String normalize(String path) {
+      return path.startsWith("/") ? path.substring(1) : path;
+   }
+}
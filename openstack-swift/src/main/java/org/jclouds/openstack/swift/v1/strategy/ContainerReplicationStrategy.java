@@ -0,0 +1,378 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.strategy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.openstack.swift.v1.config.SwiftProperties.MAX_PARALLEL_REPLICATIONS;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.blobstore.reference.BlobStoreConstants;
+import org.jclouds.io.Payload;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.logging.Logger;
+import org.jclouds.openstack.swift.v1.SwiftApi;
+import org.jclouds.openstack.swift.v1.domain.SwiftObject;
+import org.jclouds.openstack.swift.v1.features.ObjectApi;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Maps;
+import com.google.common.collect.PeekingIterator;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Makes a container in one region, or account, hold the same objects as a container in another.
+ * <p/>
+ * Both listings are streamed and merge-joined on their sorted names, so containers of any size are
+ * compared in constant memory. Objects missing from the destination, or whose {@code ETag} or size
+ * differ, are copied by piping the source {@code GET} response straight into the destination
+ * {@code PUT}, with up to {@link org.jclouds.openstack.swift.v1.config.SwiftProperties#MAX_PARALLEL_REPLICATIONS}
+ * in flight. Object data never touches disk. The content type and user metadata of each object are
+ * carried over, and the destination's {@code ETag} is checked against the source's.
+ * <p/>
+ * Large object manifests are read as their concatenated content and written as ordinary objects,
+ * so they must be under the single object size limit. Their {@code ETag} is not the MD5 of that
+ * content, so it is not checked against the copy; a manifest whose listing differs from its copy is
+ * read again, and only copied if its length differs.
+ * 
+ * @author Adrian Cole
+ */
+@Singleton
+public class ContainerReplicationStrategy {
+
+   /**
+    * What a replication did.
+    */
+   public static class Result {
+      private final int copied;
+      private final long bytesCopied;
+      private final int unchanged;
+      private final int deleted;
+      private final Map<String, Throwable> failed;
+
+      Result(int copied, long bytesCopied, int unchanged, int deleted, Map<String, Throwable> failed) {
+         this.copied = copied;
+         this.bytesCopied = bytesCopied;
+         this.unchanged = unchanged;
+         this.deleted = deleted;
+         this.failed = ImmutableMap.copyOf(failed);
+      }
+
+      /**
+       * @return the number of objects copied to the destination
+       */
+      public int getCopied() {
+         return copied;
+      }
+
+      /**
+       * @return the number of bytes copied to the destination
+       */
+      public long getBytesCopied() {
+         return bytesCopied;
+      }
+
+      /**
+       * @return the number of objects that already matched in the destination
+       */
+      public int getUnchanged() {
+         return unchanged;
+      }
+
+      /**
+       * @return the number of destination objects deleted because the source does not have them
+       */
+      public int getDeleted() {
+         return deleted;
+      }
+
+      /**
+       * @return names of the objects that could not be copied or deleted, with the cause
+       */
+      public Map<String, Throwable> getFailed() {
+         return failed;
+      }
+
+      @Override
+      public String toString() {
+         return Objects.toStringHelper(this).add("copied", copied).add("bytesCopied", bytesCopied)
+               .add("unchanged", unchanged).add("deleted", deleted).add("failed", failed.keySet()).toString();
+      }
+   }
+
+   /**
+    * The order Swift lists names in: by UTF-8 bytes, which is by code point. {@link String#compareTo}
+    * differs for names with characters outside the basic multilingual plane.
+    */
+   static final Comparator<String> SWIFT_ORDER = new Comparator<String>() {
+      @Override
+      public int compare(String left, String right) {
+         int i = 0;
+         int j = 0;
+         while (i < left.length() && j < right.length()) {
+            int l = left.codePointAt(i);
+            int r = right.codePointAt(j);
+            if (l != r)
+               return l < r ? -1 : 1;
+            i += Character.charCount(l);
+            j += Character.charCount(r);
+         }
+         return (left.length() - i) - (right.length() - j);
+      }
+   };
+
+   @Resource
+   @Named(BlobStoreConstants.BLOBSTORE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final SwiftApi api;
+   private final ListeningExecutorService userExecutor;
+   private final int maxParallelReplications;
+
+   @Inject
+   public ContainerReplicationStrategy(SwiftApi api,
+         @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(MAX_PARALLEL_REPLICATIONS) int maxParallelReplications) {
+      this.api = checkNotNull(api, "api");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      checkArgument(maxParallelReplications > 0, "maxParallelReplications must be positive");
+      this.maxParallelReplications = maxParallelReplications;
+   }
+
+   /**
+    * Replicates a container to the same name in another region of this account.
+    */
+   public Result replicate(@Nullable String sourceRegion, String container, @Nullable String destinationRegion,
+         boolean deleteExtraneous) {
+      return replicate(api, sourceRegion, container, api, destinationRegion, container, deleteExtraneous);
+   }
+
+   /**
+    * Replicates a container to a container of any account.
+    * 
+    * @param sourceApi
+    *           api of the account holding the source container
+    * @param destinationApi
+    *           api of the account to replicate to, which may be the same as {@code sourceApi}
+    * @param deleteExtraneous
+    *           whether to delete destination objects the source does not have
+    */
+   public Result replicate(SwiftApi sourceApi, @Nullable String sourceRegion, String sourceContainer,
+         SwiftApi destinationApi, @Nullable String destinationRegion, String destinationContainer,
+         boolean deleteExtraneous) {
+      checkNotNull(sourceContainer, "sourceContainer");
+      checkNotNull(destinationContainer, "destinationContainer");
+      ObjectApi source = checkNotNull(sourceApi, "sourceApi").getObjectApiForRegion(sourceRegion);
+      ObjectApi destination = checkNotNull(destinationApi, "destinationApi").getObjectApiForRegion(
+            destinationRegion);
+      PeekingIterator<SwiftObject> sourceObjects = objects(source, sourceContainer);
+      PeekingIterator<SwiftObject> destinationObjects = objects(destination, destinationContainer);
+
+      Semaphore slots = new Semaphore(maxParallelReplications);
+      AtomicInteger copied = new AtomicInteger();
+      AtomicLong bytesCopied = new AtomicLong();
+      AtomicInteger deleted = new AtomicInteger();
+      AtomicInteger unchanged = new AtomicInteger();
+      ConcurrentMap<String, Throwable> failed = Maps.newConcurrentMap();
+      boolean created = false;
+      while (sourceObjects.hasNext() || destinationObjects.hasNext()) {
+         int order;
+         if (!destinationObjects.hasNext())
+            order = -1;
+         else if (!sourceObjects.hasNext())
+            order = 1;
+         else
+            order = SWIFT_ORDER.compare(sourceObjects.peek().getName(), destinationObjects.peek().getName());
+         if (order > 0) {
+            String name = destinationObjects.next().getName();
+            if (deleteExtraneous)
+               submit(slots, new Delete(destination, destinationContainer, name), deleted, failed);
+            continue;
+         }
+         SwiftObject object = sourceObjects.next();
+         SwiftObject existing = order == 0 ? destinationObjects.next() : null;
+         if (existing != null && matches(object, existing)) {
+            unchanged.incrementAndGet();
+            continue;
+         }
+         // the destination listing has already read past this name, so the copy cannot show up in it
+         if (!created) {
+            destinationApi.getContainerApiForRegion(destinationRegion).create(destinationContainer);
+            created = true;
+         }
+         submit(slots, new Copy(source, sourceContainer, object.getName(), destination, destinationContainer,
+               existing, bytesCopied, unchanged), copied, failed);
+      }
+      // every slot is free once the last operation has finished
+      slots.acquireUninterruptibly(maxParallelReplications);
+      slots.release(maxParallelReplications);
+
+      Result result = new Result(copied.get(), bytesCopied.get(), unchanged.get(), deleted.get(), failed);
+      logger.debug("<< replicated %s/%s to %s/%s: %s", sourceRegion, sourceContainer, destinationRegion,
+            destinationContainer, result);
+      return result;
+   }
+
+   private static PeekingIterator<SwiftObject> objects(ObjectApi objectApi, String container) {
+      Iterator<SwiftObject> objects = objectApi.listAll(container).concat().iterator();
+      return Iterators.peekingIterator(objects);
+   }
+
+   private static boolean matches(SwiftObject source, SwiftObject destination) {
+      if (source.getEtag() == null || !source.getEtag().equalsIgnoreCase(destination.getEtag()))
+         return false;
+      Long sourceSize = size(source);
+      Long destinationSize = size(destination);
+      return sourceSize == null || destinationSize == null || sourceSize.equals(destinationSize);
+   }
+
+   @Nullable
+   private static Long size(SwiftObject object) {
+      return object.getPayload() != null ? object.getPayload().getContentMetadata().getContentLength() : null;
+   }
+
+   private void submit(final Semaphore slots, final Callable<Boolean> operation, final AtomicInteger done,
+         final ConcurrentMap<String, Throwable> failed) {
+      slots.acquireUninterruptibly();
+      ListenableFuture<Boolean> future;
+      try {
+         future = userExecutor.submit(operation);
+      } catch (RuntimeException e) {
+         slots.release();
+         throw e;
+      }
+      Futures.addCallback(future, new FutureCallback<Boolean>() {
+         @Override
+         public void onSuccess(Boolean result) {
+            if (result)
+               done.incrementAndGet();
+            slots.release();
+         }
+
+         @Override
+         public void onFailure(Throwable t) {
+            failed.put(operation.toString(), t);
+            slots.release();
+         }
+      }, sameThreadExecutor());
+   }
+
+   /**
+    * Streams one object from the source to the destination; false if it was deleted from the
+    * source after being listed, or is a manifest whose copy is already up to date.
+    */
+   private static class Copy implements Callable<Boolean> {
+      private final ObjectApi source;
+      private final String sourceContainer;
+      private final String name;
+      private final ObjectApi destination;
+      private final String destinationContainer;
+      private final SwiftObject existing;
+      private final AtomicLong bytesCopied;
+      private final AtomicInteger unchanged;
+
+      private Copy(ObjectApi source, String sourceContainer, String name, ObjectApi destination,
+            String destinationContainer, @Nullable SwiftObject existing, AtomicLong bytesCopied,
+            AtomicInteger unchanged) {
+         this.source = source;
+         this.sourceContainer = sourceContainer;
+         this.name = name;
+         this.destination = destination;
+         this.destinationContainer = destinationContainer;
+         this.existing = existing;
+         this.bytesCopied = bytesCopied;
+         this.unchanged = unchanged;
+      }
+
+      @Override
+      public Boolean call() {
+         SwiftObject object = source.get(sourceContainer, name);
+         if (object == null)
+            return false;
+         Payload payload = object.getPayload();
+         if (object.isManifest() && existing != null && size(object) != null && size(object).equals(size(existing))) {
+            // the listing shows the manifest, not its content, so only the length can be compared
+            payload.release();
+            unchanged.incrementAndGet();
+            return false;
+         }
+         try {
+            String etag = destination.put(destinationContainer, name, payload, object.getMetadata());
+            if (!object.isManifest() && object.getEtag() != null && etag != null
+                  && !object.getEtag().equalsIgnoreCase(etag))
+               throw new IllegalStateException(String.format("%s/%s has ETag %s, but its copy has %s",
+                     sourceContainer, name, object.getEtag(), etag));
+         } finally {
+            payload.release();
+         }
+         Long size = payload.getContentMetadata().getContentLength();
+         if (size != null)
+            bytesCopied.addAndGet(size);
+         return true;
+      }
+
+      @Override
+      public String toString() {
+         return name;
+      }
+   }
+
+   private static class Delete implements Callable<Boolean> {
+      private final ObjectApi objectApi;
+      private final String container;
+      private final String name;
+
+      private Delete(ObjectApi objectApi, String container, String name) {
+         this.objectApi = objectApi;
+         this.container = container;
+         this.name = name;
+      }
+
+      @Override
+      public Boolean call() {
+         objectApi.delete(container, name);
+         return true;
+      }
+
+      @Override
+      public String toString() {
+         return name;
+      }
+   }
+}
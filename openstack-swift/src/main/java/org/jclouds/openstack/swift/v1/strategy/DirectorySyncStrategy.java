@@ -0,0 +1,346 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.strategy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.openstack.swift.v1.config.SwiftProperties.MAX_PARALLEL_SYNC_OPERATIONS;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.blobstore.reference.BlobStoreConstants;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.logging.Logger;
+import org.jclouds.openstack.swift.v1.SwiftApi;
+import org.jclouds.openstack.swift.v1.domain.SwiftObject;
+import org.jclouds.openstack.swift.v1.features.ObjectApi;
+import org.jclouds.openstack.swift.v1.options.ListObjectsOptions;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.io.BaseEncoding;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Makes a container, or the objects under a prefix of it, mirror a local directory, transferring
+ * only what differs.
+ * <p/>
+ * The local tree is compared against a streamed listing of the container. A file is uploaded when
+ * no object has its name, when the sizes differ, or when its MD5 differs from the ETag of the
+ * object. MD5s come from a {@link LocalHashIndex} persisted between runs, and are only recomputed
+ * for files whose size or modification time changed, so syncing an unchanged tree costs one
+ * listing and reads no file content. Uploads and deletes run on the user executor, with at most
+ * {@link org.jclouds.openstack.swift.v1.config.SwiftProperties#MAX_PARALLEL_SYNC_OPERATIONS} in
+ * flight.
+ * <p/>
+ * Files are uploaded as single objects, so each must be under the 5GB object limit. The ETag of a
+ * large object manifest is not the MD5 of its content, so manifests in the container are always
+ * seen as changed.
+ * 
+ * @author Adrian Cole
+ */
+@Singleton
+public class DirectorySyncStrategy {
+
+   /**
+    * What a sync did.
+    */
+   public static class Result {
+      private final Set<String> uploaded;
+      private final Set<String> deleted;
+      private final int unchanged;
+      private final int hashed;
+      private final Map<String, Throwable> failed;
+
+      Result(Set<String> uploaded, Set<String> deleted, int unchanged, int hashed, Map<String, Throwable> failed) {
+         this.uploaded = ImmutableSet.copyOf(uploaded);
+         this.deleted = ImmutableSet.copyOf(deleted);
+         this.unchanged = unchanged;
+         this.hashed = hashed;
+         this.failed = ImmutableMap.copyOf(failed);
+      }
+
+      /**
+       * @return names of the objects uploaded
+       */
+      public Set<String> getUploaded() {
+         return uploaded;
+      }
+
+      /**
+       * @return names of the objects deleted because no local file has their name
+       */
+      public Set<String> getDeleted() {
+         return deleted;
+      }
+
+      /**
+       * @return the number of files that already matched their object
+       */
+      public int getUnchanged() {
+         return unchanged;
+      }
+
+      /**
+       * @return the number of files whose content was read to compute an MD5
+       */
+      public int getHashed() {
+         return hashed;
+      }
+
+      /**
+       * @return names of the objects that could not be uploaded or deleted, with the cause
+       */
+      public Map<String, Throwable> getFailed() {
+         return failed;
+      }
+
+      @Override
+      public String toString() {
+         return Objects.toStringHelper(this).add("uploaded", uploaded.size()).add("deleted", deleted.size())
+               .add("unchanged", unchanged).add("hashed", hashed).add("failed", failed.keySet()).toString();
+      }
+   }
+
+   @Resource
+   @Named(BlobStoreConstants.BLOBSTORE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final SwiftApi api;
+   private final ListeningExecutorService userExecutor;
+   private final int maxParallelOperations;
+
+   @Inject
+   public DirectorySyncStrategy(SwiftApi api, @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(MAX_PARALLEL_SYNC_OPERATIONS) int maxParallelOperations) {
+      this.api = checkNotNull(api, "api");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      checkArgument(maxParallelOperations > 0, "maxParallelOperations must be positive");
+      this.maxParallelOperations = maxParallelOperations;
+   }
+
+   /**
+    * Uploads files of {@code directory} that differ from their objects, and optionally deletes
+    * objects that have no file. The file {@code a/b.txt} is the object {@code prefix + "a/b.txt"}.
+    * 
+    * @param prefix
+    *           prefix of the objects mirroring the directory, such as {@code builds/}, or null to
+    *           mirror the whole container
+    * @param indexFile
+    *           where the MD5 index of the directory is kept between runs; it should be outside the
+    *           directory
+    * @param deleteExtraneous
+    *           whether to delete objects under the prefix that have no local file
+    */
+   public Result sync(@Nullable String region, File directory, String container, @Nullable String prefix,
+         File indexFile, boolean deleteExtraneous) {
+      checkArgument(checkNotNull(directory, "directory").isDirectory(), "%s is not a directory", directory);
+      checkNotNull(container, "container");
+      String base = prefix != null ? prefix : "";
+      try {
+         LocalHashIndex index = LocalHashIndex.load(checkNotNull(indexFile, "indexFile"));
+         Map<String, File> local = Maps.newHashMap();
+         walk(directory, "", local);
+         Set<String> paths = ImmutableSet.copyOf(local.keySet());
+
+         ObjectApi objectApi = api.getObjectApiForRegion(region);
+         Iterable<SwiftObject> remote = prefix != null ? objectApi.listAll(container,
+               ListObjectsOptions.Builder.prefix(prefix)).concat() : objectApi.listAll(container).concat();
+         List<String> uploads = Lists.newArrayList();
+         List<String> deletes = Lists.newArrayList();
+         int unchanged = 0;
+         for (SwiftObject object : remote) {
+            if (object.isSubdir() || !object.getName().startsWith(base))
+               continue;
+            String path = object.getName().substring(base.length());
+            File file = local.remove(path);
+            if (file == null) {
+               if (deleteExtraneous)
+                  deletes.add(object.getName());
+            } else if (matches(object, path, file, index)) {
+               unchanged++;
+            } else {
+               uploads.add(path);
+            }
+         }
+         uploads.addAll(local.keySet());
+         logger.debug(">> syncing %s to %s/%s: %s uploads, %s deletes, %s unchanged", directory, container, base,
+               uploads.size(), deletes.size(), unchanged);
+
+         if (!uploads.isEmpty())
+            api.getContainerApiForRegion(region).create(container);
+         Set<String> uploaded = Sets.newConcurrentHashSet();
+         Set<String> deleted = Sets.newConcurrentHashSet();
+         ConcurrentMap<String, Throwable> failed = Maps.newConcurrentMap();
+         Semaphore slots = new Semaphore(maxParallelOperations);
+         for (String path : uploads)
+            submit(slots, new Upload(objectApi, container, base + path, path, new File(directory, path), index),
+                  uploaded, failed);
+         for (String name : deletes)
+            submit(slots, new Delete(objectApi, container, name), deleted, failed);
+         // every slot is free once the last operation has finished
+         slots.acquireUninterruptibly(maxParallelOperations);
+         slots.release(maxParallelOperations);
+
+         index.retainAll(paths);
+         index.save(indexFile);
+         Result result = new Result(uploaded, deleted, unchanged, index.getHashed(), failed);
+         logger.debug("<< synced %s to %s/%s: %s", directory, container, base, result);
+         return result;
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      }
+   }
+
+   private static boolean matches(SwiftObject object, String path, File file, LocalHashIndex index)
+         throws IOException {
+      Payload payload = object.getPayload();
+      Long size = payload != null ? payload.getContentMetadata().getContentLength() : null;
+      if (size != null && size.longValue() != file.length())
+         return false;
+      return object.getEtag() != null && object.getEtag().equalsIgnoreCase(index.md5(path, file));
+   }
+
+   /**
+    * Adds the files under {@code directory}, keyed on their path relative to the root, separated by
+    * {@code /}.
+    */
+   private static void walk(File directory, String relative, Map<String, File> files) {
+      File[] children = directory.listFiles();
+      if (children == null)
+         return;
+      for (File child : children) {
+         String path = relative + child.getName();
+         if (child.isDirectory())
+            walk(child, path + "/", files);
+         else if (child.isFile())
+            files.put(path, child);
+      }
+   }
+
+   private void submit(final Semaphore slots, final Callable<String> operation, final Set<String> done,
+         final ConcurrentMap<String, Throwable> failed) {
+      slots.acquireUninterruptibly();
+      ListenableFuture<String> future;
+      try {
+         future = userExecutor.submit(operation);
+      } catch (RuntimeException e) {
+         slots.release();
+         throw e;
+      }
+      Futures.addCallback(future, new FutureCallback<String>() {
+         @Override
+         public void onSuccess(String name) {
+            done.add(name);
+            slots.release();
+         }
+
+         @Override
+         public void onFailure(Throwable t) {
+            failed.put(operation.toString(), t);
+            slots.release();
+         }
+      }, sameThreadExecutor());
+   }
+
+   private static class Upload implements Callable<String> {
+      private final ObjectApi objectApi;
+      private final String container;
+      private final String name;
+      private final String path;
+      private final File file;
+      private final LocalHashIndex index;
+
+      private Upload(ObjectApi objectApi, String container, String name, String path, File file,
+            LocalHashIndex index) {
+         this.objectApi = objectApi;
+         this.container = container;
+         this.name = name;
+         this.path = path;
+         this.file = file;
+         this.index = index;
+      }
+
+      @Override
+      public String call() {
+         Payload payload = Payloads.newFilePayload(file);
+         payload.getContentMetadata().setContentLength(file.length());
+         // an MD5 computed while comparing lets the server verify the upload
+         String md5 = index.getIfCurrent(path, file);
+         if (md5 != null)
+            payload.getContentMetadata().setContentMD5(BaseEncoding.base16().lowerCase().decode(md5));
+         String etag = objectApi.put(container, name, payload);
+         if (etag != null)
+            index.put(path, file, etag);
+         return name;
+      }
+
+      @Override
+      public String toString() {
+         return name;
+      }
+   }
+
+   private static class Delete implements Callable<String> {
+      private final ObjectApi objectApi;
+      private final String container;
+      private final String name;
+
+      private Delete(ObjectApi objectApi, String container, String name) {
+         this.objectApi = objectApi;
+         this.container = container;
+         this.name = name;
+      }
+
+      @Override
+      public String call() {
+         objectApi.delete(container, name);
+         return name;
+      }
+
+      @Override
+      public String toString() {
+         return name;
+      }
+   }
+}
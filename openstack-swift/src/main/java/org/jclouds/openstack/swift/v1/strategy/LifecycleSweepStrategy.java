@@ -0,0 +1,161 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.strategy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Date;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.blobstore.reference.BlobStoreConstants;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.logging.Logger;
+import org.jclouds.openstack.swift.v1.SwiftApi;
+import org.jclouds.openstack.swift.v1.domain.BulkDeleteResponse;
+import org.jclouds.openstack.swift.v1.domain.SwiftObject;
+import org.jclouds.openstack.swift.v1.features.ObjectApi;
+import org.jclouds.openstack.swift.v1.options.ExpirationOptions;
+import org.jclouds.openstack.swift.v1.options.ListObjectsOptions;
+import org.jclouds.openstack.swift.v1.strategy.ObjectBatchStrategy.Operation;
+
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+import com.google.common.collect.FluentIterable;
+
+/**
+ * Removes old objects from containers that grow without bound, such as log containers.
+ * <p/>
+ * The container listing is streamed, and objects under a prefix that were last modified before a
+ * cut off are either deleted with bulk deletes of up to 10,000 objects per request, or given an
+ * expiry so that Swift's object expirer removes them. Neither holds the listing in memory.
+ * <p/>
+ * New objects are best written with {@link ExpirationOptions} in the first place, so that no sweep
+ * is needed.
+ * 
+ * @author Adrian Cole
+ */
+@Singleton
+public class LifecycleSweepStrategy {
+
+   @Resource
+   @Named(BlobStoreConstants.BLOBSTORE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final SwiftApi api;
+   private final BatchedBulkDeleteStrategy bulkDelete;
+   private final ObjectBatchStrategy batch;
+
+   @Inject
+   public LifecycleSweepStrategy(SwiftApi api, BatchedBulkDeleteStrategy bulkDelete, ObjectBatchStrategy batch) {
+      this.api = checkNotNull(api, "api");
+      this.bulkDelete = checkNotNull(bulkDelete, "bulkDelete");
+      this.batch = checkNotNull(batch, "batch");
+   }
+
+   /**
+    * Bulk deletes the objects under {@code prefix} last modified before {@code modifiedBefore}.
+    * 
+    * @param prefix
+    *           prefix of the objects to sweep, or null to sweep the whole container
+    */
+   public BulkDeleteResponse delete(@Nullable String region, final String container, @Nullable String prefix,
+         Date modifiedBefore) {
+      FluentIterable<String> paths = select(region, container, prefix, modifiedBefore).transform(
+            new Function<SwiftObject, String>() {
+               @Override
+               public String apply(SwiftObject object) {
+                  return container + "/" + object.getName();
+               }
+            });
+      BulkDeleteResponse response = bulkDelete.delete(region, paths);
+      logger.debug("<< swept %s/%s modified before %s: %s", container, prefix, modifiedBefore, response);
+      return response;
+   }
+
+   /**
+    * Sets the objects under {@code prefix} last modified before {@code modifiedBefore} to expire
+    * {@code deleteAfterSeconds} from now. Each object is read with {@code HEAD} first, so that its
+    * user metadata survives the {@code POST}.
+    * 
+    * @param prefix
+    *           prefix of the objects to sweep, or null to sweep the whole container
+    */
+   public ObjectBatchStrategy.Result expire(@Nullable final String region, final String container,
+         @Nullable String prefix, Date modifiedBefore, final long deleteAfterSeconds) {
+      checkArgument(deleteAfterSeconds > 0, "deleteAfterSeconds must be positive");
+      FluentIterable<Operation> expirations = select(region, container, prefix, modifiedBefore).transform(
+            new Function<SwiftObject, Operation>() {
+               @Override
+               public Operation apply(SwiftObject object) {
+                  return new Expire(region, container, object.getName(), deleteAfterSeconds);
+               }
+            });
+      ObjectBatchStrategy.Result result = batch.execute(expirations);
+      logger.debug("<< expired %s/%s modified before %s: %s", container, prefix, modifiedBefore, result);
+      return result;
+   }
+
+   /**
+    * @return the objects to sweep, read lazily from the listing
+    */
+   FluentIterable<SwiftObject> select(@Nullable String region, String container, @Nullable String prefix,
+         final Date modifiedBefore) {
+      checkNotNull(container, "container");
+      checkNotNull(modifiedBefore, "modifiedBefore");
+      ObjectApi objectApi = api.getObjectApiForRegion(region);
+      FluentIterable<SwiftObject> objects = prefix != null ? objectApi.listAll(container,
+            ListObjectsOptions.Builder.prefix(prefix)).concat() : objectApi.listAll(container).concat();
+      return objects.filter(new Predicate<SwiftObject>() {
+         @Override
+         public boolean apply(SwiftObject object) {
+            return !object.isSubdir() && object.getLastModified() != null
+                  && object.getLastModified().before(modifiedBefore);
+         }
+      });
+   }
+
+   private static class Expire extends Operation {
+      private final long deleteAfterSeconds;
+
+      private Expire(@Nullable String region, String container, String name, long deleteAfterSeconds) {
+         super(region, container, name);
+         this.deleteAfterSeconds = deleteAfterSeconds;
+      }
+
+      @Override
+      protected void execute(ObjectApi api) {
+         SwiftObject current = api.head(container, name);
+         // already gone
+         if (current == null)
+            return;
+         api.updateMetadata(container, name, current.getMetadata(),
+               ExpirationOptions.Builder.deleteAfter(deleteAfterSeconds));
+      }
+
+      @Override
+      public String toString() {
+         return "expire(" + container + "/" + name + ")";
+      }
+   }
+}
@@ -0,0 +1,181 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.strategy;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Objects;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Closeables;
+import com.google.common.io.Files;
+
+/**
+ * MD5 hashes of local files, remembered along with the size and modification time they were
+ * computed at. A hash is only recomputed when the size or modification time of its file changes,
+ * so checking an unchanged tree against Swift ETags reads no file content.
+ * <p/>
+ * The index is kept in a text file, one {@code md5 size mtime path} line per file, and is safe to
+ * update from several threads.
+ * 
+ * @author Adrian Cole
+ */
+public class LocalHashIndex {
+
+   private static final Splitter FIELDS = Splitter.on(' ').limit(4);
+
+   private static class Hash {
+      private final long size;
+      private final long lastModified;
+      private final String md5;
+
+      private Hash(long size, long lastModified, String md5) {
+         this.size = size;
+         this.lastModified = lastModified;
+         this.md5 = md5;
+      }
+   }
+
+   /**
+    * Loads the index from a file written by {@link #save}, or returns an empty index if the file
+    * does not exist. Malformed lines are skipped.
+    */
+   public static LocalHashIndex load(File file) throws IOException {
+      LocalHashIndex index = new LocalHashIndex();
+      if (!checkNotNull(file, "file").exists())
+         return index;
+      BufferedReader reader = Files.newReader(file, Charsets.UTF_8);
+      try {
+         for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            String[] fields = Iterables.toArray(FIELDS.split(line), String.class);
+            if (fields.length != 4)
+               continue;
+            try {
+               index.entries.put(fields[3],
+                     new Hash(Long.parseLong(fields[1]), Long.parseLong(fields[2]), fields[0]));
+            } catch (NumberFormatException e) {
+               continue;
+            }
+         }
+      } finally {
+         Closeables.close(reader, true);
+      }
+      return index;
+   }
+
+   private final ConcurrentMap<String, Hash> entries = Maps.newConcurrentMap();
+   private final AtomicInteger hashed = new AtomicInteger();
+
+   /**
+    * @return the MD5 of the file as lowercase hex, computed only if the file changed since it was
+    *         last indexed under this path
+    */
+   public String md5(String path, File file) throws IOException {
+      long size = file.length();
+      long lastModified = file.lastModified();
+      Hash entry = entries.get(path);
+      if (entry != null && entry.size == size && entry.lastModified == lastModified)
+         return entry.md5;
+      String md5 = Files.hash(file, Hashing.md5()).toString();
+      hashed.incrementAndGet();
+      entries.put(path, new Hash(size, lastModified, md5));
+      return md5;
+   }
+
+   /**
+    * Records the MD5 of a file whose content is known, such as from the ETag returned when it was
+    * uploaded.
+    */
+   public void put(String path, File file, String md5) {
+      entries.put(path, new Hash(file.length(), file.lastModified(), md5.toLowerCase()));
+   }
+
+   /**
+    * @return the indexed MD5 of the file, or null if it was never indexed or has changed since,
+    *         without reading the file
+    */
+   @Nullable
+   public String getIfCurrent(String path, File file) {
+      Hash entry = entries.get(path);
+      if (entry != null && entry.size == file.length() && entry.lastModified == file.lastModified())
+         return entry.md5;
+      return null;
+   }
+
+   public void remove(String path) {
+      entries.remove(path);
+   }
+
+   /**
+    * Drops entries for paths not in {@code paths}, so the index does not grow with files that no
+    * longer exist.
+    */
+   public void retainAll(Iterable<String> paths) {
+      entries.keySet().retainAll(ImmutableSet.copyOf(paths));
+   }
+
+   /**
+    * @return how many files were read to compute hashes since the index was loaded
+    */
+   public int getHashed() {
+      return hashed.get();
+   }
+
+   /**
+    * Writes the index to a temporary file next to {@code file}, then renames it over {@code file},
+    * so an interrupted save leaves the previous index intact.
+    */
+   public void save(File file) throws IOException {
+      File temp = new File(file.getPath() + ".tmp");
+      Writer writer = Files.newWriter(temp, Charsets.UTF_8);
+      boolean threw = true;
+      try {
+         for (Map.Entry<String, Hash> entry : entries.entrySet()) {
+            // a path with a line break cannot be read back; it is hashed again next time
+            if (entry.getKey().indexOf('\n') != -1)
+               continue;
+            Hash value = entry.getValue();
+            writer.write(value.md5 + ' ' + value.size + ' ' + value.lastModified + ' ' + entry.getKey() + '\n');
+         }
+         threw = false;
+      } finally {
+         Closeables.close(writer, threw);
+      }
+      Files.move(temp, file);
+   }
+
+   @Override
+   public String toString() {
+      return Objects.toStringHelper(this).add("entries", entries.size()).add("hashed", hashed.get()).toString();
+   }
+}
@@ -0,0 +1,429 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.strategy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static org.jclouds.Constants.PROPERTY_MAX_RETRIES;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.openstack.swift.v1.config.SwiftProperties.BATCH_RETRY_DELAY_START;
+import static org.jclouds.openstack.swift.v1.config.SwiftProperties.MAX_IN_FLIGHT_PER_REGION;
+import static org.jclouds.util.Throwables2.getFirstThrowableOfType;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.blobstore.reference.BlobStoreConstants;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.io.Payload;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.logging.Logger;
+import org.jclouds.openstack.swift.v1.SwiftApi;
+import org.jclouds.openstack.swift.v1.features.ObjectApi;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Runs a stream of object operations, such as puts and deletes, with at most
+ * {@link org.jclouds.openstack.swift.v1.config.SwiftProperties#MAX_IN_FLIGHT_PER_REGION} of them in
+ * flight against any one region.
+ * <p/>
+ * Operations are read lazily, and the next one is not read until its region has a free slot, so a
+ * producer of any size is held back to the pace the cluster sustains. An operation answered with
+ * {@code 503 Service Unavailable} or {@code 429 Too Many Requests} keeps its slot and is retried
+ * after a jittered, exponentially growing delay, or after the {@code Retry-After} the proxy asked
+ * for if that is longer. Throughput and latency percentiles of the whole batch are in the
+ * {@link Result}.
+ * 
+ * @author Adrian Cole
+ */
+@Singleton
+public class ObjectBatchStrategy {
+
+   /**
+    * One request against an object. Implement {@link #execute} for operations other than the
+    * provided {@link #put} and {@link #delete}.
+    */
+   public abstract static class Operation {
+      protected final String region;
+      protected final String container;
+      protected final String name;
+
+      protected Operation(@Nullable String region, String container, String name) {
+         this.region = region;
+         this.container = checkNotNull(container, "container");
+         this.name = checkNotNull(name, "name");
+      }
+
+      /**
+       * Performs the operation; returning normally means it succeeded.
+       */
+      protected abstract void execute(ObjectApi api);
+
+      /**
+       * @return false if the operation cannot be repeated, such as a put of a one-shot stream
+       */
+      protected boolean isRetryable() {
+         return true;
+      }
+
+      @Nullable
+      public String getRegion() {
+         return region;
+      }
+
+      public String getContainer() {
+         return container;
+      }
+
+      public String getName() {
+         return name;
+      }
+
+      @Override
+      public String toString() {
+         return getClass().getSimpleName() + "(" + container + "/" + name + ")";
+      }
+
+      public static Operation put(@Nullable String region, String container, String name, final Payload payload) {
+         checkNotNull(payload, "payload");
+         return new Operation(region, container, name) {
+            @Override
+            protected void execute(ObjectApi api) {
+               api.put(container, name, payload);
+            }
+
+            @Override
+            protected boolean isRetryable() {
+               return payload.isRepeatable();
+            }
+
+            @Override
+            public String toString() {
+               return "put(" + container + "/" + name + ")";
+            }
+         };
+      }
+
+      public static Operation delete(@Nullable String region, String container, String name) {
+         return new Operation(region, container, name) {
+            @Override
+            protected void execute(ObjectApi api) {
+               api.delete(container, name);
+            }
+
+            @Override
+            public String toString() {
+               return "delete(" + container + "/" + name + ")";
+            }
+         };
+      }
+   }
+
+   /**
+    * What a batch did and how fast.
+    */
+   public static class Result {
+      private final int succeeded;
+      private final Map<String, Throwable> failed;
+      private final int retries;
+      private final long elapsedNanos;
+      private final long[] latencies;
+
+      Result(int succeeded, Map<String, Throwable> failed, int retries, long elapsedNanos, long[] latencies) {
+         this.succeeded = succeeded;
+         this.failed = ImmutableMap.copyOf(failed);
+         this.retries = retries;
+         this.elapsedNanos = elapsedNanos;
+         this.latencies = latencies;
+      }
+
+      /**
+       * @return the number of operations that succeeded
+       */
+      public int getSucceeded() {
+         return succeeded;
+      }
+
+      /**
+       * @return {@code container/name} of each operation that failed, with the cause
+       */
+      public Map<String, Throwable> getFailed() {
+         return failed;
+      }
+
+      /**
+       * @return the number of times an operation was retried after {@code 503} or {@code 429}
+       */
+      public int getRetries() {
+         return retries;
+      }
+
+      /**
+       * @return wall clock time from the first operation read to the last one finished
+       */
+      public long getElapsed(TimeUnit unit) {
+         return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+      }
+
+      /**
+       * @return operations finished, successfully or not, per second
+       */
+      public double getThroughput() {
+         return elapsedNanos == 0 ? 0 : (succeeded + failed.size()) / (elapsedNanos / 1e9);
+      }
+
+      /**
+       * Latency of an operation includes the time spent waiting to retry it.
+       * 
+       * @param percentile
+       *           between 0 and 100, such as 50 for the median or 99
+       * @return the latency in milliseconds that the given percentage of operations finished
+       *         within, accurate to about 10%
+       */
+      public double getLatencyPercentile(double percentile) {
+         return LatencyHistogram.percentile(latencies, percentile) / 1000.0;
+      }
+
+      @Override
+      public String toString() {
+         return Objects.toStringHelper(this).add("succeeded", succeeded).add("failed", failed.keySet())
+               .add("retries", retries).add("elapsedMillis", getElapsed(TimeUnit.MILLISECONDS))
+               .add("opsPerSecond", String.format("%.1f", getThroughput()))
+               .add("p50Millis", getLatencyPercentile(50)).add("p90Millis", getLatencyPercentile(90))
+               .add("p99Millis", getLatencyPercentile(99)).toString();
+      }
+   }
+
+   /**
+    * Counts latencies in microseconds into buckets eight to each power of two.
+    */
+   static class LatencyHistogram {
+      private static final int BUCKETS_PER_DOUBLING = 8;
+      private static final int BUCKETS = 64 * BUCKETS_PER_DOUBLING;
+
+      private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+      void record(long micros) {
+         counts.incrementAndGet(bucket(micros));
+      }
+
+      long[] snapshot() {
+         long[] snapshot = new long[BUCKETS];
+         for (int i = 0; i < BUCKETS; i++)
+            snapshot[i] = counts.get(i);
+         return snapshot;
+      }
+
+      static int bucket(long micros) {
+         if (micros < 1)
+            return 0;
+         return Math.min(BUCKETS - 1, 1 + (int) (Math.log(micros) / Math.log(2) * BUCKETS_PER_DOUBLING));
+      }
+
+      /**
+       * @return the upper bound, in microseconds, of the bucket holding the percentile
+       */
+      static double percentile(long[] counts, double percentile) {
+         checkArgument(percentile >= 0 && percentile <= 100, "percentile must be between 0 and 100");
+         long total = 0;
+         for (long count : counts)
+            total += count;
+         if (total == 0)
+            return 0;
+         long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+         long seen = 0;
+         for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank)
+               return i == 0 ? 1 : Math.pow(2, (double) i / BUCKETS_PER_DOUBLING);
+         }
+         return Math.pow(2, (double) (counts.length - 1) / BUCKETS_PER_DOUBLING);
+      }
+   }
+
+   private static final long MAX_RETRY_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+   @Resource
+   @Named(BlobStoreConstants.BLOBSTORE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final SwiftApi api;
+   private final ListeningExecutorService userExecutor;
+   private final int maxInFlightPerRegion;
+   private final int maxRetries;
+   private final long retryDelayStart;
+   private final Random random = new Random();
+
+   @Inject
+   public ObjectBatchStrategy(SwiftApi api, @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(MAX_IN_FLIGHT_PER_REGION) int maxInFlightPerRegion, @Named(PROPERTY_MAX_RETRIES) int maxRetries,
+         @Named(BATCH_RETRY_DELAY_START) long retryDelayStart) {
+      this.api = checkNotNull(api, "api");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      checkArgument(maxInFlightPerRegion > 0, "maxInFlightPerRegion must be positive");
+      checkArgument(maxRetries >= 0, "maxRetries must be non-negative");
+      checkArgument(retryDelayStart >= 0, "retryDelayStart must be non-negative");
+      this.maxInFlightPerRegion = maxInFlightPerRegion;
+      this.maxRetries = maxRetries;
+      this.retryDelayStart = retryDelayStart;
+   }
+
+   /**
+    * Runs the operations, blocking until the last has finished. A failed operation does not stop
+    * the others; each is reported in the {@link Result}.
+    */
+   public Result execute(Iterable<? extends Operation> operations) {
+      final Map<String, Semaphore> slotsByRegion = Maps.newHashMap();
+      final AtomicInteger succeeded = new AtomicInteger();
+      final AtomicInteger retries = new AtomicInteger();
+      final ConcurrentMap<String, Throwable> failed = Maps.newConcurrentMap();
+      final LatencyHistogram latencies = new LatencyHistogram();
+      long start = System.nanoTime();
+      for (final Operation operation : checkNotNull(operations, "operations")) {
+         String region = Strings.nullToEmpty(operation.getRegion());
+         Semaphore regionSlots = slotsByRegion.get(region);
+         if (regionSlots == null) {
+            regionSlots = new Semaphore(maxInFlightPerRegion);
+            slotsByRegion.put(region, regionSlots);
+         }
+         final Semaphore slots = regionSlots;
+         // backpressure: the producer waits here while the region is saturated
+         slots.acquireUninterruptibly();
+         final ObjectApi objectApi = api.getObjectApiForRegion(operation.getRegion());
+         final long submitted = System.nanoTime();
+         ListenableFuture<Void> future;
+         try {
+            future = userExecutor.submit(new Callable<Void>() {
+               public Void call() throws InterruptedException {
+                  execute(objectApi, operation, retries);
+                  return null;
+               }
+
+               @Override
+               public String toString() {
+                  return operation.toString();
+               }
+            });
+         } catch (RuntimeException e) {
+            slots.release();
+            throw e;
+         }
+         Futures.addCallback(future, new FutureCallback<Void>() {
+            @Override
+            public void onSuccess(Void result) {
+               succeeded.incrementAndGet();
+               finished();
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+               failed.put(operation.getContainer() + "/" + operation.getName(), t);
+               finished();
+            }
+
+            private void finished() {
+               latencies.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - submitted));
+               slots.release();
+            }
+         }, sameThreadExecutor());
+      }
+      // every slot is free once the last operation has finished
+      for (Semaphore slots : slotsByRegion.values()) {
+         slots.acquireUninterruptibly(maxInFlightPerRegion);
+         slots.release(maxInFlightPerRegion);
+      }
+      Result result = new Result(succeeded.get(), failed, retries.get(), System.nanoTime() - start,
+            latencies.snapshot());
+      logger.debug("<< batch of object operations: %s", result);
+      return result;
+   }
+
+   private void execute(ObjectApi objectApi, Operation operation, AtomicInteger retries)
+         throws InterruptedException {
+      for (int attempt = 1;; attempt++) {
+         try {
+            operation.execute(objectApi);
+            return;
+         } catch (RuntimeException e) {
+            HttpResponse response = throttledResponse(e);
+            if (response == null || attempt > maxRetries || !operation.isRetryable())
+               throw e;
+            long delay = retryDelay(attempt, response);
+            logger.debug("<< %s throttled with %s; retrying in %sms", operation, response.getStatusLine(), delay);
+            retries.incrementAndGet();
+            Thread.sleep(delay);
+         }
+      }
+   }
+
+   /**
+    * @return the response, if the proxy rejected the request because it is overloaded
+    */
+   @Nullable
+   private static HttpResponse throttledResponse(RuntimeException e) {
+      HttpResponseException exception = getFirstThrowableOfType(e, HttpResponseException.class);
+      if (exception == null || exception.getResponse() == null)
+         return null;
+      int status = exception.getResponse().getStatusCode();
+      return status == 503 || status == 429 ? exception.getResponse() : null;
+   }
+
+   /**
+    * Full jitter over an exponentially growing window, so that throttled clients spread out rather
+    * than retrying in lock step.
+    */
+   long retryDelay(int attempt, HttpResponse response) {
+      long window = Math.min(MAX_RETRY_DELAY_MILLIS, retryDelayStart << Math.min(attempt - 1, 20));
+      long delay;
+      synchronized (random) {
+         delay = (long) (random.nextDouble() * window);
+      }
+      String retryAfter = response.getFirstHeaderOrNull("Retry-After");
+      if (retryAfter != null) {
+         try {
+            delay = Math.max(delay, Math.min(MAX_RETRY_DELAY_MILLIS, TimeUnit.SECONDS.toMillis(Long
+                  .parseLong(retryAfter.trim()))));
+         } catch (NumberFormatException e) {
+            // an http date; the jittered delay stands
+         }
+      }
+      return delay;
+   }
+}
@@ -0,0 +1,197 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.strategy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.openstack.swift.v1.config.SwiftProperties.MAX_PARALLEL_COPIES;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.blobstore.reference.BlobStoreConstants;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.logging.Logger;
+import org.jclouds.openstack.swift.v1.SwiftApi;
+import org.jclouds.openstack.swift.v1.features.ObjectApi;
+
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Copies many objects on the server, with up to
+ * {@link org.jclouds.openstack.swift.v1.config.SwiftProperties#MAX_PARALLEL_COPIES} copies in
+ * flight at once. No object data passes through the client.
+ * <p/>
+ * Names are read lazily, and the next name is not read until a slot is free, so they can come
+ * straight from a listing of any size. A failed copy does not stop the others; each is reported in
+ * the {@link Result}.
+ * 
+ * @author Adrian Cole
+ */
+@Singleton
+public class ParallelCopyStrategy {
+
+   /**
+    * The outcome of copying many objects.
+    */
+   public static class Result {
+      private final int copied;
+      private final Set<String> notFound;
+      private final Map<String, Throwable> failed;
+
+      Result(int copied, Set<String> notFound, Map<String, Throwable> failed) {
+         this.copied = copied;
+         this.notFound = ImmutableSet.copyOf(notFound);
+         this.failed = ImmutableMap.copyOf(failed);
+      }
+
+      /**
+       * @return the number of objects copied
+       */
+      public int getCopied() {
+         return copied;
+      }
+
+      /**
+       * @return names of source objects that did not exist
+       */
+      public Set<String> getNotFound() {
+         return notFound;
+      }
+
+      /**
+       * @return names of source objects that could not be copied, with the cause
+       */
+      public Map<String, Throwable> getFailed() {
+         return failed;
+      }
+
+      @Override
+      public String toString() {
+         return Objects.toStringHelper(this).add("copied", copied).add("notFound", notFound.size())
+               .add("failed", failed.keySet()).toString();
+      }
+   }
+
+   @Resource
+   @Named(BlobStoreConstants.BLOBSTORE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final SwiftApi api;
+   private final ListeningExecutorService userExecutor;
+   private final int maxParallelCopies;
+
+   @Inject
+   public ParallelCopyStrategy(SwiftApi api, @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(MAX_PARALLEL_COPIES) int maxParallelCopies) {
+      this.api = checkNotNull(api, "api");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      checkArgument(maxParallelCopies > 0, "maxParallelCopies must be positive");
+      this.maxParallelCopies = maxParallelCopies;
+   }
+
+   /**
+    * Copies objects to the same names in another container.
+    */
+   public Result copy(@Nullable String region, String sourceContainer, Iterable<String> sourceNames,
+         String destinationContainer) {
+      return copy(region, sourceContainer, sourceNames, destinationContainer, Functions.<String> identity());
+   }
+
+   /**
+    * Copies objects to another container, or to other names in the same container.
+    * 
+    * @param toDestinationName
+    *           gives the destination name of each source name
+    */
+   public Result copy(@Nullable String region, final String sourceContainer, Iterable<String> sourceNames,
+         final String destinationContainer, final Function<String, String> toDestinationName) {
+      checkNotNull(sourceContainer, "sourceContainer");
+      checkNotNull(destinationContainer, "destinationContainer");
+      checkNotNull(toDestinationName, "toDestinationName");
+      final ObjectApi objectApi = api.getObjectApiForRegion(region);
+      final Semaphore slots = new Semaphore(maxParallelCopies);
+      final AtomicInteger copied = new AtomicInteger();
+      final Set<String> notFound = Sets.newConcurrentHashSet();
+      final ConcurrentMap<String, Throwable> failed = Maps.newConcurrentMap();
+      for (final String sourceName : checkNotNull(sourceNames, "sourceNames")) {
+         slots.acquireUninterruptibly();
+         ListenableFuture<Boolean> future;
+         try {
+            future = userExecutor.submit(new Callable<Boolean>() {
+               public Boolean call() {
+                  return objectApi.copy(sourceContainer, sourceName, destinationContainer,
+                        toDestinationName.apply(sourceName));
+               }
+
+               @Override
+               public String toString() {
+                  return "copy(" + sourceContainer + "/" + sourceName + ")";
+               }
+            });
+         } catch (RuntimeException e) {
+            slots.release();
+            throw e;
+         }
+         Futures.addCallback(future, new FutureCallback<Boolean>() {
+            @Override
+            public void onSuccess(Boolean result) {
+               if (result)
+                  copied.incrementAndGet();
+               else
+                  notFound.add(sourceName);
+               slots.release();
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+               failed.put(sourceName, t);
+               slots.release();
+            }
+         }, sameThreadExecutor());
+      }
+      // every slot is free once the last copy has finished
+      slots.acquireUninterruptibly(maxParallelCopies);
+      slots.release(maxParallelCopies);
+      Result result = new Result(copied.get(), notFound, failed);
+      logger.debug("<< copied %s/* to %s/*: %s", sourceContainer, destinationContainer, result);
+      return result;
+   }
+}
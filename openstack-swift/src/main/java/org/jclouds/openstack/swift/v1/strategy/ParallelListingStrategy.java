@@ -0,0 +1,514 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.strategy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.openstack.swift.v1.config.SwiftProperties.LISTING_PARTITIONS;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.blobstore.reference.BlobStoreConstants;
+import org.jclouds.collect.IterableWithMarker;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.logging.Logger;
+import org.jclouds.openstack.swift.v1.SwiftApi;
+import org.jclouds.openstack.swift.v1.domain.SwiftObject;
+import org.jclouds.openstack.swift.v1.features.ObjectApi;
+import org.jclouds.openstack.swift.v1.options.ListObjectsOptions;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Lists very large containers by splitting their name space into disjoint ranges that are listed
+ * concurrently.
+ * <p/>
+ * The name space is sampled before listing. A delimited listing of the top level, descending into
+ * pseudo-directories until there are enough names, suits containers laid out as paths. Containers
+ * that are flat, or whose top level does not fit in one probe, are also sampled by asking for the
+ * first entry after each printable ASCII character. Up to
+ * {@link org.jclouds.openstack.swift.v1.config.SwiftProperties#LISTING_PARTITIONS} evenly spaced
+ * samples become the boundaries of the ranges; each range is listed with {@code marker} and
+ * {@code end_marker} and walked page by page on its own thread.
+ * <p/>
+ * Sampling gives ranges of similar width in name space, not of similar size; a range that is much
+ * denser than the rest will finish last. Each range lists at most {@link #PAGES_AHEAD} pages ahead of
+ * the caller, so listings need an executor that runs ranges on threads other than the caller's.
+ * 
+ * @author Adrian Cole
+ */
+@Singleton
+public class ParallelListingStrategy {
+
+   /**
+    * Names returned by a probe of one pseudo-directory level.
+    */
+   static final int PROBE_LIMIT = 1000;
+
+   /**
+    * How many pseudo-directory levels are probed before falling back to character probing.
+    */
+   static final int MAX_PROBE_DEPTH = 3;
+
+   /**
+    * The characters after which the first name is probed, when the container has no usable
+    * hierarchy.
+    */
+   static final String PROBE_CHARACTERS;
+   static {
+      StringBuilder characters = new StringBuilder();
+      for (char c = '!'; c <= '~'; c++)
+         characters.append(c);
+      PROBE_CHARACTERS = characters.toString();
+   }
+
+   /**
+    * A contiguous slice of the name space, from {@link #getStart() start} inclusive to
+    * {@link #getEnd() end} exclusive.
+    */
+   public static class KeyRange {
+      private final SwiftObject first;
+      private final String end;
+
+      KeyRange(@Nullable SwiftObject first, @Nullable String end) {
+         this.first = first;
+         this.end = end;
+      }
+
+      /**
+       * @return the name of the first object in the range, or null if the range starts at the
+       *         beginning of the container
+       */
+      @Nullable
+      public String getStart() {
+         return first != null ? first.getName() : null;
+      }
+
+      /**
+       * @return the name that ends the range, exclusive, or null if the range runs to the end of
+       *         the container
+       */
+      @Nullable
+      public String getEnd() {
+         return end;
+      }
+
+      /**
+       * @return options that list the names after the start of this range. The first object itself
+       *         is not listed, as {@code marker} is exclusive.
+       */
+      public ListObjectsOptions toListObjectsOptions(@Nullable String prefix) {
+         ListObjectsOptions options = new ListObjectsOptions();
+         if (prefix != null)
+            options.prefix(prefix);
+         if (first != null)
+            options.marker(first.getName());
+         if (end != null)
+            options.endMarker(end);
+         return options;
+      }
+
+      @Override
+      public boolean equals(Object obj) {
+         if (this == obj)
+            return true;
+         if (obj == null || getClass() != obj.getClass())
+            return false;
+         KeyRange that = KeyRange.class.cast(obj);
+         return Objects.equal(this.getStart(), that.getStart()) && Objects.equal(this.end, that.end);
+      }
+
+      @Override
+      public int hashCode() {
+         return Objects.hashCode(getStart(), end);
+      }
+
+      @Override
+      public String toString() {
+         return "[" + Objects.firstNonNull(getStart(), "") + ", " + Objects.firstNonNull(end, "") + ")";
+      }
+   }
+
+   @Resource
+   @Named(BlobStoreConstants.BLOBSTORE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   /**
+    * A listing in progress; its ranges are walked on the user executor while the caller iterates.
+    * Callers that stop before the end should {@link #cancel()} it, so that ranges waiting for the
+    * caller to take their pages do not hold their threads.
+    */
+   public static class Listing extends FluentIterable<SwiftObject> {
+      private final List<BlockingQueue<List<SwiftObject>>> queues;
+      private final List<Future<?>> producers;
+      private final AtomicReference<Throwable> failure;
+      private final AtomicBoolean iterated = new AtomicBoolean();
+
+      Listing(List<BlockingQueue<List<SwiftObject>>> queues, List<Future<?>> producers,
+            AtomicReference<Throwable> failure) {
+         this.queues = queues;
+         this.producers = producers;
+         this.failure = failure;
+      }
+
+      @Override
+      public Iterator<SwiftObject> iterator() {
+         checkState(iterated.compareAndSet(false, true), "a parallel listing can only be iterated once");
+         return Iterators.concat(new PageIterator());
+      }
+
+      /**
+       * Stops walking the ranges. Pages already listed are dropped, and iterating any further fails
+       * with {@link CancellationException}.
+       */
+      public void cancel() {
+         failure.compareAndSet(null, new CancellationException("listing cancelled"));
+         stop();
+      }
+
+      private void stop() {
+         for (Future<?> producer : producers)
+            producer.cancel(true);
+         // wakes the caller if it is waiting on a range that was cancelled before it started
+         for (BlockingQueue<List<SwiftObject>> queue : queues)
+            queue.offer(END);
+      }
+
+      /**
+       * Hands out pages from each queue in turn until each has reached its end. In unordered
+       * listings, every element of {@code queues} is the same queue, listed once per range.
+       */
+      private class PageIterator extends AbstractIterator<Iterator<SwiftObject>> {
+         private final Iterator<BlockingQueue<List<SwiftObject>>> remaining = queues.iterator();
+         private BlockingQueue<List<SwiftObject>> current;
+
+         @Override
+         protected Iterator<SwiftObject> computeNext() {
+            while (true) {
+               if (current == null) {
+                  if (!remaining.hasNext())
+                     return endOfData();
+                  current = remaining.next();
+               }
+               List<SwiftObject> page = Uninterruptibles.takeUninterruptibly(current);
+               if (failure.get() != null) {
+                  stop();
+                  throw Throwables.propagate(failure.get());
+               }
+               if (page == END)
+                  current = null;
+               else
+                  return page.iterator();
+            }
+         }
+      }
+   }
+
+   /**
+    * Pages of each range that may be listed before the caller takes them; a range that is further
+    * ahead waits.
+    */
+   static final int PAGES_AHEAD = 2;
+
+   private final SwiftApi api;
+   private final ListeningExecutorService userExecutor;
+   private final int partitions;
+
+   @Inject
+   public ParallelListingStrategy(SwiftApi api, @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(LISTING_PARTITIONS) int partitions) {
+      this.api = checkNotNull(api, "api");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      checkArgument(partitions > 0, "partitions must be positive");
+      this.partitions = partitions;
+   }
+
+   /**
+    * Lists all objects in the container, in name order.
+    * <p/>
+    * Ranges are listed concurrently, but handed out one after another; up to {@link #PAGES_AHEAD}
+    * pages of each range that is ahead of the caller are held in memory until it reaches them.
+    */
+   public Listing list(@Nullable String region, String container, @Nullable String prefix) {
+      return list(region, container, prefix, true);
+   }
+
+   /**
+    * Lists all objects in the container.
+    * 
+    * @param ordered
+    *           if false, pages are handed out as soon as any range returns them, so objects are
+    *           only ordered within a page
+    */
+   public Listing list(@Nullable String region, String container, @Nullable String prefix, boolean ordered) {
+      ObjectApi objectApi = api.getObjectApiForRegion(region);
+      List<KeyRange> ranges = split(objectApi, container, prefix);
+      logger.debug(">> listing %s in %s ranges %s", container, ranges.size(), ranges);
+      AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+      List<BlockingQueue<List<SwiftObject>>> queues = Lists.newArrayList();
+      if (ordered) {
+         for (int i = 0; i < ranges.size(); i++)
+            queues.add(new LinkedBlockingQueue<List<SwiftObject>>(PAGES_AHEAD));
+      } else {
+         BlockingQueue<List<SwiftObject>> queue = new LinkedBlockingQueue<List<SwiftObject>>(PAGES_AHEAD
+               * ranges.size());
+         for (int i = 0; i < ranges.size(); i++)
+            queues.add(queue);
+      }
+      ImmutableList.Builder<Future<?>> producers = ImmutableList.builder();
+      for (int i = 0; i < ranges.size(); i++)
+         producers.add(userExecutor.submit(new ListRange(objectApi, container, prefix, ranges.get(i), queues
+               .get(i), failure)));
+      return new Listing(queues, producers.build(), failure);
+   }
+
+   /**
+    * Samples the name space of the container and splits it into at most
+    * {@link org.jclouds.openstack.swift.v1.config.SwiftProperties#LISTING_PARTITIONS} ranges.
+    */
+   public List<KeyRange> split(@Nullable String region, String container, @Nullable String prefix) {
+      return split(api.getObjectApiForRegion(region), container, prefix);
+   }
+
+   private List<KeyRange> split(ObjectApi objectApi, String container, @Nullable String prefix) {
+      if (partitions == 1)
+         return ImmutableList.of(new KeyRange(null, null));
+      SortedMap<String, SwiftObject> samples = Maps.newTreeMap();
+      FluentIterable<SwiftObject> top = objectApi.list(container, delimited(prefix).limit(PROBE_LIMIT));
+      List<String> directories = add(top, samples);
+      if (top.size() >= PROBE_LIMIT || samples.size() < partitions)
+         directories.addAll(probeCharacters(objectApi, container, prefix, samples));
+      probeDirectories(objectApi, container, directories, samples);
+
+      List<String> names = ImmutableList.copyOf(samples.keySet());
+      Set<String> boundaries = Sets.newLinkedHashSet();
+      if (names.size() < partitions) {
+         boundaries.addAll(names);
+      } else {
+         for (int i = 1; i < partitions; i++)
+            boundaries.add(names.get(i * names.size() / partitions));
+      }
+
+      // boundaries start a range inclusively, so each must be the name of a real object
+      SortedMap<String, SwiftObject> firsts = Maps.newTreeMap();
+      for (SwiftObject first : resolve(objectApi, container, boundaries, samples))
+         firsts.put(first.getName(), first);
+
+      ImmutableList.Builder<KeyRange> ranges = ImmutableList.builder();
+      SwiftObject start = null;
+      for (SwiftObject next : firsts.values()) {
+         ranges.add(new KeyRange(start, next.getName()));
+         start = next;
+      }
+      ranges.add(new KeyRange(start, null));
+      return ranges.build();
+   }
+
+   /**
+    * Adds the first entry after each of {@link #PROBE_CHARACTERS}.
+    * 
+    * @return the names of pseudo-directories found
+    */
+   private List<String> probeCharacters(final ObjectApi objectApi, final String container,
+         @Nullable final String prefix, SortedMap<String, SwiftObject> samples) {
+      String base = Objects.firstNonNull(prefix, "");
+      List<ListenableFuture<FluentIterable<SwiftObject>>> probes = Lists.newArrayList();
+      for (int i = 0; i < PROBE_CHARACTERS.length(); i++) {
+         final String marker = base + PROBE_CHARACTERS.charAt(i);
+         probes.add(userExecutor.submit(new Callable<FluentIterable<SwiftObject>>() {
+            public FluentIterable<SwiftObject> call() {
+               return objectApi.list(container, delimited(prefix).marker(marker).limit(1));
+            }
+         }));
+      }
+      List<String> directories = Lists.newArrayList();
+      for (FluentIterable<SwiftObject> probe : getUnchecked(Futures.allAsList(probes)))
+         directories.addAll(add(probe, samples));
+      return directories;
+   }
+
+   /**
+    * Adds the entries of pseudo-directories, level by level, while there are fewer samples than
+    * {@link #partitions}.
+    */
+   private void probeDirectories(final ObjectApi objectApi, final String container, List<String> directories,
+         SortedMap<String, SwiftObject> samples) {
+      for (int depth = 1; depth < MAX_PROBE_DEPTH && samples.size() < partitions && !directories.isEmpty(); depth++) {
+         List<ListenableFuture<FluentIterable<SwiftObject>>> probes = Lists.newArrayList();
+         for (final String directory : ImmutableSet.copyOf(directories)) {
+            probes.add(userExecutor.submit(new Callable<FluentIterable<SwiftObject>>() {
+               public FluentIterable<SwiftObject> call() {
+                  return objectApi.list(container, delimited(directory).limit(PROBE_LIMIT));
+               }
+            }));
+         }
+         directories = Lists.newArrayList();
+         for (FluentIterable<SwiftObject> level : getUnchecked(Futures.allAsList(probes)))
+            directories.addAll(add(level, samples));
+      }
+   }
+
+   /**
+    * Replaces pseudo-directory boundaries with the first object below them.
+    */
+   private List<SwiftObject> resolve(final ObjectApi objectApi, final String container, Set<String> boundaries,
+         Map<String, SwiftObject> samples) {
+      List<ListenableFuture<FluentIterable<SwiftObject>>> lookups = Lists.newArrayList();
+      for (String boundary : boundaries) {
+         final SwiftObject sample = samples.get(boundary);
+         if (!sample.isSubdir()) {
+            lookups.add(Futures.immediateFuture(FluentIterable.from(ImmutableList.of(sample))));
+         } else {
+            lookups.add(userExecutor.submit(new Callable<FluentIterable<SwiftObject>>() {
+               public FluentIterable<SwiftObject> call() {
+                  return objectApi.list(container, ListObjectsOptions.Builder.prefix(sample.getName()).limit(1));
+               }
+            }));
+         }
+      }
+      List<SwiftObject> resolved = Lists.newArrayList();
+      for (FluentIterable<SwiftObject> lookup : getUnchecked(Futures.allAsList(lookups)))
+         resolved.addAll(lookup.toList());
+      return resolved;
+   }
+
+   private static ListObjectsOptions delimited(@Nullable String prefix) {
+      ListObjectsOptions options = ListObjectsOptions.Builder.delimiter('/');
+      if (prefix != null)
+         options.prefix(prefix);
+      return options;
+   }
+
+   /**
+    * Adds up to {@link #partitions} evenly spaced entries of a probe, so that a long page does not
+    * outweigh the rest of the name space. Pseudo-directories are always added.
+    * 
+    * @return the names of pseudo-directories among the entries
+    */
+   private List<String> add(FluentIterable<SwiftObject> entries, Map<String, SwiftObject> samples) {
+      List<SwiftObject> page = entries.toList();
+      int step = Math.max(1, page.size() / partitions);
+      List<String> directories = Lists.newArrayList();
+      for (int i = 0; i < page.size(); i++) {
+         SwiftObject entry = page.get(i);
+         if (entry.isSubdir())
+            directories.add(entry.getName());
+         if (entry.isSubdir() || i % step == 0)
+            samples.put(entry.getName(), entry);
+      }
+      return directories;
+   }
+
+   private static <T> T getUnchecked(ListenableFuture<T> future) {
+      try {
+         return Uninterruptibles.getUninterruptibly(future);
+      } catch (ExecutionException e) {
+         throw Throwables.propagate(e.getCause());
+      }
+   }
+
+   /**
+    * Marks the end of a range in its queue; compared by identity.
+    */
+   private static final List<SwiftObject> END = Collections.unmodifiableList(new ArrayList<SwiftObject>());
+
+   /**
+    * Walks one range page by page, putting each page in the queue. Stops when any range fails or the
+    * listing is cancelled.
+    */
+   private static class ListRange implements Runnable {
+      private final ObjectApi objectApi;
+      private final String container;
+      private final String prefix;
+      private final KeyRange range;
+      private final BlockingQueue<List<SwiftObject>> queue;
+      private final AtomicReference<Throwable> failure;
+
+      ListRange(ObjectApi objectApi, String container, @Nullable String prefix, KeyRange range,
+            BlockingQueue<List<SwiftObject>> queue, AtomicReference<Throwable> failure) {
+         this.objectApi = objectApi;
+         this.container = container;
+         this.prefix = prefix;
+         this.range = range;
+         this.queue = queue;
+         this.failure = failure;
+      }
+
+      @Override
+      public void run() {
+         boolean ended = false;
+         try {
+            if (range.first != null)
+               queue.put(ImmutableList.of(range.first));
+            for (IterableWithMarker<SwiftObject> page : objectApi.listAll(container,
+                  range.toListObjectsOptions(prefix))) {
+               if (failure.get() != null)
+                  return;
+               List<SwiftObject> objects = ImmutableList.copyOf(page);
+               if (!objects.isEmpty())
+                  queue.put(objects);
+            }
+            queue.put(END);
+            ended = true;
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         } catch (Throwable t) {
+            failure.compareAndSet(null, t);
+         } finally {
+            // the caller checks for failure after each take, so a full queue needs no marker
+            if (!ended)
+               queue.offer(END);
+         }
+      }
+   }
+}
@@ -0,0 +1,366 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.strategy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static org.jclouds.Constants.PROPERTY_MAX_RETRIES;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.http.options.GetOptions.Builder.range;
+import static org.jclouds.openstack.swift.v1.config.SwiftProperties.DOWNLOAD_PART_SIZE;
+import static org.jclouds.openstack.swift.v1.config.SwiftProperties.MAX_PARALLEL_RANGES;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.blobstore.KeyNotFoundException;
+import org.jclouds.blobstore.reference.BlobStoreConstants;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.logging.Logger;
+import org.jclouds.openstack.swift.v1.SwiftApi;
+import org.jclouds.openstack.swift.v1.domain.SwiftObject;
+import org.jclouds.openstack.swift.v1.features.ObjectApi;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Downloads an object into a file using concurrent {@code Range} requests.
+ * <p/>
+ * The object is divided into ranges of {@link org.jclouds.openstack.swift.v1.config.SwiftProperties#DOWNLOAD_PART_SIZE}
+ * bytes. The destination file is sized up front and each range is written at its own offset with
+ * {@link FileChannel#transferFrom}. A response other than a {@code 206} holding the requested range
+ * is rejected, so a server that ignores {@code Range} cannot corrupt the file. The response is a
+ * stream rather than a file channel, so this still copies through a small buffer per transfer; what
+ * it avoids is holding a whole range, or the object, on the heap. Every request is conditional on
+ * the object's ETag, so a download never mixes two versions of an object.
+ * <p/>
+ * A range that fails is retried from the last byte written. Ranges still missing once retries are
+ * exhausted are left for a later {@link RangedDownload#run()}, which transfers only what is missing.
+ * 
+ * @author Adrian Cole
+ */
+@Singleton
+public class ParallelRangedDownloadStrategy {
+
+   @Resource
+   @Named(BlobStoreConstants.BLOBSTORE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final SwiftApi api;
+   private final ListeningExecutorService userExecutor;
+   private final long partSize;
+   private final int maxParallelRanges;
+   private final int maxRetries;
+
+   @Inject
+   public ParallelRangedDownloadStrategy(SwiftApi api,
+         @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor, @Named(DOWNLOAD_PART_SIZE) long partSize,
+         @Named(MAX_PARALLEL_RANGES) int maxParallelRanges, @Named(PROPERTY_MAX_RETRIES) int maxRetries) {
+      this.api = checkNotNull(api, "api");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      checkArgument(partSize > 0, "partSize must be positive");
+      checkArgument(maxParallelRanges > 0, "maxParallelRanges must be positive");
+      this.partSize = partSize;
+      this.maxParallelRanges = maxParallelRanges;
+      this.maxRetries = maxRetries;
+   }
+
+   /**
+    * Looks up the length and ETag of the object, and plans its ranges, without transferring any
+    * data.
+    * 
+    * @throws KeyNotFoundException
+    *            if the object does not exist
+    */
+   public RangedDownload prepare(@Nullable String region, String container, String name, File destination) {
+      ObjectApi objectApi = api.getObjectApiForRegion(region);
+      SwiftObject object = objectApi.head(container, name);
+      if (object == null)
+         throw new KeyNotFoundException(container, name, "object not found");
+      Long length = object.getPayload().getContentMetadata().getContentLength();
+      checkState(length != null, "no content length for %s/%s", container, name);
+      return new RangedDownload(objectApi, container, name, object.getEtag(), length, destination);
+   }
+
+   /**
+    * Prepares and runs a download.
+    * 
+    * @return the download, which is {@link RangedDownload#isComplete() complete} unless some ranges
+    *         could not be transferred
+    */
+   public RangedDownload download(@Nullable String region, String container, String name, File destination) {
+      RangedDownload download = prepare(region, container, name, destination);
+      download.run();
+      return download;
+   }
+
+   /**
+    * A byte range of an object, with the time spent transferring it.
+    */
+   public static final class Range {
+      private final long offset;
+      private final long length;
+      private final AtomicLong transferred = new AtomicLong();
+      private final AtomicLong nanos = new AtomicLong();
+      private volatile int attempts;
+
+      private Range(long offset, long length) {
+         this.offset = offset;
+         this.length = length;
+      }
+
+      public long getOffset() {
+         return offset;
+      }
+
+      public long getLength() {
+         return length;
+      }
+
+      /**
+       * @return bytes of this range written to the file so far
+       */
+      public long getTransferred() {
+         return transferred.get();
+      }
+
+      /**
+       * @return number of requests made for this range
+       */
+      public int getAttempts() {
+         return attempts;
+      }
+
+      /**
+       * @return time spent in requests for this range, including failed attempts
+       */
+      public long getElapsed(TimeUnit unit) {
+         return unit.convert(nanos.get(), TimeUnit.NANOSECONDS);
+      }
+
+      public boolean isComplete() {
+         return transferred.get() == length;
+      }
+
+      @Override
+      public String toString() {
+         return Objects.toStringHelper("").add("offset", offset).add("length", length)
+               .add("transferred", transferred).add("attempts", attempts)
+               .add("elapsedMillis", getElapsed(TimeUnit.MILLISECONDS)).toString();
+      }
+   }
+
+   /**
+    * The state of the download of one object. Progress may be read from any thread while
+    * {@link #run()} is in progress.
+    */
+   public final class RangedDownload {
+      private final ObjectApi objectApi;
+      private final String container;
+      private final String name;
+      private final String etag;
+      private final long length;
+      private final File destination;
+      private final List<Range> ranges;
+      private final AtomicLong bytesTransferred = new AtomicLong();
+
+      private RangedDownload(ObjectApi objectApi, String container, String name, @Nullable String etag,
+            long length, File destination) {
+         this.objectApi = objectApi;
+         this.container = checkNotNull(container, "container");
+         this.name = checkNotNull(name, "name");
+         this.etag = etag;
+         this.length = length;
+         this.destination = checkNotNull(destination, "destination");
+         ImmutableList.Builder<Range> ranges = ImmutableList.builder();
+         for (long offset = 0; offset < length; offset += partSize)
+            ranges.add(new Range(offset, Math.min(partSize, length - offset)));
+         this.ranges = ranges.build();
+      }
+
+      /**
+       * Transfers every range not yet complete.
+       * 
+       * @return true if the whole object is now in the file
+       */
+      public synchronized boolean run() {
+         final Queue<Range> pending = new ConcurrentLinkedQueue<Range>(getMissingRanges());
+         RandomAccessFile file = null;
+         try {
+            file = new RandomAccessFile(destination, "rw");
+            if (file.length() != length)
+               file.setLength(length);
+            final FileChannel channel = file.getChannel();
+            List<ListenableFuture<Void>> workers = Lists.newArrayList();
+            for (int i = 0; i < Math.min(maxParallelRanges, pending.size()); i++) {
+               workers.add(userExecutor.submit(new Callable<Void>() {
+                  @Override
+                  public Void call() {
+                     for (Range range = pending.poll(); range != null; range = pending.poll())
+                        transferWithRetries(channel, range);
+                     return null;
+                  }
+               }));
+            }
+            Futures.allAsList(workers).get();
+         } catch (IOException e) {
+            throw Throwables.propagate(e);
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(e);
+         } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+         } finally {
+            if (file != null) {
+               try {
+                  file.close();
+               } catch (IOException e) {
+                  logger.warn(e, "<< error closing %s", destination);
+               }
+            }
+         }
+         return isComplete();
+      }
+
+      private void transferWithRetries(FileChannel channel, Range range) {
+         for (int attempt = 1; attempt <= maxRetries + 1; attempt++) {
+            long start = System.nanoTime();
+            range.attempts++;
+            try {
+               transfer(channel, range);
+               return;
+            } catch (IOException e) {
+               logger.warn(e, "<< failed attempt %d at %s of %s/%s", attempt, range, container, name);
+            } catch (RuntimeException e) {
+               logger.warn(e, "<< failed attempt %d at %s of %s/%s", attempt, range, container, name);
+            } finally {
+               range.nanos.addAndGet(System.nanoTime() - start);
+            }
+         }
+      }
+
+      private void transfer(FileChannel channel, Range range) throws IOException {
+         long position = range.offset + range.transferred.get();
+         long end = range.offset + range.length - 1;
+         HttpResponse response = objectApi.getAsResponse(container, name,
+               etag != null ? range(position, end).ifETagMatches(etag) : range(position, end));
+         if (response == null)
+            throw new KeyNotFoundException(container, name, "object removed during download");
+         InputStream in = response.getPayload().getInput();
+         try {
+            checkRange(response, position, end);
+            ReadableByteChannel source = Channels.newChannel(in);
+            while (position <= end) {
+               long count = channel.transferFrom(source, position, end + 1 - position);
+               if (count <= 0)
+                  throw new EOFException(String.format("premature end of %s/%s at %d", container, name, position));
+               position += count;
+               range.transferred.addAndGet(count);
+               bytesTransferred.addAndGet(count);
+            }
+         } finally {
+            in.close();
+         }
+      }
+
+      /**
+       * A server or proxy that ignores {@code Range} answers with the whole object, which would be
+       * written at the offset of every range.
+       */
+      private void checkRange(HttpResponse response, long position, long end) {
+         if (response.getStatusCode() == 200 && position == 0 && end == length - 1)
+            return;
+         String contentRange = response.getFirstHeaderOrNull("Content-Range");
+         checkState(response.getStatusCode() == 206 && contentRange != null
+               && contentRange.startsWith("bytes " + position + "-"),
+               "requested bytes %s-%s of %s/%s, but received status %s with Content-Range %s", position, end,
+               container, name, response.getStatusCode(), contentRange);
+      }
+
+      /**
+       * @return the ETag the object had when the download was prepared
+       */
+      @Nullable
+      public String getEtag() {
+         return etag;
+      }
+
+      public long getLength() {
+         return length;
+      }
+
+      /**
+       * @return bytes written to the file by this download, across all runs
+       */
+      public long getBytesTransferred() {
+         return bytesTransferred.get();
+      }
+
+      /**
+       * @return all ranges of the object, in order, with their timings
+       */
+      public List<Range> getRanges() {
+         return ranges;
+      }
+
+      public List<Range> getMissingRanges() {
+         ImmutableList.Builder<Range> missing = ImmutableList.builder();
+         for (Range range : ranges)
+            if (!range.isComplete())
+               missing.add(range);
+         return missing.build();
+      }
+
+      public boolean isComplete() {
+         return getMissingRanges().isEmpty();
+      }
+
+      @Override
+      public String toString() {
+         return Objects.toStringHelper("").add("container", container).add("name", name).add("etag", etag)
+               .add("length", length).add("bytesTransferred", bytesTransferred).toString();
+      }
+   }
+}
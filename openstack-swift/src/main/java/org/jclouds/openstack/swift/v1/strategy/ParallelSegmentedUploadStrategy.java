@@ -0,0 +1,408 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.strategy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static org.jclouds.Constants.PROPERTY_MAX_RETRIES;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.openstack.swift.v1.config.SwiftProperties.MAX_PARALLEL_SEGMENTS;
+import static org.jclouds.openstack.swift.v1.config.SwiftProperties.SEGMENT_SIZE;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.blobstore.reference.BlobStoreConstants;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.logging.Logger;
+import org.jclouds.openstack.swift.v1.SwiftApi;
+import org.jclouds.openstack.swift.v1.domain.Segment;
+import org.jclouds.openstack.swift.v1.features.ObjectApi;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteSource;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.FileBackedOutputStream;
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Uploads large objects as segments in parallel, then writes a manifest that joins them.
+ * <p/>
+ * Data is split into segments of {@link org.jclouds.openstack.swift.v1.config.SwiftProperties#SEGMENT_SIZE}
+ * bytes, named {@code 00000000}, {@code 00000001}, etc. under a prefix of their own upload:
+ * {@code name/timestamp/size/segmentSize/} for a file, and {@code name/timestamp/segmentSize/} for a
+ * stream. A dynamic manifest names that prefix, so overwriting an object never joins the segments
+ * of an earlier upload, and readers see the previous upload until the new manifest is written.
+ * Segments of earlier uploads are left in place. At most
+ * {@link org.jclouds.openstack.swift.v1.config.SwiftProperties#MAX_PARALLEL_SEGMENTS} segments are
+ * in flight at once; when reading from a stream, the next segment is not read until a slot is free,
+ * and segments are staged through a {@link FileBackedOutputStream}, so memory use stays bounded
+ * regardless of the size of the object. A segment that fails with a transport error, {@code 5xx} or
+ * {@code 429} is retried on its own after a jittered delay, without restarting the upload; other
+ * failures are not retried. When the upload fails, the segments already uploaded are deleted. Data
+ * that fits in one segment is uploaded as a plain object, without a manifest.
+ * 
+ * @author Adrian Cole
+ */
+@Singleton
+public class ParallelSegmentedUploadStrategy {
+
+   /**
+    * How the segments of an upload are joined.
+    */
+   public static enum ManifestType {
+      /**
+       * the manifest lists each segment with its ETag and size
+       */
+      STATIC,
+      /**
+       * the manifest names a prefix; all objects under it are joined
+       */
+      DYNAMIC;
+   }
+
+   /**
+    * Bytes of a segment read from a stream that are held in memory before spilling to disk.
+    */
+   static final int IN_MEMORY_THRESHOLD = 1024 * 1024;
+
+   /**
+    * Upper bound of the delay before the first retry of a segment; the bound doubles with each retry.
+    */
+   static final long RETRY_DELAY_START = 100;
+
+   @Resource
+   @Named(BlobStoreConstants.BLOBSTORE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final SwiftApi api;
+   private final ListeningExecutorService userExecutor;
+   private final long segmentSize;
+   private final int maxParallelSegments;
+   private final int maxRetries;
+   private final Random random = new Random();
+
+   @Inject
+   public ParallelSegmentedUploadStrategy(SwiftApi api,
+         @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor, @Named(SEGMENT_SIZE) long segmentSize,
+         @Named(MAX_PARALLEL_SEGMENTS) int maxParallelSegments, @Named(PROPERTY_MAX_RETRIES) int maxRetries) {
+      this.api = checkNotNull(api, "api");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      checkArgument(segmentSize > 0, "segmentSize must be positive");
+      checkArgument(maxParallelSegments > 0, "maxParallelSegments must be positive");
+      this.segmentSize = segmentSize;
+      this.maxParallelSegments = maxParallelSegments;
+      this.maxRetries = maxRetries;
+   }
+
+   /**
+    * Uploads a file. Each segment is read directly from its slice of the file, so segments can be
+    * retried without holding their data.
+    * 
+    * @return the ETag of the manifest, or of the object if the file fits in one segment
+    */
+   public String upload(@Nullable String region, String container, String name, File file,
+         ManifestType manifestType) {
+      ObjectApi objectApi = api.getObjectApiForRegion(region);
+      final ByteSource source = Files.asByteSource(checkNotNull(file, "file"));
+      final long length = file.length();
+      if (length <= segmentSize)
+         return objectApi.put(container, name, payload(source, length));
+      String prefix = segmentPrefix(name, uploadTimestamp(), length);
+      return uploadSegments(objectApi, container, name, prefix, new SegmentSource() {
+         long offset = 0;
+
+         @Override
+         public StagedSegment next() {
+            if (offset >= length)
+               return null;
+            long size = Math.min(segmentSize, length - offset);
+            StagedSegment segment = new StagedSegment(source.slice(offset, size), size, null);
+            offset += size;
+            return segment;
+         }
+      }, manifestType);
+   }
+
+   /**
+    * Uploads the contents of a stream, which is read until exhausted but not closed.
+    * 
+    * @return the ETag of the manifest, or of the object if the stream fits in one segment
+    */
+   public String upload(@Nullable String region, String container, String name, final InputStream in,
+         ManifestType manifestType) {
+      checkNotNull(in, "in");
+      ObjectApi objectApi = api.getObjectApiForRegion(region);
+      SegmentSource segments = new SegmentSource() {
+         boolean exhausted;
+
+         @Override
+         public StagedSegment next() throws IOException {
+            if (exhausted)
+               return null;
+            FileBackedOutputStream staged = new FileBackedOutputStream(IN_MEMORY_THRESHOLD, true);
+            long size = ByteStreams.copy(ByteStreams.limit(in, segmentSize), staged);
+            exhausted = size < segmentSize;
+            if (size == 0 && exhausted) {
+               staged.reset();
+               return null;
+            }
+            return new StagedSegment(staged.asByteSource(), size, staged);
+         }
+      };
+      StagedSegment first = null;
+      try {
+         first = segments.next();
+         if (first == null)
+            return objectApi.put(container, name, payload(ByteSource.wrap(new byte[] {}), 0));
+         if (first.size < segmentSize)
+            return objectApi.put(container, name, payload(first.data, first.size));
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      } finally {
+         if (first != null && first.size < segmentSize)
+            first.release();
+      }
+      final StagedSegment head = first;
+      final SegmentSource tail = segments;
+      String prefix = segmentPrefix(name, uploadTimestamp(), null);
+      return uploadSegments(objectApi, container, name, prefix, new SegmentSource() {
+         boolean headTaken;
+
+         @Override
+         public StagedSegment next() throws IOException {
+            if (!headTaken) {
+               headTaken = true;
+               return head;
+            }
+            return tail.next();
+         }
+      }, manifestType);
+   }
+
+   private String uploadSegments(final ObjectApi objectApi, final String container, final String name,
+         String prefix, SegmentSource segments, ManifestType manifestType) {
+      final Semaphore slots = new Semaphore(maxParallelSegments);
+      final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+      List<ListenableFuture<Segment>> futures = Lists.newArrayList();
+      try {
+         for (int index = 0; failure.get() == null; index++) {
+            slots.acquire();
+            final StagedSegment segment = segments.next();
+            if (segment == null) {
+               slots.release();
+               break;
+            }
+            ListenableFuture<Segment> future = userExecutor.submit(new UploadSegment(objectApi, container,
+                  segmentName(prefix, index), segment));
+            Futures.addCallback(future, new FutureCallback<Segment>() {
+               @Override
+               public void onSuccess(Segment result) {
+                  segment.release();
+                  slots.release();
+               }
+
+               @Override
+               public void onFailure(Throwable t) {
+                  failure.compareAndSet(null, t);
+                  segment.release();
+                  slots.release();
+               }
+            }, sameThreadExecutor());
+            futures.add(future);
+         }
+         List<Segment> uploaded = Futures.allAsList(futures).get();
+         logger.debug(">> writing %s manifest for %s/%s with %d segments", manifestType, container, name,
+               uploaded.size());
+         switch (manifestType) {
+            case STATIC:
+               return objectApi.putStaticManifest(container, name, uploaded);
+            default:
+               return objectApi.putManifest(container, name, container + "/" + prefix);
+         }
+      } catch (InterruptedException e) {
+         cancel(futures);
+         Thread.currentThread().interrupt();
+         throw Throwables.propagate(e);
+      } catch (ExecutionException e) {
+         deleteUploaded(objectApi, container, futures);
+         throw Throwables.propagate(e.getCause());
+      } catch (IOException e) {
+         deleteUploaded(objectApi, container, futures);
+         throw Throwables.propagate(e);
+      }
+   }
+
+   /**
+    * Waits for the segments still in flight, then deletes those that were uploaded, so that a failed
+    * upload leaves nothing behind.
+    */
+   private void deleteUploaded(ObjectApi objectApi, String container, List<ListenableFuture<Segment>> futures) {
+      List<Segment> finished;
+      try {
+         finished = Futures.successfulAsList(futures).get();
+      } catch (InterruptedException e) {
+         cancel(futures);
+         Thread.currentThread().interrupt();
+         return;
+      } catch (ExecutionException e) {
+         throw new AssertionError(e);
+      }
+      String prefix = "/" + container + "/";
+      for (Segment segment : finished) {
+         if (segment == null)
+            continue;
+         try {
+            objectApi.delete(container, segment.getPath().substring(prefix.length()));
+         } catch (RuntimeException e) {
+            logger.warn(e, "<< could not delete segment %s of a failed upload", segment.getPath());
+         }
+      }
+   }
+
+   /**
+    * Full jitter over an exponentially growing window, so that segments failing together are not
+    * retried in lock step.
+    */
+   long retryDelay(int attempt) {
+      long window = RETRY_DELAY_START << Math.min(attempt - 1, 10);
+      synchronized (random) {
+         return (long) (random.nextDouble() * window);
+      }
+   }
+
+   /**
+    * @return when an upload starts, in milliseconds since the epoch
+    */
+   long uploadTimestamp() {
+      return System.currentTimeMillis();
+   }
+
+   /**
+    * @param size
+    *           the size of the object, if known before it is read
+    */
+   String segmentPrefix(String name, long timestamp, @Nullable Long size) {
+      return size != null ? String.format("%s/%d/%d/%d/", name, timestamp, size, segmentSize) : String.format(
+            "%s/%d/%d/", name, timestamp, segmentSize);
+   }
+
+   static String segmentName(String prefix, int index) {
+      return String.format("%s%08d", prefix, index);
+   }
+
+   private static void cancel(List<ListenableFuture<Segment>> futures) {
+      for (ListenableFuture<Segment> future : futures)
+         future.cancel(true);
+   }
+
+   private static Payload payload(ByteSource data, long size) {
+      Payload payload = Payloads.newInputStreamSupplierPayload(data);
+      payload.getContentMetadata().setContentLength(size);
+      return payload;
+   }
+
+   private class UploadSegment implements Callable<Segment> {
+      private final ObjectApi objectApi;
+      private final String container;
+      private final String segmentName;
+      private final StagedSegment segment;
+
+      private UploadSegment(ObjectApi objectApi, String container, String segmentName, StagedSegment segment) {
+         this.objectApi = objectApi;
+         this.container = container;
+         this.segmentName = segmentName;
+         this.segment = segment;
+      }
+
+      @Override
+      public Segment call() throws InterruptedException {
+         for (int attempt = 1;; attempt++) {
+            try {
+               String etag = objectApi.put(container, segmentName, payload(segment.data, segment.size));
+               return Segment.builder().path("/" + container + "/" + segmentName).etag(etag)
+                     .sizeBytes(segment.size).build();
+            } catch (RuntimeException e) {
+               if (attempt > maxRetries || !RegionRouter.isRegionFailure(e))
+                  throw e;
+               long delay = retryDelay(attempt);
+               logger.warn(e, "<< failed attempt %d to upload segment %s/%s; retrying in %sms", attempt,
+                     container, segmentName, delay);
+               Thread.sleep(delay);
+            }
+         }
+      }
+
+      @Override
+      public String toString() {
+         return "uploadSegment(" + container + "/" + segmentName + ")";
+      }
+   }
+
+   /**
+    * Produces segments in order; returns null when there are no more.
+    */
+   private static interface SegmentSource {
+      @Nullable
+      StagedSegment next() throws IOException;
+   }
+
+   private static class StagedSegment {
+      private final ByteSource data;
+      private final long size;
+      private final FileBackedOutputStream staging;
+
+      private StagedSegment(ByteSource data, long size, @Nullable FileBackedOutputStream staging) {
+         this.data = data;
+         this.size = size;
+         this.staging = staging;
+      }
+
+      private void release() {
+         if (staging == null)
+            return;
+         try {
+            staging.reset();
+         } catch (IOException e) {
+            // only the temporary file is left behind
+         }
+      }
+   }
+}
@@ -0,0 +1,276 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.strategy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.util.Throwables2.getFirstThrowableOfType;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.blobstore.reference.BlobStoreConstants;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.logging.Logger;
+import org.jclouds.openstack.swift.v1.SwiftApi;
+import org.jclouds.openstack.swift.v1.domain.SwiftObject;
+import org.jclouds.openstack.swift.v1.features.ObjectApi;
+
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
+import com.google.common.base.Objects;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+
+/**
+ * Sends reads of replicated containers to the region that has been answering fastest.
+ * <p/>
+ * Each region's latency is an exponentially weighted moving average of its recent reads. A region
+ * that has not been read from yet is tried first, so every region is measured early on. A region
+ * whose read fails in transport, or with a {@code 5xx} or {@code 429} response, is skipped for
+ * {@link #FAILURE_COOLDOWN_SECONDS} and the read fails over to the next fastest; once the cool down
+ * has passed, the region is tried again. Any other failure, such as a {@code 4xx} response or an
+ * exception thrown by the read itself, says nothing about the region and is rethrown as is. One read in
+ * {@link #PROBE_INTERVAL} goes to the second fastest region, so that a region which has become
+ * faster is noticed.
+ * 
+ * @author Adrian Cole
+ */
+@Singleton
+public class RegionRouter {
+
+   /**
+    * Weight of the newest sample in a region's moving average.
+    */
+   public static final double DECAY = 0.2;
+   public static final long FAILURE_COOLDOWN_SECONDS = 30;
+   public static final int PROBE_INTERVAL = 100;
+
+   private static class RegionState {
+      private final String region;
+      private double latencyNanos = -1;
+      private boolean coolingDown;
+      private long unavailableUntil;
+
+      private RegionState(String region) {
+         this.region = region;
+      }
+
+      private synchronized void succeeded(long nanos) {
+         latencyNanos = latencyNanos < 0 ? nanos : DECAY * nanos + (1 - DECAY) * latencyNanos;
+      }
+
+      private synchronized void failed(long now) {
+         coolingDown = true;
+         unavailableUntil = now + TimeUnit.SECONDS.toNanos(FAILURE_COOLDOWN_SECONDS);
+      }
+
+      private synchronized boolean isAvailable(long now) {
+         return !coolingDown || now - unavailableUntil >= 0;
+      }
+
+      private synchronized double latency() {
+         return latencyNanos;
+      }
+   }
+
+   @Resource
+   @Named(BlobStoreConstants.BLOBSTORE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final SwiftApi api;
+   private final List<RegionState> regions;
+   private final Ticker ticker;
+   private final AtomicLong readCount = new AtomicLong();
+
+   /**
+    * Routes between all configured regions.
+    */
+   @Inject
+   public RegionRouter(SwiftApi api) {
+      this(api, api.getConfiguredRegions());
+   }
+
+   /**
+    * Routes between the regions a container is replicated to.
+    */
+   public RegionRouter(SwiftApi api, Set<String> regions) {
+      this(api, regions, Ticker.systemTicker());
+   }
+
+   RegionRouter(SwiftApi api, Set<String> regions, Ticker ticker) {
+      this.api = checkNotNull(api, "api");
+      checkArgument(!checkNotNull(regions, "regions").isEmpty(), "no regions to route between");
+      ImmutableList.Builder<RegionState> states = ImmutableList.builder();
+      for (String region : regions)
+         states.add(new RegionState(region));
+      this.regions = states.build();
+      this.ticker = checkNotNull(ticker, "ticker");
+   }
+
+   /**
+    * @see ObjectApi#get(String, String)
+    */
+   @Nullable
+   public SwiftObject get(final String container, final String name) {
+      return read(new Function<ObjectApi, SwiftObject>() {
+         @Override
+         public SwiftObject apply(ObjectApi objectApi) {
+            return objectApi.get(container, name);
+         }
+
+         @Override
+         public String toString() {
+            return "get(" + container + "/" + name + ")";
+         }
+      });
+   }
+
+   /**
+    * @see ObjectApi#head(String, String)
+    */
+   @Nullable
+   public SwiftObject head(final String container, final String name) {
+      return read(new Function<ObjectApi, SwiftObject>() {
+         @Override
+         public SwiftObject apply(ObjectApi objectApi) {
+            return objectApi.head(container, name);
+         }
+
+         @Override
+         public String toString() {
+            return "head(" + container + "/" + name + ")";
+         }
+      });
+   }
+
+   /**
+    * Runs a read against the fastest available region, failing over to the others in order of
+    * latency when a region is unavailable.
+    * 
+    * @throws RuntimeException
+    *            a failure that is not the region's, or the failure of the last region tried, if
+    *            every region was unavailable
+    */
+   public <T> T read(Function<ObjectApi, T> read) {
+      checkNotNull(read, "read");
+      RuntimeException lastFailure = null;
+      for (RegionState state : route()) {
+         long start = ticker.read();
+         T result;
+         try {
+            result = read.apply(api.getObjectApiForRegion(state.region));
+         } catch (RuntimeException e) {
+            if (!isRegionFailure(e))
+               throw e;
+            state.failed(ticker.read());
+            logger.warn(e, "<< %s failed in region %s; failing over", read, state.region);
+            lastFailure = e;
+            continue;
+         }
+         state.succeeded(ticker.read() - start);
+         return result;
+      }
+      throw lastFailure;
+   }
+
+   /**
+    * @return true if the region could not be reached or could not serve the read
+    */
+   static boolean isRegionFailure(RuntimeException e) {
+      if (getFirstThrowableOfType(e, IOException.class) != null)
+         return true;
+      HttpResponseException http = getFirstThrowableOfType(e, HttpResponseException.class);
+      if (http == null)
+         return false;
+      if (http.getResponse() == null)
+         return true;
+      int status = http.getResponse().getStatusCode();
+      return status >= 500 || status == 429;
+   }
+
+   /**
+    * @return regions in the order the next read would try them
+    */
+   public List<String> getRegionsByLatency() {
+      List<String> order = Lists.newArrayList();
+      for (RegionState state : sorted())
+         order.add(state.region);
+      return order;
+   }
+
+   /**
+    * @return each measured region's moving average latency, in milliseconds
+    */
+   public Map<String, Double> getLatencies() {
+      ImmutableMap.Builder<String, Double> latencies = ImmutableMap.builder();
+      for (RegionState state : regions) {
+         double latency = state.latency();
+         if (latency >= 0)
+            latencies.put(state.region, latency / TimeUnit.MILLISECONDS.toNanos(1));
+      }
+      return latencies.build();
+   }
+
+   /**
+    * Available regions fastest first, then regions cooling down after a failure, which are only
+    * tried when every available region has failed this read.
+    */
+   private List<RegionState> route() {
+      List<RegionState> available = Lists.newArrayListWithCapacity(regions.size());
+      List<RegionState> unavailable = Lists.newArrayListWithCapacity(regions.size());
+      long now = ticker.read();
+      for (RegionState state : sorted())
+         (state.isAvailable(now) ? available : unavailable).add(state);
+      if (available.size() > 1 && readCount.incrementAndGet() % PROBE_INTERVAL == 0)
+         Collections.swap(available, 0, 1);
+      available.addAll(unavailable);
+      return available;
+   }
+
+   /**
+    * Unmeasured regions first, then by moving average latency. Sorts a snapshot of the latencies,
+    * as concurrent reads keep updating them; regions of equal latency keep their configured order.
+    */
+   private List<RegionState> sorted() {
+      ImmutableMap.Builder<RegionState, Double> latencies = ImmutableMap.builder();
+      for (RegionState state : regions)
+         latencies.put(state, state.latency());
+      return Ordering.<Double> natural().onResultOf(Functions.forMap(latencies.build())).sortedCopy(regions);
+   }
+
+   @Override
+   public String toString() {
+      return Objects.toStringHelper(this).add("latencies", getLatencies()).toString();
+   }
+}
@@ -0,0 +1,66 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.jclouds.openstack.swift.v1.SwiftErrorHandlerTest.classEq;
+
+import org.jclouds.blobstore.KeyNotFoundException;
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.openstack.swift.v1.handlers.SwiftErrorHandler;
+import org.testng.annotations.Test;
+
+/**
+ * Not run with the unit tests, as the figures depend on the machine.
+ * 
+ * @author Adrian Cole
+ */
+@Test(groups = "performance", testName = "SwiftErrorHandlerPerformanceTest")
+public class SwiftErrorHandlerPerformanceTest {
+
+   /**
+    * Rough measure of how many existence-check misses the handler classifies per second.
+    */
+   public void test404Throughput() {
+      HttpCommand command = createMock(HttpCommand.class);
+      HttpRequest request = HttpRequest.builder().method("HEAD")
+            .endpoint("http://host/v1/AUTH_7064cdb1d49d4dcba3c899ac33e8409d/adriancole-blobstore1/key").build();
+      expect(command.getCurrentRequest()).andReturn(request).anyTimes();
+      command.setException(classEq(KeyNotFoundException.class));
+      expectLastCall().anyTimes();
+      replay(command);
+
+      SwiftErrorHandler function = new SwiftErrorHandler();
+      int count = 100000;
+      for (int i = 0; i < count; i++)
+         function.handleError(command, HttpResponse.builder().statusCode(404).message("Not Found").build());
+      long start = System.nanoTime();
+      for (int i = 0; i < count; i++)
+         function.handleError(command, HttpResponse.builder().statusCode(404).message("Not Found").build());
+      double perSecond = count / ((System.nanoTime() - start) / 1e9);
+      System.out.printf("handled %.0f 404s per second%n", perSecond);
+      verify(command);
+   }
+}
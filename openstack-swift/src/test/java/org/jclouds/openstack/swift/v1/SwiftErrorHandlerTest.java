@@ -18,21 +18,28 @@
  */
 package org.jclouds.openstack.swift.v1;
 
+import static org.easymock.EasyMock.capture;
 import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.reportMatcher;
 import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
 
+import java.io.ByteArrayInputStream;
 import java.net.URI;
 
+import org.easymock.Capture;
 import org.easymock.IArgumentMatcher;
 import org.jclouds.blobstore.ContainerNotFoundException;
 import org.jclouds.blobstore.KeyNotFoundException;
 import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.io.Payloads;
 import org.jclouds.openstack.swift.v1.handlers.SwiftErrorHandler;
+import org.jclouds.rest.AuthorizationException;
 import org.testng.annotations.Test;
 
 /**
@@ -70,6 +77,50 @@ public class SwiftErrorHandlerTest {
                404, "Not Found", "", ContainerNotFoundException.class);
    }
 
+   @Test
+   public void test404OnGetSetsKeyNotFoundExceptionWithoutReadingBody() {
+      ByteArrayInputStream body = new ByteArrayInputStream("<html><h1>Not Found</h1></html>".getBytes());
+      HttpCommand command = createMock(HttpCommand.class);
+      HttpRequest request = HttpRequest.builder().method("GET")
+            .endpoint("http://host/v1/AUTH_7064cdb1d49d4dcba3c899ac33e8409d/adriancole-blobstore1/dir/key").build();
+      HttpResponse response = HttpResponse.builder().statusCode(404).message("Not Found")
+            .payload(Payloads.newInputStreamPayload(body)).build();
+
+      expect(command.getCurrentRequest()).andReturn(request).atLeastOnce();
+      Capture<Exception> exception = new Capture<Exception>();
+      command.setException(capture(exception));
+      replay(command);
+
+      new SwiftErrorHandler().handleError(command, response);
+
+      KeyNotFoundException notFound = (KeyNotFoundException) exception.getValue();
+      assertEquals(notFound.getContainer(), "adriancole-blobstore1");
+      assertEquals(notFound.getKey(), "dir/key");
+      assertEquals(body.available(), 31);
+      verify(command);
+   }
+
+   @Test
+   public void test404OnDeleteSetsHttpResponseException() {
+      assertCodeMakes("DELETE", URI
+               .create("http://host/v1/AUTH_7064cdb1d49d4dcba3c899ac33e8409d/adriancole-blobstore1/key"), 404,
+               "Not Found", "", HttpResponseException.class);
+   }
+
+   @Test
+   public void test404OnUnrecognizedPathSetsHttpResponseException() {
+      assertCodeMakes("GET", URI.create("http://host/v1/7064cdb1d49d4dcba3c899ac33e8409d/adriancole-blobstore1"),
+               404, "Not Found", "", HttpResponseException.class);
+      assertCodeMakes("HEAD", URI.create("http://host/v1/AUTH_7064cdb1d49d4dcba3c899ac33e8409d/"), 404,
+               "Not Found", "", HttpResponseException.class);
+   }
+
+   @Test
+   public void test401SetsAuthorizationException() {
+      assertCodeMakes("GET", URI.create("http://host/v1/AUTH_7064cdb1d49d4dcba3c899ac33e8409d"), 401,
+               "Unauthorized", "", AuthorizationException.class);
+   }
+
    private void assertCodeMakes(String method, URI uri, int statusCode, String message, String content,
             Class<? extends Exception> expected) {
       assertCodeMakes(method, uri, statusCode, message, "text/plain", content, expected);
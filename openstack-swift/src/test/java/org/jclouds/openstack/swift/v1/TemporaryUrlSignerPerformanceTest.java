@@ -0,0 +1,47 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1;
+
+import static org.jclouds.openstack.swift.v1.TemporaryUrlSignerTest.EXPIRES;
+
+import org.testng.annotations.Test;
+
+import com.google.common.base.Suppliers;
+
+/**
+ * Not run with the unit tests, as the figures depend on the machine.
+ * 
+ * @author Adrian Cole
+ */
+@Test(groups = "performance", testName = "TemporaryUrlSignerPerformanceTest")
+public class TemporaryUrlSignerPerformanceTest {
+
+   public void testSigningThroughput() {
+      TemporaryUrlSigner signer = new TemporaryUrlSigner(Suppliers.ofInstance("mykey"));
+      int count = 100000;
+      // warm up
+      for (int i = 0; i < count; i++)
+         signer.sign("GET", "/v1.0/40806637803162/container/object-" + i, EXPIRES);
+      long start = System.nanoTime();
+      for (int i = 0; i < count; i++)
+         signer.sign("GET", "/v1.0/40806637803162/container/object-" + i, EXPIRES);
+      double perSecond = count / ((System.nanoTime() - start) / 1e9);
+      System.out.printf("signed %.0f urls per second%n", perSecond);
+   }
+}
@@ -0,0 +1,79 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+
+import java.net.URI;
+
+import org.jclouds.openstack.swift.v1.domain.Account;
+import org.jclouds.openstack.swift.v1.features.AccountApi;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * @author Adrian Cole
+ */
+@Test(groups = "unit", testName = "TemporaryUrlSignerTest")
+public class TemporaryUrlSignerTest {
+
+   static final long EXPIRES = 1323479485;
+
+   public void testSignMatchesSwiftMiddleware() {
+      TemporaryUrlSigner signer = new TemporaryUrlSigner(Suppliers.ofInstance("mykey"));
+      assertEquals(signer.sign("GET", "/v1.0/40806637803162/container/object", EXPIRES),
+            "10b6e646e747ff813a6fe64cfbc4e707dc83b308");
+   }
+
+   public void testTemporaryUrlSignsUnencodedPath() {
+      TemporaryUrlSigner signer = new TemporaryUrlSigner(Suppliers.ofInstance("mykey"));
+      URI objectUri = URI.create("https://objects.jclouds.org/v1.0/40806637803162/container/caf%C3%A9%20menu.txt");
+      assertEquals(signer.temporaryUrl("PUT", objectUri, EXPIRES), URI.create(objectUri
+            + "?temp_url_sig=e0825083ed884c4a22e70494f0a9beabd159c10e&temp_url_expires=1323479485"));
+   }
+
+   public void testKeyIsReadFromAccountMetadata() {
+      AccountApi accountApi = createMock(AccountApi.class);
+      expect(accountApi.get()).andReturn(
+            Account.builder().metadata(ImmutableMap.of("temp-url-key", "mykey")).build()).once();
+      replay(accountApi);
+
+      TemporaryUrlSigner signer = TemporaryUrlSigner.checkApiEvery(accountApi, 60);
+      for (int i = 0; i < 3; i++)
+         assertEquals(signer.sign("GET", "/v1.0/40806637803162/container/object", EXPIRES),
+               "10b6e646e747ff813a6fe64cfbc4e707dc83b308");
+      verify(accountApi);
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void testAccountWithoutKey() {
+      AccountApi accountApi = createMock(AccountApi.class);
+      expect(accountApi.get()).andReturn(Account.builder().build());
+      replay(accountApi);
+
+      TemporaryUrlSigner.checkApiEvery(accountApi, 60).sign("GET", "/v1.0/40806637803162/container/object",
+            EXPIRES);
+   }
+}
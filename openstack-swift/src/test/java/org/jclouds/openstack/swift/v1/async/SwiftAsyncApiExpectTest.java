@@ -0,0 +1,114 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.async;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.openstack.swift.v1.SwiftApi;
+import org.jclouds.openstack.swift.v1.domain.SwiftObject;
+import org.jclouds.openstack.swift.v1.internal.BaseSwiftApiExpectTest;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * @author Adrian Cole
+ */
+@Test(groups = "unit", testName = "SwiftAsyncApiExpectTest")
+public class SwiftAsyncApiExpectTest extends BaseSwiftApiExpectTest {
+
+   static final int OBJECTS = 50;
+
+   String containerEndpoint = "https://objects.jclouds.org/v1.0/40806637803162/myContainer/";
+
+   public void testConcurrentHeadsComplete() throws Exception {
+      ImmutableMap.Builder<HttpRequest, HttpResponse> requestsToResponses = ImmutableMap
+            .<HttpRequest, HttpResponse> builder().put(keystoneAuthWithUsernameAndPassword,
+                  responseWithKeystoneAccess);
+      for (int i = 0; i < OBJECTS; i++) {
+         requestsToResponses.put(head("object-" + i), HttpResponse.builder().statusCode(200)
+               .addHeader("ETag", "etag-" + i)
+               .addHeader("Last-Modified", "Wed, 15 May 2013 23:33:58 GMT")
+               .addHeader("Content-Length", "11")
+               .addHeader("Content-Type", "text/plain").build());
+      }
+      requestsToResponses.put(head("missing"), HttpResponse.builder().statusCode(404).build());
+      SwiftApi api = requestsSendResponses(requestsToResponses.build());
+
+      ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(8));
+      try {
+         ObjectAsyncApi objectApi = new SwiftAsyncApi(api, executor).getObjectApiForRegion("region-a.geo-1");
+         List<ListenableFuture<SwiftObject>> heads = Lists.newArrayList();
+         for (int i = 0; i < OBJECTS; i++)
+            heads.add(objectApi.head("myContainer", "object-" + i));
+         ListenableFuture<SwiftObject> missing = objectApi.head("myContainer", "missing");
+
+         List<SwiftObject> objects = Futures.allAsList(heads).get(30, TimeUnit.SECONDS);
+         for (int i = 0; i < OBJECTS; i++) {
+            assertEquals(objects.get(i).getName(), "object-" + i);
+            assertEquals(objects.get(i).getEtag(), "etag-" + i);
+         }
+         assertNull(missing.get(30, TimeUnit.SECONDS));
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   public void testAccountFutureCompletes() throws Exception {
+      HttpRequest head = HttpRequest.builder()
+            .method("HEAD")
+            .endpoint("https://objects.jclouds.org/v1.0/40806637803162/")
+            .addHeader("X-Auth-Token", authToken).build();
+      HttpResponse headResponse = HttpResponse.builder().statusCode(204)
+            .addHeader("X-Account-Container-Count", "3")
+            .addHeader("X-Account-Object-Count", "42")
+            .addHeader("X-Account-Bytes-Used", "323479").build();
+      Map<HttpRequest, HttpResponse> requestsToResponses = ImmutableMap.of(keystoneAuthWithUsernameAndPassword,
+            responseWithKeystoneAccess, head, headResponse);
+
+      ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(2));
+      try {
+         SwiftAsyncApi asyncApi = new SwiftAsyncApi(requestsSendResponses(requestsToResponses), executor);
+         assertEquals(asyncApi.getAccountApiForRegion("region-a.geo-1").get().get(30, TimeUnit.SECONDS)
+               .getObjectCount().get(), Long.valueOf(42));
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   HttpRequest head(String name) {
+      return HttpRequest.builder()
+            .method("HEAD")
+            .endpoint(containerEndpoint + name)
+            .addHeader("X-Auth-Token", authToken).build();
+   }
+}
@@ -0,0 +1,197 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.cache;
+
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.net.URI;
+import java.util.Date;
+
+import org.easymock.Capture;
+import org.easymock.CaptureType;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.http.options.GetOptions;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.openstack.swift.v1.SwiftApi;
+import org.jclouds.openstack.swift.v1.domain.SwiftObject;
+import org.jclouds.openstack.swift.v1.features.ObjectApi;
+import org.jclouds.util.Strings2;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.Files;
+
+/**
+ * @author Adrian Cole
+ */
+@Test(groups = "unit", testName = "ObjectCacheTest")
+public class ObjectCacheTest {
+
+   static final HttpResponseException NOT_MODIFIED = new HttpResponseException("not modified", null, HttpResponse
+         .builder().statusCode(304).build());
+
+   public void testUnchangedObjectIsServedFromCache() throws Exception {
+      ObjectApi objectApi = createMock(ObjectApi.class);
+      Capture<GetOptions> options = new Capture<GetOptions>(CaptureType.ALL);
+      expect(objectApi.get(eq("container"), eq("app.conf"), capture(options))).andReturn(
+            object("app.conf", "abc", "hello"));
+      expect(objectApi.get(eq("container"), eq("app.conf"), capture(options))).andThrow(NOT_MODIFIED);
+      replay(objectApi);
+
+      ObjectCache cache = new ObjectCache(apiFor(objectApi), 1024, "", 0);
+      assertEquals(Strings2.toString(cache.get("region", "container", "app.conf").getPayload()), "hello");
+      SwiftObject cached = cache.get("region", "container", "app.conf");
+      assertEquals(Strings2.toString(cached.getPayload()), "hello");
+      assertEquals(cached.getEtag(), "abc");
+      assertEquals(cached.getMetadata(), ImmutableMap.of("owner", "ops"));
+      assertEquals(cached.getPayload().getContentMetadata().getContentType(), "text/plain");
+
+      assertEquals(options.getValues().get(0).buildRequestHeaders().size(), 0);
+      assertEquals(options.getValues().get(1).getIfNoneMatch(), "\"abc\"");
+      assertEquals(cache.getMissCount(), 1);
+      assertEquals(cache.getRevalidationCount(), 1);
+      assertEquals(cache.getHitCount(), 1);
+      assertEquals(cache.getHeapBytes(), 5);
+      verify(objectApi);
+   }
+
+   public void testChangedObjectReplacesCachedContent() throws Exception {
+      ObjectApi objectApi = createMock(ObjectApi.class);
+      expect(objectApi.get(eq("container"), eq("app.conf"), capture(new Capture<GetOptions>()))).andReturn(
+            object("app.conf", "abc", "hello"));
+      expect(objectApi.get(eq("container"), eq("app.conf"), capture(new Capture<GetOptions>()))).andReturn(
+            object("app.conf", "def", "hello world"));
+      expect(objectApi.get(eq("container"), eq("app.conf"), capture(new Capture<GetOptions>()))).andThrow(
+            NOT_MODIFIED);
+      replay(objectApi);
+
+      ObjectCache cache = new ObjectCache(apiFor(objectApi), 1024, "", 0);
+      cache.get("region", "container", "app.conf").getPayload().release();
+      cache.get("region", "container", "app.conf").getPayload().release();
+      SwiftObject cached = cache.get("region", "container", "app.conf");
+      assertEquals(Strings2.toString(cached.getPayload()), "hello world");
+      assertEquals(cached.getEtag(), "def");
+
+      assertEquals(cache.getMissCount(), 2);
+      assertEquals(cache.getRevalidationCount(), 2);
+      assertEquals(cache.getHitCount(), 1);
+      assertEquals(cache.getHeapBytes(), 11);
+      verify(objectApi);
+   }
+
+   public void testLeastRecentlyReadObjectsSpillToDisk() throws Exception {
+      File directory = Files.createTempDir();
+      ObjectApi objectApi = createMock(ObjectApi.class);
+      expect(objectApi.get(eq("container"), eq("a"), capture(new Capture<GetOptions>()))).andReturn(
+            object("a", "aaa", "hello"));
+      expect(objectApi.get(eq("container"), eq("b"), capture(new Capture<GetOptions>()))).andReturn(
+            object("b", "bbb", "world"));
+      expect(objectApi.get(eq("container"), eq("a"), capture(new Capture<GetOptions>()))).andThrow(NOT_MODIFIED);
+      replay(objectApi);
+
+      ObjectCache cache = new ObjectCache(apiFor(objectApi), 8, directory.getAbsolutePath(), 1024);
+      cache.get("region", "container", "a").getPayload().release();
+      cache.get("region", "container", "b").getPayload().release();
+      assertEquals(cache.getHeapBytes(), 5);
+      assertEquals(cache.getDiskBytes(), 5);
+      assertEquals(directory.list().length, 1);
+
+      assertEquals(Strings2.toString(cache.get("region", "container", "a").getPayload()), "hello");
+      assertEquals(cache.getHitCount(), 1);
+
+      cache.invalidateAll();
+      assertEquals(cache.getHeapBytes(), 0);
+      assertEquals(cache.getDiskBytes(), 0);
+      assertEquals(directory.list().length, 0);
+      verify(objectApi);
+   }
+
+   public void testObjectOfUnknownLengthIsReadUpToTheHeapLimit() throws Exception {
+      ObjectApi objectApi = createMock(ObjectApi.class);
+      expect(objectApi.get(eq("container"), eq("small"), capture(new Capture<GetOptions>()))).andReturn(
+            streamed("small", "hello"));
+      expect(objectApi.get(eq("container"), eq("large"), capture(new Capture<GetOptions>()))).andReturn(
+            streamed("large", "hello world"));
+      replay(objectApi);
+
+      ObjectCache cache = new ObjectCache(apiFor(objectApi), 8, Files.createTempDir().getAbsolutePath(), 1024);
+      assertEquals(Strings2.toString(cache.get("region", "container", "small").getPayload()), "hello");
+      assertEquals(cache.getHeapBytes(), 5);
+
+      // the first nine bytes are buffered, then replayed ahead of the rest of the response
+      assertEquals(Strings2.toString(cache.get("region", "container", "large").getPayload()), "hello world");
+      assertEquals(cache.getHeapBytes(), 5);
+      assertEquals(cache.getDiskBytes(), 0);
+      verify(objectApi);
+   }
+
+   public void testDeletedObjectIsForgotten() throws Exception {
+      ObjectApi objectApi = createMock(ObjectApi.class);
+      expect(objectApi.get(eq("container"), eq("app.conf"), capture(new Capture<GetOptions>()))).andReturn(
+            object("app.conf", "abc", "hello"));
+      expect(objectApi.get(eq("container"), eq("app.conf"), capture(new Capture<GetOptions>()))).andReturn(null);
+      replay(objectApi);
+
+      ObjectCache cache = new ObjectCache(apiFor(objectApi), 1024, "", 0);
+      cache.get("region", "container", "app.conf").getPayload().release();
+      assertNull(cache.get("region", "container", "app.conf"));
+      assertEquals(cache.getHeapBytes(), 0);
+      verify(objectApi);
+   }
+
+   static SwiftApi apiFor(ObjectApi objectApi) {
+      SwiftApi api = createMock(SwiftApi.class);
+      expect(api.getObjectApiForRegion("region")).andReturn(objectApi).anyTimes();
+      replay(api);
+      return api;
+   }
+
+   /**
+    * @return an object whose response has no {@code Content-Length}
+    */
+   static SwiftObject streamed(String name, String content) {
+      Payload payload = Payloads.newInputStreamPayload(new ByteArrayInputStream(content.getBytes(Charsets.UTF_8)));
+      payload.getContentMetadata().setContentType("text/plain");
+      return object(name, "etag", content).toBuilder().payload(payload).build();
+   }
+
+   static SwiftObject object(String name, String etag, String content) {
+      Payload payload = Payloads.newStringPayload(content);
+      payload.getContentMetadata().setContentType("text/plain");
+      return SwiftObject.builder()
+                        .uri(URI.create("https://objects.jclouds.org/v1.0/40806637803162/container/" + name))
+                        .name(name)
+                        .etag(etag)
+                        .lastModified(new Date(1000))
+                        .metadata(ImmutableMap.of("owner", "ops"))
+                        .payload(payload).build();
+   }
+}
@@ -0,0 +1,81 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.collect;
+
+import static org.jclouds.openstack.swift.v1.collect.PrefetchingPagedIterable.prefetch;
+import static org.testng.Assert.assertEquals;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.collect.IterableWithMarker;
+import org.jclouds.collect.IterableWithMarkers;
+import org.jclouds.collect.PagedIterable;
+import org.jclouds.collect.PagedIterables;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * @author Adrian Cole
+ */
+@Test(groups = "unit", testName = "PrefetchingPagedIterableTest")
+public class PrefetchingPagedIterableTest {
+
+   public void testNextPageIsRequestedBeforeCurrentIsConsumed() throws Exception {
+      final CountDownLatch secondPageRequested = new CountDownLatch(1);
+      PagedIterable<String> pages = PagedIterables.advance(IterableWithMarkers.from(ImmutableList.of("a", "b"), "b"),
+            new Function<Object, IterableWithMarker<String>>() {
+               @Override
+               public IterableWithMarker<String> apply(Object marker) {
+                  secondPageRequested.countDown();
+                  return IterableWithMarkers.from(ImmutableList.of("c"));
+               }
+            });
+
+      ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor());
+      try {
+         IterableWithMarker<String> firstPage = prefetch(pages, executor).iterator().next();
+         assertEquals(firstPage.toList(), ImmutableList.of("a", "b"));
+         // the second page is requested without touching the iterator again
+         assertEquals(secondPageRequested.await(10, TimeUnit.SECONDS), true);
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   public void testConcatReturnsAllElementsInOrder() {
+      PagedIterable<String> pages = PagedIterables.advance(IterableWithMarkers.from(ImmutableList.of("a", "b"), "b"),
+            new Function<Object, IterableWithMarker<String>>() {
+               @Override
+               public IterableWithMarker<String> apply(Object marker) {
+                  return "b".equals(marker) ? IterableWithMarkers.from(ImmutableList.of("c", "d"), "d")
+                        : IterableWithMarkers.from(ImmutableList.of("e"));
+               }
+            });
+
+      List<String> all = prefetch(pages, MoreExecutors.sameThreadExecutor()).concat().toList();
+      assertEquals(all, ImmutableList.of("a", "b", "c", "d", "e"));
+   }
+}
@@ -19,6 +19,7 @@
 package org.jclouds.openstack.swift.v1.features;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
@@ -27,6 +28,8 @@ import org.jclouds.openstack.swift.v1.domain.Account;
 import org.jclouds.openstack.swift.v1.internal.BaseSwiftApiExpectTest;
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableMap;
+
 /**
  * @author Adrian Cole
  */
@@ -50,8 +53,65 @@ public class AccountApiExpectTest extends BaseSwiftApiExpectTest {
 
       assertEquals(
             apiWhenExists.getAccountApiForRegion("region-a.geo-1").get(),
-            Account.builder().containerCount(3).bytesUsed(323479).build());
+            Account.builder().containerCount(3L).bytesUsed(323479L).build());
+   }
+
+   public void testGetAccountMetadataParsesObjectCountAndUserMetadata() throws Exception {
+      HttpRequest get = HttpRequest
+            .builder()
+            .method("HEAD")
+            .endpoint("https://objects.jclouds.org/v1.0/40806637803162/")
+            .addHeader("X-Auth-Token", authToken).build();
+
+      HttpResponse getResponse = HttpResponse.builder().statusCode(204)
+            .addHeader("X-Account-Container-Count", "3")
+            .addHeader("X-Account-Object-Count", "42")
+            .addHeader("X-Account-Bytes-Used", "323479")
+            .addHeader("X-Account-Meta-Quota-Bytes", "1073741824")
+            .addHeader("X-Account-Meta-Temp-URL-Key", "secret").build();
+
+      SwiftApi apiWhenExists = requestsSendResponses(keystoneAuthWithUsernameAndPassword,
+            responseWithKeystoneAccess, get, getResponse);
+
+      Account account = apiWhenExists.getAccountApiForRegion("region-a.geo-1").get();
+      assertEquals(account, Account.builder().containerCount(3L).objectCount(42L).bytesUsed(323479L)
+            .metadata(ImmutableMap.of("quota-bytes", "1073741824", "temp-url-key", "secret")).build());
+      assertEquals(account.getQuotaBytes().get(), Long.valueOf(1073741824));
    }
-   
 
+   public void testGetAccountMetadataKeepsContainerCountsBeyondIntRange() throws Exception {
+      HttpRequest get = HttpRequest
+            .builder()
+            .method("HEAD")
+            .endpoint("https://objects.jclouds.org/v1.0/40806637803162/")
+            .addHeader("X-Auth-Token", authToken).build();
+
+      HttpResponse getResponse = HttpResponse.builder().statusCode(204)
+            .addHeader("X-Account-Container-Count", "4294967296").build();
+
+      SwiftApi apiWhenExists = requestsSendResponses(keystoneAuthWithUsernameAndPassword,
+            responseWithKeystoneAccess, get, getResponse);
+
+      Account account = apiWhenExists.getAccountApiForRegion("region-a.geo-1").get();
+      assertEquals(account.getContainerCount().get(), Long.valueOf(4294967296L));
+      assertFalse(account.getBytesUsed().isPresent());
+   }
+
+   public void testGetAccountMetadataWhenCountsAreMissing() throws Exception {
+      HttpRequest get = HttpRequest
+            .builder()
+            .method("HEAD")
+            .endpoint("https://objects.jclouds.org/v1.0/40806637803162/")
+            .addHeader("X-Auth-Token", authToken).build();
+
+      HttpResponse getResponse = HttpResponse.builder().statusCode(204).build();
+
+      SwiftApi apiWhenExists = requestsSendResponses(keystoneAuthWithUsernameAndPassword,
+            responseWithKeystoneAccess, get, getResponse);
+
+      Account account = apiWhenExists.getAccountApiForRegion("region-a.geo-1").get();
+      assertEquals(account, Account.builder().build());
+      assertFalse(account.getContainerCount().isPresent());
+      assertFalse(account.getQuotaBytes().isPresent());
+   }
 }
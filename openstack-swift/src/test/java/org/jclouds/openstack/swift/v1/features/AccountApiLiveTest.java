@@ -38,8 +38,8 @@ public class AccountApiLiveTest extends BaseSwiftApiLiveTest {
          AccountApi accountApi = api.getAccountApiForRegion(regionId);
          Account account = accountApi.get();
          assertNotNull(account);
-         assertTrue(account.getContainerCount() >= 0);
-         assertTrue(account.getBytesUsed() >= 0);
+         assertTrue(account.getContainerCount().get() >= 0);
+         assertTrue(account.getBytesUsed().get() >= 0);
       }
    }
 
@@ -0,0 +1,136 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.features;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.openstack.swift.v1.SwiftApi;
+import org.jclouds.openstack.swift.v1.domain.ArchiveFormat;
+import org.jclouds.openstack.swift.v1.domain.BulkDeleteResponse;
+import org.jclouds.openstack.swift.v1.domain.ExtractArchiveResponse;
+import org.jclouds.openstack.swift.v1.internal.BaseSwiftApiExpectTest;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * @author Adrian Cole
+ */
+@Test(groups = "unit", testName = "BulkApiExpectTest")
+public class BulkApiExpectTest extends BaseSwiftApiExpectTest {
+
+   public void testBulkDeleteReportsFailedPaths() throws Exception {
+      Payload paths = Payloads.newStringPayload("myContainer/my%20object\nmyContainer/other\nmyContainer");
+      paths.getContentMetadata().setContentType("text/plain");
+
+      HttpRequest bulkDelete = HttpRequest
+            .builder()
+            .method("DELETE")
+            .endpoint("https://objects.jclouds.org/v1.0/40806637803162/?bulk-delete")
+            .addHeader("Accept", "application/json")
+            .addHeader("X-Auth-Token", authToken)
+            .payload(paths).build();
+
+      // whitespace is sent to keep the connection alive while the server works
+      HttpResponse bulkDeleteResponse = HttpResponse.builder().statusCode(200)
+            .payload(Payloads.newStringPayload("  \n {\"Number Not Found\": 1, \"Response Status\": \"400 Bad Request\", "
+                  + "\"Errors\": [[\"/myContainer\", \"409 Conflict\"]], \"Number Deleted\": 1, "
+                  + "\"Response Body\": \"\"}")).build();
+
+      SwiftApi api = requestsSendResponses(keystoneAuthWithUsernameAndPassword, responseWithKeystoneAccess,
+            bulkDelete, bulkDeleteResponse);
+
+      BulkDeleteResponse response = api.getBulkApiForRegion("region-a.geo-1").bulkDelete(
+            ImmutableList.of("myContainer/my object", "myContainer/other", "myContainer"));
+      assertEquals(response.getDeleted(), 1);
+      assertEquals(response.getNotFound(), 1);
+      assertEquals(response.getErrors().get("/myContainer"), "409 Conflict");
+      assertEquals(response.getResponseStatus(), "400 Bad Request");
+      assertFalse(response.isSuccessful());
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testBulkDeleteRejectsMoreThan10000Paths() throws Exception {
+      ImmutableList.Builder<String> paths = ImmutableList.builder();
+      for (int i = 0; i <= 10000; i++)
+         paths.add("myContainer/" + i);
+
+      SwiftApi api = requestsSendResponses(keystoneAuthWithUsernameAndPassword, responseWithKeystoneAccess,
+            HttpRequest.builder().method("DELETE").endpoint("https://objects.jclouds.org/v1.0/40806637803162/")
+                  .build(), HttpResponse.builder().statusCode(200).build());
+
+      api.getBulkApiForRegion("region-a.geo-1").bulkDelete(paths.build());
+   }
+
+   public void testExtractArchiveUnderContainer() throws Exception {
+      Payload archive = Payloads.newByteArrayPayload(new byte[] { 1, 2, 3 });
+
+      HttpRequest extractArchive = HttpRequest
+            .builder()
+            .method("PUT")
+            .endpoint("https://objects.jclouds.org/v1.0/40806637803162/myContainer?extract-archive=tar.gz")
+            .addHeader("Accept", "application/json")
+            .addHeader("X-Auth-Token", authToken)
+            .payload(archive).build();
+
+      HttpResponse extractArchiveResponse = HttpResponse.builder().statusCode(201)
+            .payload(Payloads.newStringPayload("{\"Number Files Created\": 10, \"Response Status\": \"201 Created\", "
+                  + "\"Errors\": [], \"Response Body\": \"\"}")).build();
+
+      SwiftApi api = requestsSendResponses(keystoneAuthWithUsernameAndPassword, responseWithKeystoneAccess,
+            extractArchive, extractArchiveResponse);
+
+      ExtractArchiveResponse response = api.getBulkApiForRegion("region-a.geo-1").extractArchive("myContainer",
+            ArchiveFormat.TAR_GZ, archive);
+      assertEquals(response, ExtractArchiveResponse.builder().created(10).build());
+      assertTrue(response.isSuccessful());
+   }
+
+   public void testExtractArchiveReportsFailedFiles() throws Exception {
+      Payload archive = Payloads.newByteArrayPayload(new byte[] { 1, 2, 3 });
+
+      HttpRequest extractArchive = HttpRequest
+            .builder()
+            .method("PUT")
+            .endpoint("https://objects.jclouds.org/v1.0/40806637803162/?extract-archive=tar")
+            .addHeader("Accept", "application/json")
+            .addHeader("X-Auth-Token", authToken)
+            .payload(archive).build();
+
+      HttpResponse extractArchiveResponse = HttpResponse.builder().statusCode(200)
+            .payload(Payloads.newStringPayload("{\"Number Files Created\": 1, \"Response Status\": \"400 Bad Request\", "
+                  + "\"Errors\": [[\"/myContainer/big\", \"413 Request Entity Too Large\"]], \"Response Body\": \"\"}"))
+            .build();
+
+      SwiftApi api = requestsSendResponses(keystoneAuthWithUsernameAndPassword, responseWithKeystoneAccess,
+            extractArchive, extractArchiveResponse);
+
+      ExtractArchiveResponse response = api.getBulkApiForRegion("region-a.geo-1").extractArchive(ArchiveFormat.TAR,
+            archive);
+      assertEquals(response.getCreated(), 1);
+      assertEquals(response.getErrors().get("/myContainer/big"), "413 Request Entity Too Large");
+      assertFalse(response.isSuccessful());
+   }
+}
@@ -19,14 +19,21 @@
 package org.jclouds.openstack.swift.v1.features;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
+import org.jclouds.io.Payloads;
 import org.jclouds.openstack.swift.v1.SwiftApi;
+import org.jclouds.openstack.swift.v1.domain.Container;
 import org.jclouds.openstack.swift.v1.internal.BaseSwiftApiExpectTest;
 import org.jclouds.openstack.swift.v1.parse.ParseContainerListTest;
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
 /**
@@ -73,4 +80,152 @@ public class ContainerApiExpectTest extends BaseSwiftApiExpectTest {
 
    }
 
+   public void testListAllFollowsMarkerUntilEmptyPage() throws Exception {
+      HttpResponse firstPageResponse = HttpResponse.builder().statusCode(200)
+            .payload(Payloads.newStringPayload(fullPage())).build();
+      HttpResponse secondPageResponse = HttpResponse.builder().statusCode(200)
+            .payload(payloadFromResource("/container_list.json")).build();
+      HttpResponse lastPageResponse = HttpResponse.builder().statusCode(204).build();
+
+      SwiftApi apiWhenContainersExist = requestsSendResponses(ImmutableMap.of(keystoneAuthWithUsernameAndPassword,
+            responseWithKeystoneAccess, listAt(null), firstPageResponse, listAt("container_09999"),
+            secondPageResponse, listAt("test_container_2"), lastPageResponse));
+
+      ImmutableList<Container> containers = apiWhenContainersExist.getContainerApiForRegion("region-a.geo-1")
+            .listAll().concat().toList();
+      assertEquals(containers.size(), 10002);
+      assertEquals(containers.get(0).getName(), "container_00000");
+      assertEquals(containers.get(10001).getName(), "test_container_2");
+   }
+
+   /**
+    * Clusters may set {@code container_listing_limit} below the default page size.
+    */
+   public void testListAllFollowsShortPages() throws Exception {
+      HttpResponse firstPageResponse = HttpResponse.builder().statusCode(200)
+            .payload(Payloads.newStringPayload("[{\"name\":\"a\",\"count\":1,\"bytes\":1},"
+                  + "{\"name\":\"b\",\"count\":1,\"bytes\":1}]")).build();
+      HttpResponse secondPageResponse = HttpResponse.builder().statusCode(200)
+            .payload(Payloads.newStringPayload("[{\"name\":\"c\",\"count\":1,\"bytes\":1}]")).build();
+      HttpResponse lastPageResponse = HttpResponse.builder().statusCode(200)
+            .payload(Payloads.newStringPayload("[]")).build();
+
+      SwiftApi apiWhenContainersExist = requestsSendResponses(ImmutableMap.of(keystoneAuthWithUsernameAndPassword,
+            responseWithKeystoneAccess, listAt(null), firstPageResponse, listAt("b"), secondPageResponse,
+            listAt("c"), lastPageResponse));
+
+      ImmutableList<Container> containers = apiWhenContainersExist.getContainerApiForRegion("region-a.geo-1")
+            .listAll().concat().toList();
+      assertEquals(containers.size(), 3);
+      assertEquals(containers.get(2).getName(), "c");
+   }
+
+   private HttpRequest listAt(String marker) {
+      return HttpRequest
+            .builder()
+            .method("GET")
+            .endpoint("https://objects.jclouds.org/v1.0/40806637803162/?format=json"
+                  + (marker != null ? "&marker=" + marker : ""))
+            .addHeader("Accept", "application/json")
+            .addHeader("X-Auth-Token", authToken).build();
+   }
+
+   public void testListAllWhenResponseIs404() throws Exception {
+      HttpRequest list = HttpRequest
+            .builder()
+            .method("GET")
+            .endpoint("https://objects.jclouds.org/v1.0/40806637803162/?format=json")
+            .addHeader("Accept", "application/json")
+            .addHeader("X-Auth-Token", authToken).build();
+
+      HttpResponse listResponse = HttpResponse.builder().statusCode(404).build();
+
+      SwiftApi apiWhenNoContainersExist = requestsSendResponses(keystoneAuthWithUsernameAndPassword,
+            responseWithKeystoneAccess, list, listResponse);
+
+      assertTrue(apiWhenNoContainersExist.getContainerApiForRegion("region-a.geo-1").listAll().concat().isEmpty());
+   }
+
+   /**
+    * a listing of exactly as many containers as the server returns by default
+    */
+   private static String fullPage() {
+      StringBuilder json = new StringBuilder("[");
+      for (int i = 0; i < 10000; i++) {
+         if (i > 0)
+            json.append(',');
+         json.append(String.format("{\"name\":\"container_%05d\",\"count\":1,\"bytes\":1}", i));
+      }
+      return json.append(']').toString();
+   }
+
+   public void testGetContainerMetadataWhenResponseIs2xx() throws Exception {
+      HttpRequest head = HttpRequest
+            .builder()
+            .method("HEAD")
+            .endpoint("https://objects.jclouds.org/v1.0/40806637803162/myContainer")
+            .addHeader("X-Auth-Token", authToken).build();
+
+      HttpResponse headResponse = HttpResponse.builder().statusCode(204)
+            .addHeader("X-Container-Object-Count", "42")
+            .addHeader("X-Container-Bytes-Used", "323479")
+            .addHeader("X-Container-Meta-Quota-Count", "1000")
+            .addHeader("X-Container-Meta-Web-Index", "index.html").build();
+
+      SwiftApi apiWhenContainerExists = requestsSendResponses(keystoneAuthWithUsernameAndPassword,
+            responseWithKeystoneAccess, head, headResponse);
+
+      Container container = apiWhenContainerExists.getContainerApiForRegion("region-a.geo-1").get("myContainer");
+      assertEquals(container, Container.builder().name("myContainer").count(42l).bytes(323479l)
+            .metadata(ImmutableMap.of("quota-count", "1000", "web-index", "index.html")).build());
+      assertEquals(container.getQuotaCount().get(), Long.valueOf(1000));
+      assertFalse(container.getQuotaBytes().isPresent());
+   }
+
+   public void testGetContainerMetadataWithoutCountsHasAbsentCounts() throws Exception {
+      HttpRequest head = HttpRequest
+            .builder()
+            .method("HEAD")
+            .endpoint("https://objects.jclouds.org/v1.0/40806637803162/myContainer")
+            .addHeader("X-Auth-Token", authToken).build();
+
+      HttpResponse headResponse = HttpResponse.builder().statusCode(204).build();
+
+      SwiftApi apiWhenContainerExists = requestsSendResponses(keystoneAuthWithUsernameAndPassword,
+            responseWithKeystoneAccess, head, headResponse);
+
+      Container container = apiWhenContainerExists.getContainerApiForRegion("region-a.geo-1").get("myContainer");
+      assertFalse(container.getCount().isPresent());
+      assertFalse(container.getBytes().isPresent());
+   }
+
+   public void testGetContainerMetadataWhenResponseIs404() throws Exception {
+      HttpRequest head = HttpRequest
+            .builder()
+            .method("HEAD")
+            .endpoint("https://objects.jclouds.org/v1.0/40806637803162/myContainer")
+            .addHeader("X-Auth-Token", authToken).build();
+
+      HttpResponse headResponse = HttpResponse.builder().statusCode(404).build();
+
+      SwiftApi apiWhenNoContainerExists = requestsSendResponses(keystoneAuthWithUsernameAndPassword,
+            responseWithKeystoneAccess, head, headResponse);
+
+      assertNull(apiWhenNoContainerExists.getContainerApiForRegion("region-a.geo-1").get("myContainer"));
+   }
+
+   public void testCreateContainer() throws Exception {
+      HttpRequest put = HttpRequest
+            .builder()
+            .method("PUT")
+            .endpoint("https://objects.jclouds.org/v1.0/40806637803162/myContainer")
+            .addHeader("X-Auth-Token", authToken).build();
+
+      HttpResponse putResponse = HttpResponse.builder().statusCode(201).build();
+
+      SwiftApi apiWhenNoContainerExists = requestsSendResponses(keystoneAuthWithUsernameAndPassword,
+            responseWithKeystoneAccess, put, putResponse);
+
+      apiWhenNoContainerExists.getContainerApiForRegion("region-a.geo-1").create("myContainer");
+   }
 }
@@ -42,8 +42,8 @@ public class ContainerApiLiveTest extends BaseSwiftApiLiveTest {
          assertNotNull(response);
          for (Container container : response) {
             assertNotNull(container.getName());
-            assertTrue(container.getCount() >= 0);
-            assertTrue(container.getBytes() >= 0);
+            assertTrue(container.getCount().get() >= 0);
+            assertTrue(container.getBytes().get() >= 0);
          }
       }
    }
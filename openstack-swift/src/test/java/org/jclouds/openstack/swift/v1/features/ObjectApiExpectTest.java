@@ -18,13 +18,488 @@
  */
 package org.jclouds.openstack.swift.v1.features;
 
+import static org.jclouds.openstack.swift.v1.options.ExpirationOptions.Builder.deleteAfter;
+import static org.jclouds.openstack.swift.v1.options.ExpirationOptions.Builder.deleteAt;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.http.options.GetOptions;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.openstack.swift.v1.SwiftApi;
+import org.jclouds.openstack.swift.v1.domain.SwiftObject;
 import org.jclouds.openstack.swift.v1.internal.BaseSwiftApiExpectTest;
+import org.jclouds.openstack.swift.v1.options.ListObjectsOptions;
+import org.jclouds.util.Strings2;
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
 /**
  * @author Adrian Cole
  */
 @Test(groups = "unit", testName = "ObjectAsyncApiTest")
 public class ObjectApiExpectTest extends BaseSwiftApiExpectTest {
 
+   String objectEndpoint = "https://objects.jclouds.org/v1.0/40806637803162/myContainer/myObject";
+
+   public void testListObjectsWhenResponseIs2xx() throws Exception {
+      HttpRequest list = HttpRequest
+            .builder()
+            .method("GET")
+            .endpoint("https://objects.jclouds.org/v1.0/40806637803162/myContainer?format=json")
+            .addHeader("Accept", "application/json")
+            .addHeader("X-Auth-Token", authToken).build();
+
+      HttpResponse listResponse = HttpResponse.builder().statusCode(200)
+            .payload(payloadFromResource("/object_list.json")).build();
+
+      SwiftApi apiWhenObjectsExist = requestsSendResponses(keystoneAuthWithUsernameAndPassword,
+            responseWithKeystoneAccess, list, listResponse);
+
+      ImmutableList<SwiftObject> objects = apiWhenObjectsExist.getObjectApiForRegion("region-a.geo-1")
+            .list("myContainer").toList();
+      assertEquals(objects.size(), 2);
+      assertEquals(objects.get(0).getName(), "test_obj_1");
+      assertEquals(objects.get(0).getEtag(), "4281c348eaf83e70ddce0e07221c3d28");
+      assertEquals(objects.get(0).getUri().toString(),
+            "https://objects.jclouds.org/v1.0/40806637803162/myContainer/test_obj_1");
+      assertEquals(objects.get(0).getPayload().getContentMetadata().getContentLength(), Long.valueOf(14));
+      assertEquals(objects.get(1).getName(), "test_obj_2");
+   }
+
+   public void testListObjectsWhenResponseIs404() throws Exception {
+      HttpRequest list = HttpRequest
+            .builder()
+            .method("GET")
+            .endpoint("https://objects.jclouds.org/v1.0/40806637803162/myContainer?format=json")
+            .addHeader("Accept", "application/json")
+            .addHeader("X-Auth-Token", authToken).build();
+
+      HttpResponse listResponse = HttpResponse.builder().statusCode(404).build();
+
+      SwiftApi apiWhenNoContainerExists = requestsSendResponses(keystoneAuthWithUsernameAndPassword,
+            responseWithKeystoneAccess, list, listResponse);
+
+      assertTrue(apiWhenNoContainerExists.getObjectApiForRegion("region-a.geo-1").list("myContainer").isEmpty());
+   }
+
+   public void testListAllWithDelimiterRepeatsOptionsOnEachPage() throws Exception {
+      HttpRequest firstPage = HttpRequest
+            .builder()
+            .method("GET")
+            .endpoint("https://objects.jclouds.org/v1.0/40806637803162/myContainer?format=json&prefix=logs.&delimiter=.&limit=2")
+            .addHeader("Accept", "application/json")
+            .addHeader("X-Auth-Token", authToken).build();
+
+      HttpResponse firstPageResponse = HttpResponse.builder().statusCode(200)
+            .payload("[{\"subdir\":\"logs.2012.\"},{\"subdir\":\"logs.2013.\"}]").build();
+
+      HttpRequest secondPage = HttpRequest
+            .builder()
+            .method("GET")
+            .endpoint("https://objects.jclouds.org/v1.0/40806637803162/myContainer?format=json&marker=logs.2013.&prefix=logs.&delimiter=.&limit=2")
+            .addHeader("Accept", "application/json")
+            .addHeader("X-Auth-Token", authToken).build();
+
+      HttpResponse secondPageResponse = HttpResponse.builder().statusCode(200)
+            .payload("[{\"name\":\"logs.index\",\"hash\":\"4281c348eaf83e70ddce0e07221c3d28\",\"bytes\":3,"
+                  + "\"content_type\":\"text/plain\",\"last_modified\":\"2009-02-03T05:26:32.612278\"}]").build();
+
+      HttpRequest lastPage = HttpRequest
+            .builder()
+            .method("GET")
+            .endpoint("https://objects.jclouds.org/v1.0/40806637803162/myContainer?format=json&marker=logs.index&prefix=logs.&delimiter=.&limit=2")
+            .addHeader("Accept", "application/json")
+            .addHeader("X-Auth-Token", authToken).build();
+
+      HttpResponse lastPageResponse = HttpResponse.builder().statusCode(204).build();
+
+      SwiftApi apiWhenObjectsExist = requestsSendResponses(ImmutableMap.of(keystoneAuthWithUsernameAndPassword,
+            responseWithKeystoneAccess, firstPage, firstPageResponse, secondPage, secondPageResponse, lastPage,
+            lastPageResponse));
+
+      ImmutableList<SwiftObject> objects = apiWhenObjectsExist.getObjectApiForRegion("region-a.geo-1")
+            .listAll("myContainer", ListObjectsOptions.Builder.prefix("logs.").delimiter('.').limit(2)).concat()
+            .toList();
+      assertEquals(objects.size(), 3);
+      assertTrue(objects.get(0).isSubdir());
+      assertEquals(objects.get(1).getName(), "logs.2013.");
+      assertFalse(objects.get(2).isSubdir());
+      assertEquals(objects.get(2).getName(), "logs.index");
+      assertEquals(objects.get(2).getPayload().getContentMetadata().getContentType(), "text/plain");
+   }
+
+   /**
+    * Clusters may set {@code container_listing_limit} below the default page size.
+    */
+   public void testListAllFollowsShortPages() throws Exception {
+      HttpResponse firstPageResponse = HttpResponse.builder().statusCode(200)
+            .payload("[" + objectJson("a") + "," + objectJson("b") + "]").build();
+      HttpResponse secondPageResponse = HttpResponse.builder().statusCode(200).payload("[" + objectJson("c") + "]")
+            .build();
+      HttpResponse lastPageResponse = HttpResponse.builder().statusCode(200).payload("[]").build();
+
+      SwiftApi apiWhenObjectsExist = requestsSendResponses(ImmutableMap.of(keystoneAuthWithUsernameAndPassword,
+            responseWithKeystoneAccess, listAt(null), firstPageResponse, listAt("b"), secondPageResponse,
+            listAt("c"), lastPageResponse));
+
+      ImmutableList<SwiftObject> objects = apiWhenObjectsExist.getObjectApiForRegion("region-a.geo-1")
+            .listAll("myContainer").concat().toList();
+      assertEquals(objects.size(), 3);
+      assertEquals(objects.get(2).getName(), "c");
+   }
+
+   private HttpRequest listAt(String marker) {
+      return HttpRequest
+            .builder()
+            .method("GET")
+            .endpoint("https://objects.jclouds.org/v1.0/40806637803162/myContainer?format=json"
+                  + (marker != null ? "&marker=" + marker : ""))
+            .addHeader("Accept", "application/json")
+            .addHeader("X-Auth-Token", authToken).build();
+   }
+
+   private static String objectJson(String name) {
+      return "{\"name\":\"" + name + "\",\"hash\":\"4281c348eaf83e70ddce0e07221c3d28\",\"bytes\":3,"
+            + "\"content_type\":\"text/plain\",\"last_modified\":\"2009-02-03T05:26:32.612278\"}";
+   }
+
+   public void testGetStreamsPayloadWithoutBuffering() throws Exception {
+      HttpRequest get = HttpRequest
+            .builder()
+            .method("GET")
+            .endpoint(objectEndpoint)
+            .addHeader("X-Auth-Token", authToken).build();
+
+      InputStream content = new ByteArrayInputStream("hello world".getBytes());
+      Payload payload = Payloads.newInputStreamPayload(content);
+      payload.getContentMetadata().setContentLength(11l);
+      HttpResponse getResponse = HttpResponse.builder().statusCode(200)
+            .addHeader("ETag", "5eb63bbbe01eeed093cb22bb8f5acdc3")
+            .addHeader("Last-Modified", "Wed, 15 May 2013 23:33:58 GMT")
+            .addHeader("X-Object-Meta-Apiname", "swift")
+            .payload(payload).build();
+
+      SwiftApi apiWhenObjectExists = requestsSendResponses(keystoneAuthWithUsernameAndPassword,
+            responseWithKeystoneAccess, get, getResponse);
+
+      SwiftObject object = apiWhenObjectExists.getObjectApiForRegion("region-a.geo-1").get("myContainer",
+            "myObject");
+      assertEquals(object.getName(), "myObject");
+      assertEquals(object.getEtag(), "5eb63bbbe01eeed093cb22bb8f5acdc3");
+      assertEquals(object.getMetadata(), ImmutableMap.of("apiname", "swift"));
+      // the connection's stream is handed through untouched
+      assertSame(object.getPayload().getRawContent(), content);
+      assertEquals(content.available(), 11);
+      assertEquals(Strings2.toString(object.getPayload()), "hello world");
+   }
+
+   public void testGetWithRangeWhenResponseIs2xx() throws Exception {
+      HttpRequest get = HttpRequest
+            .builder()
+            .method("GET")
+            .endpoint(objectEndpoint)
+            .addHeader("Range", "bytes=0-4")
+            .addHeader("X-Auth-Token", authToken).build();
+
+      HttpResponse getResponse = HttpResponse.builder().statusCode(206)
+            .payload(Payloads.newStringPayload("hello")).build();
+
+      SwiftApi apiWhenObjectExists = requestsSendResponses(keystoneAuthWithUsernameAndPassword,
+            responseWithKeystoneAccess, get, getResponse);
+
+      SwiftObject object = apiWhenObjectExists.getObjectApiForRegion("region-a.geo-1").get("myContainer",
+            "myObject", GetOptions.Builder.range(0, 4));
+      assertEquals(Strings2.toString(object.getPayload()), "hello");
+   }
+
+   public void testGetAsResponseWithRangeExposesContentRange() throws Exception {
+      HttpRequest get = HttpRequest
+            .builder()
+            .method("GET")
+            .endpoint(objectEndpoint)
+            .addHeader("Range", "bytes=6-10")
+            .addHeader("X-Auth-Token", authToken).build();
+
+      HttpResponse getResponse = HttpResponse.builder().statusCode(206).addHeader("Content-Range", "bytes 6-10/11")
+            .payload(Payloads.newStringPayload("world")).build();
+
+      SwiftApi apiWhenObjectExists = requestsSendResponses(keystoneAuthWithUsernameAndPassword,
+            responseWithKeystoneAccess, get, getResponse);
+
+      HttpResponse response = apiWhenObjectExists.getObjectApiForRegion("region-a.geo-1").getAsResponse(
+            "myContainer", "myObject", GetOptions.Builder.range(6, 10));
+      assertEquals(response.getStatusCode(), 206);
+      assertEquals(response.getFirstHeaderOrNull("Content-Range"), "bytes 6-10/11");
+      assertEquals(Strings2.toString(response.getPayload()), "world");
+   }
+
+   public void testConditionalGetWhenResponseIs304() throws Exception {
+      HttpRequest get = HttpRequest
+            .builder()
+            .method("GET")
+            .endpoint(objectEndpoint)
+            .addHeader("If-None-Match", "\"5eb63bbbe01eeed093cb22bb8f5acdc3\"")
+            .addHeader("X-Auth-Token", authToken).build();
+
+      HttpResponse getResponse = HttpResponse.builder().statusCode(304).build();
+
+      SwiftApi apiWhenObjectUnchanged = requestsSendResponses(keystoneAuthWithUsernameAndPassword,
+            responseWithKeystoneAccess, get, getResponse);
+
+      try {
+         apiWhenObjectUnchanged.getObjectApiForRegion("region-a.geo-1").get("myContainer", "myObject",
+               GetOptions.Builder.ifETagDoesntMatch("5eb63bbbe01eeed093cb22bb8f5acdc3"));
+         fail("expected 304");
+      } catch (HttpResponseException e) {
+         assertEquals(e.getResponse().getStatusCode(), 304);
+      }
+   }
+
+   public void testGetWhenResponseIs404() throws Exception {
+      HttpRequest get = HttpRequest
+            .builder()
+            .method("GET")
+            .endpoint(objectEndpoint)
+            .addHeader("X-Auth-Token", authToken).build();
+
+      HttpResponse getResponse = HttpResponse.builder().statusCode(404).build();
+
+      SwiftApi apiWhenNoObjectExists = requestsSendResponses(keystoneAuthWithUsernameAndPassword,
+            responseWithKeystoneAccess, get, getResponse);
+
+      assertNull(apiWhenNoObjectExists.getObjectApiForRegion("region-a.geo-1").get("myContainer", "myObject"));
+   }
+
+   public void testHeadWhenResponseIs2xx() throws Exception {
+      HttpRequest head = HttpRequest
+            .builder()
+            .method("HEAD")
+            .endpoint(objectEndpoint)
+            .addHeader("X-Auth-Token", authToken).build();
+
+      HttpResponse headResponse = HttpResponse.builder().statusCode(200)
+            .addHeader("ETag", "5eb63bbbe01eeed093cb22bb8f5acdc3")
+            .addHeader("Last-Modified", "Wed, 15 May 2013 23:33:58 GMT")
+            .addHeader("Content-Length", "11")
+            .addHeader("Content-Type", "text/plain").build();
+
+      SwiftApi apiWhenObjectExists = requestsSendResponses(keystoneAuthWithUsernameAndPassword,
+            responseWithKeystoneAccess, head, headResponse);
+
+      SwiftObject object = apiWhenObjectExists.getObjectApiForRegion("region-a.geo-1").head("myContainer",
+            "myObject");
+      assertEquals(object.getEtag(), "5eb63bbbe01eeed093cb22bb8f5acdc3");
+      assertEquals(object.getPayload().getContentMetadata().getContentLength(), Long.valueOf(11));
+      assertFalse(object.isManifest());
+   }
+
+   public void testHeadOfStaticLargeObjectIsAManifest() throws Exception {
+      HttpRequest head = HttpRequest
+            .builder()
+            .method("HEAD")
+            .endpoint(objectEndpoint)
+            .addHeader("X-Auth-Token", authToken).build();
+
+      HttpResponse headResponse = HttpResponse.builder().statusCode(200)
+            .addHeader("ETag", "\"8a3f0e1ab7fcd4d8b6c0d4b4fa8c1f2e\"")
+            .addHeader("X-Static-Large-Object", "True")
+            .addHeader("Content-Length", "11")
+            .addHeader("Content-Type", "text/plain").build();
+
+      SwiftApi apiWhenObjectExists = requestsSendResponses(keystoneAuthWithUsernameAndPassword,
+            responseWithKeystoneAccess, head, headResponse);
+
+      assertTrue(apiWhenObjectExists.getObjectApiForRegion("region-a.geo-1").head("myContainer", "myObject")
+            .isManifest());
+   }
+
+   public void testPutStreamsPayload() throws Exception {
+      HttpRequest put = HttpRequest
+            .builder()
+            .method("PUT")
+            .endpoint(objectEndpoint)
+            .addHeader("X-Object-Meta-Apiname", "swift")
+            .addHeader("X-Auth-Token", authToken)
+            .payload(Payloads.newStringPayload("hello world")).build();
+
+      HttpResponse putResponse = HttpResponse.builder().statusCode(201)
+            .addHeader("ETag", "\"5eb63bbbe01eeed093cb22bb8f5acdc3\"").build();
+
+      SwiftApi apiWhenContainerExists = requestsSendResponses(keystoneAuthWithUsernameAndPassword,
+            responseWithKeystoneAccess, put, putResponse);
+
+      assertEquals(apiWhenContainerExists.getObjectApiForRegion("region-a.geo-1").put("myContainer", "myObject",
+            Payloads.newStringPayload("hello world"), ImmutableMap.of("apiname", "swift")),
+            "5eb63bbbe01eeed093cb22bb8f5acdc3");
+   }
+
+   public void testPutWithDeleteAt() throws Exception {
+      HttpRequest put = HttpRequest
+            .builder()
+            .method("PUT")
+            .endpoint(objectEndpoint)
+            .addHeader("X-Object-Meta-Apiname", "swift")
+            .addHeader("X-Delete-At", "1370000000")
+            .addHeader("X-Auth-Token", authToken)
+            .payload(Payloads.newStringPayload("hello world")).build();
+
+      HttpResponse putResponse = HttpResponse.builder().statusCode(201)
+            .addHeader("ETag", "\"5eb63bbbe01eeed093cb22bb8f5acdc3\"").build();
+
+      SwiftApi apiWhenContainerExists = requestsSendResponses(keystoneAuthWithUsernameAndPassword,
+            responseWithKeystoneAccess, put, putResponse);
+
+      assertEquals(apiWhenContainerExists.getObjectApiForRegion("region-a.geo-1").put("myContainer", "myObject",
+            Payloads.newStringPayload("hello world"), ImmutableMap.of("apiname", "swift"), deleteAt(1370000000L)),
+            "5eb63bbbe01eeed093cb22bb8f5acdc3");
+   }
+
+   public void testDeleteWhenResponseIs404() throws Exception {
+      HttpRequest delete = HttpRequest
+            .builder()
+            .method("DELETE")
+            .endpoint(objectEndpoint)
+            .addHeader("X-Auth-Token", authToken).build();
+
+      HttpResponse deleteResponse = HttpResponse.builder().statusCode(404).build();
+
+      SwiftApi apiWhenNoObjectExists = requestsSendResponses(keystoneAuthWithUsernameAndPassword,
+            responseWithKeystoneAccess, delete, deleteResponse);
+
+      apiWhenNoObjectExists.getObjectApiForRegion("region-a.geo-1").delete("myContainer", "myObject");
+   }
+
+   public void testCopyWhenResponseIs2xx() throws Exception {
+      HttpRequest copy = HttpRequest
+            .builder()
+            .method("PUT")
+            .endpoint("https://objects.jclouds.org/v1.0/40806637803162/otherContainer/otherObject")
+            .addHeader("X-Copy-From", "/myContainer/myObject")
+            .addHeader("X-Auth-Token", authToken).build();
+
+      HttpResponse copyResponse = HttpResponse.builder().statusCode(201).build();
+
+      SwiftApi apiWhenObjectExists = requestsSendResponses(keystoneAuthWithUsernameAndPassword,
+            responseWithKeystoneAccess, copy, copyResponse);
+
+      assertTrue(apiWhenObjectExists.getObjectApiForRegion("region-a.geo-1").copy("myContainer", "myObject",
+            "otherContainer", "otherObject"));
+   }
+
+   public void testCopyWhenSourceIs404() throws Exception {
+      HttpRequest copy = HttpRequest
+            .builder()
+            .method("PUT")
+            .endpoint("https://objects.jclouds.org/v1.0/40806637803162/otherContainer/otherObject")
+            .addHeader("X-Copy-From", "/myContainer/myObject")
+            .addHeader("X-Auth-Token", authToken).build();
+
+      HttpResponse copyResponse = HttpResponse.builder().statusCode(404).build();
+
+      SwiftApi apiWhenNoObjectExists = requestsSendResponses(keystoneAuthWithUsernameAndPassword,
+            responseWithKeystoneAccess, copy, copyResponse);
+
+      assertFalse(apiWhenNoObjectExists.getObjectApiForRegion("region-a.geo-1").copy("myContainer", "myObject",
+            "otherContainer", "otherObject"));
+   }
+
+   public void testCopyWithMetadata() throws Exception {
+      HttpRequest copy = HttpRequest
+            .builder()
+            .method("PUT")
+            .endpoint("https://objects.jclouds.org/v1.0/40806637803162/otherContainer/otherObject")
+            .addHeader("X-Copy-From", "/myContainer/myObject")
+            .addHeader("X-Object-Meta-Apiname", "swift")
+            .addHeader("X-Auth-Token", authToken).build();
+
+      HttpResponse copyResponse = HttpResponse.builder().statusCode(201).build();
+
+      SwiftApi apiWhenObjectExists = requestsSendResponses(keystoneAuthWithUsernameAndPassword,
+            responseWithKeystoneAccess, copy, copyResponse);
+
+      assertTrue(apiWhenObjectExists.getObjectApiForRegion("region-a.geo-1").copy("myContainer", "myObject",
+            "otherContainer", "otherObject", ImmutableMap.of("apiname", "swift")));
+   }
+
+   public void testCopyToUsesCopyVerb() throws Exception {
+      HttpRequest copy = HttpRequest
+            .builder()
+            .method("COPY")
+            .endpoint(objectEndpoint)
+            .addHeader("Destination", "/otherContainer/otherObject")
+            .addHeader("X-Auth-Token", authToken).build();
+
+      HttpResponse copyResponse = HttpResponse.builder().statusCode(201).build();
+
+      SwiftApi apiWhenObjectExists = requestsSendResponses(keystoneAuthWithUsernameAndPassword,
+            responseWithKeystoneAccess, copy, copyResponse);
+
+      assertTrue(apiWhenObjectExists.getObjectApiForRegion("region-a.geo-1").copyTo("myContainer", "myObject",
+            "otherContainer", "otherObject"));
+   }
+
+   public void testUpdateMetadataWhenResponseIs2xx() throws Exception {
+      HttpRequest post = HttpRequest
+            .builder()
+            .method("POST")
+            .endpoint(objectEndpoint)
+            .addHeader("X-Object-Meta-Apiname", "swift")
+            .addHeader("X-Auth-Token", authToken).build();
+
+      HttpResponse postResponse = HttpResponse.builder().statusCode(202).build();
+
+      SwiftApi apiWhenObjectExists = requestsSendResponses(keystoneAuthWithUsernameAndPassword,
+            responseWithKeystoneAccess, post, postResponse);
+
+      assertTrue(apiWhenObjectExists.getObjectApiForRegion("region-a.geo-1").updateMetadata("myContainer",
+            "myObject", ImmutableMap.of("apiname", "swift")));
+   }
+
+   public void testUpdateMetadataWhenResponseIs404() throws Exception {
+      HttpRequest post = HttpRequest
+            .builder()
+            .method("POST")
+            .endpoint(objectEndpoint)
+            .addHeader("X-Object-Meta-Apiname", "swift")
+            .addHeader("X-Auth-Token", authToken).build();
+
+      HttpResponse postResponse = HttpResponse.builder().statusCode(404).build();
+
+      SwiftApi apiWhenNoObjectExists = requestsSendResponses(keystoneAuthWithUsernameAndPassword,
+            responseWithKeystoneAccess, post, postResponse);
+
+      assertFalse(apiWhenNoObjectExists.getObjectApiForRegion("region-a.geo-1").updateMetadata("myContainer",
+            "myObject", ImmutableMap.of("apiname", "swift")));
+   }
+
+   public void testUpdateMetadataWithDeleteAfter() throws Exception {
+      HttpRequest post = HttpRequest
+            .builder()
+            .method("POST")
+            .endpoint(objectEndpoint)
+            .addHeader("X-Object-Meta-Apiname", "swift")
+            .addHeader("X-Delete-After", "86400")
+            .addHeader("X-Auth-Token", authToken).build();
+
+      HttpResponse postResponse = HttpResponse.builder().statusCode(202).build();
+
+      SwiftApi apiWhenObjectExists = requestsSendResponses(keystoneAuthWithUsernameAndPassword,
+            responseWithKeystoneAccess, post, postResponse);
+
+      assertTrue(apiWhenObjectExists.getObjectApiForRegion("region-a.geo-1").updateMetadata("myContainer",
+            "myObject", ImmutableMap.of("apiname", "swift"), deleteAfter(86400)));
+   }
 }
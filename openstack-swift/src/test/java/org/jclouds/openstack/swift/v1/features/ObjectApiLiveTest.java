@@ -18,6 +18,11 @@
  */
 package org.jclouds.openstack.swift.v1.features;
 
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+
+import org.jclouds.openstack.swift.v1.domain.Container;
+import org.jclouds.openstack.swift.v1.domain.SwiftObject;
 import org.jclouds.openstack.swift.v1.internal.BaseSwiftApiLiveTest;
 import org.testng.annotations.Test;
 
@@ -27,4 +32,18 @@ import org.testng.annotations.Test;
 @Test(groups = "live", testName = "ObjectApiLiveTest")
 public class ObjectApiLiveTest extends BaseSwiftApiLiveTest {
 
+   @Test
+   public void testListAndHeadObjects() throws Exception {
+      for (String regionId : api.getConfiguredRegions()) {
+         ObjectApi objectApi = api.getObjectApiForRegion(regionId);
+         for (Container container : api.getContainerApiForRegion(regionId).list()) {
+            for (SwiftObject object : objectApi.list(container.getName()).limit(10)) {
+               assertNotNull(object.getName());
+               SwiftObject head = objectApi.head(container.getName(), object.getName());
+               assertNotNull(head);
+               assertEquals(head.getEtag(), object.getEtag());
+            }
+         }
+      }
+   }
 }
@@ -0,0 +1,84 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.functions.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import org.jclouds.collect.IterableWithMarker;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.openstack.swift.v1.domain.Container;
+import org.jclouds.openstack.swift.v1.parse.ParseContainerListTest;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * @author Adrian Cole
+ */
+@Test(groups = "unit", testName = "ParseContainersTest")
+public class ParseContainersTest {
+
+   public void testShortPageHasLastNameAsMarker() {
+      IterableWithMarker<Container> page = new ParseContainers().apply(HttpResponse.builder().statusCode(200)
+            .payload(getClass().getResourceAsStream("/container_list.json")).build());
+
+      assertEquals(page.toSet(), new ParseContainerListTest().expected());
+      assertEquals(page.nextMarker().get(), "test_container_2");
+   }
+
+   public void testEmptyPageHasNoMarker() {
+      IterableWithMarker<Container> page = new ParseContainers().apply(HttpResponse.builder().statusCode(200)
+            .payload("[]").build());
+
+      assertTrue(page.isEmpty());
+      assertFalse(page.nextMarker().isPresent());
+   }
+
+   public void testBytesAndCountOverTwoGigabytes() {
+      IterableWithMarker<Container> page = new ParseContainers().apply(HttpResponse.builder().statusCode(200)
+            .payload("[{\"name\":\"backups\",\"count\":3000000000,\"bytes\":5368709120,\"extra\":[1,2]}]")
+            .build());
+
+      assertEquals(page.toList(), ImmutableList.of(Container.builder().name("backups").count(3000000000l)
+            .bytes(5368709120l).build()));
+   }
+
+   public void testNoContentIsEmpty() {
+      IterableWithMarker<Container> page = new ParseContainers().apply(HttpResponse.builder().statusCode(204)
+            .build());
+
+      assertTrue(page.isEmpty());
+   }
+
+   public void testFullPageHasLastNameAsMarker() {
+      ParseContainers parser = new ParseContainers();
+      StringBuilder json = new StringBuilder("[");
+      for (int i = 0; i < 10000; i++)
+         json.append(i > 0 ? "," : "").append("{\"name\":\"c").append(i).append("\",\"count\":0,\"bytes\":0}");
+      IterableWithMarker<Container> page = parser.apply(HttpResponse.builder().statusCode(200)
+            .payload(json.append("]").toString()).build());
+
+      assertEquals(page.size(), 10000);
+      assertEquals(page.nextMarker().get(), "c9999");
+      assertEquals(ImmutableSet.copyOf(page).size(), 10000);
+   }
+}
@@ -0,0 +1,133 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.io;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.getCurrentArguments;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+import org.easymock.IAnswer;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.openstack.swift.v1.features.ObjectApi;
+import org.jclouds.util.Strings2;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
+
+/**
+ * @author Adrian Cole
+ */
+@Test(groups = "unit", testName = "Md5ComputingPayloadTest")
+public class Md5ComputingPayloadTest {
+
+   static final String HELLO_WORLD_MD5 = "5eb63bbbe01eeed093cb22bb8f5acdc3";
+
+   /**
+    * Reads the uploaded payload as the http transport would, then answers with an ETag.
+    */
+   static IAnswer<String> consumeAndReturn(final String etag) {
+      return new IAnswer<String>() {
+         @Override
+         public String answer() {
+            Payload payload = (Payload) getCurrentArguments()[2];
+            try {
+               assertEquals(payload.getContentMetadata().getContentType(), "text/plain");
+               Strings2.toStringAndClose(payload.getInput());
+            } catch (IOException e) {
+               throw Throwables.propagate(e);
+            }
+            return etag;
+         }
+      };
+   }
+
+   public void testMatchingEtagIsReturned() {
+      ObjectApi objectApi = createMock(ObjectApi.class);
+      expect(objectApi.put(eq("container"), eq("name"), anyObject(Payload.class), eq(ImmutableMap.of("a", "b"))))
+            .andAnswer(consumeAndReturn("\"" + HELLO_WORLD_MD5 + "\""));
+      replay(objectApi);
+
+      assertEquals(Md5ComputingPayload.put(objectApi, "container", "name", payload("hello world"),
+            ImmutableMap.of("a", "b")), HELLO_WORLD_MD5);
+      verify(objectApi);
+   }
+
+   public void testMismatchedEtagFails() {
+      ObjectApi objectApi = createMock(ObjectApi.class);
+      expect(objectApi.put(eq("container"), eq("name"), anyObject(Payload.class), anyObject(Map.class)))
+            .andAnswer(consumeAndReturn("5d41402abc4b2a76b9719d911017c592"));
+      replay(objectApi);
+
+      try {
+         Md5ComputingPayload.put(objectApi, "container", "name", payload("hello world"));
+         fail("expected mismatch");
+      } catch (IllegalStateException e) {
+         assertEquals(e.getMessage(), "sent 11 bytes with MD5 " + HELLO_WORLD_MD5
+               + ", but the stored object has ETag 5d41402abc4b2a76b9719d911017c592");
+      }
+      verify(objectApi);
+   }
+
+   public void testShortPayloadFailsTheStream() throws IOException {
+      Payload source = payload("hello");
+      source.getContentMetadata().setContentLength(11l);
+      Md5ComputingPayload computing = Md5ComputingPayload.wrap(source);
+      try {
+         Strings2.toStringAndClose(computing.getPayload().getInput());
+         fail("expected short read");
+      } catch (IOException e) {
+         assertEquals(e.getMessage(), "payload ended after 5 of its 11 bytes");
+      }
+   }
+
+   public void testReadingTheContentLengthWithoutEndOfStreamFinishes() throws IOException {
+      Payload source = payload("hello world");
+      source.getContentMetadata().setContentLength(11l);
+      Md5ComputingPayload computing = Md5ComputingPayload.wrap(source);
+      InputStream in = computing.getPayload().getInput();
+      // as a transport sending exactly the content length does, never reading the end of stream
+      ByteStreams.readFully(in, new byte[11]);
+      assertEquals(computing.getMd5(), HELLO_WORLD_MD5);
+      in.close();
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void testMd5RequiresWholePayload() {
+      Md5ComputingPayload.wrap(payload("hello world")).getMd5();
+   }
+
+   static Payload payload(String content) {
+      Payload payload = Payloads.newStringPayload(content);
+      payload.getContentMetadata().setContentType("text/plain");
+      return payload;
+   }
+}
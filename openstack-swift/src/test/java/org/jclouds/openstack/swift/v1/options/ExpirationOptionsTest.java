@@ -0,0 +1,101 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.options;
+
+import static org.jclouds.openstack.swift.v1.options.ExpirationOptions.Builder.deleteAfter;
+import static org.jclouds.openstack.swift.v1.options.ExpirationOptions.Builder.deleteAt;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.util.Date;
+
+import org.jclouds.http.options.HttpRequestOptions;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests possible uses of ExpirationOptions and ExpirationOptions.Builder.*
+ * 
+ * @author Adrian Cole
+ */
+@Test(testName = "ExpirationOptionsTest")
+public class ExpirationOptionsTest {
+
+   @Test
+   public void testAssignability() {
+      assert HttpRequestOptions.class.isAssignableFrom(ExpirationOptions.class);
+      assert !String.class.isAssignableFrom(ExpirationOptions.class);
+   }
+
+   @Test
+   public void testNoOptionsHeaders() {
+      HttpRequestOptions options = new ExpirationOptions();
+      assertEquals(options.buildRequestHeaders().size(), 0);
+   }
+
+   @Test
+   public void testDeleteAt() {
+      ExpirationOptions options = new ExpirationOptions();
+      options.deleteAt(1370000000L);
+      assertEquals(options.buildRequestHeaders().get("X-Delete-At"), ImmutableList.of("1370000000"));
+      assertEquals(options.getDeleteAt(), Long.valueOf(1370000000L));
+   }
+
+   @Test
+   public void testDeleteAtDateIsRoundedDownToSeconds() {
+      ExpirationOptions options = deleteAt(new Date(1370000000999L));
+      assertEquals(options.buildRequestHeaders().get("X-Delete-At"), ImmutableList.of("1370000000"));
+   }
+
+   @Test
+   public void testDeleteAtStatic() {
+      ExpirationOptions options = deleteAt(1370000000L);
+      assertEquals(options.buildRequestHeaders().get("X-Delete-At"), ImmutableList.of("1370000000"));
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testDeleteAtNegative() {
+      deleteAt(-1);
+   }
+
+   @Test(expectedExceptions = NullPointerException.class)
+   public void testDeleteAtNPE() {
+      deleteAt(null);
+   }
+
+   @Test
+   public void testDeleteAfterStatic() {
+      ExpirationOptions options = deleteAfter(86400);
+      assertEquals(options.buildRequestHeaders().get("X-Delete-After"), ImmutableList.of("86400"));
+      assertEquals(options.getDeleteAfter(), Long.valueOf(86400));
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testDeleteAfterZero() {
+      deleteAfter(0);
+   }
+
+   @Test
+   public void testLastExpiryWins() {
+      ExpirationOptions options = deleteAt(1370000000L).deleteAfter(86400);
+      assertEquals(options.buildRequestHeaders().get("X-Delete-After"), ImmutableList.of("86400"));
+      assertNull(options.getDeleteAt());
+   }
+}
@@ -18,8 +18,11 @@
  */
 package org.jclouds.openstack.swift.v1.options;
 
+import static org.jclouds.openstack.swift.v1.options.ListContainersOptions.Builder.delimiter;
+import static org.jclouds.openstack.swift.v1.options.ListContainersOptions.Builder.endMarker;
 import static org.jclouds.openstack.swift.v1.options.ListContainersOptions.Builder.limit;
 import static org.jclouds.openstack.swift.v1.options.ListContainersOptions.Builder.marker;
+import static org.jclouds.openstack.swift.v1.options.ListContainersOptions.Builder.prefix;
 import static org.testng.Assert.assertEquals;
 
 import com.google.common.collect.ImmutableList;
@@ -93,4 +96,28 @@ public class ListContainersOptionsTest {
    public void testLimitNegative() {
       limit(-1);
    }
+
+   @Test
+   public void testEndMarkerStatic() {
+      ListContainersOptions options = endMarker("test");
+      assertEquals(options.buildQueryParameters().get("end_marker"), ImmutableList.of("test"));
+   }
+
+   @Test(expectedExceptions = NullPointerException.class)
+   public void testEndMarkerNPE() {
+      endMarker(null);
+   }
+
+   @Test
+   public void testPrefixStatic() {
+      ListContainersOptions options = prefix("test");
+      assertEquals(options.buildQueryParameters().get("prefix"), ImmutableList.of("test"));
+   }
+
+   @Test
+   public void testDelimiterStatic() {
+      ListContainersOptions options = delimiter('/');
+      assertEquals(options.buildQueryParameters().get("delimiter"), ImmutableList.of("/"));
+      assertEquals(options.getDelimiter(), "/");
+   }
 }
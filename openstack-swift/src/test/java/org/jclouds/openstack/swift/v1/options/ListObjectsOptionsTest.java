@@ -0,0 +1,99 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.options;
+
+import static org.jclouds.openstack.swift.v1.options.ListObjectsOptions.Builder.delimiter;
+import static org.jclouds.openstack.swift.v1.options.ListObjectsOptions.Builder.endMarker;
+import static org.jclouds.openstack.swift.v1.options.ListObjectsOptions.Builder.limit;
+import static org.jclouds.openstack.swift.v1.options.ListObjectsOptions.Builder.marker;
+import static org.jclouds.openstack.swift.v1.options.ListObjectsOptions.Builder.path;
+import static org.jclouds.openstack.swift.v1.options.ListObjectsOptions.Builder.prefix;
+import static org.testng.Assert.assertEquals;
+
+import org.jclouds.http.options.HttpRequestOptions;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests possible uses of ListObjectsOptions and ListObjectsOptions.Builder.*
+ * 
+ * @author Adrian Cole
+ */
+@Test(testName = "ListObjectsOptionsTest")
+public class ListObjectsOptionsTest {
+
+   @Test
+   public void testAssignability() {
+      assert HttpRequestOptions.class.isAssignableFrom(ListObjectsOptions.class);
+      assert !String.class.isAssignableFrom(ListObjectsOptions.class);
+   }
+
+   @Test
+   public void testNoOptionsQueryString() {
+      HttpRequestOptions options = new ListObjectsOptions();
+      assertEquals(options.buildQueryParameters().size(), 0);
+   }
+
+   @Test
+   public void testMarkerStatic() {
+      ListObjectsOptions options = marker("test");
+      assertEquals(options.buildQueryParameters().get("marker"), ImmutableList.of("test"));
+   }
+
+   @Test
+   public void testEndMarkerStatic() {
+      ListObjectsOptions options = endMarker("test");
+      assertEquals(options.buildQueryParameters().get("end_marker"), ImmutableList.of("test"));
+   }
+
+   @Test
+   public void testLimitStatic() {
+      ListObjectsOptions options = limit(1000);
+      assertEquals(options.buildQueryParameters().get("limit"), ImmutableList.of("1000"));
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void testLimitNegative() {
+      limit(-1);
+   }
+
+   @Test
+   public void testPrefixStatic() {
+      ListObjectsOptions options = prefix("test");
+      assertEquals(options.buildQueryParameters().get("prefix"), ImmutableList.of("test"));
+   }
+
+   @Test(expectedExceptions = NullPointerException.class)
+   public void testPrefixNPE() {
+      prefix(null);
+   }
+
+   @Test
+   public void testDelimiterStatic() {
+      ListObjectsOptions options = delimiter('/');
+      assertEquals(options.buildQueryParameters().get("delimiter"), ImmutableList.of("/"));
+   }
+
+   @Test
+   public void testPathStatic() {
+      ListObjectsOptions options = path("photos");
+      assertEquals(options.buildQueryParameters().get("path"), ImmutableList.of("photos"));
+   }
+}
@@ -47,13 +47,13 @@ public class ParseContainerListTest extends BaseSetParserTest<Container> {
       return ImmutableSet
             .of(Container.builder()
                   .name("test_container_1")
-                  .count(2)
-                  .bytes(78)
+                  .count(2l)
+                  .bytes(78l)
                   .build(),
                 Container.builder()
                   .name("test_container_2")
-                  .count(1)
-                  .bytes(17)
+                  .count(1l)
+                  .bytes(17l)
                   .build());
    }
 }
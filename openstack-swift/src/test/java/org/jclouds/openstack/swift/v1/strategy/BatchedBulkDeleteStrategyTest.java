@@ -0,0 +1,119 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.strategy;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+
+import java.util.List;
+
+import org.jclouds.openstack.swift.v1.SwiftApi;
+import org.jclouds.openstack.swift.v1.domain.BulkDeleteResponse;
+import org.jclouds.openstack.swift.v1.features.BulkApi;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+
+/**
+ * @author Adrian Cole
+ */
+@Test(groups = "unit", testName = "BatchedBulkDeleteStrategyTest")
+public class BatchedBulkDeleteStrategyTest {
+
+   public void testPathsAreDeletedInBatchesOf10000() {
+      List<String> paths = Lists.newArrayList();
+      for (int i = 0; i < 25000; i++)
+         paths.add("container/" + i);
+
+      BulkApi bulkApi = createMock(BulkApi.class);
+      SwiftApi api = apiFor(bulkApi);
+      expect(bulkApi.bulkDelete(paths.subList(0, 10000))).andReturn(
+            BulkDeleteResponse.builder().deleted(10000).build());
+      expect(bulkApi.bulkDelete(paths.subList(10000, 20000))).andReturn(
+            BulkDeleteResponse.builder().deleted(9999).notFound(1).build());
+      expect(bulkApi.bulkDelete(paths.subList(20000, 25000))).andReturn(
+            BulkDeleteResponse.builder().deleted(5000).build());
+      replay(api, bulkApi);
+
+      BulkDeleteResponse response = new BatchedBulkDeleteStrategy(api).delete("region", paths);
+      assertEquals(response, BulkDeleteResponse.builder().deleted(24999).notFound(1).build());
+      verify(api, bulkApi);
+   }
+
+   public void testErrorsAreKeyedOnRequestedPaths() {
+      List<String> paths = ImmutableList.of("container/my object", "container/other", "container");
+
+      BulkApi bulkApi = createMock(BulkApi.class);
+      SwiftApi api = apiFor(bulkApi);
+      expect(bulkApi.bulkDelete(paths)).andReturn(
+            BulkDeleteResponse.builder().deleted(1).responseStatus("400 Bad Request")
+                  .error("/container/my%20object", "503 Service Unavailable").error("/container", "409 Conflict")
+                  .build());
+      replay(api, bulkApi);
+
+      BulkDeleteResponse response = new BatchedBulkDeleteStrategy(api).delete("region", paths);
+      assertEquals(response.getErrors(), ImmutableMap.of("container/my object", "503 Service Unavailable",
+            "container", "409 Conflict"));
+      verify(api, bulkApi);
+   }
+
+   public void testStatusOfARequestWithErrorsIsKept() {
+      List<String> paths = ImmutableList.of("container/a", "container/b");
+
+      BulkApi bulkApi = createMock(BulkApi.class);
+      SwiftApi api = apiFor(bulkApi);
+      expect(bulkApi.bulkDelete(paths)).andReturn(
+            BulkDeleteResponse.builder().deleted(1).responseStatus("400 Bad Request")
+                  .responseBody("Errors: /container/b, 409 Conflict").error("/container/b", "409 Conflict").build());
+      replay(api, bulkApi);
+
+      BulkDeleteResponse response = new BatchedBulkDeleteStrategy(api).delete("region", paths);
+      assertEquals(response.getErrors(), ImmutableMap.of("container/b", "409 Conflict"));
+      assertEquals(response.getResponseStatus(), "400 Bad Request");
+      assertEquals(response.getResponseBody(), "Errors: /container/b, 409 Conflict");
+      verify(api, bulkApi);
+   }
+
+   public void testEveryPathOfAFailedRequestIsReported() {
+      List<String> paths = ImmutableList.of("container/a", "container/b");
+
+      BulkApi bulkApi = createMock(BulkApi.class);
+      SwiftApi api = apiFor(bulkApi);
+      expect(bulkApi.bulkDelete(paths)).andReturn(
+            BulkDeleteResponse.builder().responseStatus("413 Request Entity Too Large").build());
+      replay(api, bulkApi);
+
+      BulkDeleteResponse response = new BatchedBulkDeleteStrategy(api).delete("region", paths);
+      assertEquals(response.getErrors(), ImmutableMap.of("container/a", "413 Request Entity Too Large",
+            "container/b", "413 Request Entity Too Large"));
+      assertEquals(response.getResponseStatus(), "413 Request Entity Too Large");
+      verify(api, bulkApi);
+   }
+
+   private static SwiftApi apiFor(BulkApi bulkApi) {
+      SwiftApi api = createMock(SwiftApi.class);
+      expect(api.getBulkApiForRegion("region")).andReturn(bulkApi);
+      return api;
+   }
+}
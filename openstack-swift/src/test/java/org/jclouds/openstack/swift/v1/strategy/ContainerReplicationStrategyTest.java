@@ -0,0 +1,186 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.strategy;
+
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.same;
+import static org.easymock.EasyMock.verify;
+import static org.jclouds.openstack.swift.v1.strategy.ContainerReplicationStrategy.SWIFT_ORDER;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.net.URI;
+import java.util.Map;
+
+import org.jclouds.collect.IterableWithMarkers;
+import org.jclouds.collect.PagedIterable;
+import org.jclouds.collect.PagedIterables;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.openstack.swift.v1.SwiftApi;
+import org.jclouds.openstack.swift.v1.domain.SwiftObject;
+import org.jclouds.openstack.swift.v1.features.ContainerApi;
+import org.jclouds.openstack.swift.v1.features.ObjectApi;
+import org.jclouds.openstack.swift.v1.strategy.ContainerReplicationStrategy.Result;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * @author Adrian Cole
+ */
+@Test(groups = "unit", testName = "ContainerReplicationStrategyTest")
+public class ContainerReplicationStrategyTest {
+
+   public void testOnlyNewAndChangedObjectsAreCopied() {
+      ObjectApi source = createMock(ObjectApi.class);
+      ObjectApi destination = createMock(ObjectApi.class);
+      ContainerApi destinationContainers = createMock(ContainerApi.class);
+      SwiftApi api = createMock(SwiftApi.class);
+      expect(api.getObjectApiForRegion("east")).andReturn(source).anyTimes();
+      expect(api.getObjectApiForRegion("west")).andReturn(destination).anyTimes();
+      expect(api.getContainerApiForRegion("west")).andReturn(destinationContainers).anyTimes();
+
+      expect(source.listAll("container")).andReturn(listing(
+            object("changed", "bbb", 11), object("new", "ccc", 3), object("same", "aaa", 5)));
+      expect(destination.listAll("container")).andReturn(listing(
+            object("changed", "old", 7), object("extra", "ddd", 1), object("same", "aaa", 5)));
+      destinationContainers.create("container");
+      SwiftObject changed = object("changed", "bbb", 11);
+      expect(source.get("container", "changed")).andReturn(changed);
+      expect(destination.put(eq("container"), eq("changed"), same(changed.getPayload()),
+            eq(changed.getMetadata()))).andReturn("bbb");
+      destination.delete("container", "extra");
+      SwiftObject created = object("new", "ccc", 3);
+      expect(source.get("container", "new")).andReturn(created);
+      expect(destination.put(eq("container"), eq("new"), same(created.getPayload()),
+            eq(created.getMetadata()))).andReturn("ccc");
+      replay(api, source, destination, destinationContainers);
+
+      Result result = new ContainerReplicationStrategy(api, sameThreadExecutor(), 4).replicate("east", "container",
+            "west", true);
+      assertEquals(result.getCopied(), 2);
+      assertEquals(result.getBytesCopied(), 14);
+      assertEquals(result.getUnchanged(), 1);
+      assertEquals(result.getDeleted(), 1);
+      assertEquals(result.getFailed(), ImmutableMap.of());
+      verify(api, source, destination, destinationContainers);
+   }
+
+   public void testCorruptCopyIsReported() {
+      ObjectApi source = createMock(ObjectApi.class);
+      ObjectApi destination = createMock(ObjectApi.class);
+      ContainerApi destinationContainers = createMock(ContainerApi.class);
+      SwiftApi api = createMock(SwiftApi.class);
+      expect(api.getObjectApiForRegion("east")).andReturn(source).anyTimes();
+      expect(api.getObjectApiForRegion("west")).andReturn(destination).anyTimes();
+      expect(api.getContainerApiForRegion("west")).andReturn(destinationContainers).anyTimes();
+
+      expect(source.listAll("container")).andReturn(listing(object("new", "ccc", 3)));
+      expect(destination.listAll("container")).andReturn(listing());
+      destinationContainers.create("container");
+      SwiftObject created = object("new", "ccc", 3);
+      expect(source.get("container", "new")).andReturn(created);
+      expect(destination.put(eq("container"), eq("new"), same(created.getPayload()),
+            eq(created.getMetadata()))).andReturn("fff");
+      replay(api, source, destination, destinationContainers);
+
+      Result result = new ContainerReplicationStrategy(api, sameThreadExecutor(), 4).replicate("east", "container",
+            "west", false);
+      assertEquals(result.getCopied(), 0);
+      Map<String, Throwable> failed = result.getFailed();
+      assertTrue(failed.get("new") instanceof IllegalStateException, failed.toString());
+      verify(api, source, destination, destinationContainers);
+   }
+
+   public void testManifestIsCopiedWithoutCheckingItsETag() {
+      ObjectApi source = createMock(ObjectApi.class);
+      ObjectApi destination = createMock(ObjectApi.class);
+      ContainerApi destinationContainers = createMock(ContainerApi.class);
+      SwiftApi api = createMock(SwiftApi.class);
+      expect(api.getObjectApiForRegion("east")).andReturn(source).anyTimes();
+      expect(api.getObjectApiForRegion("west")).andReturn(destination).anyTimes();
+      expect(api.getContainerApiForRegion("west")).andReturn(destinationContainers).anyTimes();
+
+      // a dynamic large object lists as its empty manifest
+      expect(source.listAll("container")).andReturn(listing(object("big", "d41d8cd98f00b204e9800998ecf8427e", 0)));
+      expect(destination.listAll("container")).andReturn(listing());
+      destinationContainers.create("container");
+      SwiftObject manifest = object("big", "segments", 8).toBuilder().manifest(true).build();
+      expect(source.get("container", "big")).andReturn(manifest);
+      expect(destination.put(eq("container"), eq("big"), same(manifest.getPayload()),
+            eq(manifest.getMetadata()))).andReturn("content");
+      replay(api, source, destination, destinationContainers);
+
+      Result result = new ContainerReplicationStrategy(api, sameThreadExecutor(), 4).replicate("east", "container",
+            "west", false);
+      assertEquals(result.getCopied(), 1);
+      assertEquals(result.getBytesCopied(), 8);
+      assertEquals(result.getFailed(), ImmutableMap.of());
+      verify(api, source, destination, destinationContainers);
+   }
+
+   public void testManifestOfTheSameLengthIsNotCopiedAgain() {
+      ObjectApi source = createMock(ObjectApi.class);
+      ObjectApi destination = createMock(ObjectApi.class);
+      SwiftApi api = createMock(SwiftApi.class);
+      expect(api.getObjectApiForRegion("east")).andReturn(source).anyTimes();
+      expect(api.getObjectApiForRegion("west")).andReturn(destination).anyTimes();
+      expect(api.getContainerApiForRegion("west")).andReturn(createMock(ContainerApi.class)).anyTimes();
+
+      expect(source.listAll("container")).andReturn(listing(object("big", "d41d8cd98f00b204e9800998ecf8427e", 0)));
+      expect(destination.listAll("container")).andReturn(listing(object("big", "content", 8)));
+      expect(source.get("container", "big")).andReturn(
+            object("big", "segments", 8).toBuilder().manifest(true).build());
+      replay(api, source, destination);
+
+      Result result = new ContainerReplicationStrategy(api, sameThreadExecutor(), 4).replicate("east", "container",
+            "west", false);
+      assertEquals(result.getCopied(), 0);
+      assertEquals(result.getUnchanged(), 1);
+      assertEquals(result.getFailed(), ImmutableMap.of());
+      verify(api, source, destination);
+   }
+
+   public void testSwiftOrderIsCodePointOrder() {
+      // U+1D11E sorts after U+FFFD in UTF-8, though its surrogates sort before it in UTF-16
+      String clef = new String(Character.toChars(0x1D11E));
+      assertTrue("\uFFFD".compareTo(clef) > 0);
+      assertTrue(SWIFT_ORDER.compare("\uFFFD", clef) < 0);
+      assertTrue(SWIFT_ORDER.compare("a", "ab") < 0);
+      assertTrue(SWIFT_ORDER.compare("b", "ab") > 0);
+      assertEquals(SWIFT_ORDER.compare(clef, clef), 0);
+   }
+
+   private static PagedIterable<SwiftObject> listing(SwiftObject... objects) {
+      return PagedIterables.of(IterableWithMarkers.from(ImmutableList.copyOf(objects)));
+   }
+
+   private static SwiftObject object(String name, String etag, long bytes) {
+      Payload payload = Payloads.newByteArrayPayload(new byte[(int) bytes]);
+      payload.getContentMetadata().setContentLength(bytes);
+      return SwiftObject.builder().name(name).uri(URI.create("https://objects/container/" + name)).etag(etag)
+            .metadata(ImmutableMap.of("owner", "ops")).payload(payload).build();
+   }
+}
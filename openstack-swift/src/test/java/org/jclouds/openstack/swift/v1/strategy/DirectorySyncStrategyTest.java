@@ -0,0 +1,161 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.strategy;
+
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+
+import org.jclouds.collect.IterableWithMarkers;
+import org.jclouds.collect.PagedIterable;
+import org.jclouds.collect.PagedIterables;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.openstack.swift.v1.SwiftApi;
+import org.jclouds.openstack.swift.v1.domain.SwiftObject;
+import org.jclouds.openstack.swift.v1.features.ContainerApi;
+import org.jclouds.openstack.swift.v1.features.ObjectApi;
+import org.jclouds.openstack.swift.v1.options.ListObjectsOptions;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Files;
+
+/**
+ * @author Adrian Cole
+ */
+@Test(groups = "unit", testName = "DirectorySyncStrategyTest")
+public class DirectorySyncStrategyTest {
+
+   static final String HELLO_MD5 = "5d41402abc4b2a76b9719d911017c592";
+   static final String HELLO_WORLD_MD5 = "5eb63bbbe01eeed093cb22bb8f5acdc3";
+
+   public void testOnlyDifferencesAreTransferred() throws IOException {
+      File root = Files.createTempDir();
+      File directory = new File(root, "build");
+      Files.createParentDirs(new File(directory, "lib/app.jar"));
+      Files.write("hello", new File(directory, "same.txt"), Charsets.UTF_8);
+      Files.write("hello world", new File(directory, "changed.txt"), Charsets.UTF_8);
+      Files.write("hello", new File(directory, "lib/app.jar"), Charsets.UTF_8);
+
+      ObjectApi objectApi = createMock(ObjectApi.class);
+      ContainerApi containerApi = createMock(ContainerApi.class);
+      SwiftApi api = apiFor(objectApi, containerApi);
+      expect(objectApi.listAll(eq("container"), anyObject(ListObjectsOptions.class))).andReturn(listing(
+            object("builds/changed.txt", HELLO_MD5, 11), object("builds/old.txt", HELLO_MD5, 5),
+            object("builds/same.txt", HELLO_MD5, 5)));
+      containerApi.create("container");
+      expect(objectApi.put(eq("container"), eq("builds/changed.txt"), anyObject(Payload.class))).andReturn(
+            HELLO_WORLD_MD5);
+      expect(objectApi.put(eq("container"), eq("builds/lib/app.jar"), anyObject(Payload.class))).andReturn(
+            HELLO_MD5);
+      objectApi.delete("container", "builds/old.txt");
+      replay(api, objectApi, containerApi);
+
+      DirectorySyncStrategy.Result result = strategy(api).sync("region", directory, "container", "builds/",
+            new File(root, "index"), true);
+      assertEquals(result.getUploaded(), ImmutableSet.of("builds/changed.txt", "builds/lib/app.jar"));
+      assertEquals(result.getDeleted(), ImmutableSet.of("builds/old.txt"));
+      assertEquals(result.getUnchanged(), 1);
+      // changed.txt has the same size as its object, so it had to be hashed, as did same.txt
+      assertEquals(result.getHashed(), 2);
+      assertEquals(result.getFailed().size(), 0);
+      verify(api, objectApi, containerApi);
+   }
+
+   public void testUnchangedTreeCostsOneListingAndNoHashing() throws IOException {
+      File root = Files.createTempDir();
+      File directory = new File(root, "build");
+      directory.mkdir();
+      Files.write("hello", new File(directory, "a.txt"), Charsets.UTF_8);
+      Files.write("hello world", new File(directory, "b.txt"), Charsets.UTF_8);
+      File indexFile = new File(root, "index");
+
+      ObjectApi objectApi = createMock(ObjectApi.class);
+      ContainerApi containerApi = createMock(ContainerApi.class);
+      SwiftApi api = apiFor(objectApi, containerApi);
+      expect(objectApi.listAll("container")).andReturn(
+            listing(object("a.txt", HELLO_MD5, 5), object("b.txt", HELLO_WORLD_MD5, 11))).times(2);
+      replay(api, objectApi, containerApi);
+
+      assertEquals(strategy(api).sync("region", directory, "container", null, indexFile, false).getHashed(), 2);
+      DirectorySyncStrategy.Result rerun = strategy(api).sync("region", directory, "container", null, indexFile,
+            false);
+      assertEquals(rerun.getUnchanged(), 2);
+      assertEquals(rerun.getHashed(), 0);
+      assertEquals(rerun.getUploaded(), ImmutableSet.of());
+      verify(api, objectApi, containerApi);
+   }
+
+   public void testFailedUploadIsReported() throws IOException {
+      File root = Files.createTempDir();
+      File directory = new File(root, "build");
+      directory.mkdir();
+      Files.write("hello", new File(directory, "a.txt"), Charsets.UTF_8);
+
+      ObjectApi objectApi = createMock(ObjectApi.class);
+      ContainerApi containerApi = createMock(ContainerApi.class);
+      SwiftApi api = apiFor(objectApi, containerApi);
+      expect(objectApi.listAll("container")).andReturn(listing());
+      containerApi.create("container");
+      expectLastCall();
+      expect(objectApi.put(eq("container"), eq("a.txt"), anyObject(Payload.class))).andThrow(
+            new RuntimeException("timeout"));
+      replay(api, objectApi, containerApi);
+
+      DirectorySyncStrategy.Result result = strategy(api).sync("region", directory, "container", null,
+            new File(root, "index"), false);
+      assertEquals(result.getFailed().keySet(), ImmutableSet.of("a.txt"));
+      verify(api, objectApi, containerApi);
+   }
+
+   private static DirectorySyncStrategy strategy(SwiftApi api) {
+      return new DirectorySyncStrategy(api, sameThreadExecutor(), 2);
+   }
+
+   private static SwiftApi apiFor(ObjectApi objectApi, ContainerApi containerApi) {
+      SwiftApi api = createMock(SwiftApi.class);
+      expect(api.getObjectApiForRegion("region")).andReturn(objectApi).anyTimes();
+      expect(api.getContainerApiForRegion("region")).andReturn(containerApi).anyTimes();
+      return api;
+   }
+
+   private static PagedIterable<SwiftObject> listing(SwiftObject... objects) {
+      return PagedIterables.of(IterableWithMarkers.from(ImmutableList.copyOf(objects)));
+   }
+
+   private static SwiftObject object(String name, String etag, long bytes) {
+      Payload payload = Payloads.newByteArrayPayload(new byte[] {});
+      payload.getContentMetadata().setContentLength(bytes);
+      return SwiftObject.builder().name(name).uri(URI.create("https://objects/container/" + name)).etag(etag)
+            .payload(payload).build();
+   }
+}
@@ -0,0 +1,130 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.strategy;
+
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.jclouds.openstack.swift.v1.options.ExpirationOptions.Builder.deleteAfter;
+import static org.jclouds.openstack.swift.v1.options.ListObjectsOptions.Builder.prefix;
+import static org.testng.Assert.assertEquals;
+
+import java.net.URI;
+import java.util.Date;
+import java.util.Map;
+
+import org.jclouds.collect.IterableWithMarkers;
+import org.jclouds.collect.PagedIterable;
+import org.jclouds.collect.PagedIterables;
+import org.jclouds.openstack.swift.v1.SwiftApi;
+import org.jclouds.openstack.swift.v1.domain.BulkDeleteResponse;
+import org.jclouds.openstack.swift.v1.domain.SwiftObject;
+import org.jclouds.openstack.swift.v1.features.BulkApi;
+import org.jclouds.openstack.swift.v1.features.ObjectApi;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * @author Adrian Cole
+ */
+@Test(groups = "unit", testName = "LifecycleSweepStrategyTest")
+public class LifecycleSweepStrategyTest {
+
+   static final Date CUTOFF = new Date(1000000000000L);
+   static final Date BEFORE = new Date(CUTOFF.getTime() - 1000);
+   static final Date AFTER = new Date(CUTOFF.getTime() + 1000);
+
+   public void testOnlyObjectsModifiedBeforeTheCutoffAreDeleted() {
+      ObjectApi objectApi = createMock(ObjectApi.class);
+      BulkApi bulkApi = createMock(BulkApi.class);
+      SwiftApi api = createMock(SwiftApi.class);
+      expect(api.getObjectApiForRegion("region")).andReturn(objectApi).anyTimes();
+      expect(api.getBulkApiForRegion("region")).andReturn(bulkApi);
+
+      expect(objectApi.listAll("logs", prefix("2013/"))).andReturn(
+            listing(object("2013/a", BEFORE), object("2013/b", AFTER), subdir("2013/c/"), object("2013/d", BEFORE)));
+      expect(bulkApi.bulkDelete(ImmutableList.of("logs/2013/a", "logs/2013/d"))).andReturn(
+            BulkDeleteResponse.builder().deleted(2).build());
+      replay(api, objectApi, bulkApi);
+
+      BulkDeleteResponse response = strategy(api).delete("region", "logs", "2013/", CUTOFF);
+      assertEquals(response, BulkDeleteResponse.builder().deleted(2).build());
+      verify(api, objectApi, bulkApi);
+   }
+
+   public void testNothingToDeleteSendsNoRequest() {
+      ObjectApi objectApi = createMock(ObjectApi.class);
+      SwiftApi api = createMock(SwiftApi.class);
+      expect(api.getObjectApiForRegion("region")).andReturn(objectApi).anyTimes();
+
+      expect(objectApi.listAll("logs")).andReturn(listing(object("recent", AFTER)));
+      replay(api, objectApi);
+
+      BulkDeleteResponse response = strategy(api).delete("region", "logs", null, CUTOFF);
+      assertEquals(response.getDeleted(), 0);
+      verify(api, objectApi);
+   }
+
+   public void testExpiryPreservesMetadata() {
+      ObjectApi objectApi = createMock(ObjectApi.class);
+      SwiftApi api = createMock(SwiftApi.class);
+      expect(api.getObjectApiForRegion("region")).andReturn(objectApi).anyTimes();
+      Map<String, String> metadata = ImmutableMap.of("apiname", "swift");
+
+      expect(objectApi.listAll("logs")).andReturn(
+            listing(object("old", BEFORE), object("gone", BEFORE), object("new", AFTER)));
+      expect(objectApi.head("logs", "old")).andReturn(
+            object("old", BEFORE).toBuilder().metadata(metadata).build());
+      expect(objectApi.updateMetadata("logs", "old", metadata, deleteAfter(86400))).andReturn(true);
+      expect(objectApi.head("logs", "gone")).andReturn(null);
+      replay(api, objectApi);
+
+      ObjectBatchStrategy.Result result = strategy(api).expire("region", "logs", null, CUTOFF, 86400);
+      assertEquals(result.getSucceeded(), 2);
+      assertEquals(result.getFailed(), ImmutableMap.of());
+      verify(api, objectApi);
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testExpiryMustBeInTheFuture() {
+      strategy(createMock(SwiftApi.class)).expire("region", "logs", null, CUTOFF, 0);
+   }
+
+   private static LifecycleSweepStrategy strategy(SwiftApi api) {
+      return new LifecycleSweepStrategy(api, new BatchedBulkDeleteStrategy(api), new ObjectBatchStrategy(api,
+            sameThreadExecutor(), 3, 5, 1));
+   }
+
+   private static PagedIterable<SwiftObject> listing(SwiftObject... objects) {
+      return PagedIterables.of(IterableWithMarkers.from(ImmutableList.copyOf(objects)));
+   }
+
+   private static SwiftObject object(String name, Date lastModified) {
+      return SwiftObject.builder().name(name).uri(URI.create("https://objects/logs/" + name)).etag("etag")
+            .lastModified(lastModified).build();
+   }
+
+   private static SwiftObject subdir(String name) {
+      return SwiftObject.builder().name(name).uri(URI.create("https://objects/logs/" + name)).subdir(true).build();
+   }
+}
@@ -0,0 +1,82 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.strategy;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Files;
+
+/**
+ * @author Adrian Cole
+ */
+@Test(groups = "unit", testName = "LocalHashIndexTest")
+public class LocalHashIndexTest {
+
+   public void testHashIsOnlyComputedWhenFileChanges() throws IOException {
+      File dir = Files.createTempDir();
+      File file = new File(dir, "hello.txt");
+      Files.write("hello", file, Charsets.UTF_8);
+
+      LocalHashIndex index = LocalHashIndex.load(new File(dir, "index"));
+      assertEquals(index.md5("hello.txt", file), "5d41402abc4b2a76b9719d911017c592");
+      assertEquals(index.md5("hello.txt", file), "5d41402abc4b2a76b9719d911017c592");
+      assertEquals(index.getHashed(), 1);
+
+      Files.write("hello world", file, Charsets.UTF_8);
+      assertNull(index.getIfCurrent("hello.txt", file));
+      assertEquals(index.md5("hello.txt", file), "5eb63bbbe01eeed093cb22bb8f5acdc3");
+      assertEquals(index.getHashed(), 2);
+   }
+
+   public void testSavedIndexIsReusedWithoutHashing() throws IOException {
+      File dir = Files.createTempDir();
+      File file = new File(dir, "with space.txt");
+      Files.write("hello", file, Charsets.UTF_8);
+      File indexFile = new File(dir, "index");
+
+      LocalHashIndex index = LocalHashIndex.load(indexFile);
+      index.md5("sub/with space.txt", file);
+      index.save(indexFile);
+
+      LocalHashIndex reloaded = LocalHashIndex.load(indexFile);
+      assertEquals(reloaded.md5("sub/with space.txt", file), "5d41402abc4b2a76b9719d911017c592");
+      assertEquals(reloaded.getHashed(), 0);
+   }
+
+   public void testRetainAllDropsMissingPaths() throws IOException {
+      File dir = Files.createTempDir();
+      File file = new File(dir, "hello.txt");
+      Files.write("hello", file, Charsets.UTF_8);
+
+      LocalHashIndex index = LocalHashIndex.load(new File(dir, "index"));
+      index.put("hello.txt", file, "5D41402ABC4B2A76B9719D911017C592");
+      index.put("gone.txt", file, "5d41402abc4b2a76b9719d911017c592");
+      index.retainAll(ImmutableSet.of("hello.txt"));
+      assertEquals(index.getIfCurrent("hello.txt", file), "5d41402abc4b2a76b9719d911017c592");
+      assertNull(index.getIfCurrent("gone.txt", file));
+   }
+}
@@ -0,0 +1,204 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.strategy;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.openstack.swift.v1.SwiftApi;
+import org.jclouds.openstack.swift.v1.features.ObjectApi;
+import org.jclouds.openstack.swift.v1.strategy.ObjectBatchStrategy.LatencyHistogram;
+import org.jclouds.openstack.swift.v1.strategy.ObjectBatchStrategy.Operation;
+import org.jclouds.openstack.swift.v1.strategy.ObjectBatchStrategy.Result;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * @author Adrian Cole
+ */
+@Test(groups = "unit", testName = "ObjectBatchStrategyTest")
+public class ObjectBatchStrategyTest {
+
+   static HttpResponseException status(int statusCode) {
+      return new HttpResponseException("throttled", null, HttpResponse.builder().statusCode(statusCode).build());
+   }
+
+   /**
+    * The operations in flight against each region, and the most there have ever been.
+    */
+   static class InFlightCounts {
+      final ConcurrentMap<String, AtomicInteger> inFlight = Maps.newConcurrentMap();
+      final ConcurrentMap<String, AtomicInteger> peak = Maps.newConcurrentMap();
+
+      void start(String region) {
+         inFlight.putIfAbsent(region, new AtomicInteger());
+         peak.putIfAbsent(region, new AtomicInteger());
+         int now = inFlight.get(region).incrementAndGet();
+         for (int seen = peak.get(region).get(); now > seen; seen = peak.get(region).get())
+            peak.get(region).compareAndSet(seen, now);
+      }
+
+      void finish(String region) {
+         inFlight.get(region).decrementAndGet();
+      }
+   }
+
+   /**
+    * An operation that takes a few milliseconds, recording itself in flight meanwhile.
+    */
+   static class InFlightRecorder extends Operation {
+      private final InFlightCounts counts;
+
+      InFlightRecorder(InFlightCounts counts, String region, String name) {
+         super(region, "container", name);
+         this.counts = counts;
+      }
+
+      @Override
+      protected void execute(ObjectApi api) {
+         counts.start(region);
+         Uninterruptibles.sleepUninterruptibly(5, TimeUnit.MILLISECONDS);
+         counts.finish(region);
+      }
+   }
+
+   public void testInFlightIsBoundedPerRegion() {
+      SwiftApi api = createMock(SwiftApi.class);
+      expect(api.getObjectApiForRegion("east")).andReturn(createMock(ObjectApi.class)).anyTimes();
+      expect(api.getObjectApiForRegion("west")).andReturn(createMock(ObjectApi.class)).anyTimes();
+      replay(api);
+      InFlightCounts counts = new InFlightCounts();
+      List<Operation> operations = Lists.newArrayList();
+      for (int i = 0; i < 40; i++)
+         operations.add(new InFlightRecorder(counts, i % 2 == 0 ? "east" : "west", "object-" + i));
+
+      ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
+      try {
+         Result result = new ObjectBatchStrategy(api, executor, 3, 5, 1).execute(operations);
+         assertEquals(result.getSucceeded(), 40);
+         assertEquals(result.getFailed().size(), 0);
+         assertTrue(counts.peak.get("east").get() <= 3, counts.peak.toString());
+         assertTrue(counts.peak.get("west").get() <= 3, counts.peak.toString());
+         assertTrue(result.getThroughput() > 0);
+         assertTrue(result.getLatencyPercentile(50) >= 4, result.toString());
+         assertTrue(result.getLatencyPercentile(99) >= result.getLatencyPercentile(50), result.toString());
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   public void testThrottledOperationsAreRetried() {
+      ObjectApi objectApi = createMock(ObjectApi.class);
+      objectApi.delete("container", "busy");
+      expectLastCall().andThrow(status(503));
+      objectApi.delete("container", "busy");
+      expectLastCall().andThrow(status(429));
+      objectApi.delete("container", "busy");
+      objectApi.delete("container", "missing");
+      expectLastCall().andThrow(status(404));
+      replay(objectApi);
+
+      Result result = new ObjectBatchStrategy(apiFor(objectApi), MoreExecutors.sameThreadExecutor(), 3, 5, 1)
+            .execute(Lists.newArrayList(Operation.delete("region", "container", "busy"),
+                  Operation.delete("region", "container", "missing")));
+      assertEquals(result.getSucceeded(), 1);
+      assertEquals(result.getRetries(), 2);
+      assertEquals(result.getFailed().keySet().toString(), "[container/missing]");
+      verify(objectApi);
+   }
+
+   public void testRetriesAreLimited() {
+      ObjectApi objectApi = createMock(ObjectApi.class);
+      objectApi.delete("container", "busy");
+      expectLastCall().andThrow(status(503)).times(3);
+      replay(objectApi);
+
+      Result result = new ObjectBatchStrategy(apiFor(objectApi), MoreExecutors.sameThreadExecutor(), 3, 2, 1)
+            .execute(Lists.newArrayList(Operation.delete("region", "container", "busy")));
+      assertEquals(result.getSucceeded(), 0);
+      assertEquals(result.getRetries(), 2);
+      assertEquals(result.getFailed().size(), 1);
+      verify(objectApi);
+   }
+
+   public void testOneShotPutIsNotRetried() {
+      ObjectApi objectApi = createMock(ObjectApi.class);
+      expect(objectApi.put(eq("container"), eq("stream"), anyObject(Payload.class))).andThrow(status(503));
+      replay(objectApi);
+
+      Result result = new ObjectBatchStrategy(apiFor(objectApi), MoreExecutors.sameThreadExecutor(), 3, 5, 1)
+            .execute(Lists.newArrayList(Operation.put("region", "container", "stream",
+                  Payloads.newInputStreamPayload(new ByteArrayInputStream(new byte[] { 1 })))));
+      assertEquals(result.getRetries(), 0);
+      assertEquals(result.getFailed().size(), 1);
+      verify(objectApi);
+   }
+
+   public void testRetryDelayHonorsRetryAfter() {
+      ObjectBatchStrategy strategy = new ObjectBatchStrategy(createMock(SwiftApi.class),
+            MoreExecutors.sameThreadExecutor(), 3, 5, 100);
+      for (int attempt = 1; attempt < 5; attempt++) {
+         long delay = strategy.retryDelay(attempt, HttpResponse.builder().statusCode(503).build());
+         assertTrue(delay >= 0 && delay < 100 << (attempt - 1), attempt + ": " + delay);
+      }
+      assertEquals(strategy.retryDelay(1, HttpResponse.builder().statusCode(429).addHeader("Retry-After", "2")
+            .build()), 2000);
+   }
+
+   public void testLatencyPercentiles() {
+      LatencyHistogram histogram = new LatencyHistogram();
+      for (int i = 1; i <= 100; i++)
+         histogram.record(i * 1000);
+      long[] counts = histogram.snapshot();
+      double median = LatencyHistogram.percentile(counts, 50);
+      assertTrue(median >= 50000 && median <= 50000 * 1.1, Double.toString(median));
+      double p99 = LatencyHistogram.percentile(counts, 99);
+      assertTrue(p99 >= 99000 && p99 <= 99000 * 1.1, Double.toString(p99));
+   }
+
+   static SwiftApi apiFor(ObjectApi objectApi) {
+      SwiftApi api = createMock(SwiftApi.class);
+      expect(api.getObjectApiForRegion("region")).andReturn(objectApi).anyTimes();
+      replay(api);
+      return api;
+   }
+}
@@ -0,0 +1,96 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.strategy;
+
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+
+import java.util.concurrent.Executors;
+
+import org.jclouds.openstack.swift.v1.SwiftApi;
+import org.jclouds.openstack.swift.v1.features.ObjectApi;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * @author Adrian Cole
+ */
+@Test(groups = "unit", testName = "ParallelCopyStrategyTest")
+public class ParallelCopyStrategyTest {
+
+   public void testObjectsAreCopiedInParallel() {
+      ObjectApi objectApi = createMock(ObjectApi.class);
+      SwiftApi api = apiFor(objectApi);
+      for (int i = 0; i < 10; i++)
+         expect(objectApi.copy("source", "object" + i, "destination", "object" + i)).andReturn(true);
+      replay(api, objectApi);
+
+      ImmutableList.Builder<String> names = ImmutableList.builder();
+      for (int i = 0; i < 10; i++)
+         names.add("object" + i);
+
+      ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(4));
+      try {
+         ParallelCopyStrategy.Result result = new ParallelCopyStrategy(api, executor, 3).copy("region", "source",
+               names.build(), "destination");
+         assertEquals(result.getCopied(), 10);
+         assertEquals(result.getNotFound(), ImmutableSet.of());
+         assertEquals(result.getFailed().size(), 0);
+      } finally {
+         executor.shutdownNow();
+      }
+      verify(api, objectApi);
+   }
+
+   public void testMissingAndFailedCopiesAreReported() {
+      ObjectApi objectApi = createMock(ObjectApi.class);
+      SwiftApi api = apiFor(objectApi);
+      expect(objectApi.copy("source", "a", "source", "archive/a")).andReturn(true);
+      expect(objectApi.copy("source", "b", "source", "archive/b")).andReturn(false);
+      expect(objectApi.copy("source", "c", "source", "archive/c")).andThrow(new RuntimeException("timeout"));
+      replay(api, objectApi);
+
+      ParallelCopyStrategy.Result result = new ParallelCopyStrategy(api, sameThreadExecutor(), 2).copy("region",
+            "source", ImmutableList.of("a", "b", "c"), "source", new Function<String, String>() {
+               public String apply(String input) {
+                  return "archive/" + input;
+               }
+            });
+      assertEquals(result.getCopied(), 1);
+      assertEquals(result.getNotFound(), ImmutableSet.of("b"));
+      assertEquals(result.getFailed().keySet(), ImmutableSet.of("c"));
+      assertEquals(result.getFailed().get("c").getMessage(), "timeout");
+      verify(api, objectApi);
+   }
+
+   private static SwiftApi apiFor(ObjectApi objectApi) {
+      SwiftApi api = createMock(SwiftApi.class);
+      expect(api.getObjectApiForRegion("region")).andReturn(objectApi);
+      return api;
+   }
+}
@@ -0,0 +1,67 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.strategy;
+
+import static org.jclouds.openstack.swift.v1.strategy.ParallelListingStrategyTest.populatedContainer;
+import static org.jclouds.openstack.swift.v1.strategy.ParallelListingStrategyTest.strategy;
+import static org.testng.Assert.assertEquals;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.openstack.swift.v1.options.ListObjectsOptions;
+import org.jclouds.openstack.swift.v1.strategy.ParallelListingStrategyTest.StubContainer;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Not run with the unit tests, as the figures depend on the machine.
+ * 
+ * @author Adrian Cole
+ */
+@Test(groups = "performance", testName = "ParallelListingStrategyPerformanceTest")
+public class ParallelListingStrategyPerformanceTest {
+
+   /**
+    * Wall-clock comparison against a serial marker walk, with each request to the stub taking 5ms.
+    */
+   public void testParallelListingAgainstSerialMarkerWalk() {
+      StubContainer container = populatedContainer();
+      container.latencyMillis = 5;
+      ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(16));
+      try {
+         Stopwatch serial = new Stopwatch().start();
+         int serialCount = container.api().listAll("container", new ListObjectsOptions()).concat().size();
+         serial.stop();
+
+         Stopwatch parallel = new Stopwatch().start();
+         int parallelCount = strategy(container, executor, 8).list("region", "container", null).size();
+         parallel.stop();
+
+         assertEquals(parallelCount, serialCount);
+         System.out.printf("listed %d objects: serial %dms, 8 partitions %dms%n", serialCount,
+               serial.elapsed(TimeUnit.MILLISECONDS), parallel.elapsed(TimeUnit.MILLISECONDS));
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+}
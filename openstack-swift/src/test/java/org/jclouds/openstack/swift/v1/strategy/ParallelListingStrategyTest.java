@@ -0,0 +1,323 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.strategy;
+
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.collect.IterableWithMarker;
+import org.jclouds.collect.IterableWithMarkers;
+import org.jclouds.collect.PagedIterables;
+import org.jclouds.openstack.swift.v1.SwiftApi;
+import org.jclouds.openstack.swift.v1.domain.SwiftObject;
+import org.jclouds.openstack.swift.v1.features.ObjectApi;
+import org.jclouds.openstack.swift.v1.options.ListObjectsOptions;
+import org.jclouds.openstack.swift.v1.strategy.ParallelListingStrategy.KeyRange;
+import org.jclouds.openstack.swift.v1.strategy.ParallelListingStrategy.Listing;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * @author Adrian Cole
+ */
+@Test(groups = "unit", testName = "ParallelListingStrategyTest")
+public class ParallelListingStrategyTest {
+
+   public void testFlatContainerIsSplitByCharacterProbes() {
+      StubContainer container = new StubContainer(100);
+      for (int i = 0; i < 1600; i++)
+         container.names.add(String.format("%04x", i * 40));
+
+      List<KeyRange> ranges = strategy(container, sameThreadExecutor(), 4).split("region", "container", null);
+      assertEquals(ranges.size(), 4);
+      assertEquals(ranges.get(0).getStart(), null);
+      assertEquals(ranges.get(3).getEnd(), null);
+      for (int i = 1; i < ranges.size(); i++)
+         assertEquals(ranges.get(i).getStart(), ranges.get(i - 1).getEnd());
+   }
+
+   public void testDirectoriesAreResolvedToTheirFirstObject() {
+      StubContainer container = new StubContainer(100);
+      container.names.addAll(ImmutableList.of("a/1", "a/2", "b/1", "b/2", "c/1", "c/2", "d/1"));
+
+      List<KeyRange> ranges = strategy(container, sameThreadExecutor(), 4).split("region", "container", null);
+      assertEquals(ranges.toString(), "[[, b/1), [b/1, c/1), [c/1, d/1), [d/1, )]");
+   }
+
+   public void testOrderedListingMatchesSerialListing() {
+      StubContainer container = populatedContainer();
+      ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(8));
+      try {
+         assertEquals(strategy(container, executor, 8).list("region", "container", null).transform(toName())
+               .toList(), ImmutableList.copyOf(container.names));
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   public void testUnorderedListingReturnsEveryObjectOnce() {
+      StubContainer container = populatedContainer();
+      ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(8));
+      try {
+         List<String> names = strategy(container, executor, 8).list("region", "container", null, false)
+               .transform(toName()).toList();
+         assertEquals(names.size(), container.names.size());
+         assertEquals(Sets.newTreeSet(names), container.names);
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   public void testPrefixIsAppliedToEveryRange() {
+      StubContainer container = populatedContainer();
+      ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(4));
+      try {
+         List<String> names = strategy(container, executor, 4).list("region", "container", "logs/2013/")
+               .transform(toName()).toList();
+         assertTrue(Ordering.natural().isStrictlyOrdered(names));
+         assertEquals(names, ImmutableList.copyOf(container.names.subSet("logs/2013/", "logs/20130")));
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   public void testSinglePartitionIsASerialWalk() {
+      StubContainer container = populatedContainer();
+      ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor());
+      try {
+         assertEquals(strategy(container, executor, 1).list("region", "container", null).size(),
+               container.names.size());
+         // no probes: one request per page
+         assertEquals(container.requests.get(), container.names.size() / container.pageSize + 1);
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void testFailedRangeFailsTheListing() {
+      StubContainer container = populatedContainer();
+      container.failAfter = 100;
+      ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(4));
+      try {
+         strategy(container, executor, 4).list("region", "container", null).size();
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   /**
+    * Each range listing waits at the stub until every range has asked for its first page, so the
+    * listing only completes if the ranges are listed concurrently.
+    */
+   public void testRangesAreListedConcurrently() {
+      StubContainer container = populatedContainer();
+      ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(16));
+      try {
+         ParallelListingStrategy strategy = strategy(container, executor, 8);
+         int ranges = strategy.split("region", "container", null).size();
+         container.gate = new CountDownLatch(ranges);
+
+         assertEquals(strategy.list("region", "container", null).size(), container.names.size());
+         assertEquals(container.maxConcurrentListings.get(), ranges);
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   public void testRangesWaitForTheCallerAndStopWhenCancelled() throws InterruptedException {
+      StubContainer container = populatedContainer();
+      ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(4));
+      Listing listing = strategy(container, executor, 4).list("region", "container", null);
+      Iterator<SwiftObject> objects = listing.iterator();
+      objects.next();
+
+      listing.cancel();
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS), "ranges still listing after cancel");
+      // each range lists its queued pages, one page it waits to put, and one it just took
+      assertTrue(container.listings.get() <= 4 * (ParallelListingStrategy.PAGES_AHEAD + 2),
+            container.listings + " listing requests");
+      try {
+         Iterators.size(objects);
+         fail("expected the cancelled listing to fail");
+      } catch (CancellationException e) {
+      }
+   }
+
+   static StubContainer populatedContainer() {
+      StubContainer container = new StubContainer(100);
+      for (int year = 2010; year < 2014; year++)
+         for (int i = 0; i < 2000; i++)
+            container.names.add(String.format("logs/%d/%05d.gz", year, i));
+      for (int i = 0; i < 2000; i++)
+         container.names.add(String.format("%08x", i * 2654435761l));
+      return container;
+   }
+
+   static ParallelListingStrategy strategy(StubContainer container, ListeningExecutorService executor,
+         int partitions) {
+      SwiftApi api = createMock(SwiftApi.class);
+      expect(api.getObjectApiForRegion("region")).andReturn(container.api()).anyTimes();
+      replay(api);
+      return new ParallelListingStrategy(api, executor, partitions);
+   }
+
+   private static Function<SwiftObject, String> toName() {
+      return new Function<SwiftObject, String>() {
+         public String apply(SwiftObject input) {
+            return input.getName();
+         }
+      };
+   }
+
+   /**
+    * Serves object listings from a sorted set of names the way Swift does, returning at most
+    * {@code pageSize} entries per request. Requests without a {@code limit} are range listings
+    * rather than probes; they are counted separately and, when a {@code gate} is set, wait until it
+    * opens. Every request takes {@code latencyMillis}.
+    */
+   static class StubContainer implements InvocationHandler {
+      final NavigableSet<String> names = Sets.newTreeSet();
+      final AtomicInteger requests = new AtomicInteger();
+      final AtomicInteger listings = new AtomicInteger();
+      final AtomicInteger concurrentListings = new AtomicInteger();
+      final AtomicInteger maxConcurrentListings = new AtomicInteger();
+      final int pageSize;
+      volatile int failAfter = Integer.MAX_VALUE;
+      volatile CountDownLatch gate;
+      volatile long latencyMillis;
+
+      StubContainer(int pageSize) {
+         this.pageSize = pageSize;
+      }
+
+      ObjectApi api() {
+         return ObjectApi.class.cast(Proxy.newProxyInstance(ObjectApi.class.getClassLoader(),
+               new Class<?>[] { ObjectApi.class }, this));
+      }
+
+      @Override
+      public Object invoke(Object proxy, Method method, Object[] args) {
+         final ListObjectsOptions options = args.length > 1 ? ListObjectsOptions.class.cast(args[1])
+               : new ListObjectsOptions();
+         if (method.getName().equals("list"))
+            return list(options);
+         if (method.getName().equals("listAll"))
+            return PagedIterables.advance(list(options), new Function<Object, IterableWithMarker<SwiftObject>>() {
+               public IterableWithMarker<SwiftObject> apply(Object marker) {
+                  ListObjectsOptions next = ListObjectsOptions.Builder.marker(marker.toString());
+                  if (options.getPrefix() != null)
+                     next.prefix(options.getPrefix());
+                  if (options.getEndMarker() != null)
+                     next.endMarker(options.getEndMarker());
+                  return list(next);
+               }
+            });
+         throw new UnsupportedOperationException(method.toString());
+      }
+
+      IterableWithMarker<SwiftObject> list(ListObjectsOptions options) {
+         if (requests.incrementAndGet() > failAfter)
+            throw new IllegalStateException("service unavailable");
+         Uninterruptibles.sleepUninterruptibly(latencyMillis, TimeUnit.MILLISECONDS);
+         if (options.buildQueryParameters().containsKey("limit"))
+            return page(options);
+         listings.incrementAndGet();
+         int concurrent = concurrentListings.incrementAndGet();
+         try {
+            for (int max = maxConcurrentListings.get(); concurrent > max; max = maxConcurrentListings.get())
+               if (maxConcurrentListings.compareAndSet(max, concurrent))
+                  break;
+            CountDownLatch gate = this.gate;
+            if (gate != null) {
+               gate.countDown();
+               assertTrue(Uninterruptibles.awaitUninterruptibly(gate, 10, TimeUnit.SECONDS),
+                     "ranges listed serially");
+            }
+            return page(options);
+         } finally {
+            concurrentListings.decrementAndGet();
+         }
+      }
+
+      private IterableWithMarker<SwiftObject> page(ListObjectsOptions options) {
+         String prefix = options.getPrefix() != null ? options.getPrefix() : "";
+         String from = prefix;
+         if (options.getMarker() != null && options.getMarker().compareTo(prefix) >= 0)
+            from = options.getMarker() + '\0';
+         // swift pages at 10000 when asked; this stub pages at pageSize unless asked
+         int limit = options.buildQueryParameters().containsKey("limit") ? options.getLimit() : pageSize;
+         List<SwiftObject> page = Lists.newArrayList();
+         String lastSubdir = null;
+         for (String name : names.tailSet(from, true)) {
+            if (!name.startsWith(prefix) || page.size() == limit)
+               break;
+            if (options.getEndMarker() != null && name.compareTo(options.getEndMarker()) >= 0)
+               break;
+            int delimiter = options.getDelimiter() != null ? name.indexOf(options.getDelimiter(), prefix.length())
+                  : -1;
+            if (delimiter == -1) {
+               page.add(object(name, false));
+            } else {
+               String subdir = name.substring(0, delimiter + 1);
+               if (!subdir.equals(lastSubdir))
+                  page.add(object(subdir, true));
+               lastSubdir = subdir;
+            }
+         }
+         // like swift, only an empty page ends the listing
+         if (page.isEmpty())
+            return IterableWithMarkers.from(page);
+         return IterableWithMarkers.from(page, page.get(page.size() - 1).getName());
+      }
+
+      private static SwiftObject object(String name, boolean subdir) {
+         return SwiftObject.builder().name(name).uri(URI.create("https://objects/container/" + name))
+               .subdir(subdir).build();
+      }
+   }
+}
@@ -0,0 +1,171 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.strategy;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.getCurrentArguments;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+
+import org.easymock.IAnswer;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.options.GetOptions;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.openstack.swift.v1.SwiftApi;
+import org.jclouds.openstack.swift.v1.domain.SwiftObject;
+import org.jclouds.openstack.swift.v1.features.ObjectApi;
+import org.jclouds.openstack.swift.v1.strategy.ParallelRangedDownloadStrategy.RangedDownload;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * @author Adrian Cole
+ */
+@Test(groups = "unit", testName = "ParallelRangedDownloadStrategyTest")
+public class ParallelRangedDownloadStrategyTest {
+
+   byte[] data = "hello world!".getBytes(Charsets.UTF_8);
+   URI uri = URI.create("https://objects.jclouds.org/v1.0/40806637803162/container/big");
+
+   public void testRangesAreWrittenAtTheirOffsets() throws Exception {
+      File destination = File.createTempFile("ranged", ".txt");
+      destination.deleteOnExit();
+
+      ObjectApi objectApi = createMock(ObjectApi.class);
+      SwiftApi api = createMock(SwiftApi.class);
+      expect(api.getObjectApiForRegion("region")).andReturn(objectApi);
+      expect(objectApi.head("container", "big")).andReturn(head());
+      expect(objectApi.getAsResponse(eq("container"), eq("big"), anyObject(GetOptions.class))).andAnswer(
+            new ServeRange())
+            .times(3);
+      replay(api, objectApi);
+
+      ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(3));
+      try {
+         RangedDownload download = strategy(api, executor, 0).download("region", "container", "big", destination);
+         assertTrue(download.isComplete());
+         assertEquals(download.getRanges().size(), 3);
+         assertEquals(download.getBytesTransferred(), data.length);
+      } finally {
+         executor.shutdownNow();
+      }
+      assertEquals(Files.toByteArray(destination), data);
+      verify(api, objectApi);
+   }
+
+   public void testOnlyMissingRangesAreResumed() throws Exception {
+      File destination = File.createTempFile("ranged", ".txt");
+      destination.deleteOnExit();
+
+      ObjectApi objectApi = createMock(ObjectApi.class);
+      SwiftApi api = createMock(SwiftApi.class);
+      expect(api.getObjectApiForRegion("region")).andReturn(objectApi);
+      expect(objectApi.head("container", "big")).andReturn(head());
+      expect(objectApi.getAsResponse(eq("container"), eq("big"), anyObject(GetOptions.class))).andAnswer(
+            new ServeRange());
+      expect(objectApi.getAsResponse(eq("container"), eq("big"), anyObject(GetOptions.class))).andThrow(
+            new RuntimeException("connection reset"));
+      expect(objectApi.getAsResponse(eq("container"), eq("big"), anyObject(GetOptions.class))).andAnswer(
+            new ServeRange())
+            .times(2);
+      replay(api, objectApi);
+
+      RangedDownload download = strategy(api, MoreExecutors.sameThreadExecutor(), 0).download("region",
+            "container", "big", destination);
+      assertFalse(download.isComplete());
+      assertEquals(download.getMissingRanges().size(), 1);
+      assertEquals(download.getMissingRanges().get(0).getOffset(), 5);
+
+      assertTrue(download.run());
+      assertEquals(download.getRanges().get(1).getAttempts(), 2);
+      assertEquals(Files.toByteArray(destination), data);
+      verify(api, objectApi);
+   }
+
+   public void testIgnoredRangeIsRejected() throws Exception {
+      File destination = File.createTempFile("ranged", ".txt");
+      destination.deleteOnExit();
+
+      ObjectApi objectApi = createMock(ObjectApi.class);
+      SwiftApi api = createMock(SwiftApi.class);
+      expect(api.getObjectApiForRegion("region")).andReturn(objectApi);
+      expect(objectApi.head("container", "big")).andReturn(head());
+      expect(objectApi.getAsResponse(eq("container"), eq("big"), anyObject(GetOptions.class))).andAnswer(
+            new IAnswer<HttpResponse>() {
+               @Override
+               public HttpResponse answer() throws Throwable {
+                  return HttpResponse.builder().statusCode(200).payload(Payloads.newByteArrayPayload(data))
+                        .build();
+               }
+            }).times(3);
+      replay(api, objectApi);
+
+      RangedDownload download = strategy(api, MoreExecutors.sameThreadExecutor(), 0).download("region",
+            "container", "big", destination);
+      // a whole object is only accepted for a range that covers all of it
+      assertFalse(download.isComplete());
+      assertEquals(download.getMissingRanges().size(), 3);
+      assertEquals(download.getBytesTransferred(), 0);
+      verify(api, objectApi);
+   }
+
+   private SwiftObject head() {
+      Payload payload = Payloads.newByteArrayPayload(new byte[] {});
+      payload.getContentMetadata().setContentLength((long) data.length);
+      return SwiftObject.builder().name("big").uri(uri).etag("fc3ff98e8c6a0d3087d515c0473f8677").payload(payload)
+            .build();
+   }
+
+   /**
+    * serves the bytes named by the {@code Range} header of the request
+    */
+   private class ServeRange implements IAnswer<HttpResponse> {
+      @Override
+      public HttpResponse answer() throws Throwable {
+         GetOptions options = GetOptions.class.cast(getCurrentArguments()[2]);
+         String[] range = options.getRange().replace("bytes=", "").split("-");
+         int start = Integer.parseInt(range[0]);
+         int end = Integer.parseInt(range[1]);
+         return HttpResponse.builder().statusCode(206)
+               .addHeader("Content-Range", String.format("bytes %s-%s/%s", start, end, data.length))
+               .payload(Payloads.newByteArrayPayload(Arrays.copyOfRange(data, start, end + 1))).build();
+      }
+   }
+
+   private static ParallelRangedDownloadStrategy strategy(SwiftApi api, ListeningExecutorService executor,
+         int maxRetries) {
+      return new ParallelRangedDownloadStrategy(api, executor, 5, 3, maxRetries);
+   }
+}
@@ -0,0 +1,218 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.strategy;
+
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.io.Payload;
+import org.jclouds.openstack.swift.v1.SwiftApi;
+import org.jclouds.openstack.swift.v1.domain.Segment;
+import org.jclouds.openstack.swift.v1.features.ObjectApi;
+import org.jclouds.openstack.swift.v1.strategy.ParallelSegmentedUploadStrategy.ManifestType;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * @author Adrian Cole
+ */
+@Test(groups = "unit", testName = "ParallelSegmentedUploadStrategyTest")
+public class ParallelSegmentedUploadStrategyTest {
+
+   byte[] data = "hello world!".getBytes(Charsets.UTF_8);
+
+   public void testSmallStreamIsUploadedWithoutManifest() {
+      ObjectApi objectApi = createMock(ObjectApi.class);
+      SwiftApi api = apiFor(objectApi);
+      expect(objectApi.put(eq("container"), eq("small"), anyObject(Payload.class))).andReturn("etag");
+      replay(api, objectApi);
+
+      assertEquals(strategy(api, sameThreadExecutor(), 100).upload("region", "container", "small",
+            new ByteArrayInputStream(data), ManifestType.DYNAMIC), "etag");
+      verify(api, objectApi);
+   }
+
+   public void testStreamIsSegmentedWithDynamicManifest() {
+      ObjectApi objectApi = createMock(ObjectApi.class);
+      SwiftApi api = apiFor(objectApi);
+      expect(objectApi.put(eq("container"), eq("big/1000/5/00000000"), anyObject(Payload.class))).andReturn("etag0");
+      expect(objectApi.put(eq("container"), eq("big/1000/5/00000001"), anyObject(Payload.class))).andReturn("etag1");
+      expect(objectApi.put(eq("container"), eq("big/1000/5/00000002"), anyObject(Payload.class))).andReturn("etag2");
+      expect(objectApi.putManifest("container", "big", "container/big/1000/5/")).andReturn("manifest");
+      replay(api, objectApi);
+
+      assertEquals(strategy(api, sameThreadExecutor(), 5).upload("region", "container", "big",
+            new ByteArrayInputStream(data), ManifestType.DYNAMIC), "manifest");
+      verify(api, objectApi);
+   }
+
+   public void testFileIsSegmentedInParallelWithStaticManifest() throws Exception {
+      File file = File.createTempFile("segmented", ".txt");
+      file.deleteOnExit();
+      Files.write(data, file);
+
+      ObjectApi objectApi = createMock(ObjectApi.class);
+      SwiftApi api = apiFor(objectApi);
+      expect(objectApi.put(eq("container"), eq("big/1000/12/5/00000000"), anyObject(Payload.class))).andReturn("etag0");
+      expect(objectApi.put(eq("container"), eq("big/1000/12/5/00000001"), anyObject(Payload.class))).andReturn("etag1");
+      expect(objectApi.put(eq("container"), eq("big/1000/12/5/00000002"), anyObject(Payload.class))).andReturn("etag2");
+      expect(objectApi.putStaticManifest("container", "big", ImmutableList.of(
+            Segment.builder().path("/container/big/1000/12/5/00000000").etag("etag0").sizeBytes(5).build(),
+            Segment.builder().path("/container/big/1000/12/5/00000001").etag("etag1").sizeBytes(5).build(),
+            Segment.builder().path("/container/big/1000/12/5/00000002").etag("etag2").sizeBytes(2).build())))
+            .andReturn("manifest");
+      replay(api, objectApi);
+
+      ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(3));
+      try {
+         assertEquals(strategy(api, executor, 5).upload("region", "container", "big", file, ManifestType.STATIC),
+               "manifest");
+      } finally {
+         executor.shutdownNow();
+      }
+      verify(api, objectApi);
+   }
+
+   public void testOverwriteWithShorterObjectOnlyJoinsItsOwnSegments() {
+      ObjectApi objectApi = createMock(ObjectApi.class);
+      SwiftApi api = createMock(SwiftApi.class);
+      expect(api.getObjectApiForRegion("region")).andReturn(objectApi).times(2);
+      expect(objectApi.put(eq("container"), eq("big/1000/5/00000000"), anyObject(Payload.class))).andReturn("etag0");
+      expect(objectApi.put(eq("container"), eq("big/1000/5/00000001"), anyObject(Payload.class))).andReturn("etag1");
+      expect(objectApi.put(eq("container"), eq("big/1000/5/00000002"), anyObject(Payload.class))).andReturn("etag2");
+      expect(objectApi.putManifest("container", "big", "container/big/1000/5/")).andReturn("manifest");
+      expect(objectApi.put(eq("container"), eq("big/1001/5/00000000"), anyObject(Payload.class))).andReturn("etag3");
+      expect(objectApi.put(eq("container"), eq("big/1001/5/00000001"), anyObject(Payload.class))).andReturn("etag4");
+      expect(objectApi.putManifest("container", "big", "container/big/1001/5/")).andReturn("shorter");
+      replay(api, objectApi);
+
+      ParallelSegmentedUploadStrategy strategy = strategy(api, sameThreadExecutor(), 5);
+      strategy.upload("region", "container", "big", new ByteArrayInputStream(data), ManifestType.DYNAMIC);
+      // the third segment of the first upload is not under the prefix of the second
+      assertEquals(strategy.upload("region", "container", "big", new ByteArrayInputStream(data, 0, 6),
+            ManifestType.DYNAMIC), "shorter");
+      verify(api, objectApi);
+   }
+
+   public void testFailedSegmentIsRetriedAlone() {
+      ObjectApi objectApi = createMock(ObjectApi.class);
+      SwiftApi api = apiFor(objectApi);
+      expect(objectApi.put(eq("container"), eq("big/1000/5/00000000"), anyObject(Payload.class))).andReturn("etag0");
+      expect(objectApi.put(eq("container"), eq("big/1000/5/00000001"), anyObject(Payload.class))).andThrow(
+            status(503));
+      expect(objectApi.put(eq("container"), eq("big/1000/5/00000001"), anyObject(Payload.class))).andReturn("etag1");
+      expect(objectApi.put(eq("container"), eq("big/1000/5/00000002"), anyObject(Payload.class))).andReturn("etag2");
+      expect(objectApi.putManifest("container", "big", "container/big/1000/5/")).andReturn("manifest");
+      replay(api, objectApi);
+
+      assertEquals(strategy(api, sameThreadExecutor(), 5).upload("region", "container", "big",
+            new ByteArrayInputStream(data), ManifestType.DYNAMIC), "manifest");
+      verify(api, objectApi);
+   }
+
+   public void testUploadedSegmentsAreDeletedWhenRetriesAreExhausted() {
+      ObjectApi objectApi = createMock(ObjectApi.class);
+      SwiftApi api = apiFor(objectApi);
+      expect(objectApi.put(eq("container"), eq("big/1000/5/00000000"), anyObject(Payload.class))).andReturn("etag0");
+      expect(objectApi.put(eq("container"), eq("big/1000/5/00000001"), anyObject(Payload.class))).andThrow(
+            status(503)).times(3);
+      objectApi.delete("container", "big/1000/5/00000000");
+      replay(api, objectApi);
+
+      try {
+         strategy(api, sameThreadExecutor(), 5).upload("region", "container", "big", new ByteArrayInputStream(data),
+               ManifestType.DYNAMIC);
+         fail("expected failure");
+      } catch (HttpResponseException e) {
+         assertEquals(e.getResponse().getStatusCode(), 503);
+      }
+      verify(api, objectApi);
+   }
+
+   public void testClientErrorIsNotRetried() {
+      ObjectApi objectApi = createMock(ObjectApi.class);
+      SwiftApi api = apiFor(objectApi);
+      expect(objectApi.put(eq("container"), eq("big/1000/5/00000000"), anyObject(Payload.class))).andThrow(
+            status(403));
+      replay(api, objectApi);
+
+      try {
+         strategy(api, sameThreadExecutor(), 5).upload("region", "container", "big", new ByteArrayInputStream(data),
+               ManifestType.DYNAMIC);
+         fail("expected failure");
+      } catch (HttpResponseException e) {
+         assertEquals(e.getResponse().getStatusCode(), 403);
+      }
+      verify(api, objectApi);
+   }
+
+   public void testRetryDelayIsJitteredWithinAGrowingWindow() {
+      ParallelSegmentedUploadStrategy strategy = strategy(createMock(SwiftApi.class), sameThreadExecutor(), 5);
+      for (int attempt = 1; attempt <= 3; attempt++) {
+         long delay = strategy.retryDelay(attempt);
+         assertTrue(delay >= 0 && delay < ParallelSegmentedUploadStrategy.RETRY_DELAY_START << (attempt - 1),
+               Long.toString(delay));
+      }
+   }
+
+   private static HttpResponseException status(int statusCode) {
+      return new HttpResponseException("failed", null, HttpResponse.builder().statusCode(statusCode).build());
+   }
+
+   private static SwiftApi apiFor(ObjectApi objectApi) {
+      SwiftApi api = createMock(SwiftApi.class);
+      expect(api.getObjectApiForRegion("region")).andReturn(objectApi);
+      return api;
+   }
+
+   /**
+    * @return a strategy whose uploads start at 1000, 1001, etc. milliseconds since the epoch
+    */
+   private static ParallelSegmentedUploadStrategy strategy(SwiftApi api, ListeningExecutorService executor,
+         long segmentSize) {
+      return new ParallelSegmentedUploadStrategy(api, executor, segmentSize, 2, 2) {
+         final AtomicLong timestamp = new AtomicLong(1000);
+
+         @Override
+         long uploadTimestamp() {
+            return timestamp.getAndIncrement();
+         }
+      };
+   }
+}
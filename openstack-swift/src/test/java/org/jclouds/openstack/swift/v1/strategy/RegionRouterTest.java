@@ -0,0 +1,195 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jclouds.openstack.swift.v1.strategy;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.fail;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.openstack.swift.v1.SwiftApi;
+import org.jclouds.openstack.swift.v1.features.ObjectApi;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * @author Adrian Cole
+ */
+@Test(groups = "unit", testName = "RegionRouterTest")
+public class RegionRouterTest {
+
+   static class FakeTicker extends Ticker {
+      long nanos;
+
+      @Override
+      public long read() {
+         return nanos;
+      }
+
+      void advance(long duration, TimeUnit unit) {
+         nanos += unit.toNanos(duration);
+      }
+   }
+
+   /**
+    * Reads that take a fixed time per region; they fail with {@code 503} in the regions marked
+    * down, and with {@code error} in every region when it is set.
+    */
+   static class SimulatedRegions implements Function<ObjectApi, String> {
+      final FakeTicker ticker = new FakeTicker();
+      final Map<ObjectApi, String> regions = Maps.newHashMap();
+      final Map<String, Long> millis = Maps.newHashMap();
+      final Set<String> down = Sets.newHashSet();
+      RuntimeException error;
+      final SwiftApi api = createMock(SwiftApi.class);
+
+      SimulatedRegions region(String region, long latencyMillis) {
+         ObjectApi objectApi = createMock(ObjectApi.class);
+         regions.put(objectApi, region);
+         millis.put(region, latencyMillis);
+         expect(api.getObjectApiForRegion(region)).andReturn(objectApi).anyTimes();
+         return this;
+      }
+
+      RegionRouter router() {
+         replay(api);
+         return new RegionRouter(api, ImmutableSet.copyOf(millis.keySet()), ticker);
+      }
+
+      @Override
+      public String apply(ObjectApi objectApi) {
+         String region = regions.get(objectApi);
+         ticker.advance(millis.get(region), TimeUnit.MILLISECONDS);
+         if (down.contains(region))
+            throw new HttpResponseException(region + " is down", null, HttpResponse.builder().statusCode(503)
+                  .build());
+         if (error != null)
+            throw error;
+         return region;
+      }
+   }
+
+   public void testReadsGoToFastestRegionOnceMeasured() {
+      SimulatedRegions simulated = new SimulatedRegions().region("far", 80).region("near", 5).region("mid", 30);
+      RegionRouter router = simulated.router();
+
+      Set<String> firstReads = Sets.newHashSet();
+      for (int i = 0; i < 3; i++)
+         firstReads.add(router.read(simulated));
+      assertEquals(firstReads, ImmutableSet.of("far", "near", "mid"));
+
+      for (int i = 0; i < 10; i++)
+         assertEquals(router.read(simulated), "near");
+      assertEquals(router.getRegionsByLatency(), ImmutableList.of("near", "mid", "far"));
+      assertEquals(router.getLatencies().get("near"), 5.0, 0.001);
+   }
+
+   public void testFailsOverAndRetriesAfterCooldown() {
+      SimulatedRegions simulated = new SimulatedRegions().region("far", 80).region("near", 5);
+      RegionRouter router = simulated.router();
+      router.read(simulated);
+      router.read(simulated);
+
+      simulated.down.add("near");
+      assertEquals(router.read(simulated), "far");
+      simulated.down.clear();
+      // near is cooling down, so it is not tried even though it is back
+      assertEquals(router.read(simulated), "far");
+
+      simulated.ticker.advance(RegionRouter.FAILURE_COOLDOWN_SECONDS, TimeUnit.SECONDS);
+      assertEquals(router.read(simulated), "near");
+   }
+
+   public void testCoolingDownRegionsAreLastResort() {
+      SimulatedRegions simulated = new SimulatedRegions().region("far", 80).region("near", 5);
+      RegionRouter router = simulated.router();
+      simulated.down.add("near");
+      router.read(simulated);
+      router.read(simulated);
+
+      simulated.down.clear();
+      simulated.down.add("far");
+      assertEquals(router.read(simulated), "near");
+   }
+
+   public void testThrowsWhenEveryRegionFails() {
+      SimulatedRegions simulated = new SimulatedRegions().region("far", 80).region("near", 5);
+      RegionRouter router = simulated.router();
+      simulated.down.addAll(ImmutableSet.of("far", "near"));
+      try {
+         router.read(simulated);
+         fail("expected failure");
+      } catch (HttpResponseException e) {
+         assertEquals(e.getResponse().getStatusCode(), 503);
+      }
+   }
+
+   public void testClientErrorsAreRethrownWithoutFailover() {
+      SimulatedRegions simulated = new SimulatedRegions().region("far", 80).region("near", 5);
+      RegionRouter router = simulated.router();
+      router.read(simulated);
+      router.read(simulated);
+
+      simulated.error = new HttpResponseException("forbidden", null, HttpResponse.builder().statusCode(403).build());
+      try {
+         router.read(simulated);
+         fail("expected failure");
+      } catch (HttpResponseException e) {
+         assertSame(e, simulated.error);
+      }
+      simulated.error = new IllegalArgumentException("bad read");
+      try {
+         router.read(simulated);
+         fail("expected failure");
+      } catch (IllegalArgumentException e) {
+         assertSame(e, simulated.error);
+      }
+
+      // neither failure put near in cool down
+      simulated.error = null;
+      assertEquals(router.read(simulated), "near");
+      assertEquals(router.getRegionsByLatency(), ImmutableList.of("near", "far"));
+   }
+
+   public void testSecondFastestIsProbedPeriodically() {
+      SimulatedRegions simulated = new SimulatedRegions().region("far", 80).region("near", 5);
+      RegionRouter router = simulated.router();
+      int far = 0;
+      for (int i = 0; i < RegionRouter.PROBE_INTERVAL * 3; i++) {
+         if (router.read(simulated).equals("far"))
+            far++;
+      }
+      // one initial measurement, then one probe per interval
+      assertEquals(far, 4);
+   }
+}